@@ -0,0 +1,356 @@
+package com.excrele.ehml.benchmarks;
+
+import com.excrele.ehml.ConfigManager;
+import com.excrele.ehml.CoordinateKeys;
+import org.bukkit.Location;
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.PluginDescriptionFile;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.plugin.java.JavaPluginLoader;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * An in-process server with one world populated by stand-in hostile mobs and players, and a plugin
+ * instance whose configuration can be overridden per benchmark. Mobs are spread at an average
+ * density of {@value #MOBS_PER_CHUNK} per chunk, so local lookups cost the same at every scale,
+ * and entities are bucketed by chunk like on a real server.
+ */
+public final class BenchmarkEnvironment {
+
+    /** Average number of stand-in mobs per chunk. */
+    public static final int MOBS_PER_CHUNK = 8;
+
+    private static final AtomicInteger ENTITY_IDS = new AtomicInteger();
+
+    private final Random random;
+    private final File dataFolder;
+    private final Map<Long, List<Entity>> chunkEntities;
+    private final List<Entity> entities;
+    private final List<Player> players;
+    private final List<Runnable> repeatingTasks;
+    private final int areaChunks;
+    private final World world;
+    private final Server server;
+    private final JavaPlugin plugin;
+    private final ConfigManager configManager;
+
+    /**
+     * Builds an environment and loads the plugin configuration.
+     * @param mobCount The number of hostile mobs to spawn.
+     * @param playerCount The number of players to place.
+     * @param lowHealthPlayerCount How many of the players are at 2.0 health; the rest are at full health.
+     * @param settings Configuration values overriding the default config.yml.
+     * @throws IOException If the data folder cannot be prepared.
+     */
+    public BenchmarkEnvironment(int mobCount, int playerCount, int lowHealthPlayerCount, Map<String, Object> settings)
+            throws IOException {
+        this.random = new Random(42);
+        this.dataFolder = Files.createTempDirectory("ehml-bench").toFile();
+        this.chunkEntities = new HashMap<>();
+        this.entities = new ArrayList<>();
+        this.players = new ArrayList<>();
+        this.repeatingTasks = new ArrayList<>();
+        this.areaChunks = Math.max(1, (int) Math.ceil(Math.sqrt((double) Math.max(mobCount, playerCount) / MOBS_PER_CHUNK)));
+        this.world = createWorld();
+        this.server = createServer();
+        writeConfig(settings);
+        this.plugin = createPlugin();
+        this.configManager = new ConfigManager(plugin);
+        configManager.loadConfig();
+
+        for (int i = 0; i < mobCount; i++) {
+            addEntity(createMob(EntityType.ZOMBIE, randomLocation()));
+        }
+        for (int i = 0; i < playerCount; i++) {
+            Player player = createPlayer(randomLocation(), i < lowHealthPlayerCount ? 2.0 : 20.0);
+            players.add(player);
+            addEntity(player);
+        }
+    }
+
+    /**
+     * Picks a random location inside the populated area.
+     * @return A new location.
+     */
+    public Location randomLocation() {
+        int size = areaChunks * 16;
+        return new Location(world, random.nextDouble() * size, 64, random.nextDouble() * size);
+    }
+
+    /**
+     * Creates a stand-in hostile mob that is not added to the world, e.g. as the subject of a spawn event.
+     * @param type The entity type.
+     * @param location The mob's location.
+     * @return The stand-in mob.
+     */
+    public LivingEntity createMob(EntityType type, Location location) {
+        return living(LivingEntity.class, type, location).build();
+    }
+
+    /**
+     * Creates a stand-in player that is not added to the world.
+     * @param location The player's location.
+     * @param health The player's health.
+     * @return The stand-in player.
+     */
+    public Player createPlayer(Location location, double health) {
+        return living(Player.class, EntityType.PLAYER, location)
+                .returning("getHealth", health)
+                .build();
+    }
+
+    /**
+     * Simulates a server tick by running every repeating task scheduled on the main thread once.
+     */
+    public void runTick() {
+        for (Runnable task : repeatingTasks) {
+            task.run();
+        }
+    }
+
+    /**
+     * Deletes the plugin data folder, including any logs written during the benchmark.
+     */
+    public void cleanUp() {
+        try (var paths = Files.walk(dataFolder.toPath())) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        } catch (IOException e) {
+            // Temporary files only
+        }
+    }
+
+    /**
+     * Starts a stand-in living entity with a fixed type and location.
+     * @param type The interface to implement.
+     * @param entityType The entity type reported by the stand-in.
+     * @param location The entity's location.
+     * @param <T> The interface type.
+     * @return A builder for the stand-in.
+     */
+    private <T extends LivingEntity> StandIns.Builder<T> living(Class<T> type, EntityType entityType, Location location) {
+        int id = ENTITY_IDS.incrementAndGet();
+        UUID uuid = new UUID(random.nextLong(), random.nextLong());
+        return StandIns.of(type)
+                .returning("getType", entityType)
+                .returning("getEntityId", id)
+                .returning("getUniqueId", uuid)
+                .returning("getWorld", world)
+                .returning("isValid", true)
+                .on("getLocation", 0, args -> location.clone())
+                .on("getLocation", 1, args -> copy(location, (Location) args[0]));
+    }
+
+    /**
+     * Adds an entity to the world and its chunk bucket.
+     * @param entity The entity.
+     */
+    private void addEntity(Entity entity) {
+        Location location = entity.getLocation();
+        entities.add(entity);
+        chunkEntities.computeIfAbsent(chunkKey(location.getX(), location.getZ()), key -> new ArrayList<>()).add(entity);
+    }
+
+    /**
+     * Finds the entities within a box around a location, scanning only the chunks it overlaps.
+     * @param center The center of the box.
+     * @param x The half-width on the X axis.
+     * @param y The half-height on the Y axis.
+     * @param z The half-width on the Z axis.
+     * @return The entities inside the box.
+     */
+    private Collection<Entity> getNearbyEntities(Location center, double x, double y, double z) {
+        List<Entity> nearby = new ArrayList<>();
+        Location scratch = new Location(world, 0, 0, 0);
+        int minChunkX = CoordinateKeys.toChunk((int) Math.floor(center.getX() - x));
+        int maxChunkX = CoordinateKeys.toChunk((int) Math.floor(center.getX() + x));
+        int minChunkZ = CoordinateKeys.toChunk((int) Math.floor(center.getZ() - z));
+        int maxChunkZ = CoordinateKeys.toChunk((int) Math.floor(center.getZ() + z));
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                List<Entity> bucket = chunkEntities.get(CoordinateKeys.pack(chunkX, chunkZ));
+                if (bucket == null) {
+                    continue;
+                }
+                for (Entity entity : bucket) {
+                    entity.getLocation(scratch);
+                    if (Math.abs(scratch.getX() - center.getX()) <= x && Math.abs(scratch.getY() - center.getY()) <= y &&
+                            Math.abs(scratch.getZ() - center.getZ()) <= z) {
+                        nearby.add(entity);
+                    }
+                }
+            }
+        }
+        return nearby;
+    }
+
+    /**
+     * Creates the stand-in world.
+     * @return The stand-in world.
+     */
+    private World createWorld() {
+        UUID uid = new UUID(0, 1);
+        return StandIns.of(World.class)
+                .returning("getUID", uid)
+                .returning("getName", "world")
+                .returning("getMaxHeight", 320)
+                .returning("getMinHeight", -64)
+                .on("getEntities", 0, args -> new ArrayList<>(entities))
+                .on("getPlayers", 0, args -> new ArrayList<>(players))
+                .on("getNearbyEntities", 4, args -> getNearbyEntities((Location) args[0],
+                        (Double) args[1], (Double) args[2], (Double) args[3]))
+                .build();
+    }
+
+    /**
+     * Creates the stand-in server. Scheduled one-off tasks run immediately; repeating main-thread
+     * tasks are collected and run by {@link #runTick()}.
+     * @return The stand-in server.
+     */
+    private Server createServer() {
+        Logger serverLogger = Logger.getLogger("EHML-Benchmark");
+        serverLogger.setLevel(Level.WARNING);
+        Logger.getLogger("EHML").setLevel(Level.WARNING);
+        BukkitTask task = StandIns.of(BukkitTask.class).returning("getTaskId", 1).build();
+        BukkitScheduler scheduler = StandIns.of(BukkitScheduler.class)
+                .on("runTask", 2, args -> runNow(args[1], task))
+                .on("runTaskAsynchronously", 2, args -> runNow(args[1], task))
+                .on("runTaskTimer", 4, args -> {
+                    if (args[1] instanceof Runnable runnable) {
+                        repeatingTasks.add(runnable);
+                    }
+                    return task;
+                })
+                .on("runTaskTimerAsynchronously", 4, args -> task)
+                .on("runTaskLater", 3, args -> task)
+                .build();
+        return StandIns.of(Server.class)
+                .returning("getLogger", serverLogger)
+                .returning("getScheduler", scheduler)
+                .returning("getName", "EHML-Benchmark")
+                .returning("getVersion", "benchmark")
+                .returning("getBukkitVersion", "1.21.4-R0.1-SNAPSHOT")
+                .returning("getWorlds", List.of(world))
+                .on("getOnlinePlayers", 0, args -> new ArrayList<>(players))
+                .build();
+    }
+
+    /**
+     * Creates the plugin instance through the plugin constructor meant for tests.
+     * @return The plugin instance.
+     */
+    @SuppressWarnings("deprecation")
+    private JavaPlugin createPlugin() {
+        PluginDescriptionFile description = new PluginDescriptionFile("EHML", "1.0", "com.excrele.ehml.EHML");
+        return new BenchmarkPlugin(new JavaPluginLoader(server), description, dataFolder, new File(dataFolder, "EHML.jar"));
+    }
+
+    /**
+     * Writes config.yml from the plugin's default configuration with overrides applied.
+     * @param settings The values to override.
+     * @throws IOException If the file cannot be written.
+     */
+    private void writeConfig(Map<String, Object> settings) throws IOException {
+        YamlConfiguration config = new YamlConfiguration();
+        try (InputStream in = ConfigManager.class.getResourceAsStream("/config.yml")) {
+            if (in != null) {
+                config = YamlConfiguration.loadConfiguration(new InputStreamReader(in, StandardCharsets.UTF_8));
+            }
+        }
+        for (Map.Entry<String, Object> setting : settings.entrySet()) {
+            config.set(setting.getKey(), setting.getValue());
+        }
+        config.save(new File(dataFolder, "config.yml"));
+    }
+
+    /**
+     * Runs a scheduled task immediately.
+     * @param task The task, run if it is a {@link Runnable}.
+     * @param handle The task handle to return.
+     * @return The task handle.
+     */
+    private static BukkitTask runNow(Object task, BukkitTask handle) {
+        if (task instanceof Runnable runnable) {
+            runnable.run();
+        }
+        return handle;
+    }
+
+    /**
+     * Copies a location into another.
+     * @param from The source location.
+     * @param to The location to overwrite.
+     * @return The overwritten location.
+     */
+    private static Location copy(Location from, Location to) {
+        if (to == null) {
+            return from.clone();
+        }
+        to.setWorld(from.getWorld());
+        to.setX(from.getX());
+        to.setY(from.getY());
+        to.setZ(from.getZ());
+        to.setYaw(from.getYaw());
+        to.setPitch(from.getPitch());
+        return to;
+    }
+
+    /**
+     * Packs the chunk of a block position into a key.
+     * @param x The X coordinate.
+     * @param z The Z coordinate.
+     * @return The packed chunk key.
+     */
+    private static long chunkKey(double x, double z) {
+        return CoordinateKeys.pack(CoordinateKeys.toChunk((int) Math.floor(x)), CoordinateKeys.toChunk((int) Math.floor(z)));
+    }
+
+    /**
+     * Plugin instance created outside of a plugin class loader.
+     */
+    private static final class BenchmarkPlugin extends JavaPlugin {
+
+        /**
+         * Initializes the plugin through the test constructor.
+         * @param loader The plugin loader bound to the stand-in server.
+         * @param description The plugin description.
+         * @param dataFolder The plugin data folder.
+         * @param file The plugin file.
+         */
+        BenchmarkPlugin(JavaPluginLoader loader, PluginDescriptionFile description, File dataFolder, File file) {
+            super(loader, description, dataFolder, file);
+        }
+    }
+
+    // Getters for the environment
+    public World getWorld() { return world; }
+    public Server getServer() { return server; }
+    public JavaPlugin getPlugin() { return plugin; }
+    public ConfigManager getConfigManager() { return configManager; }
+    public List<Entity> getEntities() { return entities; }
+    public List<Player> getPlayers() { return players; }
+}
\ No newline at end of file
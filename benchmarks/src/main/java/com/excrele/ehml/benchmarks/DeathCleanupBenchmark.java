@@ -0,0 +1,92 @@
+package com.excrele.ehml.benchmarks;
+
+import com.excrele.ehml.DeathCleanupModule;
+import com.excrele.ehml.LoggerModule;
+import com.excrele.ehml.MetricsModule;
+import com.excrele.ehml.SpawnTraceRecorder;
+import com.excrele.ehml.WorkScheduler;
+import org.bukkit.damage.DamageSource;
+import org.bukkit.entity.Player;
+import org.bukkit.event.entity.PlayerDeathEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a player death among hostile mobs through to the completed cleanup: the queued
+ * death is processed by the module's tick task in the same operation. Stand-in mobs ignore
+ * removal, so every death finds the same population and triggers a cleanup.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class DeathCleanupBenchmark {
+
+    private static final int EVENT_COUNT = 256;
+
+    @Param({"1000", "10000", "100000"})
+    public int mobs;
+
+    private BenchmarkEnvironment environment;
+    private LoggerModule loggerModule;
+    private DeathCleanupModule module;
+    private PlayerDeathEvent[] events;
+    private int next;
+
+    /**
+     * Builds the environment and the death events.
+     * @throws Exception If the environment cannot be created.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        environment = new BenchmarkEnvironment(mobs, 0, 0, Map.of("death-mob-threshold", 0,
+                "death-cleanup-coalesce-ticks", 0, "work-tick-budget", 50.0));
+        loggerModule = new LoggerModule(environment.getPlugin(), environment.getConfigManager());
+        MetricsModule metrics = new MetricsModule();
+        WorkScheduler workScheduler = new WorkScheduler(environment.getPlugin(), environment.getConfigManager(), metrics);
+        workScheduler.start();
+        SpawnTraceRecorder traceRecorder = new SpawnTraceRecorder(environment.getPlugin(), environment.getConfigManager(),
+                null, null, null, null, null); // Tracing is disabled, so spawn state is never read
+        module = new DeathCleanupModule(workScheduler, environment.getConfigManager(), loggerModule, metrics, traceRecorder);
+        DamageSource damageSource = StandIns.of(DamageSource.class).build();
+        events = new PlayerDeathEvent[EVENT_COUNT];
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            Player player = environment.createPlayer(environment.randomLocation(), 0);
+            events[i] = new PlayerDeathEvent(player, damageSource, new ArrayList<>(), 0, null);
+        }
+    }
+
+    /**
+     * Stops the log writer and removes temporary files.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        loggerModule.close();
+        environment.cleanUp();
+    }
+
+    /**
+     * Handles one player death and runs the tick that cleans up after it.
+     */
+    @Benchmark
+    public void onPlayerDeath() {
+        module.onPlayerDeath(events[next++ & (EVENT_COUNT - 1)]);
+        environment.runTick();
+    }
+}
\ No newline at end of file
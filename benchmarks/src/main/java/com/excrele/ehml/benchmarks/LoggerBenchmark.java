@@ -0,0 +1,76 @@
+package com.excrele.ehml.benchmarks;
+
+import com.excrele.ehml.LoggerModule;
+import org.bukkit.Location;
+import org.bukkit.entity.EntityType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of recording an activity log entry on the calling thread. Entries that do
+ * not fit in the queue are dropped, so the result reflects the enqueue path under load.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class LoggerBenchmark {
+
+    @Param({"10000"})
+    public int queueCapacity;
+
+    private BenchmarkEnvironment environment;
+    private LoggerModule loggerModule;
+    private Location location;
+
+    /**
+     * Builds the environment and starts the log writer.
+     * @throws Exception If the environment cannot be created.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        environment = new BenchmarkEnvironment(0, 0, 0, Map.of("logging-enabled", true, "log-queue-capacity", queueCapacity));
+        loggerModule = new LoggerModule(environment.getPlugin(), environment.getConfigManager());
+        location = environment.randomLocation();
+    }
+
+    /**
+     * Stops the log writer and removes the written logs.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        loggerModule.close();
+        environment.cleanUp();
+    }
+
+    /**
+     * Records a plain message.
+     */
+    @Benchmark
+    public void logMessage() {
+        loggerModule.log("Server", "EHML configuration reloaded.");
+    }
+
+    /**
+     * Records a spawn decision with entity and position fields.
+     */
+    @Benchmark
+    public void logSpawnDecision() {
+        loggerModule.log("GlobalLimit", EntityType.ZOMBIE, location, "Cancelled spawn of ZOMBIE: Global limit (70) reached.");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,81 @@
+package com.excrele.ehml.benchmarks;
+
+import com.excrele.ehml.ConfigSnapshot;
+import com.excrele.ehml.LowHealthDelayModule;
+import com.excrele.ehml.MetricsModule;
+import org.bukkit.Location;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the search for a low-health player near a spawn location.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class LowHealthLookupBenchmark {
+
+    private static final int LOCATION_COUNT = 1024;
+
+    @Param({"1000", "10000", "100000"})
+    public int players;
+
+    @Param({"1", "10", "50"})
+    public int lowHealthPercent;
+
+    private BenchmarkEnvironment environment;
+    private LowHealthDelayModule module;
+    private ConfigSnapshot config;
+    private Location[] locations;
+    private int next;
+
+    /**
+     * Builds the environment and indexes the low-health players.
+     * @throws Exception If the environment cannot be created.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        environment = new BenchmarkEnvironment(0, players, players * lowHealthPercent / 100,
+                Map.of("logging-enabled", false));
+        module = new LowHealthDelayModule(environment.getPlugin(), environment.getConfigManager(), new MetricsModule());
+        module.start();
+        config = environment.getConfigManager().getSnapshot();
+        locations = new Location[LOCATION_COUNT];
+        for (int i = 0; i < LOCATION_COUNT; i++) {
+            locations[i] = environment.randomLocation();
+        }
+    }
+
+    /**
+     * Removes temporary files.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        environment.cleanUp();
+    }
+
+    /**
+     * Checks one spawn location for nearby low-health players.
+     * @return Whether a low-health player is nearby.
+     */
+    @Benchmark
+    public boolean hasLowHealthPlayerNearby() {
+        return module.hasLowHealthPlayerNearby(locations[next++ & (LOCATION_COUNT - 1)], config);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,146 @@
+package com.excrele.ehml.benchmarks;
+
+import com.excrele.ehml.AdaptiveLimitModule;
+import com.excrele.ehml.DecisionLogModule;
+import com.excrele.ehml.DensityLimitModule;
+import com.excrele.ehml.GlobalLimitModule;
+import com.excrele.ehml.HostBudgetModule;
+import com.excrele.ehml.LoggerModule;
+import com.excrele.ehml.LowHealthDelayModule;
+import com.excrele.ehml.MetricsModule;
+import com.excrele.ehml.MobCounterModule;
+import com.excrele.ehml.PerMobLimitModule;
+import com.excrele.ehml.PlayerBudgetModule;
+import com.excrele.ehml.SpawnDecisionPipeline;
+import com.excrele.ehml.SpawnTraceRecorder;
+import com.excrele.ehml.WorkScheduler;
+import org.bukkit.entity.EntityType;
+import org.bukkit.event.entity.CreatureSpawnEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a natural hostile spawn passing through the spawn decision pipeline, with either a
+ * single rule or all rules enabled. Limits are set above the population so every spawn runs the
+ * full path of the enabled rules and is allowed. Runs with and without metrics to show their overhead.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SpawnPipelineBenchmark {
+
+    private static final int EVENT_COUNT = 1024;
+
+    @Param({"1000", "10000", "100000"})
+    public int mobs;
+
+    @Param({"100"})
+    public int players;
+
+    @Param({"global-limit", "mob-limits", "all"})
+    public String rules;
+
+    @Param({"true", "false"})
+    public boolean metrics;
+
+    private BenchmarkEnvironment environment;
+    private LoggerModule loggerModule;
+    private SpawnDecisionPipeline pipeline;
+    private CreatureSpawnEvent[] events;
+    private int next;
+
+    /**
+     * Builds the environment and the pipeline the way the plugin does on enable.
+     * @throws Exception If the environment cannot be created.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        boolean all = rules.equals("all");
+        Map<String, Object> settings = new HashMap<>();
+        settings.put("global-limit-enabled", all || rules.equals("global-limit"));
+        settings.put("global-hostile-limit", mobs * 2);
+        settings.put("mob-limits-enabled", all || rules.equals("mob-limits"));
+        settings.put("mob-limits.zombie", mobs * 2);
+        settings.put("player-budget-enabled", all);
+        settings.put("player-hostile-budget", mobs * 2);
+        settings.put("density-limits-enabled", all);
+        settings.put("chunk-hostile-limit", 0);
+        settings.put("region-hostile-limit", 0);
+        settings.put("low-health-delay-enabled", all);
+        settings.put("logging-enabled", false);
+        settings.put("metrics-enabled", metrics);
+        settings.put("metrics-file-interval", 0);
+        environment = new BenchmarkEnvironment(mobs, players, players / 10, settings);
+
+        loggerModule = new LoggerModule(environment.getPlugin(), environment.getConfigManager());
+        MetricsModule metricsModule = new MetricsModule();
+        WorkScheduler workScheduler = new WorkScheduler(environment.getPlugin(), environment.getConfigManager(), metricsModule);
+        MobCounterModule mobCounter = new MobCounterModule(environment.getPlugin(), environment.getConfigManager(),
+                workScheduler);
+        PlayerBudgetModule playerBudget = new PlayerBudgetModule(environment.getPlugin(), environment.getConfigManager());
+        DensityLimitModule densityLimit = new DensityLimitModule(environment.getPlugin(), environment.getConfigManager());
+        LowHealthDelayModule lowHealthDelay = new LowHealthDelayModule(environment.getPlugin(), environment.getConfigManager(),
+                metricsModule);
+        mobCounter.start();
+        playerBudget.start();
+        densityLimit.start();
+        lowHealthDelay.start();
+
+        AdaptiveLimitModule adaptiveLimits = new AdaptiveLimitModule(environment.getPlugin(), environment.getConfigManager());
+        SpawnTraceRecorder traceRecorder = new SpawnTraceRecorder(environment.getPlugin(), environment.getConfigManager(),
+                mobCounter, adaptiveLimits, densityLimit, playerBudget, lowHealthDelay);
+        DecisionLogModule decisionLog = new DecisionLogModule(environment.getPlugin(), environment.getConfigManager(),
+                loggerModule);
+        pipeline = new SpawnDecisionPipeline(environment.getConfigManager(), decisionLog, metricsModule, traceRecorder);
+        HostBudgetModule hostBudget = new HostBudgetModule(environment.getPlugin(), environment.getConfigManager(), mobCounter);
+        pipeline.addRule(new GlobalLimitModule(mobCounter, adaptiveLimits, hostBudget));
+        pipeline.addRule(new PerMobLimitModule(mobCounter, adaptiveLimits));
+        pipeline.addRule(playerBudget);
+        pipeline.addRule(densityLimit);
+        pipeline.addRule(lowHealthDelay);
+
+        events = new CreatureSpawnEvent[EVENT_COUNT];
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            events[i] = new CreatureSpawnEvent(environment.createMob(EntityType.ZOMBIE, environment.randomLocation()),
+                    CreatureSpawnEvent.SpawnReason.NATURAL);
+        }
+    }
+
+    /**
+     * Stops the log writer and removes temporary files.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        loggerModule.close();
+        environment.cleanUp();
+    }
+
+    /**
+     * Runs one spawn event through the pipeline.
+     * @return Whether the spawn was cancelled.
+     */
+    @Benchmark
+    public boolean spawn() {
+        CreatureSpawnEvent event = events[next++ & (EVENT_COUNT - 1)];
+        event.setCancelled(false);
+        pipeline.onCreatureSpawn(event);
+        return event.isCancelled();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,125 @@
+package com.excrele.ehml.benchmarks;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Builds lightweight in-process stand-ins for Bukkit interfaces from a table of method handlers.
+ * Methods without a handler return zero, false or null, so only the calls a benchmark reaches
+ * need to be implemented.
+ */
+public final class StandIns {
+
+    private StandIns() {
+    }
+
+    /**
+     * Starts a stand-in for an interface.
+     * @param type The interface to implement.
+     * @param <T> The interface type.
+     * @return A builder for the stand-in.
+     */
+    public static <T> Builder<T> of(Class<T> type) {
+        return new Builder<>(type);
+    }
+
+    /**
+     * Collects method handlers for a stand-in.
+     * @param <T> The interface type.
+     */
+    public static final class Builder<T> {
+
+        private final Class<T> type;
+        private final Map<String, Function<Object[], Object>> handlers;
+
+        /**
+         * Initializes an empty builder.
+         * @param type The interface to implement.
+         */
+        private Builder(Class<T> type) {
+            this.type = type;
+            this.handlers = new HashMap<>();
+        }
+
+        /**
+         * Handles all calls of a method with a given number of arguments.
+         * @param name The method name.
+         * @param arity The number of arguments.
+         * @param handler The handler receiving the call arguments.
+         * @return This builder.
+         */
+        public Builder<T> on(String name, int arity, Function<Object[], Object> handler) {
+            handlers.put(name + "/" + arity, handler);
+            return this;
+        }
+
+        /**
+         * Returns a fixed value from a method without arguments.
+         * @param name The method name.
+         * @param value The value to return.
+         * @return This builder.
+         */
+        public Builder<T> returning(String name, Object value) {
+            return on(name, 0, args -> value);
+        }
+
+        /**
+         * Creates the stand-in.
+         * @return The stand-in instance.
+         */
+        public T build() {
+            Map<String, Function<Object[], Object>> table = new HashMap<>(handlers);
+            Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (self, method, args) -> {
+                Object[] arguments = args == null ? new Object[0] : args;
+                Function<Object[], Object> handler = table.get(method.getName() + "/" + arguments.length);
+                if (handler != null) {
+                    return handler.apply(arguments);
+                }
+                return switch (method.getName()) {
+                    case "equals" -> self == arguments[0];
+                    case "hashCode" -> System.identityHashCode(self);
+                    case "toString" -> type.getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(self));
+                    default -> defaultValue(method);
+                };
+            });
+            return type.cast(proxy);
+        }
+
+        /**
+         * Gets the default return value of an unhandled method.
+         * @param method The method.
+         * @return Zero or false for primitives, otherwise null.
+         */
+        private static Object defaultValue(Method method) {
+            Class<?> returnType = method.getReturnType();
+            if (!returnType.isPrimitive() || returnType == void.class) {
+                return null;
+            }
+            if (returnType == boolean.class) {
+                return false;
+            }
+            if (returnType == char.class) {
+                return (char) 0;
+            }
+            if (returnType == long.class) {
+                return 0L;
+            }
+            if (returnType == float.class) {
+                return 0F;
+            }
+            if (returnType == double.class) {
+                return 0D;
+            }
+            if (returnType == byte.class) {
+                return (byte) 0;
+            }
+            if (returnType == short.class) {
+                return (short) 0;
+            }
+            return 0;
+        }
+    }
+}
\ No newline at end of file
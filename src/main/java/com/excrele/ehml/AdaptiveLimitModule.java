@@ -0,0 +1,209 @@
+package com.excrele.ehml;
+
+import org.bukkit.entity.EntityType;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.logging.Logger;
+
+/**
+ * Module for scaling the global and per-type hostile limits with the server's tick time.
+ * A repeating task on the main thread samples the main thread's CPU time spent on each tick, which
+ * excludes the wait for the next tick, and smooths the samples with an exponentially weighted moving
+ * average. The Spigot API has no tick start and end hooks to time tick work otherwise, so adaptive
+ * limits stay disabled with a warning on JVMs without thread CPU time. Once a second the controller lowers the limit
+ * scale in proportion to how far the average is above the target, raises it slowly while the
+ * average is below the target minus the hysteresis band, and holds it in between. The scale never
+ * drops below the configured minimum or rises above the configured limits.
+ */
+public class AdaptiveLimitModule {
+
+    private static final double SMOOTHING = 0.05;
+    private static final int CONTROL_INTERVAL_TICKS = 20;
+    private static final double MAX_STEP_DOWN = 0.8;
+    private static final long MAX_SAMPLE_NANOS = 1_000_000_000L;
+
+    /**
+     * The state of the controller after its last decision.
+     */
+    public enum State {
+        DISABLED, AT_CEILING, REDUCING, HOLDING, RECOVERING
+    }
+
+    private final JavaPlugin plugin;
+    private final ConfigManager configManager;
+    private final Logger logger;
+    private final ThreadMXBean threads;
+    private final boolean cpuTimeSupported;
+    private BukkitTask task;
+    private long lastSample;
+    private int ticksSinceDecision;
+    private double smoothedMspt;
+    private double scale;
+    private State state;
+
+    /**
+     * Initializes the adaptive limit module with the limits unscaled.
+     * @param plugin The main plugin instance for scheduling.
+     * @param configManager The configuration manager providing settings.
+     */
+    public AdaptiveLimitModule(JavaPlugin plugin, ConfigManager configManager) {
+        this.plugin = plugin;
+        this.configManager = configManager;
+        this.logger = Logger.getLogger("EHML");
+        this.threads = ManagementFactory.getThreadMXBean();
+        this.cpuTimeSupported = threads.isCurrentThreadCpuTimeSupported() && threads.isThreadCpuTimeEnabled();
+        this.scale = 1.0;
+        this.state = State.DISABLED;
+    }
+
+    /**
+     * Starts sampling tick times if adaptive limits are enabled and thread CPU time can be measured.
+     */
+    public void start() {
+        if (!configManager.getSnapshot().isAdaptiveLimitsEnabled()) {
+            return;
+        }
+        if (!cpuTimeSupported) {
+            logger.warning("Adaptive limits are enabled but this JVM cannot measure thread CPU time; " +
+                    "adaptive limits stay disabled.");
+            return;
+        }
+        lastSample = 0;
+        ticksSinceDecision = 0;
+        smoothedMspt = 0;
+        state = State.AT_CEILING;
+        task = plugin.getServer().getScheduler().runTaskTimer(plugin, this::sample, 1L, 1L);
+    }
+
+    /**
+     * Stops sampling and restores the configured limits.
+     */
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        scale = 1.0;
+        state = State.DISABLED;
+    }
+
+    /**
+     * Scales a configured limit by the current limit scale.
+     * @param limit The configured limit.
+     * @return The effective limit, at least 1 for a positive configured limit.
+     */
+    public int scale(int limit) {
+        return scale(limit, scale);
+    }
+
+    /**
+     * Describes the effective limits of every limit profile at the current scale, one line per
+     * profile with the hostile limit and the limits of the mob types that have one, each as
+     * effective / configured.
+     * @param config The configuration snapshot.
+     * @return The profile descriptions, the default profile first.
+     */
+    public List<String> describeLimits(ConfigSnapshot config) {
+        EntityType[] types = EntityType.values();
+        List<String> lines = new ArrayList<>(config.getLimitProfileCount());
+        for (int profile = 0; profile < config.getLimitProfileCount(); profile++) {
+            int[] row = config.getLimitProfileRow(profile);
+            int hostileLimit = row[row.length - 1];
+            StringBuilder line = new StringBuilder(config.getLimitProfileName(profile))
+                    .append(": hostile ").append(scale(hostileLimit)).append(" / ").append(hostileLimit);
+            for (int ordinal = 0; ordinal < row.length - 1; ordinal++) {
+                if (row[ordinal] != ConfigSnapshot.NO_LIMIT) {
+                    line.append(", ").append(types[ordinal].name()).append(' ')
+                            .append(scale(row[ordinal])).append(" / ").append(row[ordinal]);
+                }
+            }
+            lines.add(line.toString());
+        }
+        return lines;
+    }
+
+    /**
+     * Scales a configured limit by a limit scale, as the controller does.
+     * @param limit The configured limit.
+     * @param scale The limit scale.
+     * @return The effective limit, at least 1 for a positive configured limit.
+     */
+    public static int scale(int limit, double scale) {
+        if (scale >= 1.0 || limit <= 0) {
+            return limit;
+        }
+        return Math.max(1, (int) (limit * scale));
+    }
+
+    /**
+     * Records the time of the tick that just ended and runs the controller once per interval.
+     */
+    private void sample() {
+        long now = threads.getCurrentThreadCpuTime();
+        long previous = lastSample;
+        lastSample = now;
+        if (previous == 0) {
+            return; // First tick; nothing to compare against
+        }
+        double mspt = Math.min(now - previous, MAX_SAMPLE_NANOS) / 1_000_000.0;
+        smoothedMspt = smoothedMspt == 0 ? mspt : smoothedMspt + SMOOTHING * (mspt - smoothedMspt);
+        if (++ticksSinceDecision >= CONTROL_INTERVAL_TICKS) {
+            ticksSinceDecision = 0;
+            control(configManager.getSnapshot());
+        }
+    }
+
+    /**
+     * Adjusts the limit scale from the smoothed tick time.
+     * @param config The configuration snapshot to read settings from.
+     */
+    private void control(ConfigSnapshot config) {
+        double target = config.getAdaptiveTargetMspt();
+        if (smoothedMspt > target) {
+            scale = Math.max(config.getAdaptiveMinScale(), scale * Math.max(MAX_STEP_DOWN, target / smoothedMspt));
+            state = State.REDUCING;
+        } else if (smoothedMspt < target - config.getAdaptiveHysteresisMspt() && scale < 1.0) {
+            scale = Math.min(1.0, scale + config.getAdaptiveRecoveryPerSecond());
+            state = scale >= 1.0 ? State.AT_CEILING : State.RECOVERING;
+        } else if (scale < 1.0) {
+            state = State.HOLDING;
+        } else {
+            state = State.AT_CEILING;
+        }
+    }
+
+    /**
+     * Describes the controller state for commands and the GUI.
+     * @return The state summary.
+     */
+    public String describe() {
+        if (state == State.DISABLED) {
+            return cpuTimeSupported ? "disabled" : "disabled (thread CPU time unavailable)";
+        }
+        ConfigSnapshot config = configManager.getSnapshot();
+        return String.format(Locale.ROOT, "%s, tick %.1f ms CPU time (target %.1f ms), scale %.2f",
+                state, smoothedMspt, config.getAdaptiveTargetMspt(), scale);
+    }
+
+    /**
+     * Reloads the module, starting or stopping sampling if adaptive limits were toggled.
+     */
+    public void reload() {
+        boolean enabled = configManager.getSnapshot().isAdaptiveLimitsEnabled();
+        if (enabled && task == null) {
+            start();
+        } else if (!enabled && task != null) {
+            stop();
+        }
+    }
+
+    // Getters for controller state
+    public State getState() { return state; }
+    public double getScale() { return scale; }
+    public double getSmoothedMspt() { return smoothedMspt; }
+}
\ No newline at end of file
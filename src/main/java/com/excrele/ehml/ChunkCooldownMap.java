@@ -0,0 +1,164 @@
+package com.excrele.ehml;
+
+import java.util.Arrays;
+
+/**
+ * Bounded open-addressing map from packed world/chunk keys to the last time a spawn was allowed.
+ * The table is allocated once at its maximum size and never grows; expired entries are evicted
+ * by age, and when the map is full the oldest entries are evicted first, so memory stays bounded
+ * on long-running servers and lookups never allocate.
+ * The key {@link Long#MIN_VALUE} is reserved as the empty-slot marker and cannot be stored.
+ */
+public class ChunkCooldownMap {
+
+    private static final long EMPTY = OpenAddressing.EMPTY;
+
+    /**
+     * Receives the entries of the map without boxing.
+     */
+    public interface EntryConsumer {
+        /**
+         * Accepts one entry.
+         * @param key The packed world/chunk key.
+         * @param time The recorded time in milliseconds.
+         */
+        void accept(long key, long time);
+    }
+
+    private final long[] keys;
+    private final long[] times;
+    private final long[] scratchKeys;
+    private final long[] scratchTimes;
+    private final int mask;
+    private final int maxEntries;
+    private int size;
+
+    /**
+     * Initializes an empty cooldown map.
+     * @param maxEntries The maximum number of chunks to track.
+     */
+    public ChunkCooldownMap(int maxEntries) {
+        int capacity = OpenAddressing.capacityFor(maxEntries);
+        this.keys = OpenAddressing.newKeys(capacity);
+        this.times = new long[capacity];
+        this.scratchKeys = new long[capacity];
+        this.scratchTimes = new long[capacity];
+        this.mask = capacity - 1;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Gets the last recorded time of a chunk.
+     * @param key The packed world/chunk key.
+     * @return The recorded time in milliseconds, or -1 if the chunk is not tracked.
+     */
+    public long get(long key) {
+        int slot = OpenAddressing.hash(key, mask);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return times[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Records a time for a chunk, evicting the oldest entries first if the map is full.
+     * A new chunk is not recorded if nothing could be evicted.
+     * @param key The packed world/chunk key.
+     * @param time The time in milliseconds.
+     * @throws IllegalArgumentException If the key is the reserved empty-slot marker.
+     */
+    public void put(long key, long time) {
+        OpenAddressing.checkKey(key);
+        int slot = OpenAddressing.findSlot(keys, mask, key);
+        if (keys[slot] == key) {
+            times[slot] = time;
+            return;
+        }
+        if (size >= maxEntries) {
+            evictOldest();
+            if (size >= maxEntries) {
+                return;
+            }
+            slot = OpenAddressing.findSlot(keys, mask, key);
+        }
+        keys[slot] = key;
+        times[slot] = time;
+        size++;
+    }
+
+    /**
+     * Removes all entries recorded before a cutoff time.
+     * @param cutoff The cutoff time in milliseconds.
+     */
+    public void evictBefore(long cutoff) {
+        int kept = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY && times[i] >= cutoff) {
+                scratchKeys[kept] = keys[i];
+                scratchTimes[kept] = times[i];
+                kept++;
+            }
+        }
+        if (kept == size) {
+            return; // Nothing expired
+        }
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+        for (int i = 0; i < kept; i++) {
+            int slot = OpenAddressing.findSlot(keys, mask, scratchKeys[i]);
+            keys[slot] = scratchKeys[i];
+            times[slot] = scratchTimes[i];
+            size++;
+        }
+    }
+
+    /**
+     * Gets the number of tracked chunks.
+     * @return The entry count.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Passes every entry to a consumer, in table order.
+     * @param consumer The consumer.
+     */
+    public void forEach(EntryConsumer consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                consumer.accept(keys[i], times[i]);
+            }
+        }
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+
+    /**
+     * Frees space by evicting the entries in the older half of the span of stored times.
+     * The stored times alone decide the cutoff, so entries recorded ahead of the clock are evicted too,
+     * and the oldest entry is always among those evicted.
+     */
+    private void evictOldest() {
+        long oldest = Long.MAX_VALUE;
+        long newest = Long.MIN_VALUE;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                oldest = Math.min(oldest, times[i]);
+                newest = Math.max(newest, times[i]);
+            }
+        }
+        if (oldest != Long.MAX_VALUE) {
+            evictBefore(oldest + ((newest - oldest) >>> 1) + 1);
+        }
+    }
+}
\ No newline at end of file
@@ -1,33 +1,30 @@
 package com.excrele.ehml;
 
-import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.EntityType;
 import org.bukkit.plugin.java.JavaPlugin;
-import java.util.HashMap;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
 
 /**
  * Manages configuration loading, validation, and saving for the EHML plugin.
- * Provides access to feature toggles and settings for all modules.
+ * The YAML file is compiled into an immutable {@link ConfigSnapshot} that is published through
+ * a single volatile reference, so readers always see one consistent set of settings.
+ * Reloads parse and validate off the main thread; only the final swap runs on the main thread.
  */
 public class ConfigManager {
 
     private final JavaPlugin plugin;
     private final Logger logger;
-    private boolean globalLimitEnabled;
-    private int globalHostileLimit;
-    private boolean mobLimitsEnabled;
-    private Map<EntityType, Integer> mobLimits;
-    private boolean lowHealthDelayEnabled;
-    private double lowHealthThreshold;
-    private double spawnDelayRadius;
-    private double spawnDelayChance;
-    private boolean deathCleanupEnabled;
-    private double deathMobCleanupRadius;
-    private int deathMobThreshold;
-    private double deathMobKillPercentage;
-    private boolean loggingEnabled;
+    private final File configFile;
+    private YamlConfiguration config;
+    private volatile ConfigSnapshot snapshot;
 
     /**
      * Initializes the configuration manager.
@@ -36,172 +33,135 @@ public class ConfigManager {
     public ConfigManager(JavaPlugin plugin) {
         this.plugin = plugin;
         this.logger = plugin.getLogger();
-        this.mobLimits = new HashMap<>();
+        this.configFile = new File(plugin.getDataFolder(), "config.yml");
+        this.config = new YamlConfiguration();
     }
 
     /**
-     * Loads and validates configuration from config.yml.
+     * Loads and validates configuration from config.yml on the calling thread.
+     * Used during startup, when modules need settings before they are created.
      */
     public void loadConfig() {
         plugin.saveDefaultConfig();
-        plugin.reloadConfig();
-        FileConfiguration config = plugin.getConfig();
-
-        // Load global hostile mob limit settings
-        globalLimitEnabled = config.getBoolean("global-limit-enabled", true);
-        globalHostileLimit = config.getInt("global-hostile-limit", 70);
-        if (globalHostileLimit < 0) {
-            globalHostileLimit = 70;
-            logger.warning("Invalid global-hostile-limit in config, using default: 70");
+        YamlConfiguration loaded = readConfig();
+        if (loaded != null) {
+            config = loaded;
         }
+        snapshot = new ConfigSnapshot(config, logger);
+        snapshot.logSummary(logger);
+    }
 
-        // Load per-mob-type limits settings
-        mobLimitsEnabled = config.getBoolean("mob-limits-enabled", true);
-        mobLimits.clear();
-        if (mobLimitsEnabled && config.contains("mob-limits")) {
-            for (String key : config.getConfigurationSection("mob-limits").getKeys(false)) {
-                try {
-                    EntityType entityType = EntityType.valueOf(key.toUpperCase());
-                    if (isHostileMob(entityType)) {
-                        int limit = config.getInt("mob-limits." + key);
-                        if (limit >= 0) {
-                            mobLimits.put(entityType, limit);
-                        } else {
-                            logger.warning("Invalid limit for " + key + ", ignoring.");
-                        }
-                    }
-                } catch (IllegalArgumentException e) {
-                    logger.warning("Invalid entity type in config: " + key);
+    /**
+     * Reloads config.yml by parsing and compiling it asynchronously, then publishing the new
+     * snapshot on the main thread. If the file cannot be parsed, the current settings are kept.
+     * @param onComplete Callback run on the main thread with true if new settings were published.
+     */
+    public void reloadConfigAsync(Consumer<Boolean> onComplete) {
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            YamlConfiguration loaded = readConfig();
+            ConfigSnapshot compiled = loaded == null ? null : new ConfigSnapshot(loaded, logger);
+            plugin.getServer().getScheduler().runTask(plugin, () -> {
+                if (compiled == null) {
+                    onComplete.accept(false); // Parse error already reported; keep current settings
+                    return;
                 }
-            }
-        }
-
-        // Load low-health spawn delay settings
-        lowHealthDelayEnabled = config.getBoolean("low-health-delay-enabled", true);
-        lowHealthThreshold = config.getDouble("low-health-threshold", 5.0);
-        if (lowHealthThreshold < 0 || lowHealthThreshold > 20) {
-            lowHealthThreshold = 5.0;
-            logger.warning("Invalid low-health-threshold in config, using default: 5.0");
-        }
-
-        spawnDelayRadius = config.getDouble("spawn-delay-radius", 30.0);
-        if (spawnDelayRadius < 0) {
-            spawnDelayRadius = 30.0;
-            logger.warning("Invalid spawn-delay-radius in config, using default: 30.0");
-        }
-
-        spawnDelayChance = config.getDouble("spawn-delay-chance", 0.5);
-        if (spawnDelayChance < 0 || spawnDelayChance > 1) {
-            spawnDelayChance = 0.5;
-            logger.warning("Invalid spawn-delay-chance in config, using default: 0.5");
-        }
-
-        // Load player death mob cleanup settings
-        deathCleanupEnabled = config.getBoolean("death-cleanup-enabled", true);
-        deathMobCleanupRadius = config.getDouble("death-mob-cleanup-radius", 10.0);
-        if (deathMobCleanupRadius < 0) {
-            deathMobCleanupRadius = 10.0;
-            logger.warning("Invalid death-mob-cleanup-radius in config, using default: 10.0");
-        }
-
-        deathMobThreshold = config.getInt("death-mob-threshold", 5);
-        if (deathMobThreshold < 0) {
-            deathMobThreshold = 5;
-            logger.warning("Invalid death-mob-threshold in config, using default: 5");
-        }
+                config = loaded;
+                snapshot = compiled;
+                compiled.logSummary(logger);
+                onComplete.accept(true);
+            });
+        });
+    }
 
-        deathMobKillPercentage = config.getDouble("death-mob-kill-percentage", 0.5);
-        if (deathMobKillPercentage < 0 || deathMobKillPercentage > 1) {
-            deathMobKillPercentage = 0.5;
-            logger.warning("Invalid death-mob-kill-percentage in config, using default: 0.5");
+    /**
+     * Reads and parses config.yml.
+     * @return The parsed configuration, or null if it could not be read or parsed.
+     */
+    private YamlConfiguration readConfig() {
+        YamlConfiguration loaded = new YamlConfiguration();
+        try {
+            loaded.load(configFile);
+            return loaded;
+        } catch (IOException | InvalidConfigurationException e) {
+            logger.severe("Failed to load config.yml, keeping current settings: " + e.getMessage());
+            return null;
         }
-
-        // Load logging settings
-        loggingEnabled = config.getBoolean("logging-enabled", true);
-
-        logger.info("Loaded feature toggles: globalLimit=" + globalLimitEnabled +
-                ", mobLimits=" + mobLimitsEnabled +
-                ", lowHealthDelay=" + lowHealthDelayEnabled +
-                ", deathCleanup=" + deathCleanupEnabled +
-                ", logging=" + loggingEnabled);
-        logger.info("Loaded global hostile limit: " + globalHostileLimit);
-        logger.info("Loaded mob-specific limits: " + mobLimits);
-        logger.info("Loaded low-health settings: threshold=" + lowHealthThreshold +
-                ", radius=" + spawnDelayRadius + ", chance=" + spawnDelayChance);
-        logger.info("Loaded death cleanup settings: radius=" + deathMobCleanupRadius +
-                ", threshold=" + deathMobThreshold + ", killPercentage=" + deathMobKillPercentage);
     }
 
     /**
-     * Saves the current configuration to config.yml.
+     * Saves the current configuration to config.yml. The YAML is serialized on the calling
+     * thread and written to disk asynchronously.
      */
     public void saveConfig() {
-        FileConfiguration config = plugin.getConfig();
-        config.set("global-limit-enabled", globalLimitEnabled);
-        config.set("mob-limits-enabled", mobLimitsEnabled);
-        config.set("low-health-delay-enabled", lowHealthDelayEnabled);
-        config.set("death-cleanup-enabled", deathCleanupEnabled);
-        config.set("logging-enabled", loggingEnabled);
-        plugin.saveConfig();
-        logger.info("Configuration saved to config.yml");
+        String contents = config.saveToString();
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                Files.writeString(configFile.toPath(), contents, StandardCharsets.UTF_8);
+                logger.info("Configuration saved to config.yml");
+            } catch (IOException e) {
+                logger.severe("Failed to save config.yml: " + e.getMessage());
+            }
+        });
     }
 
     /**
-     * Toggles a feature's enabled state and saves the change.
+     * Toggles a feature's enabled state, publishes the updated settings and saves the change.
      * @param feature The feature to toggle (e.g., "global-limit", "mob-limits").
      * @param enabled The new enabled state.
      */
     public void toggleFeature(String feature, boolean enabled) {
         switch (feature) {
-            case "global-limit":
-                globalLimitEnabled = enabled;
-                break;
-            case "mob-limits":
-                mobLimitsEnabled = enabled;
-                break;
-            case "low-health-delay":
-                lowHealthDelayEnabled = enabled;
-                break;
-            case "death-cleanup":
-                deathCleanupEnabled = enabled;
-                break;
-            case "logging":
-                loggingEnabled = enabled;
+            case "global-limit", "mob-limits", "adaptive-limits", "density-limits", "low-health-delay", "death-cleanup", "logging":
+                config.set(feature + "-enabled", enabled);
                 break;
             default:
                 logger.warning("Attempted to toggle invalid feature: " + feature);
+                return;
         }
+        snapshot = new ConfigSnapshot(config, logger);
         saveConfig();
     }
 
+    /**
+     * Gets the current configuration snapshot. Hot paths should read it once per event.
+     * @return The current configuration snapshot.
+     */
+    public ConfigSnapshot getSnapshot() {
+        return snapshot;
+    }
+
     /**
      * Checks if an entity is a hostile mob.
      * @param entityType The entity type to check.
      * @return True if the entity is hostile.
      */
     public boolean isHostileMob(EntityType entityType) {
-        return switch (entityType) {
-            case ZOMBIE, SKELETON, CREEPER, SPIDER, ENDERMAN, WITCH, WITHER_SKELETON,
-                 STRAY, HUSK, ZOMBIE_VILLAGER, SKELETON_HORSE, ZOMBIE_HORSE,
-                 PHANTOM, SLIME, MAGMA_CUBE, GHAST, BLAZE, DROWNED, PILLAGER,
-                 VINDICATOR, EVOKER, VEX, RAVAGER, SHULKER, ENDERMITE, GUARDIAN,
-                 ELDER_GUARDIAN, HOGLIN, ZOGLIN, PIGLIN, PIGLIN_BRUTE, BOGGED -> true;
-            default -> false;
-        };
+        return snapshot.isHostileMob(entityType);
     }
 
     // Getters for configuration values
-    public boolean isGlobalLimitEnabled() { return globalLimitEnabled; }
-    public int getGlobalHostileLimit() { return globalHostileLimit; }
-    public boolean isMobLimitsEnabled() { return mobLimitsEnabled; }
-    public Map<EntityType, Integer> getMobLimits() { return new HashMap<>(mobLimits); }
-    public boolean isLowHealthDelayEnabled() { return lowHealthDelayEnabled; }
-    public double getLowHealthThreshold() { return lowHealthThreshold; }
-    public double getSpawnDelayRadius() { return spawnDelayRadius; }
-    public double getSpawnDelayChance() { return spawnDelayChance; }
-    public boolean isDeathCleanupEnabled() { return deathCleanupEnabled; }
-    public double getDeathMobCleanupRadius() { return deathMobCleanupRadius; }
-    public int getDeathMobThreshold() { return deathMobThreshold; }
-    public double getDeathMobKillPercentage() { return deathMobKillPercentage; }
-    public boolean isLoggingEnabled() { return loggingEnabled; }
+    public boolean isGlobalLimitEnabled() { return snapshot.isGlobalLimitEnabled(); }
+    public int getGlobalHostileLimit() { return snapshot.getGlobalHostileLimit(); }
+    public int getCounterReconcileInterval() { return snapshot.getCounterReconcileInterval(); }
+    public boolean isAdaptiveLimitsEnabled() { return snapshot.isAdaptiveLimitsEnabled(); }
+    public boolean isMobLimitsEnabled() { return snapshot.isMobLimitsEnabled(); }
+    public Map<EntityType, Integer> getMobLimits() { return snapshot.getMobLimits(); }
+    public boolean isDensityLimitsEnabled() { return snapshot.isDensityLimitsEnabled(); }
+    public int getChunkHostileLimit() { return snapshot.getChunkHostileLimit(); }
+    public int getRegionHostileLimit() { return snapshot.getRegionHostileLimit(); }
+    public int getDensityRegionSize() { return snapshot.getDensityRegionSize(); }
+    public int getDensitySweepPerTick() { return snapshot.getDensitySweepPerTick(); }
+    public boolean isLowHealthDelayEnabled() { return snapshot.isLowHealthDelayEnabled(); }
+    public double getLowHealthThreshold() { return snapshot.getLowHealthThreshold(); }
+    public double getSpawnDelayRadius() { return snapshot.getSpawnDelayRadius(); }
+    public double getSpawnDelayChance() { return snapshot.getSpawnDelayChance(); }
+    public boolean isDeathCleanupEnabled() { return snapshot.isDeathCleanupEnabled(); }
+    public double getDeathMobCleanupRadius() { return snapshot.getDeathMobCleanupRadius(); }
+    public int getDeathMobThreshold() { return snapshot.getDeathMobThreshold(); }
+    public double getDeathMobKillPercentage() { return snapshot.getDeathMobKillPercentage(); }
+    public boolean isLoggingEnabled() { return snapshot.isLoggingEnabled(); }
+    public int getLogQueueCapacity() { return snapshot.getLogQueueCapacity(); }
+    public int getLogMaxFileSizeMb() { return snapshot.getLogMaxFileSizeMb(); }
+    public int getLogRotateIntervalMinutes() { return snapshot.getLogRotateIntervalMinutes(); }
+    public boolean isLogCompressRotated() { return snapshot.isLogCompressRotated(); }
 }
\ No newline at end of file
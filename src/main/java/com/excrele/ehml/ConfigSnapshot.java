@@ -0,0 +1,619 @@
+package com.excrele.ehml;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.EntityType;
+import org.bukkit.event.entity.CreatureSpawnEvent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * Immutable, validated view of the EHML configuration.
+ * Compiled once per load from the YAML configuration, with per-type limits and hostile mob
+ * flags held in arrays indexed by {@link EntityType} ordinal and radii pre-squared, so the
+ * spawn hot path reads settings without map lookups or allocation.
+ * Per-world and world group overrides of the hostile and mob limits are compiled into limit
+ * profiles: rows indexed by entity type ordinal with the hostile limit last, one row per group
+ * or overridden world, and row 0 holding the global limits every other world uses.
+ */
+public final class ConfigSnapshot {
+
+    /** Value stored in the mob limit table for types without a limit. */
+    public static final int NO_LIMIT = -1;
+
+    /** Index of the limit profile used by worlds without an override or group. */
+    public static final int DEFAULT_PROFILE = 0;
+
+    /**
+     * Groups of settings read by one module, compared by {@link #diff(ConfigSnapshot)} so a reload
+     * only reinitializes the modules whose settings changed.
+     */
+    public enum Section {
+        GLOBAL_LIMIT, HOST_BUDGET, COUNTER, WORK, ADAPTIVE, MOB_LIMITS, DENSITY, SPAWNER, PLAYER_BUDGET, LOW_HEALTH,
+        DEATH_CLEANUP, SWEEP, STEERING, STATE, TRACE, GUI, LOGGING, METRICS, CONFIG_WATCH, WORLD_LIMITS
+    }
+
+    private static final boolean[] HOSTILE_TYPES = buildHostileTable();
+    private static final int TYPE_COUNT = EntityType.values().length;
+
+    private final boolean globalLimitEnabled;
+    private final int globalHostileLimit;
+    private final int counterReconcileInterval;
+    private final double workTickBudgetMs;
+    private final boolean hostBudgetEnabled;
+    private final int hostHostileLimit;
+    private final String hostBudgetFile;
+    private final long hostBudgetExpiryMillis;
+    private final boolean adaptiveLimitsEnabled;
+    private final double adaptiveTargetMspt;
+    private final double adaptiveHysteresisMspt;
+    private final double adaptiveMinScale;
+    private final double adaptiveRecoveryPerSecond;
+    private final boolean mobLimitsEnabled;
+    private final int[] mobLimits;
+    private final Map<EntityType, Integer> mobLimitMap;
+    private final int[][] limitProfiles;
+    private final String[] limitProfileNames;
+    private final Map<String, Integer> worldLimitProfiles;
+    private final boolean densityLimitsEnabled;
+    private final int chunkHostileLimit;
+    private final int regionHostileLimit;
+    private final int densityRegionSize;
+    private final int densitySweepPerTick;
+    private final boolean spawnSteeringEnabled;
+    private final double spawnSteeringHeadroom;
+    private final int spawnSteeringSlowFactor;
+    private final boolean sweepEnabled;
+    private final int sweepInterval;
+    private final double sweepLowWatermark;
+    private final int sweepChunksPerTick;
+    private final boolean spawnerLimitsEnabled;
+    private final double spawnerRatePerMinute;
+    private final int spawnerBurst;
+    private final int spawnerMaxLiving;
+    private final boolean playerBudgetEnabled;
+    private final int playerHostileBudget;
+    private final double playerBudgetRadius;
+    private final boolean lowHealthDelayEnabled;
+    private final double lowHealthThreshold;
+    private final double spawnDelayRadius;
+    private final double spawnDelayRadiusSquared;
+    private final double spawnDelayChance;
+    private final long spawnDelayCooldownMillis;
+    private final int spawnDelayMaxChunks;
+    private final boolean deathCleanupEnabled;
+    private final double deathMobCleanupRadius;
+    private final int deathMobThreshold;
+    private final double deathMobKillPercentage;
+    private final int deathCleanupCoalesceTicks;
+    private final boolean deathCleanupNearestFirst;
+    private final boolean loggingEnabled;
+    private final int logQueueCapacity;
+    private final int logMaxFileSizeMb;
+    private final int logRotateIntervalMinutes;
+    private final boolean logCompressRotated;
+    private final int decisionLogInterval;
+    private final int decisionLogBufferSize;
+    private final int decisionLogSampleEvery;
+    private final boolean metricsEnabled;
+    private final int metricsFileInterval;
+    private final boolean metricsHttpEnabled;
+    private final int metricsHttpPort;
+    private final boolean configWatchEnabled;
+    private final int configWatchDebounceMs;
+    private final boolean statePersistenceEnabled;
+    private final int stateSaveInterval;
+    private final long stateMaxAgeMillis;
+    private final boolean traceEnabled;
+    private final int traceMaxFileSizeMb;
+    private final int guiDashboardRefreshTicks;
+
+    /**
+     * Compiles and validates a configuration, replacing invalid values with defaults.
+     * Safe to call off the main thread.
+     * @param config The configuration to compile.
+     * @param logger The logger for validation warnings.
+     */
+    public ConfigSnapshot(ConfigurationSection config, Logger logger) {
+        // Load global hostile mob limit settings
+        globalLimitEnabled = config.getBoolean("global-limit-enabled", true);
+        globalHostileLimit = readInt(config, logger, "global-hostile-limit", 70, 0);
+        counterReconcileInterval = readInt(config, logger, "counter-reconcile-interval", 60, 1);
+
+        // Load host-wide budget settings
+        hostBudgetEnabled = config.getBoolean("host-budget-enabled", false);
+        hostHostileLimit = readInt(config, logger, "host-hostile-limit", 300, 0);
+        hostBudgetFile = config.getString("host-budget-file", "");
+        hostBudgetExpiryMillis = readInt(config, logger, "host-budget-expiry", 10, 2) * 1000L;
+
+        // Load shared work scheduler settings
+        workTickBudgetMs = readDouble(config, logger, "work-tick-budget", 2.0, 0.1, 50);
+
+        // Load adaptive limit settings
+        adaptiveLimitsEnabled = config.getBoolean("adaptive-limits-enabled", false);
+        adaptiveTargetMspt = readDouble(config, logger, "adaptive-target-mspt", 40.0, 5, 1000);
+        adaptiveHysteresisMspt = readDouble(config, logger, "adaptive-hysteresis-mspt", 5.0, 0, adaptiveTargetMspt);
+        adaptiveMinScale = readDouble(config, logger, "adaptive-min-scale", 0.25, 0.01, 1);
+        adaptiveRecoveryPerSecond = readDouble(config, logger, "adaptive-recovery-per-second", 0.02, 0.001, 1);
+
+        // Load per-mob-type limits settings
+        mobLimitsEnabled = config.getBoolean("mob-limits-enabled", true);
+        mobLimits = new int[EntityType.values().length];
+        Arrays.fill(mobLimits, NO_LIMIT);
+        Map<EntityType, Integer> limits = new EnumMap<>(EntityType.class);
+        if (mobLimitsEnabled) {
+            readMobLimits(config.getConfigurationSection("mob-limits"), logger, mobLimits, limits);
+        }
+        mobLimitMap = Collections.unmodifiableMap(limits);
+
+        // Compile per-world and world group limit profiles; single worlds take precedence over groups
+        List<String> profileNames = new ArrayList<>();
+        List<int[]> profiles = new ArrayList<>();
+        Map<String, Integer> worldProfiles = new HashMap<>();
+        int[] defaultProfile = Arrays.copyOf(mobLimits, TYPE_COUNT + 1);
+        defaultProfile[TYPE_COUNT] = globalHostileLimit;
+        profileNames.add("default");
+        profiles.add(defaultProfile);
+        ConfigurationSection worldLimitSection = config.getConfigurationSection("world-limits");
+        if (worldLimitSection != null) {
+            for (String worldName : worldLimitSection.getKeys(false)) {
+                ConfigurationSection section = worldLimitSection.getConfigurationSection(worldName);
+                if (section == null) {
+                    logger.warning("Invalid world-limits entry for " + worldName + ", ignoring.");
+                    continue;
+                }
+                worldProfiles.put(worldName, profiles.size());
+                profileNames.add(worldName);
+                profiles.add(readLimitProfile(section, logger, "world-limits." + worldName, defaultProfile));
+            }
+        }
+        ConfigurationSection groupSection = config.getConfigurationSection("world-groups");
+        if (groupSection != null) {
+            for (String groupName : groupSection.getKeys(false)) {
+                ConfigurationSection section = groupSection.getConfigurationSection(groupName);
+                if (section == null || section.getStringList("worlds").isEmpty()) {
+                    logger.warning("World group " + groupName + " has no worlds, ignoring.");
+                    continue;
+                }
+                int profile = profiles.size();
+                for (String worldName : section.getStringList("worlds")) {
+                    Integer existing = worldProfiles.putIfAbsent(worldName, profile);
+                    if (existing != null) {
+                        logger.warning("World " + worldName + " of group " + groupName + " already uses the limits of " +
+                                profileNames.get(existing) + ", ignoring.");
+                    }
+                }
+                profileNames.add(groupName);
+                profiles.add(readLimitProfile(section, logger, "world-groups." + groupName, defaultProfile));
+            }
+        }
+        limitProfiles = profiles.toArray(new int[0][]);
+        limitProfileNames = profileNames.toArray(new String[0]);
+        worldLimitProfiles = Collections.unmodifiableMap(worldProfiles);
+
+        // Load chunk and region density limit settings
+        densityLimitsEnabled = config.getBoolean("density-limits-enabled", true);
+        chunkHostileLimit = readInt(config, logger, "chunk-hostile-limit", 20, 0);
+        regionHostileLimit = readInt(config, logger, "region-hostile-limit", 60, 0);
+        densityRegionSize = readInt(config, logger, "density-region-size", 4, 1);
+        densitySweepPerTick = readInt(config, logger, "density-sweep-per-tick", 200, 1);
+
+        // Load spawn cap steering settings
+        spawnSteeringEnabled = config.getBoolean("spawn-steering-enabled", false);
+        spawnSteeringHeadroom = readDouble(config, logger, "spawn-steering-headroom", 0.1, 0, 1);
+        spawnSteeringSlowFactor = readInt(config, logger, "spawn-steering-slow-factor", 4, 1);
+
+        // Load over-limit sweeper settings
+        sweepEnabled = config.getBoolean("overlimit-sweep-enabled", false);
+        sweepInterval = readInt(config, logger, "overlimit-sweep-interval", 10, 1);
+        sweepLowWatermark = readDouble(config, logger, "overlimit-low-watermark", 0.9, 0, 1);
+        sweepChunksPerTick = readInt(config, logger, "overlimit-chunks-per-tick", 16, 1);
+
+        // Load per-spawner limit settings
+        spawnerLimitsEnabled = config.getBoolean("spawner-limits-enabled", true);
+        spawnerRatePerMinute = readDouble(config, logger, "spawner-rate-per-minute", 12.0, 0.1, 1200);
+        spawnerBurst = readInt(config, logger, "spawner-burst", 8, 1);
+        spawnerMaxLiving = readInt(config, logger, "spawner-max-living", 12, 1);
+
+        // Load per-player hostile budget settings
+        playerBudgetEnabled = config.getBoolean("player-budget-enabled", false);
+        playerHostileBudget = readInt(config, logger, "player-hostile-budget", 30, 1);
+        playerBudgetRadius = readDouble(config, logger, "player-budget-radius", 64.0, 8, 256);
+
+        // Load low-health spawn delay settings
+        lowHealthDelayEnabled = config.getBoolean("low-health-delay-enabled", true);
+        lowHealthThreshold = readDouble(config, logger, "low-health-threshold", 5.0, 0, 20);
+        spawnDelayRadius = readDouble(config, logger, "spawn-delay-radius", 30.0, 0, 256);
+        spawnDelayRadiusSquared = spawnDelayRadius * spawnDelayRadius;
+        spawnDelayChance = readDouble(config, logger, "spawn-delay-chance", 0.5, 0, 1);
+        spawnDelayCooldownMillis = (long) (readDouble(config, logger, "spawn-delay-cooldown", 5.0, 0, 3600) * 1000);
+        spawnDelayMaxChunks = readInt(config, logger, "spawn-delay-max-chunks", 4096, 16);
+
+        // Load player death mob cleanup settings
+        deathCleanupEnabled = config.getBoolean("death-cleanup-enabled", true);
+        deathMobCleanupRadius = readDouble(config, logger, "death-mob-cleanup-radius", 10.0, 0, Double.MAX_VALUE);
+        deathMobThreshold = readInt(config, logger, "death-mob-threshold", 5, 0);
+        deathMobKillPercentage = readDouble(config, logger, "death-mob-kill-percentage", 0.5, 0, 1);
+        deathCleanupCoalesceTicks = readInt(config, logger, "death-cleanup-coalesce-ticks", 40, 0);
+        deathCleanupNearestFirst = config.getBoolean("death-cleanup-nearest-first", false);
+
+        // Load logging settings
+        loggingEnabled = config.getBoolean("logging-enabled", true);
+        logQueueCapacity = readInt(config, logger, "log-queue-capacity", 10000, 1);
+        logMaxFileSizeMb = readInt(config, logger, "log-max-file-size-mb", 10, 1);
+        logRotateIntervalMinutes = readInt(config, logger, "log-rotate-interval-minutes", 60, 1);
+        logCompressRotated = config.getBoolean("log-compress-rotated", true);
+        decisionLogInterval = readInt(config, logger, "decision-log-interval", 10, 1);
+        decisionLogBufferSize = readInt(config, logger, "decision-log-buffer-size", 4096, 64);
+        decisionLogSampleEvery = readInt(config, logger, "decision-log-sample-every", 0, 0);
+
+        // Load metrics settings
+        metricsEnabled = config.getBoolean("metrics-enabled", true);
+        metricsFileInterval = readInt(config, logger, "metrics-file-interval", 15, 0);
+        metricsHttpEnabled = config.getBoolean("metrics-http-enabled", false);
+        int port = readInt(config, logger, "metrics-http-port", 9464, 1);
+        if (port > 65535) {
+            logger.warning("Invalid metrics-http-port in config, using default: 9464");
+            port = 9464;
+        }
+        metricsHttpPort = port;
+
+        // Load config file watcher settings
+        configWatchEnabled = config.getBoolean("config-watch-enabled", false);
+        configWatchDebounceMs = readInt(config, logger, "config-watch-debounce-ms", 500, 0);
+
+        // Load state persistence settings
+        statePersistenceEnabled = config.getBoolean("state-persistence-enabled", true);
+        stateSaveInterval = readInt(config, logger, "state-save-interval", 300, 0);
+        stateMaxAgeMillis = readInt(config, logger, "state-max-age", 3600, 1) * 1000L;
+
+        // Load trace recording settings
+        traceEnabled = config.getBoolean("trace-enabled", false);
+        traceMaxFileSizeMb = readInt(config, logger, "trace-max-file-size-mb", 256, 1);
+
+        // Load GUI settings
+        guiDashboardRefreshTicks = readInt(config, logger, "gui-dashboard-refresh-ticks", 20, 1);
+    }
+
+    /**
+     * Finds the sections whose settings differ from a previous snapshot.
+     * @param previous The previously applied snapshot, or null if none was applied.
+     * @return The changed sections; all sections if there is no previous snapshot.
+     */
+    public Set<Section> diff(ConfigSnapshot previous) {
+        Set<Section> changed = EnumSet.noneOf(Section.class);
+        for (Section section : Section.values()) {
+            if (previous == null || !Arrays.equals(values(section), previous.values(section))) {
+                changed.add(section);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Gets the settings of a section for comparison.
+     * @param section The section.
+     * @return The section's settings.
+     */
+    private Object[] values(Section section) {
+        return switch (section) {
+            case GLOBAL_LIMIT -> new Object[] {globalLimitEnabled, globalHostileLimit};
+            case HOST_BUDGET -> new Object[] {hostBudgetEnabled, hostHostileLimit, hostBudgetFile, hostBudgetExpiryMillis};
+            case COUNTER -> new Object[] {counterReconcileInterval};
+            case WORK -> new Object[] {workTickBudgetMs};
+            case ADAPTIVE -> new Object[] {adaptiveLimitsEnabled, adaptiveTargetMspt, adaptiveHysteresisMspt,
+                    adaptiveMinScale, adaptiveRecoveryPerSecond};
+            case MOB_LIMITS -> new Object[] {mobLimitsEnabled, mobLimitMap};
+            case DENSITY -> new Object[] {densityLimitsEnabled, chunkHostileLimit, regionHostileLimit,
+                    densityRegionSize, densitySweepPerTick};
+            case SPAWNER -> new Object[] {spawnerLimitsEnabled, spawnerRatePerMinute, spawnerBurst, spawnerMaxLiving};
+            case PLAYER_BUDGET -> new Object[] {playerBudgetEnabled, playerHostileBudget, playerBudgetRadius};
+            case LOW_HEALTH -> new Object[] {lowHealthDelayEnabled, lowHealthThreshold, spawnDelayRadius,
+                    spawnDelayChance, spawnDelayCooldownMillis, spawnDelayMaxChunks};
+            case DEATH_CLEANUP -> new Object[] {deathCleanupEnabled, deathMobCleanupRadius, deathMobThreshold,
+                    deathMobKillPercentage, deathCleanupCoalesceTicks, deathCleanupNearestFirst};
+            case SWEEP -> new Object[] {sweepEnabled, sweepInterval, sweepLowWatermark, sweepChunksPerTick};
+            case STEERING -> new Object[] {spawnSteeringEnabled, spawnSteeringHeadroom, spawnSteeringSlowFactor};
+            case STATE -> new Object[] {statePersistenceEnabled, stateSaveInterval, stateMaxAgeMillis};
+            case TRACE -> new Object[] {traceEnabled, traceMaxFileSizeMb};
+            case GUI -> new Object[] {guiDashboardRefreshTicks};
+            case LOGGING -> new Object[] {loggingEnabled, logQueueCapacity, logMaxFileSizeMb, logRotateIntervalMinutes,
+                    logCompressRotated, decisionLogInterval, decisionLogBufferSize, decisionLogSampleEvery};
+            case METRICS -> new Object[] {metricsEnabled, metricsFileInterval, metricsHttpEnabled, metricsHttpPort};
+            case CONFIG_WATCH -> new Object[] {configWatchEnabled, configWatchDebounceMs};
+            case WORLD_LIMITS -> new Object[] {Arrays.deepToString(limitProfiles), Arrays.toString(limitProfileNames),
+                    worldLimitProfiles};
+        };
+    }
+
+    /**
+     * Logs a summary of the compiled settings.
+     * @param logger The logger to write to.
+     */
+    public void logSummary(Logger logger) {
+        logger.info("Loaded feature toggles: globalLimit=" + globalLimitEnabled +
+                ", mobLimits=" + mobLimitsEnabled +
+                ", densityLimits=" + densityLimitsEnabled +
+                ", spawnSteering=" + spawnSteeringEnabled +
+                ", overLimitSweep=" + sweepEnabled +
+                ", spawnerLimits=" + spawnerLimitsEnabled +
+                ", playerBudget=" + playerBudgetEnabled +
+                ", lowHealthDelay=" + lowHealthDelayEnabled +
+                ", deathCleanup=" + deathCleanupEnabled +
+                ", logging=" + loggingEnabled);
+        logger.info("Loaded global hostile limit: " + globalHostileLimit +
+                ", counter reconcile interval: " + counterReconcileInterval + "s" +
+                ", work tick budget: " + workTickBudgetMs + "ms");
+        logger.info("Loaded host budget settings: enabled=" + hostBudgetEnabled + ", limit=" + hostHostileLimit +
+                ", file=" + (hostBudgetFile.isEmpty() ? "<temp dir>" : hostBudgetFile) +
+                ", expiry=" + hostBudgetExpiryMillis + "ms");
+        logger.info("Loaded adaptive limit settings: enabled=" + adaptiveLimitsEnabled +
+                ", targetMspt=" + adaptiveTargetMspt + ", hysteresisMspt=" + adaptiveHysteresisMspt +
+                ", minScale=" + adaptiveMinScale + ", recoveryPerSecond=" + adaptiveRecoveryPerSecond);
+        logger.info("Loaded mob-specific limits: " + mobLimitMap);
+        if (limitProfiles.length > 1) {
+            logger.info("Loaded world limit profiles: " + (limitProfiles.length - 1) + " for " +
+                    worldLimitProfiles.size() + " worlds " + worldLimitProfiles.keySet());
+        }
+        logger.info("Loaded density settings: chunkLimit=" + chunkHostileLimit +
+                ", regionLimit=" + regionHostileLimit + ", regionSize=" + densityRegionSize +
+                ", sweepPerTick=" + densitySweepPerTick);
+        logger.info("Loaded spawn steering settings: headroom=" + spawnSteeringHeadroom +
+                ", slowFactor=" + spawnSteeringSlowFactor);
+        logger.info("Loaded over-limit sweep settings: interval=" + sweepInterval + "s, lowWatermark=" +
+                sweepLowWatermark + ", chunksPerTick=" + sweepChunksPerTick);
+        logger.info("Loaded spawner settings: ratePerMinute=" + spawnerRatePerMinute + ", burst=" + spawnerBurst +
+                ", maxLiving=" + spawnerMaxLiving);
+        logger.info("Loaded player budget settings: budget=" + playerHostileBudget + ", radius=" + playerBudgetRadius);
+        logger.info("Loaded low-health settings: threshold=" + lowHealthThreshold +
+                ", radius=" + spawnDelayRadius + ", cooldown=" + spawnDelayCooldownMillis + "ms" +
+                ", chance=" + spawnDelayChance + ", maxChunks=" + spawnDelayMaxChunks);
+        logger.info("Loaded death cleanup settings: radius=" + deathMobCleanupRadius +
+                ", threshold=" + deathMobThreshold + ", killPercentage=" + deathMobKillPercentage +
+                ", coalesceTicks=" + deathCleanupCoalesceTicks + ", nearestFirst=" + deathCleanupNearestFirst);
+        logger.info("Loaded logging settings: queueCapacity=" + logQueueCapacity +
+                ", maxFileSizeMb=" + logMaxFileSizeMb + ", rotateIntervalMinutes=" + logRotateIntervalMinutes +
+                ", compressRotated=" + logCompressRotated + ", decisionInterval=" + decisionLogInterval + "s" +
+                ", decisionBufferSize=" + decisionLogBufferSize + ", decisionSampleEvery=" + decisionLogSampleEvery);
+        logger.info("Loaded metrics settings: enabled=" + metricsEnabled + ", fileInterval=" + metricsFileInterval + "s" +
+                ", http=" + metricsHttpEnabled + ", httpPort=" + metricsHttpPort);
+        logger.info("Loaded config watch settings: enabled=" + configWatchEnabled + ", debounce=" + configWatchDebounceMs + "ms");
+        logger.info("Loaded state persistence settings: enabled=" + statePersistenceEnabled +
+                ", saveInterval=" + stateSaveInterval + "s, maxAge=" + stateMaxAgeMillis + "ms");
+        logger.info("Loaded trace settings: enabled=" + traceEnabled + ", maxFileSizeMb=" + traceMaxFileSizeMb);
+        logger.info("Loaded GUI settings: dashboardRefreshTicks=" + guiDashboardRefreshTicks);
+    }
+
+    /**
+     * Checks if an entity is a hostile mob.
+     * @param entityType The entity type to check.
+     * @return True if the entity is hostile.
+     */
+    public boolean isHostileMob(EntityType entityType) {
+        return HOSTILE_TYPES[entityType.ordinal()];
+    }
+
+    /**
+     * Checks if a spawn reason is one that EHML limits (natural spawns and spawners).
+     * @param reason The spawn reason to check.
+     * @return True if spawns with this reason are subject to limits.
+     */
+    public boolean isLimitedSpawnReason(CreatureSpawnEvent.SpawnReason reason) {
+        return reason == CreatureSpawnEvent.SpawnReason.NATURAL || reason == CreatureSpawnEvent.SpawnReason.SPAWNER;
+    }
+
+    /**
+     * Gets the configured limit of a mob type.
+     * @param entityType The entity type.
+     * @return The limit, or {@link #NO_LIMIT} if the type has none.
+     */
+    public int getMobLimit(EntityType entityType) {
+        return mobLimits[entityType.ordinal()];
+    }
+
+    /**
+     * Gets the limit profile of a world.
+     * @param worldName The world name.
+     * @return The profile index, {@link #DEFAULT_PROFILE} if the world has no override or group.
+     */
+    public int getLimitProfile(String worldName) {
+        Integer profile = worldLimitProfiles.get(worldName);
+        return profile == null ? DEFAULT_PROFILE : profile;
+    }
+
+    /**
+     * Gets the limits of a profile. The row is shared and must not be modified.
+     * @param profile The profile index.
+     * @return The mob limits indexed by entity type ordinal, or {@link #NO_LIMIT}, with the hostile limit last.
+     */
+    public int[] getLimitProfileRow(int profile) {
+        return limitProfiles[profile];
+    }
+
+    /**
+     * Reads the mob limits of a section into a limit table, skipping invalid and non-hostile entries.
+     * @param section The section mapping mob type names to limits, or null if absent.
+     * @param logger The logger for validation warnings.
+     * @param limits The limit table indexed by entity type ordinal.
+     * @param limitMap The map to add the valid limits to, or null.
+     */
+    private static void readMobLimits(ConfigurationSection section, Logger logger, int[] limits,
+                                      Map<EntityType, Integer> limitMap) {
+        if (section == null) {
+            return;
+        }
+        for (String key : section.getKeys(false)) {
+            try {
+                EntityType entityType = EntityType.valueOf(key.toUpperCase());
+                if (HOSTILE_TYPES[entityType.ordinal()]) {
+                    int limit = section.getInt(key);
+                    if (limit >= 0) {
+                        limits[entityType.ordinal()] = limit;
+                        if (limitMap != null) {
+                            limitMap.put(entityType, limit);
+                        }
+                    } else {
+                        logger.warning("Invalid limit for " + key + ", ignoring.");
+                    }
+                }
+            } catch (IllegalArgumentException e) {
+                logger.warning("Invalid entity type in config: " + key);
+            }
+        }
+    }
+
+    /**
+     * Compiles the limit profile of a world or group, starting from the global limits.
+     * @param section The world or group section.
+     * @param logger The logger for validation warnings.
+     * @param path The section path, for warnings.
+     * @param defaults The global limit profile.
+     * @return The profile's mob limits indexed by entity type ordinal, with the hostile limit last.
+     */
+    private static int[] readLimitProfile(ConfigurationSection section, Logger logger, String path, int[] defaults) {
+        int[] profile = defaults.clone();
+        int hostileLimit = section.getInt("global-hostile-limit", defaults[TYPE_COUNT]);
+        if (hostileLimit < 0) {
+            logger.warning("Invalid " + path + ".global-hostile-limit in config, using default: " + defaults[TYPE_COUNT]);
+        } else {
+            profile[TYPE_COUNT] = hostileLimit;
+        }
+        readMobLimits(section.getConfigurationSection("mob-limits"), logger, profile, null);
+        return profile;
+    }
+
+    /**
+     * Reads an integer setting, falling back to the default if it is below the minimum.
+     * @param config The configuration.
+     * @param logger The logger for validation warnings.
+     * @param path The setting path.
+     * @param defaultValue The default value.
+     * @param min The minimum valid value.
+     * @return The validated value.
+     */
+    private static int readInt(ConfigurationSection config, Logger logger, String path, int defaultValue, int min) {
+        int value = config.getInt(path, defaultValue);
+        if (value < min) {
+            logger.warning("Invalid " + path + " in config, using default: " + defaultValue);
+            return defaultValue;
+        }
+        return value;
+    }
+
+    /**
+     * Reads a decimal setting, falling back to the default if it is outside the valid range.
+     * @param config The configuration.
+     * @param logger The logger for validation warnings.
+     * @param path The setting path.
+     * @param defaultValue The default value.
+     * @param min The minimum valid value.
+     * @param max The maximum valid value.
+     * @return The validated value.
+     */
+    private static double readDouble(ConfigurationSection config, Logger logger, String path, double defaultValue,
+                                     double min, double max) {
+        double value = config.getDouble(path, defaultValue);
+        if (value < min || value > max) {
+            logger.warning("Invalid " + path + " in config, using default: " + defaultValue);
+            return defaultValue;
+        }
+        return value;
+    }
+
+    /**
+     * Builds the hostile mob table indexed by entity type ordinal.
+     * @return The hostile mob table.
+     */
+    private static boolean[] buildHostileTable() {
+        boolean[] table = new boolean[EntityType.values().length];
+        for (EntityType type : EntityType.values()) {
+            table[type.ordinal()] = switch (type) {
+                case ZOMBIE, SKELETON, CREEPER, SPIDER, ENDERMAN, WITCH, WITHER_SKELETON,
+                     STRAY, HUSK, ZOMBIE_VILLAGER, SKELETON_HORSE, ZOMBIE_HORSE,
+                     PHANTOM, SLIME, MAGMA_CUBE, GHAST, BLAZE, DROWNED, PILLAGER,
+                     VINDICATOR, EVOKER, VEX, RAVAGER, SHULKER, ENDERMITE, GUARDIAN,
+                     ELDER_GUARDIAN, HOGLIN, ZOGLIN, PIGLIN, PIGLIN_BRUTE, BOGGED -> true;
+                default -> false;
+            };
+        }
+        return table;
+    }
+
+    // Getters for configuration values
+    public boolean isGlobalLimitEnabled() { return globalLimitEnabled; }
+    public int getGlobalHostileLimit() { return globalHostileLimit; }
+    public int getCounterReconcileInterval() { return counterReconcileInterval; }
+    public double getWorkTickBudgetMs() { return workTickBudgetMs; }
+    public boolean isHostBudgetEnabled() { return hostBudgetEnabled; }
+    public int getHostHostileLimit() { return hostHostileLimit; }
+    public String getHostBudgetFile() { return hostBudgetFile; }
+    public long getHostBudgetExpiryMillis() { return hostBudgetExpiryMillis; }
+    public boolean isAdaptiveLimitsEnabled() { return adaptiveLimitsEnabled; }
+    public double getAdaptiveTargetMspt() { return adaptiveTargetMspt; }
+    public double getAdaptiveHysteresisMspt() { return adaptiveHysteresisMspt; }
+    public double getAdaptiveMinScale() { return adaptiveMinScale; }
+    public double getAdaptiveRecoveryPerSecond() { return adaptiveRecoveryPerSecond; }
+    public boolean isMobLimitsEnabled() { return mobLimitsEnabled; }
+    public Map<EntityType, Integer> getMobLimits() { return mobLimitMap; }
+    public int getLimitProfileCount() { return limitProfiles.length; }
+    public String getLimitProfileName(int profile) { return limitProfileNames[profile]; }
+    public boolean isDensityLimitsEnabled() { return densityLimitsEnabled; }
+    public int getChunkHostileLimit() { return chunkHostileLimit; }
+    public int getRegionHostileLimit() { return regionHostileLimit; }
+    public int getDensityRegionSize() { return densityRegionSize; }
+    public int getDensitySweepPerTick() { return densitySweepPerTick; }
+    public boolean isSpawnSteeringEnabled() { return spawnSteeringEnabled; }
+    public double getSpawnSteeringHeadroom() { return spawnSteeringHeadroom; }
+    public int getSpawnSteeringSlowFactor() { return spawnSteeringSlowFactor; }
+    public boolean isSweepEnabled() { return sweepEnabled; }
+    public int getSweepInterval() { return sweepInterval; }
+    public double getSweepLowWatermark() { return sweepLowWatermark; }
+    public int getSweepChunksPerTick() { return sweepChunksPerTick; }
+    public boolean isSpawnerLimitsEnabled() { return spawnerLimitsEnabled; }
+    public double getSpawnerRatePerMinute() { return spawnerRatePerMinute; }
+    public int getSpawnerBurst() { return spawnerBurst; }
+    public int getSpawnerMaxLiving() { return spawnerMaxLiving; }
+    public boolean isPlayerBudgetEnabled() { return playerBudgetEnabled; }
+    public int getPlayerHostileBudget() { return playerHostileBudget; }
+    public double getPlayerBudgetRadius() { return playerBudgetRadius; }
+    public boolean isLowHealthDelayEnabled() { return lowHealthDelayEnabled; }
+    public double getLowHealthThreshold() { return lowHealthThreshold; }
+    public double getSpawnDelayRadius() { return spawnDelayRadius; }
+    public double getSpawnDelayRadiusSquared() { return spawnDelayRadiusSquared; }
+    public double getSpawnDelayChance() { return spawnDelayChance; }
+    public long getSpawnDelayCooldownMillis() { return spawnDelayCooldownMillis; }
+    public int getSpawnDelayMaxChunks() { return spawnDelayMaxChunks; }
+    public boolean isDeathCleanupEnabled() { return deathCleanupEnabled; }
+    public double getDeathMobCleanupRadius() { return deathMobCleanupRadius; }
+    public int getDeathMobThreshold() { return deathMobThreshold; }
+    public double getDeathMobKillPercentage() { return deathMobKillPercentage; }
+    public int getDeathCleanupCoalesceTicks() { return deathCleanupCoalesceTicks; }
+    public boolean isDeathCleanupNearestFirst() { return deathCleanupNearestFirst; }
+    public boolean isLoggingEnabled() { return loggingEnabled; }
+    public int getLogQueueCapacity() { return logQueueCapacity; }
+    public int getLogMaxFileSizeMb() { return logMaxFileSizeMb; }
+    public int getLogRotateIntervalMinutes() { return logRotateIntervalMinutes; }
+    public boolean isLogCompressRotated() { return logCompressRotated; }
+    public int getDecisionLogInterval() { return decisionLogInterval; }
+    public int getDecisionLogBufferSize() { return decisionLogBufferSize; }
+    public int getDecisionLogSampleEvery() { return decisionLogSampleEvery; }
+    public boolean isMetricsEnabled() { return metricsEnabled; }
+    public int getMetricsFileInterval() { return metricsFileInterval; }
+    public boolean isMetricsHttpEnabled() { return metricsHttpEnabled; }
+    public int getMetricsHttpPort() { return metricsHttpPort; }
+    public boolean isConfigWatchEnabled() { return configWatchEnabled; }
+    public int getConfigWatchDebounceMs() { return configWatchDebounceMs; }
+    public boolean isStatePersistenceEnabled() { return statePersistenceEnabled; }
+    public int getStateSaveInterval() { return stateSaveInterval; }
+    public long getStateMaxAgeMillis() { return stateMaxAgeMillis; }
+    public boolean isTraceEnabled() { return traceEnabled; }
+    public int getTraceMaxFileSizeMb() { return traceMaxFileSizeMb; }
+    public int getGuiDashboardRefreshTicks() { return guiDashboardRefreshTicks; }
+}
\ No newline at end of file
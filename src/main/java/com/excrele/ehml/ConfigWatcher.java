@@ -0,0 +1,133 @@
+package com.excrele.ehml;
+
+import org.bukkit.plugin.java.JavaPlugin;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Watches the plugin data folder for edits to config.yml and applies them automatically.
+ * A daemon thread waits on a {@link WatchService}; after a change, it waits until no further change
+ * has been seen for the debounce period, so an editor's several writes cause one reload, then
+ * schedules the reload on the main thread. Reloads only reinitialize modules whose settings changed,
+ * so the watcher's reaction to EHML's own saves costs nothing beyond parsing the file.
+ */
+public class ConfigWatcher {
+
+    private static final String CONFIG_FILE = "config.yml";
+
+    private final JavaPlugin plugin;
+    private final ConfigManager configManager;
+    private final Runnable onChange;
+    private final Logger logger;
+    private WatchService watchService;
+    private Thread thread;
+
+    /**
+     * Initializes the config watcher.
+     * @param plugin The main plugin instance for the data folder and scheduling.
+     * @param configManager The configuration manager providing settings.
+     * @param onChange The action run on the main thread after config.yml changes.
+     */
+    public ConfigWatcher(JavaPlugin plugin, ConfigManager configManager, Runnable onChange) {
+        this.plugin = plugin;
+        this.configManager = configManager;
+        this.onChange = onChange;
+        this.logger = Logger.getLogger("EHML");
+    }
+
+    /**
+     * Starts watching if the watcher is enabled.
+     */
+    public void start() {
+        ConfigSnapshot config = configManager.getSnapshot();
+        if (!config.isConfigWatchEnabled()) {
+            return;
+        }
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            plugin.getDataFolder().toPath().register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            logger.warning("Failed to watch config.yml for changes: " + e.getMessage());
+            stop();
+            return;
+        }
+        long debounceMs = config.getConfigWatchDebounceMs();
+        WatchService service = watchService;
+        thread = new Thread(() -> watch(service, debounceMs), "EHML-ConfigWatcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops watching.
+     */
+    public void stop() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                logger.warning("Failed to close config watcher: " + e.getMessage());
+            }
+            watchService = null;
+        }
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    /**
+     * Waits for changes to config.yml and schedules a reload once they settle.
+     * @param service The watch service to wait on.
+     * @param debounceMs The quiet period to wait for after a change.
+     */
+    private void watch(WatchService service, long debounceMs) {
+        try {
+            while (true) {
+                if (!drain(service.take())) {
+                    continue;
+                }
+                WatchKey next;
+                while ((next = service.poll(debounceMs, TimeUnit.MILLISECONDS)) != null) {
+                    drain(next);
+                }
+                plugin.getServer().getScheduler().runTask(plugin, onChange);
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Stopped
+        }
+    }
+
+    /**
+     * Consumes the events of a watch key and re-arms it.
+     * @param key The watch key.
+     * @return True if any event concerned config.yml.
+     */
+    private static boolean drain(WatchKey key) {
+        boolean relevant = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.context() instanceof Path path && path.getFileName().toString().equals(CONFIG_FILE)) {
+                relevant = true;
+            }
+        }
+        key.reset();
+        return relevant;
+    }
+
+    /**
+     * Reloads the watcher, restarting it with the current settings.
+     */
+    public void reload() {
+        stop();
+        start();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,100 @@
+package com.excrele.ehml;
+
+/**
+ * Packs grid coordinates into primitive long keys for allocation-free map lookups.
+ */
+public final class CoordinateKeys {
+
+    private CoordinateKeys() {
+    }
+
+    /**
+     * Packs a pair of cell coordinates into a single key.
+     * @param x The cell X coordinate.
+     * @param z The cell Z coordinate.
+     * @return The packed key.
+     */
+    public static long pack(int x, int z) {
+        return ((long) x << 32) | (z & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Packs a world index and chunk coordinates into a single key. Chunk coordinates use 27 bits
+     * each, well beyond the world border, and the world index uses the 9 bits below the sign bit.
+     * Keys are therefore never negative and never equal the {@code Long.MIN_VALUE} empty marker of
+     * the primitive maps.
+     * @param worldIndex The world index from {@link WorldIndex}.
+     * @param chunkX The chunk X coordinate.
+     * @param chunkZ The chunk Z coordinate.
+     * @return The packed key.
+     */
+    public static long packWorldChunk(int worldIndex, int chunkX, int chunkZ) {
+        return ((long) worldIndex << 54) | ((chunkX & 0x7FFFFFFL) << 27) | (chunkZ & 0x7FFFFFFL);
+    }
+
+    /**
+     * Extracts the world index from a key packed by {@link #packWorldChunk(int, int, int)}.
+     * @param key The packed key.
+     * @return The world index.
+     */
+    public static int unpackWorldIndex(long key) {
+        return (int) (key >>> 54);
+    }
+
+    /**
+     * Extracts the chunk X coordinate from a key packed by {@link #packWorldChunk(int, int, int)}.
+     * @param key The packed key.
+     * @return The chunk X coordinate.
+     */
+    public static int unpackWorldChunkX(long key) {
+        return (int) (key << 10 >> 37);
+    }
+
+    /**
+     * Extracts the chunk Z coordinate from a key packed by {@link #packWorldChunk(int, int, int)}.
+     * @param key The packed key.
+     * @return The chunk Z coordinate.
+     */
+    public static int unpackWorldChunkZ(long key) {
+        return (int) (key << 37 >> 37);
+    }
+
+    /**
+     * Packs block coordinates into a single key. X and Z use 26 bits each, covering the world
+     * border, and Y uses 12 bits.
+     * @param x The block X coordinate.
+     * @param y The block Y coordinate.
+     * @param z The block Z coordinate.
+     * @return The packed key.
+     */
+    public static long packBlock(int x, int y, int z) {
+        return ((x & 0x3FFFFFFL) << 38) | ((z & 0x3FFFFFFL) << 12) | (y & 0xFFFL);
+    }
+
+    /**
+     * Extracts the X coordinate from a packed key.
+     * @param key The packed key.
+     * @return The cell X coordinate.
+     */
+    public static int unpackX(long key) {
+        return (int) (key >> 32);
+    }
+
+    /**
+     * Extracts the Z coordinate from a packed key.
+     * @param key The packed key.
+     * @return The cell Z coordinate.
+     */
+    public static int unpackZ(long key) {
+        return (int) key;
+    }
+
+    /**
+     * Converts a block coordinate to its chunk coordinate.
+     * @param block The block coordinate.
+     * @return The chunk coordinate.
+     */
+    public static int toChunk(int block) {
+        return block >> 4;
+    }
+}
\ No newline at end of file
@@ -1,74 +1,370 @@
 package com.excrele.ehml;
 
+import org.bukkit.World;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.EntityType;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.entity.PlayerDeathEvent;
 import org.bukkit.Location;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
 /**
  * Module for cleaning up hostile mobs near a player's death location.
+ * Deaths are queued rather than handled in the event: deaths close to each other within the
+ * coalescing window share one cleanup, victims are chosen by partial random (or nearest-first)
+ * selection, and removals run as a high-priority unit of the {@link WorkScheduler}, spread over
+ * ticks under its time budget. Each cleanup writes one summary log record. Processing time and
+ * removed mobs are recorded in the {@link MetricsModule}, and each decision is passed to the
+ * {@link SpawnTraceRecorder} while a trace is being recorded.
  */
 public class DeathCleanupModule implements Listener {
 
+    /** Maximum number of death locations merged into one cleanup. */
+    private static final int MAX_CENTERS = 16;
+
+    private final WorkScheduler workScheduler;
     private final ConfigManager configManager;
     private final LoggerModule loggerModule;
+    private final MetricsModule metrics;
+    private final SpawnTraceRecorder traceRecorder;
     private final Logger logger;
+    private final int stage;
+    private final List<Cleanup> pending;
+    private int queuedCleanups;
+    private int pendingVictims;
+
+    /**
+     * A cleanup of one or more nearby death locations, first waiting for more deaths to merge,
+     * then removing its chosen victims.
+     */
+    private static final class Cleanup {
+
+        private final World world;
+        private final double[] centers;
+        private int centerCount;
+        private int deaths;
+        private Entity[] victims;
+        private int victimCount;
+        private int nextVictim;
+        private int removed;
+
+        /**
+         * Starts a cleanup at a death location.
+         * @param location The death location.
+         */
+        private Cleanup(Location location) {
+            this.world = location.getWorld();
+            this.centers = new double[MAX_CENTERS * 3];
+            addCenter(location);
+        }
+
+        /**
+         * Adds a death location to the cleanup.
+         * @param location The death location.
+         */
+        private void addCenter(Location location) {
+            deaths++;
+            if (centerCount == MAX_CENTERS) {
+                return; // Covered by the existing centers well enough
+            }
+            centers[centerCount * 3] = location.getX();
+            centers[centerCount * 3 + 1] = location.getY();
+            centers[centerCount * 3 + 2] = location.getZ();
+            centerCount++;
+        }
+
+        /**
+         * Checks if a death location lies within a distance of any center of the cleanup.
+         * @param location The death location.
+         * @param distance The merge distance.
+         * @return True if the location can be merged.
+         */
+        private boolean isNear(Location location, double distance) {
+            if (location.getWorld() != world) {
+                return false;
+            }
+            double distanceSquared = distance * distance;
+            for (int i = 0; i < centerCount; i++) {
+                if (distanceSquared(i, location.getX(), location.getY(), location.getZ()) <= distanceSquared) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Gets the squared distance from a center to a position.
+         * @param center The center index.
+         * @param x The X coordinate.
+         * @param y The Y coordinate.
+         * @param z The Z coordinate.
+         * @return The squared distance.
+         */
+        private double distanceSquared(int center, double x, double y, double z) {
+            double dx = centers[center * 3] - x;
+            double dy = centers[center * 3 + 1] - y;
+            double dz = centers[center * 3 + 2] - z;
+            return dx * dx + dy * dy + dz * dz;
+        }
+
+        /**
+         * Gets the location of the first death of the cleanup.
+         * @return The first death location.
+         */
+        private Location firstCenter() {
+            return new Location(world, centers[0], centers[1], centers[2]);
+        }
+    }
 
     /**
      * Initializes the death cleanup module.
+     * @param workScheduler The shared scheduler that runs the cleanups.
      * @param configManager The configuration manager providing settings.
      * @param loggerModule The logger module for recording activities.
+     * @param metrics The metrics module for timings and removal counts.
+     * @param traceRecorder The recorder that traces cleanup decisions while enabled.
      */
-    public DeathCleanupModule(ConfigManager configManager, LoggerModule loggerModule) {
+    public DeathCleanupModule(WorkScheduler workScheduler, ConfigManager configManager, LoggerModule loggerModule,
+                              MetricsModule metrics, SpawnTraceRecorder traceRecorder) {
+        this.workScheduler = workScheduler;
         this.configManager = configManager;
         this.loggerModule = loggerModule;
+        this.metrics = metrics;
+        this.traceRecorder = traceRecorder;
         this.logger = Logger.getLogger("EHML");
+        this.stage = metrics.registerStage("DeathCleanup");
+        this.pending = new ArrayList<>();
     }
 
     /**
-     * Handles player death to clean up hostile mobs if more than the threshold are present.
+     * Queues a cleanup at a player's death location, merging it into a waiting cleanup nearby.
      * @param event The player death event.
      */
-    @EventHandler
+    @EventHandler(priority = EventPriority.MONITOR)
     public void onPlayerDeath(PlayerDeathEvent event) {
-        if (!configManager.isDeathCleanupEnabled()) {
+        ConfigSnapshot config = configManager.getSnapshot();
+        if (!config.isDeathCleanupEnabled()) {
             return; // Skip if death cleanup is disabled
         }
 
         Location deathLocation = event.getEntity().getLocation();
-        List<Entity> nearbyHostileMobs = deathLocation.getWorld().getNearbyEntities(deathLocation,
-                        configManager.getDeathMobCleanupRadius(), configManager.getDeathMobCleanupRadius(),
-                        configManager.getDeathMobCleanupRadius()).stream()
-                .filter(entity -> configManager.isHostileMob(entity.getType()))
-                .collect(Collectors.toList());
+        double mergeDistance = config.getDeathMobCleanupRadius() * 2;
+        for (Cleanup cleanup : pending) {
+            if (cleanup.isNear(deathLocation, mergeDistance)) {
+                cleanup.addCenter(deathLocation);
+                return;
+            }
+        }
+        Cleanup cleanup = new Cleanup(deathLocation);
+        pending.add(cleanup);
+        queuedCleanups++;
+        workScheduler.submit("DeathCleanup", WorkPriority.HIGH, config.getDeathCleanupCoalesceTicks(),
+                deadline -> runCleanup(cleanup, deadline));
+    }
+
+    /**
+     * Runs a slice of a cleanup once its coalescing window has ended: chooses the victims on the
+     * first slice, then removes victims until the deadline.
+     * @param cleanup The cleanup.
+     * @param deadline The {@link System#nanoTime()} deadline of the slice.
+     * @return True if the cleanup is finished.
+     */
+    private boolean runCleanup(Cleanup cleanup, long deadline) {
+        ConfigSnapshot config = configManager.getSnapshot();
+        long start = System.nanoTime();
+        boolean finished;
+        if (cleanup.victims == null) {
+            pending.remove(cleanup); // No longer accepts merges
+            finished = !selectVictims(cleanup, config) || removeVictims(cleanup, deadline);
+        } else {
+            finished = removeVictims(cleanup, deadline);
+        }
+        if (finished && cleanup.victims != null) {
+            finish(cleanup);
+        }
+        if (finished) {
+            queuedCleanups--;
+        }
+        if (config.isMetricsEnabled()) {
+            metrics.recordLatency(stage, System.nanoTime() - start);
+        }
+        return finished;
+    }
+
+    /**
+     * Collects the hostile mobs around the death locations of a cleanup and chooses which to remove.
+     * @param cleanup The cleanup.
+     * @param config The configuration snapshot to read settings from.
+     * @return True if there are more mobs than the threshold and victims were chosen.
+     */
+    private boolean selectVictims(Cleanup cleanup, ConfigSnapshot config) {
+        double radius = config.getDeathMobCleanupRadius();
+        Set<Entity> found = cleanup.centerCount > 1 ? Collections.newSetFromMap(new IdentityHashMap<>()) : null;
+        Entity[] candidates = new Entity[16];
+        int count = 0;
+        for (int i = 0; i < cleanup.centerCount; i++) {
+            Location center = new Location(cleanup.world, cleanup.centers[i * 3], cleanup.centers[i * 3 + 1],
+                    cleanup.centers[i * 3 + 2]);
+            for (Entity entity : cleanup.world.getNearbyEntities(center, radius, radius, radius)) {
+                if (!config.isHostileMob(entity.getType()) || (found != null && !found.add(entity))) {
+                    continue;
+                }
+                if (count == candidates.length) {
+                    candidates = Arrays.copyOf(candidates, count * 2);
+                }
+                candidates[count++] = entity;
+            }
+        }
 
         // Check if number of hostile mobs exceeds threshold
-        if (nearbyHostileMobs.size() > configManager.getDeathMobThreshold()) {
-            int mobsToKill = (int) Math.ceil(nearbyHostileMobs.size() * configManager.getDeathMobKillPercentage());
-            // Shuffle list to randomly select mobs to kill
-            java.util.Collections.shuffle(nearbyHostileMobs);
-            for (int i = 0; i < Math.min(mobsToKill, nearbyHostileMobs.size()); i++) {
-                Entity mob = nearbyHostileMobs.get(i);
+        int mobsToKill = count <= config.getDeathMobThreshold() ? 0
+                : Math.min(count, (int) Math.ceil(count * config.getDeathMobKillPercentage()));
+        if (traceRecorder.isRecording()) {
+            traceRecorder.recordDeath(cleanup.firstCenter(), cleanup.deaths, count, mobsToKill);
+        }
+        if (mobsToKill == 0) {
+            return false;
+        }
+        if (config.isDeathCleanupNearestFirst()) {
+            selectNearest(cleanup, candidates, count, mobsToKill);
+        } else {
+            selectRandom(candidates, count, mobsToKill);
+        }
+        cleanup.victims = candidates;
+        cleanup.victimCount = mobsToKill;
+        pendingVictims += mobsToKill;
+        return true;
+    }
+
+    /**
+     * Moves a random selection of candidates to the front using a partial Fisher-Yates shuffle.
+     * @param candidates The candidates.
+     * @param count The number of candidates.
+     * @param selected The number of candidates to select.
+     */
+    private static void selectRandom(Entity[] candidates, int count, int selected) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < selected; i++) {
+            swap(candidates, null, i, random.nextInt(i, count));
+        }
+    }
+
+    /**
+     * Moves the candidates nearest to any death location of a cleanup to the front, using
+     * quickselect on their squared distances.
+     * @param cleanup The cleanup.
+     * @param candidates The candidates.
+     * @param count The number of candidates.
+     * @param selected The number of candidates to select.
+     */
+    private static void selectNearest(Cleanup cleanup, Entity[] candidates, int count, int selected) {
+        double[] distances = new double[count];
+        Location scratch = new Location(cleanup.world, 0, 0, 0);
+        for (int i = 0; i < count; i++) {
+            candidates[i].getLocation(scratch);
+            double nearest = Double.MAX_VALUE;
+            for (int c = 0; c < cleanup.centerCount; c++) {
+                nearest = Math.min(nearest, cleanup.distanceSquared(c, scratch.getX(), scratch.getY(), scratch.getZ()));
+            }
+            distances[i] = nearest;
+        }
+        int low = 0;
+        int high = count - 1;
+        while (low < high) {
+            double pivot = distances[(low + high) >>> 1];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (distances[i] < pivot) {
+                    i++;
+                }
+                while (distances[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(candidates, distances, i++, j--);
+                }
+            }
+            if (selected - 1 <= j) {
+                high = j;
+            } else if (selected - 1 >= i) {
+                low = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Swaps two candidates and, if given, their distances.
+     * @param candidates The candidates.
+     * @param distances The candidate distances, or null.
+     * @param a The first index.
+     * @param b The second index.
+     */
+    private static void swap(Entity[] candidates, double[] distances, int a, int b) {
+        Entity entity = candidates[a];
+        candidates[a] = candidates[b];
+        candidates[b] = entity;
+        if (distances != null) {
+            double distance = distances[a];
+            distances[a] = distances[b];
+            distances[b] = distance;
+        }
+    }
+
+    /**
+     * Removes the remaining victims of a cleanup until the deadline passes.
+     * @param cleanup The cleanup.
+     * @param deadline The {@link System#nanoTime()} deadline of this tick.
+     * @return True if all victims have been handled.
+     */
+    private boolean removeVictims(Cleanup cleanup, long deadline) {
+        while (cleanup.nextVictim < cleanup.victimCount) {
+            Entity mob = cleanup.victims[cleanup.nextVictim];
+            cleanup.victims[cleanup.nextVictim++] = null;
+            pendingVictims--;
+            if (mob.isValid()) {
                 EntityType type = mob.getType();
                 mob.remove();
-                logger.fine("Removed " + type + " at " + mob.getLocation() + " due to player death at " + deathLocation);
-                loggerModule.log("DeathCleanup", "Removed " + type + " at " + mob.getLocation() +
-                        " due to player death at " + deathLocation);
+                metrics.recordRemoval(type);
+                cleanup.removed++;
+            }
+            if ((cleanup.nextVictim & 7) == 0 && System.nanoTime() >= deadline) {
+                return cleanup.nextVictim >= cleanup.victimCount;
             }
-            logger.info("Removed " + mobsToKill + " hostile mobs near player death at " + deathLocation);
-            loggerModule.log("DeathCleanup", "Removed " + mobsToKill + " hostile mobs near player death at " + deathLocation);
         }
+        return true;
+    }
+
+    /**
+     * Writes the summary of a completed cleanup.
+     * @param cleanup The completed cleanup.
+     */
+    private void finish(Cleanup cleanup) {
+        Location location = cleanup.firstCenter();
+        String message = "Removed " + cleanup.removed + " hostile mobs near " + cleanup.deaths + " player death(s)";
+        logger.info(message + " at " + location);
+        loggerModule.log("DeathCleanup", null, location, message);
     }
 
     /**
-     * Reloads the module (no-op as settings are managed by ConfigManager).
+     * Reloads the module (no-op as settings are read from the current snapshot every slice).
      */
     public void reload() {
         // No additional reload logic needed; ConfigManager handles settings
     }
+
+    // Getters for the cleanup backlog
+    public int getQueuedCleanups() { return queuedCleanups; }
+    public int getPendingVictims() { return pendingVictims; }
 }
\ No newline at end of file
@@ -0,0 +1,284 @@
+package com.excrele.ehml;
+
+import org.bukkit.World;
+import org.bukkit.entity.EntityType;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Module logging the spawns cancelled by the {@link SpawnDecisionPipeline} in aggregate.
+ * A cancellation is captured as a primitive record (time, rule, rejection code, world index, entity type
+ * and block position) in preallocated arrays, so nothing is formatted or allocated when a spawn is
+ * cancelled. Records are folded into counts per rule, rejection code, world and entity type whenever
+ * the buffer fills and at the end of every interval, when one summary per count is written to the
+ * activity log, e.g. "GlobalLimit cancelled 5,312 ZOMBIE spawns in world in the last 10s", with the
+ * count in its own field for log queries. Optionally, every Nth cancellation is kept as a sample and
+ * logged in full with its position, under the rule's category with a ".sample" suffix.
+ */
+public class DecisionLogModule {
+
+    /** Suffix of the category sampled cancellations are logged under. */
+    public static final String SAMPLE_SUFFIX = ".sample";
+
+    private static final EntityType[] TYPES = EntityType.values();
+
+    /** Samples kept per interval; further samples are skipped and counted. */
+    private static final int MAX_SAMPLES = 256;
+
+    private final JavaPlugin plugin;
+    private final ConfigManager configManager;
+    private final LoggerModule loggerModule;
+    private final Logger logger;
+    private final WorldIndex worlds;
+    private final LongIntMap counts;
+    private final List<String> ruleNames;
+    private final List<List<String>> ruleReasons;
+    private final long[] sampleTimes;
+    private final long[] sampleKeys;
+    private final int[] samplePositions;
+    private long[] times;
+    private long[] keys;
+    private int[] positions;
+    private int size;
+    private int sampleCount;
+    private int skippedSamples;
+    private long sequence;
+    private long intervalStart;
+    private BukkitTask task;
+
+    /**
+     * Initializes the decision log module.
+     * @param plugin The main plugin instance for scheduling.
+     * @param configManager The configuration manager providing settings.
+     * @param loggerModule The logger module the summaries are written to.
+     */
+    public DecisionLogModule(JavaPlugin plugin, ConfigManager configManager, LoggerModule loggerModule) {
+        this.plugin = plugin;
+        this.configManager = configManager;
+        this.loggerModule = loggerModule;
+        this.logger = Logger.getLogger("EHML");
+        this.worlds = new WorldIndex();
+        this.counts = new LongIntMap(64);
+        this.ruleNames = new ArrayList<>();
+        this.ruleReasons = new ArrayList<>();
+        this.sampleTimes = new long[MAX_SAMPLES];
+        this.sampleKeys = new long[MAX_SAMPLES];
+        this.samplePositions = new int[MAX_SAMPLES * 3];
+        allocate(configManager.getSnapshot().getDecisionLogBufferSize());
+    }
+
+    /**
+     * Registers a rule of the pipeline. Rules must be registered in pipeline order, since records
+     * identify their rule by its position.
+     * @param rule The rule.
+     */
+    public void registerRule(SpawnRule rule) {
+        ruleNames.add(rule.getName());
+        ruleReasons.add(rule.getRejectionReasons());
+    }
+
+    /**
+     * Starts writing summaries at the configured interval.
+     */
+    public void start() {
+        long period = configManager.getSnapshot().getDecisionLogInterval() * 20L;
+        intervalStart = System.currentTimeMillis();
+        task = plugin.getServer().getScheduler().runTaskTimer(plugin, this::flush, period, period);
+    }
+
+    /**
+     * Stops the summaries, writing the summary of the current interval.
+     */
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        flush();
+    }
+
+    /**
+     * Checks if cancellations should be recorded, which is the case while they can be written
+     * to the activity log or the server log.
+     * @param config The configuration snapshot.
+     * @return True if {@link #record(int, int, SpawnContext)} should be called.
+     */
+    public boolean isEnabled(ConfigSnapshot config) {
+        return config.isLoggingEnabled() || logger.isLoggable(Level.FINE);
+    }
+
+    /**
+     * Records a cancelled spawn.
+     * @param rule The position of the rejecting rule in the pipeline.
+     * @param code The rule's rejection code.
+     * @param context The classified spawn.
+     */
+    public void record(int rule, int code, SpawnContext context) {
+        if (size == keys.length) {
+            fold();
+        }
+        int i = size++;
+        times[i] = System.currentTimeMillis();
+        keys[i] = key(rule, code, worlds.indexOf(context.getWorld()), context.getEntityType().ordinal());
+        positions[i * 3] = context.getBlockX();
+        positions[i * 3 + 1] = context.getBlockY();
+        positions[i * 3 + 2] = context.getBlockZ();
+    }
+
+    /**
+     * Folds the buffered records into the counts and keeps every Nth record as a sample.
+     */
+    private void fold() {
+        int sampleEvery = configManager.getSnapshot().getDecisionLogSampleEvery();
+        for (int i = 0; i < size; i++) {
+            counts.increment(keys[i], 1);
+            if (sampleEvery == 0 || ++sequence % sampleEvery != 0) {
+                continue;
+            }
+            if (sampleCount == MAX_SAMPLES) {
+                skippedSamples++;
+                continue;
+            }
+            sampleTimes[sampleCount] = times[i];
+            sampleKeys[sampleCount] = keys[i];
+            System.arraycopy(positions, i * 3, samplePositions, sampleCount * 3, 3);
+            sampleCount++;
+        }
+        size = 0;
+    }
+
+    /**
+     * Writes the summaries and samples of the current interval and starts the next one.
+     */
+    private void flush() {
+        fold();
+        long now = System.currentTimeMillis();
+        long seconds = Math.max(1, Math.round((now - intervalStart) / 1000.0));
+        intervalStart = now;
+
+        // Summaries, largest counts first; the count and entry index are packed to sort without boxing
+        if (counts.size() > 0) {
+            long[] entryKeys = new long[counts.size()];
+            long[] order = new long[entryKeys.length];
+            int[] next = new int[1];
+            counts.forEach((key, count) -> {
+                entryKeys[next[0]] = key;
+                order[next[0]] = (long) count << 32 | next[0];
+                next[0]++;
+            });
+            counts.clear();
+            Arrays.sort(order);
+            for (int i = order.length - 1; i >= 0; i--) {
+                long key = entryKeys[(int) order[i]];
+                int count = (int) (order[i] >>> 32);
+                String rule = ruleNames.get(rule(key));
+                World world = worlds.get(world(key));
+                EntityType type = TYPES[type(key)];
+                String message = String.format(Locale.ROOT, "%s cancelled %,d %s spawns in %s in the last %ds: %s.",
+                        rule, count, type, world == null ? "unknown world" : world.getName(), seconds, reason(key));
+                if (logger.isLoggable(Level.FINE)) {
+                    logger.fine(message);
+                }
+                loggerModule.log(rule, type, world, count, message);
+            }
+        }
+
+        // Sampled cancellations in full, under their own category so they are not counted twice
+        for (int i = 0; i < sampleCount; i++) {
+            long key = sampleKeys[i];
+            EntityType type = TYPES[type(key)];
+            loggerModule.log(sampleTimes[i], ruleNames.get(rule(key)) + SAMPLE_SUFFIX, type, worlds.get(world(key)),
+                    samplePositions[i * 3], samplePositions[i * 3 + 1], samplePositions[i * 3 + 2],
+                    "Cancelled spawn of " + type + ": " + reason(key) + ".");
+        }
+        sampleCount = 0;
+        if (skippedSamples > 0) {
+            loggerModule.log("DecisionLog", "Skipped " + skippedSamples + " sampled spawn decisions beyond " +
+                    MAX_SAMPLES + " per interval.");
+            skippedSamples = 0;
+        }
+    }
+
+    /**
+     * Allocates the record buffer.
+     * @param capacity The number of records buffered between folds.
+     */
+    private void allocate(int capacity) {
+        times = new long[capacity];
+        keys = new long[capacity];
+        positions = new int[capacity * 3];
+        size = 0;
+    }
+
+    /**
+     * Packs the fields summaries are counted by into a key.
+     * @param rule The rule position.
+     * @param code The rejection code.
+     * @param world The world index.
+     * @param type The entity type ordinal.
+     * @return The packed key.
+     */
+    private static long key(int rule, int code, int world, int type) {
+        return (long) rule << 56 | (long) code << 48 | (long) world << 16 | type;
+    }
+
+    /**
+     * Gets the rule position of a key.
+     * @param key The packed key.
+     * @return The rule position.
+     */
+    private static int rule(long key) {
+        return (int) (key >>> 56);
+    }
+
+    /**
+     * Gets the world index of a key.
+     * @param key The packed key.
+     * @return The world index.
+     */
+    private static int world(long key) {
+        return (int) (key >>> 16);
+    }
+
+    /**
+     * Gets the entity type ordinal of a key.
+     * @param key The packed key.
+     * @return The entity type ordinal.
+     */
+    private static int type(long key) {
+        return (int) key & 0xFFFF;
+    }
+
+    /**
+     * Describes the rejection of a key.
+     * @param key The packed key.
+     * @return The rejection reason of the key's rule and code.
+     */
+    private String reason(long key) {
+        List<String> reasons = ruleReasons.get(rule(key));
+        int code = (int) (key >>> 48) & 0xFF;
+        return code < reasons.size() ? reasons.get(code) : "rejection " + code;
+    }
+
+    /**
+     * Reloads the module, applying a new interval or buffer size.
+     */
+    public void reload() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        flush();
+        int capacity = configManager.getSnapshot().getDecisionLogBufferSize();
+        if (capacity != keys.length) {
+            allocate(capacity);
+        }
+        start();
+    }
+}
\ No newline at end of file
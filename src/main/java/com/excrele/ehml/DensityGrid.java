@@ -0,0 +1,164 @@
+package com.excrele.ehml;
+
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import java.util.Arrays;
+
+/**
+ * Spatial grid of hostile mob counts for one world, kept per chunk and per region of chunks.
+ * Tracked mobs are remembered with the chunk they were last counted in, and a rolling sweep
+ * moves them between cells as they wander so counts follow mobs across chunk borders.
+ */
+public class DensityGrid {
+
+    private final int regionSize;
+    private final LongIntMap chunkCounts;
+    private final LongIntMap regionCounts;
+    private final LongIntMap trackedIndex;
+    private final Location scratch;
+    private Entity[] tracked;
+    private long[] trackedChunks;
+    private int trackedCount;
+    private int sweepCursor;
+
+    /**
+     * Initializes an empty density grid.
+     * @param regionSize The width of a region in chunks.
+     */
+    public DensityGrid(int regionSize) {
+        this.regionSize = regionSize;
+        this.chunkCounts = new LongIntMap(256);
+        this.regionCounts = new LongIntMap(64);
+        this.trackedIndex = new LongIntMap(256);
+        this.scratch = new Location(null, 0, 0, 0);
+        this.tracked = new Entity[256];
+        this.trackedChunks = new long[256];
+    }
+
+    /**
+     * Starts tracking a hostile mob in the chunk it currently occupies.
+     * @param entity The mob to track.
+     */
+    public void add(Entity entity) {
+        long id = entity.getEntityId();
+        if (trackedIndex.get(id, -1) >= 0) {
+            return; // Already tracked
+        }
+        if (trackedCount == tracked.length) {
+            tracked = Arrays.copyOf(tracked, trackedCount * 2);
+            trackedChunks = Arrays.copyOf(trackedChunks, trackedCount * 2);
+        }
+        entity.getLocation(scratch);
+        long chunk = CoordinateKeys.pack(CoordinateKeys.toChunk(scratch.getBlockX()),
+                CoordinateKeys.toChunk(scratch.getBlockZ()));
+        tracked[trackedCount] = entity;
+        trackedChunks[trackedCount] = chunk;
+        trackedIndex.put(id, trackedCount);
+        trackedCount++;
+        count(chunk, 1);
+    }
+
+    /**
+     * Stops tracking a mob and removes it from its cell counts.
+     * @param entity The mob to stop tracking.
+     */
+    public void remove(Entity entity) {
+        int index = trackedIndex.get(entity.getEntityId(), -1);
+        if (index >= 0) {
+            removeAt(index);
+        }
+    }
+
+    /**
+     * Re-buckets a slice of tracked mobs whose chunk has changed and drops invalid ones.
+     * @param maxEntities The maximum number of mobs to inspect.
+     */
+    public void sweep(int maxEntities) {
+        for (int i = 0; i < maxEntities && trackedCount > 0; i++) {
+            if (sweepCursor >= trackedCount) {
+                sweepCursor = 0;
+            }
+            Entity entity = tracked[sweepCursor];
+            if (!entity.isValid()) {
+                removeAt(sweepCursor); // Swapped-in entry is inspected next
+                continue;
+            }
+            entity.getLocation(scratch);
+            long chunk = CoordinateKeys.pack(CoordinateKeys.toChunk(scratch.getBlockX()),
+                    CoordinateKeys.toChunk(scratch.getBlockZ()));
+            if (chunk != trackedChunks[sweepCursor]) {
+                count(trackedChunks[sweepCursor], -1);
+                count(chunk, 1);
+                trackedChunks[sweepCursor] = chunk;
+            }
+            sweepCursor++;
+        }
+    }
+
+    /**
+     * Gets the number of hostile mobs counted in a chunk.
+     * @param chunkX The chunk X coordinate.
+     * @param chunkZ The chunk Z coordinate.
+     * @return The chunk's hostile mob count.
+     */
+    public int getChunkCount(int chunkX, int chunkZ) {
+        return chunkCounts.get(CoordinateKeys.pack(chunkX, chunkZ), 0);
+    }
+
+    /**
+     * Gets the number of hostile mobs counted in the region containing a chunk.
+     * @param chunkX The chunk X coordinate.
+     * @param chunkZ The chunk Z coordinate.
+     * @return The region's hostile mob count.
+     */
+    public int getRegionCount(int chunkX, int chunkZ) {
+        return regionCounts.get(regionKey(chunkX, chunkZ), 0);
+    }
+
+    /**
+     * Gets the number of mobs tracked by the grid.
+     * @return The tracked mob count.
+     */
+    public int getTrackedCount() {
+        return trackedCount;
+    }
+
+    /**
+     * Removes the tracked mob at an index by swapping the last entry into its place.
+     * @param index The index to remove.
+     */
+    private void removeAt(int index) {
+        Entity entity = tracked[index];
+        count(trackedChunks[index], -1);
+        trackedIndex.remove(entity.getEntityId(), -1);
+        int last = --trackedCount;
+        if (index != last) {
+            tracked[index] = tracked[last];
+            trackedChunks[index] = trackedChunks[last];
+            trackedIndex.put(tracked[index].getEntityId(), index);
+        }
+        tracked[last] = null;
+    }
+
+    /**
+     * Applies a count change to a chunk and its region.
+     * @param chunk The packed chunk key.
+     * @param delta The change to apply.
+     */
+    private void count(long chunk, int delta) {
+        int chunkX = CoordinateKeys.unpackX(chunk);
+        int chunkZ = CoordinateKeys.unpackZ(chunk);
+        chunkCounts.increment(chunk, delta);
+        regionCounts.increment(regionKey(chunkX, chunkZ), delta);
+    }
+
+    /**
+     * Computes the packed region key of a chunk.
+     * @param chunkX The chunk X coordinate.
+     * @param chunkZ The chunk Z coordinate.
+     * @return The packed region key.
+     */
+    private long regionKey(int chunkX, int chunkZ) {
+        return CoordinateKeys.pack(Math.floorDiv(chunkX, regionSize), Math.floorDiv(chunkZ, regionSize));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,265 @@
+package com.excrele.ehml;
+
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityRemoveEvent;
+import org.bukkit.event.entity.EntitySpawnEvent;
+import org.bukkit.event.world.EntitiesLoadEvent;
+import org.bukkit.event.world.EntitiesUnloadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Module for enforcing per-chunk and per-region hostile mob density limits.
+ * Keeps a {@link DensityGrid} per world that is updated as hostile mobs spawn, die, unload
+ * and move between chunks, so a spawn is checked against its cell with a single lookup.
+ * Spawns are checked as a {@link SpawnRule} of the {@link SpawnDecisionPipeline}.
+ */
+public class DensityLimitModule implements Listener, SpawnRule {
+
+    /** Rejection code of spawns into a full chunk. */
+    public static final int CHUNK_LIMIT = 0;
+
+    /** Rejection code of spawns into a full region. */
+    public static final int REGION_LIMIT = 1;
+
+    private static final List<String> REJECTION_REASONS = List.of("chunk limit reached", "region limit reached");
+
+    private final JavaPlugin plugin;
+    private final ConfigManager configManager;
+    private final Map<UUID, DensityGrid> grids;
+    private int regionSize;
+    private BukkitTask sweepTask;
+
+    /**
+     * Initializes the density limit module.
+     * @param plugin The main plugin instance for server access.
+     * @param configManager The configuration manager providing settings.
+     */
+    public DensityLimitModule(JavaPlugin plugin, ConfigManager configManager) {
+        this.plugin = plugin;
+        this.configManager = configManager;
+        this.grids = new HashMap<>();
+    }
+
+    /**
+     * Builds the grids from the hostile mobs already loaded and starts the movement sweep.
+     */
+    public void start() {
+        regionSize = configManager.getDensityRegionSize();
+        grids.clear();
+        for (World world : plugin.getServer().getWorlds()) {
+            DensityGrid grid = getGrid(world);
+            for (Entity entity : world.getEntities()) {
+                if (configManager.isHostileMob(entity.getType())) {
+                    grid.add(entity);
+                }
+            }
+        }
+        sweepTask = plugin.getServer().getScheduler().runTaskTimer(plugin, this::sweep, 1L, 1L);
+    }
+
+    /**
+     * Cancels the movement sweep task.
+     */
+    public void stop() {
+        if (sweepTask != null) {
+            sweepTask.cancel();
+            sweepTask = null;
+        }
+    }
+
+    /**
+     * Gets the name of the rule.
+     * @return The rule name.
+     */
+    @Override
+    public String getName() {
+        return "DensityLimit";
+    }
+
+    /**
+     * Checks if density limits are enabled.
+     * @param config The configuration snapshot.
+     * @return True if density limits are enabled.
+     */
+    @Override
+    public boolean isEnabled(ConfigSnapshot config) {
+        return config.isDensityLimitsEnabled();
+    }
+
+    /**
+     * Checks the hostile mob counts of the spawn's chunk and region against their limits.
+     * @param context The classified spawn.
+     * @return True if neither limit has been reached.
+     */
+    @Override
+    public boolean allows(SpawnContext context) {
+        DensityGrid grid = grids.get(context.getWorld().getUID());
+        if (grid == null) {
+            return true; // No hostile mobs tracked in this world yet
+        }
+        ConfigSnapshot config = context.getConfig();
+        int chunkLimit = config.getChunkHostileLimit();
+        if (chunkLimit > 0 && grid.getChunkCount(context.getChunkX(), context.getChunkZ()) >= chunkLimit) {
+            return false;
+        }
+        int regionLimit = config.getRegionHostileLimit();
+        return regionLimit <= 0 || grid.getRegionCount(context.getChunkX(), context.getChunkZ()) < regionLimit;
+    }
+
+    /**
+     * Tells which density limit rejected a spawn.
+     * @param context The classified spawn.
+     * @return {@link #CHUNK_LIMIT} or {@link #REGION_LIMIT}.
+     */
+    @Override
+    public int getRejectionCode(SpawnContext context) {
+        DensityGrid grid = grids.get(context.getWorld().getUID());
+        int chunkLimit = context.getConfig().getChunkHostileLimit();
+        if (grid != null && chunkLimit > 0 && grid.getChunkCount(context.getChunkX(), context.getChunkZ()) >= chunkLimit) {
+            return CHUNK_LIMIT;
+        }
+        return REGION_LIMIT;
+    }
+
+    /**
+     * Gets the descriptions of the rejection codes.
+     * @return The rejection reasons.
+     */
+    @Override
+    public List<String> getRejectionReasons() {
+        return REJECTION_REASONS;
+    }
+
+    /**
+     * Tracks hostile mobs added to a world.
+     * @param event The entity spawn event.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntitySpawn(EntitySpawnEvent event) {
+        Entity entity = event.getEntity();
+        if (configManager.isHostileMob(entity.getType())) {
+            getGrid(entity.getWorld()).add(entity);
+        }
+    }
+
+    /**
+     * Stops tracking hostile mobs removed from a world.
+     * @param event The entity remove event.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntityRemove(EntityRemoveEvent event) {
+        Entity entity = event.getEntity();
+        if (configManager.isHostileMob(entity.getType())) {
+            DensityGrid grid = grids.get(entity.getWorld().getUID());
+            if (grid != null) {
+                grid.remove(entity);
+            }
+        }
+    }
+
+    /**
+     * Tracks hostile mobs brought in when a chunk's entities are loaded.
+     * @param event The entities load event.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntitiesLoad(EntitiesLoadEvent event) {
+        DensityGrid grid = getGrid(event.getWorld());
+        for (Entity entity : event.getEntities()) {
+            if (configManager.isHostileMob(entity.getType())) {
+                grid.add(entity);
+            }
+        }
+    }
+
+    /**
+     * Stops tracking hostile mobs removed when a chunk's entities are unloaded.
+     * @param event The entities unload event.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntitiesUnload(EntitiesUnloadEvent event) {
+        DensityGrid grid = grids.get(event.getWorld().getUID());
+        if (grid == null) {
+            return;
+        }
+        for (Entity entity : event.getEntities()) {
+            if (configManager.isHostileMob(entity.getType())) {
+                grid.remove(entity);
+            }
+        }
+    }
+
+    /**
+     * Drops the grid of a world when it is unloaded.
+     * @param event The world unload event.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        grids.remove(event.getWorld().getUID());
+    }
+
+    /**
+     * Gets the density grid of a world, creating it if needed.
+     * @param world The world.
+     * @return The world's density grid.
+     */
+    public DensityGrid getGrid(World world) {
+        return grids.computeIfAbsent(world.getUID(), uid -> new DensityGrid(regionSize));
+    }
+
+    /**
+     * Gets the tracked hostile mob count of a chunk.
+     * @param world The world of the chunk.
+     * @param chunkX The chunk X coordinate.
+     * @param chunkZ The chunk Z coordinate.
+     * @return The chunk's hostile mob count, or -1 if the world has no grid.
+     */
+    public int getChunkCount(World world, int chunkX, int chunkZ) {
+        DensityGrid grid = grids.get(world.getUID());
+        return grid == null ? -1 : grid.getChunkCount(chunkX, chunkZ);
+    }
+
+    /**
+     * Gets the tracked hostile mob count of the region containing a chunk.
+     * @param world The world of the chunk.
+     * @param chunkX The chunk X coordinate.
+     * @param chunkZ The chunk Z coordinate.
+     * @return The region's hostile mob count, or -1 if the world has no grid.
+     */
+    public int getRegionCount(World world, int chunkX, int chunkZ) {
+        DensityGrid grid = grids.get(world.getUID());
+        return grid == null ? -1 : grid.getRegionCount(chunkX, chunkZ);
+    }
+
+    /**
+     * Moves a slice of tracked mobs to their current chunks, sharing the per-tick budget across worlds.
+     */
+    private void sweep() {
+        if (!configManager.isDensityLimitsEnabled() || grids.isEmpty()) {
+            return;
+        }
+        int perWorld = Math.max(1, configManager.getDensitySweepPerTick() / grids.size());
+        for (DensityGrid grid : grids.values()) {
+            grid.sweep(perWorld);
+        }
+    }
+
+    /**
+     * Reloads the module, rebuilding the grids if the region size changed.
+     */
+    public void reload() {
+        if (configManager.getDensityRegionSize() != regionSize) {
+            stop();
+            start();
+        }
+    }
+}
\ No newline at end of file
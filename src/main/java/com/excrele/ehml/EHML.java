@@ -2,6 +2,8 @@ package com.excrele.ehml;
 
 import org.bukkit.event.Listener;
 import org.bukkit.plugin.java.JavaPlugin;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
 
 /**
@@ -16,11 +18,28 @@ public class EHML extends JavaPlugin {
     private static final Logger LOGGER = Logger.getLogger("EHML");
     private ConfigManager configManager;
     private LoggerModule loggerModule;
+    private DecisionLogModule decisionLogModule;
+    private MetricsModule metricsModule;
+    private PrometheusExporter prometheusExporter;
+    private WorkScheduler workScheduler;
+    private MobCounterModule mobCounterModule;
+    private AdaptiveLimitModule adaptiveLimitModule;
+    private HostBudgetModule hostBudgetModule;
     private GlobalLimitModule globalLimitModule;
     private PerMobLimitModule perMobLimitModule;
+    private SpawnerLimitModule spawnerLimitModule;
+    private PlayerBudgetModule playerBudgetModule;
+    private DensityLimitModule densityLimitModule;
     private LowHealthDelayModule lowHealthDelayModule;
+    private SpawnDecisionPipeline spawnPipeline;
     private DeathCleanupModule deathCleanupModule;
+    private OverLimitSweeperModule overLimitSweeperModule;
+    private SpawnCapSteeringModule spawnCapSteeringModule;
+    private StatePersistenceModule statePersistenceModule;
+    private SpawnTraceRecorder traceRecorder;
     private GUIManager guiManager;
+    private ConfigWatcher configWatcher;
+    private ConfigSnapshot appliedSnapshot;
 
     /**
      * Initializes plugin components and registers listeners and commands.
@@ -34,25 +53,85 @@ public class EHML extends JavaPlugin {
         // Initialize logger module
         loggerModule = new LoggerModule(this, configManager);
         loggerModule.log("Server", "EHML plugin enabled.");
+        decisionLogModule = new DecisionLogModule(this, configManager, loggerModule);
+
+        // Initialize metrics
+        metricsModule = new MetricsModule();
+        workScheduler = new WorkScheduler(this, configManager, metricsModule);
+        prometheusExporter = new PrometheusExporter(this, configManager, metricsModule, loggerModule, workScheduler);
 
         // Initialize modules
-        globalLimitModule = new GlobalLimitModule(this, configManager, loggerModule);
-        perMobLimitModule = new PerMobLimitModule(this, configManager, loggerModule);
-        lowHealthDelayModule = new LowHealthDelayModule(configManager, loggerModule);
-        deathCleanupModule = new DeathCleanupModule(configManager, loggerModule);
-        guiManager = new GUIManager(this, configManager, loggerModule);
+        mobCounterModule = new MobCounterModule(this, configManager, workScheduler);
+        adaptiveLimitModule = new AdaptiveLimitModule(this, configManager);
+        hostBudgetModule = new HostBudgetModule(this, configManager, mobCounterModule);
+        globalLimitModule = new GlobalLimitModule(mobCounterModule, adaptiveLimitModule, hostBudgetModule);
+        perMobLimitModule = new PerMobLimitModule(mobCounterModule, adaptiveLimitModule);
+        spawnerLimitModule = new SpawnerLimitModule(configManager);
+        playerBudgetModule = new PlayerBudgetModule(this, configManager);
+        densityLimitModule = new DensityLimitModule(this, configManager);
+        lowHealthDelayModule = new LowHealthDelayModule(this, configManager, metricsModule);
+        traceRecorder = new SpawnTraceRecorder(this, configManager, mobCounterModule, adaptiveLimitModule,
+                densityLimitModule, playerBudgetModule, lowHealthDelayModule);
+        deathCleanupModule = new DeathCleanupModule(workScheduler, configManager, loggerModule, metricsModule,
+                traceRecorder);
+        overLimitSweeperModule = new OverLimitSweeperModule(this, configManager, workScheduler, mobCounterModule,
+                adaptiveLimitModule, loggerModule);
+        spawnCapSteeringModule = new SpawnCapSteeringModule(this, configManager, mobCounterModule, adaptiveLimitModule);
+        statePersistenceModule = new StatePersistenceModule(this, configManager, workScheduler, mobCounterModule,
+                spawnerLimitModule, lowHealthDelayModule);
+
+        // Build the spawn pipeline, cheapest rules first
+        spawnPipeline = new SpawnDecisionPipeline(configManager, decisionLogModule, metricsModule, traceRecorder);
+        spawnPipeline.addRule(spawnerLimitModule);
+        spawnPipeline.addRule(globalLimitModule);
+        spawnPipeline.addRule(perMobLimitModule);
+        spawnPipeline.addRule(playerBudgetModule);
+        spawnPipeline.addRule(densityLimitModule);
+        spawnPipeline.addRule(lowHealthDelayModule);
+
+        // Initialize the GUI once the pipeline it reports on is complete
+        guiManager = new GUIManager(this, configManager, loggerModule, metricsModule, workScheduler, mobCounterModule,
+                adaptiveLimitModule, spawnPipeline, lowHealthDelayModule, deathCleanupModule);
 
         // Register event listeners
-        registerListener(globalLimitModule);
-        registerListener(perMobLimitModule);
+        registerListener(mobCounterModule);
+        registerListener(spawnPipeline);
+        registerListener(spawnerLimitModule);
+        registerListener(playerBudgetModule);
+        registerListener(densityLimitModule);
         registerListener(lowHealthDelayModule);
         registerListener(deathCleanupModule);
+        registerListener(spawnCapSteeringModule);
         registerListener(new GUIListener(guiManager));
 
         // Register commands
-        getCommand("ehml").setExecutor(new ReloadCommand(this, configManager, loggerModule));
+        getCommand("ehml").setExecutor(new ReloadCommand(this, configManager, loggerModule, metricsModule, workScheduler,
+                adaptiveLimitModule, spawnerLimitModule, hostBudgetModule));
         getCommand("ehmlgui").setExecutor(guiManager);
 
+        // Restore the state saved by the previous run before the modules start
+        statePersistenceModule.load();
+
+        // Start live counting once listeners are in place
+        workScheduler.start();
+        mobCounterModule.start();
+        adaptiveLimitModule.start();
+        hostBudgetModule.start();
+        playerBudgetModule.start();
+        densityLimitModule.start();
+        lowHealthDelayModule.start();
+        overLimitSweeperModule.start();
+        spawnCapSteeringModule.start();
+        statePersistenceModule.start();
+        traceRecorder.start();
+        decisionLogModule.start();
+        prometheusExporter.start();
+        appliedSnapshot = configManager.getSnapshot();
+
+        // Apply edits to config.yml automatically if enabled
+        configWatcher = new ConfigWatcher(this, configManager, () -> reload(applied -> { }));
+        configWatcher.start();
+
         LOGGER.info("EHML enabled successfully.");
     }
 
@@ -61,6 +140,21 @@ public class EHML extends JavaPlugin {
      */
     @Override
     public void onDisable() {
+        configWatcher.stop();
+        guiManager.stop();
+        statePersistenceModule.stop();
+        statePersistenceModule.saveNow();
+        traceRecorder.stop();
+        mobCounterModule.stop();
+        adaptiveLimitModule.stop();
+        hostBudgetModule.stop();
+        densityLimitModule.stop();
+        lowHealthDelayModule.stop();
+        overLimitSweeperModule.stop();
+        spawnCapSteeringModule.stop();
+        workScheduler.stop();
+        prometheusExporter.stop();
+        decisionLogModule.stop();
         loggerModule.log("Server", "EHML plugin disabled.");
         loggerModule.close();
         LOGGER.info("EHML disabled.");
@@ -75,15 +169,90 @@ public class EHML extends JavaPlugin {
     }
 
     /**
-     * Reloads the plugin configuration and updates all modules.
+     * Reloads the plugin configuration from disk and updates all modules.
+     * The file is parsed off the main thread; modules are updated once the new settings are published.
+     * @param onComplete Callback run on the main thread with true if the reload was applied.
      */
-    public void reload() {
-        configManager.loadConfig();
-        globalLimitModule.reload();
-        perMobLimitModule.reload();
-        lowHealthDelayModule.reload();
-        deathCleanupModule.reload();
-        loggerModule.log("Server", "EHML configuration reloaded.");
-        LOGGER.info("EHML configuration reloaded.");
+    public void reload(Consumer<Boolean> onComplete) {
+        configManager.reloadConfigAsync(applied -> {
+            if (applied) {
+                reloadModules();
+            }
+            onComplete.accept(applied);
+        });
+    }
+
+    /**
+     * Updates the modules to the currently published configuration without re-reading the file.
+     * Only modules whose settings differ from the last applied configuration are reloaded.
+     */
+    public void reloadModules() {
+        ConfigSnapshot current = configManager.getSnapshot();
+        Set<ConfigSnapshot.Section> changed = current.diff(appliedSnapshot);
+        appliedSnapshot = current;
+        if (changed.isEmpty()) {
+            LOGGER.info("EHML configuration unchanged; no modules reloaded.");
+            return;
+        }
+        if (changed.contains(ConfigSnapshot.Section.COUNTER)) {
+            mobCounterModule.reload();
+        }
+        if (changed.contains(ConfigSnapshot.Section.WORLD_LIMITS)) {
+            mobCounterModule.reloadProfiles();
+        }
+        if (changed.contains(ConfigSnapshot.Section.ADAPTIVE)) {
+            adaptiveLimitModule.reload();
+        }
+        if (changed.contains(ConfigSnapshot.Section.HOST_BUDGET)) {
+            hostBudgetModule.reload();
+        }
+        if (changed.contains(ConfigSnapshot.Section.GLOBAL_LIMIT)) {
+            globalLimitModule.reload();
+        }
+        if (changed.contains(ConfigSnapshot.Section.MOB_LIMITS)) {
+            perMobLimitModule.reload();
+        }
+        if (changed.contains(ConfigSnapshot.Section.SPAWNER)) {
+            spawnerLimitModule.reload();
+        }
+        if (changed.contains(ConfigSnapshot.Section.PLAYER_BUDGET)) {
+            playerBudgetModule.reload();
+        }
+        if (changed.contains(ConfigSnapshot.Section.DENSITY)) {
+            densityLimitModule.reload();
+        }
+        if (changed.contains(ConfigSnapshot.Section.LOW_HEALTH)) {
+            lowHealthDelayModule.reload();
+        }
+        if (changed.contains(ConfigSnapshot.Section.DEATH_CLEANUP)) {
+            deathCleanupModule.reload();
+        }
+        if (changed.contains(ConfigSnapshot.Section.SWEEP)) {
+            overLimitSweeperModule.reload();
+        }
+        if (changed.contains(ConfigSnapshot.Section.STEERING)) {
+            spawnCapSteeringModule.reload();
+        }
+        if (changed.contains(ConfigSnapshot.Section.STATE)) {
+            statePersistenceModule.reload();
+        }
+        if (changed.contains(ConfigSnapshot.Section.TRACE)) {
+            traceRecorder.reload();
+        }
+        if (changed.contains(ConfigSnapshot.Section.GUI)) {
+            guiManager.reload();
+        }
+        if (changed.contains(ConfigSnapshot.Section.LOGGING)) {
+            loggerModule.reload();
+            decisionLogModule.reload();
+        }
+        if (changed.contains(ConfigSnapshot.Section.METRICS)) {
+            prometheusExporter.reload();
+        }
+        if (changed.contains(ConfigSnapshot.Section.CONFIG_WATCH)) {
+            configWatcher.reload();
+        }
+        loggerModule.log("Server", "EHML configuration reloaded; changed: " + changed);
+        LOGGER.info("EHML configuration reloaded; changed: " + changed);
     }
 }
\ No newline at end of file
@@ -0,0 +1,106 @@
+package com.excrele.ehml;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.persistence.PersistentDataType;
+import java.util.List;
+
+/**
+ * Holder of one page of the EHML GUI. Each page is a single inventory shared by all its viewers,
+ * so a refresh updates every viewer at once. The holder remembers what each slot shows and only
+ * builds a new item when the content of the slot changes.
+ */
+public class GUIHolder implements InventoryHolder {
+
+    /**
+     * The pages of the GUI.
+     */
+    public enum Page {
+        SETTINGS, DASHBOARD
+    }
+
+    private final Page page;
+    private final Inventory inventory;
+    private final String[] rendered;
+
+    /**
+     * Initializes a page and creates its inventory.
+     * @param page The page this holder shows.
+     * @param size The inventory size, a multiple of 9.
+     * @param title The inventory title.
+     */
+    public GUIHolder(Page page, int size, String title) {
+        this.page = page;
+        this.inventory = Bukkit.createInventory(this, size, title);
+        this.rendered = new String[size];
+    }
+
+    /**
+     * Shows an item in a slot, unless the slot already shows the same content.
+     * @param slot The slot.
+     * @param material The item material.
+     * @param name The display name.
+     * @param lore The lore lines.
+     * @param key The key to tag the item with for click handling, or null for no tag.
+     * @param tag The tag value.
+     */
+    public void render(int slot, Material material, String name, List<String> lore, NamespacedKey key, String tag) {
+        String content = material + "\n" + name + "\n" + String.join("\n", lore) + "\n" + tag;
+        if (content.equals(rendered[slot])) {
+            return; // Unchanged
+        }
+        ItemStack item = new ItemStack(material);
+        ItemMeta meta = item.getItemMeta();
+        if (meta != null) {
+            meta.setDisplayName(name);
+            meta.setLore(lore);
+            if (key != null) {
+                meta.getPersistentDataContainer().set(key, PersistentDataType.STRING, tag);
+            }
+            item.setItemMeta(meta);
+        }
+        inventory.setItem(slot, item);
+        rendered[slot] = content;
+    }
+
+    /**
+     * Empties a slot.
+     * @param slot The slot.
+     */
+    public void clear(int slot) {
+        if (rendered[slot] != null) {
+            inventory.setItem(slot, null);
+            rendered[slot] = null;
+        }
+    }
+
+    /**
+     * Checks if anyone is looking at the page.
+     * @return True if the page has viewers.
+     */
+    public boolean hasViewers() {
+        return !inventory.getViewers().isEmpty();
+    }
+
+    /**
+     * Gets the inventory of the page.
+     * @return The inventory.
+     */
+    @Override
+    public Inventory getInventory() {
+        return inventory;
+    }
+
+    /**
+     * Gets the page this holder shows.
+     * @return The page.
+     */
+    public Page getPage() {
+        return page;
+    }
+}
\ No newline at end of file
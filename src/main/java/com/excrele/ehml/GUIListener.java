@@ -3,13 +3,16 @@ package com.excrele.ehml;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
 import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.persistence.PersistentDataContainer;
 import org.bukkit.persistence.PersistentDataType;
 
 /**
- * Listens for inventory click events to handle interactions with the EHML GUI.
+ * Listens for inventory events to handle interactions with the EHML GUI. Clicks are routed by the
+ * {@link GUIHolder} of the top inventory; clicks in any other inventory return after one type check.
  */
 public class GUIListener implements Listener {
 
@@ -24,33 +27,41 @@ public class GUIListener implements Listener {
     }
 
     /**
-     * Handles clicks in the EHML GUI to toggle features.
+     * Handles clicks in the EHML GUI to toggle features and switch pages.
      * @param event The inventory click event.
      */
     @EventHandler
     public void onInventoryClick(InventoryClickEvent event) {
-        if (!(event.getWhoClicked() instanceof Player)) {
-            return;
-        }
-
-        if (!event.getView().getTitle().equals(guiManager.getGUITitle())) {
-            return;
+        if (!(event.getInventory().getHolder() instanceof GUIHolder page)) {
+            return; // Not an EHML page
         }
 
         event.setCancelled(true); // Prevent item movement
 
-        if (event.getCurrentItem() == null || !event.getCurrentItem().hasItemMeta()) {
+        ItemStack item = event.getCurrentItem();
+        if (!(event.getWhoClicked() instanceof Player) || item == null || !item.hasItemMeta()) {
             return;
         }
 
-        ItemMeta meta = event.getCurrentItem().getItemMeta();
+        Player player = (Player) event.getWhoClicked();
+        ItemMeta meta = item.getItemMeta();
         PersistentDataContainer container = meta.getPersistentDataContainer();
-        if (!container.has(guiManager.getFeatureKey(), PersistentDataType.STRING)) {
-            return;
+        if (container.has(guiManager.getPageKey(), PersistentDataType.STRING)) {
+            guiManager.openPage(player, container.get(guiManager.getPageKey(), PersistentDataType.STRING));
+        } else if (page.getPage() == GUIHolder.Page.SETTINGS &&
+                container.has(guiManager.getFeatureKey(), PersistentDataType.STRING)) {
+            guiManager.toggleFeature(player, container.get(guiManager.getFeatureKey(), PersistentDataType.STRING));
         }
+    }
 
-        String feature = container.get(guiManager.getFeatureKey(), PersistentDataType.STRING);
-        Player player = (Player) event.getWhoClicked();
-        guiManager.toggleFeature(player, feature);
+    /**
+     * Prevents dragging items into the EHML GUI.
+     * @param event The inventory drag event.
+     */
+    @EventHandler
+    public void onInventoryDrag(InventoryDragEvent event) {
+        if (event.getInventory().getHolder() instanceof GUIHolder) {
+            event.setCancelled(true);
+        }
     }
 }
\ No newline at end of file
@@ -4,38 +4,102 @@ import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.Material;
 import org.bukkit.NamespacedKey;
+import org.bukkit.World;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
+import org.bukkit.entity.HumanEntity;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.Inventory;
-import org.bukkit.inventory.ItemStack;
-import org.bukkit.inventory.meta.ItemMeta;
-import org.bukkit.persistence.PersistentDataType;
-import java.util.Arrays;
+import org.bukkit.scheduler.BukkitTask;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 
 /**
- * Manages the in-game GUI for toggling EHML features.
+ * Manages the in-game GUI: a settings page for toggling EHML features and a dashboard page showing
+ * live hostile counts, cancellation rates per spawn rule, EHML's main-thread time and the cleanup backlog.
+ * Each page is one shared {@link GUIHolder} inventory whose items are only rebuilt when their content
+ * changes. While anyone has the dashboard open, it is refreshed every few ticks from a snapshot of the
+ * counters, with rates computed against the previous snapshot.
  */
 public class GUIManager implements CommandExecutor {
 
+    private static final String GUI_TITLE = ChatColor.DARK_GRAY + "EHML Settings";
+    private static final String DASHBOARD_TITLE = ChatColor.DARK_GRAY + "EHML Dashboard";
+
+    /** Dashboard slots for per-world counts, after the total in slot 0. */
+    private static final int WORLD_SLOTS = 8;
+
+    /** Dashboard slots for spawn rules, filling the second row. */
+    private static final int RULE_SLOTS = 9;
+
+    private static final double TICK_MILLIS = 50.0;
+
     private final EHML plugin;
     private final ConfigManager configManager;
     private final LoggerModule loggerModule;
-    private static final String GUI_TITLE = ChatColor.DARK_GRAY + "EHML Settings";
+    private final MetricsModule metrics;
+    private final WorkScheduler workScheduler;
+    private final MobCounterModule mobCounter;
+    private final AdaptiveLimitModule adaptiveLimits;
+    private final SpawnDecisionPipeline spawnPipeline;
+    private final LowHealthDelayModule lowHealthDelay;
+    private final DeathCleanupModule deathCleanup;
     private final NamespacedKey featureKey;
+    private final NamespacedKey pageKey;
+    private final GUIHolder settings;
+    private final GUIHolder dashboard;
+    private Snapshot current;
+    private Snapshot previous;
+    private int refreshTicks;
+    private BukkitTask refreshTask;
 
     /**
-     * Initializes the GUI manager.
+     * Counters captured at one dashboard refresh.
+     */
+    private static final class Snapshot {
+
+        private long nanos;
+        private long evaluations;
+        private long pipelineNanos;
+        private long workNanos;
+        private long indexNanos;
+        private long[] cancellations = new long[0];
+    }
+
+    /**
+     * Initializes the GUI manager and creates its pages.
      * @param plugin The main plugin instance.
      * @param configManager The configuration manager.
      * @param loggerModule The logger module for recording activities.
+     * @param metrics The metrics module providing timings and cancellation counts.
+     * @param workScheduler The work scheduler whose backlog is shown.
+     * @param mobCounter The live hostile mob counter.
+     * @param adaptiveLimits The adaptive limit controller whose state is shown.
+     * @param spawnPipeline The spawn pipeline whose rules are shown.
+     * @param lowHealthDelay The low-health delay module, for the time spent indexing players.
+     * @param deathCleanup The death cleanup module whose backlog is shown.
      */
-    public GUIManager(EHML plugin, ConfigManager configManager, LoggerModule loggerModule) {
+    public GUIManager(EHML plugin, ConfigManager configManager, LoggerModule loggerModule, MetricsModule metrics,
+                      WorkScheduler workScheduler, MobCounterModule mobCounter, AdaptiveLimitModule adaptiveLimits,
+                      SpawnDecisionPipeline spawnPipeline, LowHealthDelayModule lowHealthDelay,
+                      DeathCleanupModule deathCleanup) {
         this.plugin = plugin;
         this.configManager = configManager;
         this.loggerModule = loggerModule;
+        this.metrics = metrics;
+        this.workScheduler = workScheduler;
+        this.mobCounter = mobCounter;
+        this.adaptiveLimits = adaptiveLimits;
+        this.spawnPipeline = spawnPipeline;
+        this.lowHealthDelay = lowHealthDelay;
+        this.deathCleanup = deathCleanup;
         this.featureKey = new NamespacedKey(plugin, "ehml_feature");
+        this.pageKey = new NamespacedKey(plugin, "ehml_page");
+        this.settings = new GUIHolder(GUIHolder.Page.SETTINGS, 9, GUI_TITLE);
+        this.dashboard = new GUIHolder(GUIHolder.Page.DASHBOARD, 27, DASHBOARD_TITLE);
+        this.current = new Snapshot();
+        this.previous = new Snapshot();
     }
 
     /**
@@ -65,67 +129,318 @@ public class GUIManager implements CommandExecutor {
     }
 
     /**
-     * Opens the EHML settings GUI for a player.
+     * Opens the EHML settings page for a player.
      * @param player The player to open the GUI for.
      */
     public void openGUI(Player player) {
-        Inventory gui = Bukkit.createInventory(null, 9, GUI_TITLE);
+        renderSettings();
+        player.openInventory(settings.getInventory());
+    }
 
+    /**
+     * Opens the dashboard page for a player, starting the refreshes if nobody was watching it.
+     * @param player The player to open the dashboard for.
+     */
+    public void openDashboard(Player player) {
+        if (refreshTask == null) {
+            startRefresh();
+        }
+        player.openInventory(dashboard.getInventory());
+    }
+
+    /**
+     * Opens the page named by a navigation item.
+     * @param player The player who clicked the item.
+     * @param page The page tag of the item.
+     */
+    public void openPage(Player player, String page) {
+        if (page.equals("dashboard")) {
+            openDashboard(player);
+        } else {
+            openGUI(player);
+        }
+    }
+
+    /**
+     * Updates the items of the settings page to the current configuration.
+     */
+    private void renderSettings() {
         // Global Limit Toggle
-        gui.setItem(0, createToggleItem(Material.DIAMOND_SWORD, "Global Limit",
+        renderToggle(0, Material.DIAMOND_SWORD, "Global Limit",
                 configManager.isGlobalLimitEnabled(), "global-limit",
-                "Toggles the global hostile mob limit."));
+                "Toggles the global hostile mob limit.");
+
+        // Adaptive Limits Toggle, showing the controller state and the effective limits of each profile
+        List<String> adaptiveDetails = new ArrayList<>();
+        adaptiveDetails.add("State: " + adaptiveLimits.describe());
+        adaptiveDetails.add("Effective / configured limits:");
+        adaptiveDetails.addAll(adaptiveLimits.describeLimits(configManager.getSnapshot()));
+        renderToggle(1, Material.CLOCK, "Adaptive Limits",
+                configManager.isAdaptiveLimitsEnabled(), "adaptive-limits",
+                "Scales limits down when tick time rises.",
+                adaptiveDetails.toArray(new String[0]));
 
         // Per-Mob Limits Toggle
-        gui.setItem(2, createToggleItem(Material.BOW, "Per-Mob Limits",
+        renderToggle(2, Material.BOW, "Per-Mob Limits",
                 configManager.isMobLimitsEnabled(), "mob-limits",
-                "Toggles per-mob-type spawn limits."));
+                "Toggles per-mob-type spawn limits.");
 
         // Low-Health Delay Toggle
-        gui.setItem(4, createToggleItem(Material.POTION, "Low-Health Delay",
+        renderToggle(4, Material.POTION, "Low-Health Delay",
                 configManager.isLowHealthDelayEnabled(), "low-health-delay",
-                "Toggles spawn delay near low-health players."));
+                "Toggles spawn delay near low-health players.");
 
         // Death Cleanup Toggle
-        gui.setItem(6, createToggleItem(Material.PLAYER_HEAD, "Death Cleanup",
+        renderToggle(6, Material.PLAYER_HEAD, "Death Cleanup",
                 configManager.isDeathCleanupEnabled(), "death-cleanup",
-                "Toggles mob cleanup on player death."));
+                "Toggles mob cleanup on player death.");
+
+        // Dashboard Page
+        settings.render(7, Material.COMPASS, ChatColor.YELLOW + "Performance Dashboard",
+                List.of(ChatColor.GRAY + "Live hostile counts, cancellations and overhead.",
+                        ChatColor.BLUE + "Click to open"), pageKey, "dashboard");
 
         // Logging Toggle
-        gui.setItem(8, createToggleItem(Material.WRITABLE_BOOK, "Logging",
+        renderToggle(8, Material.WRITABLE_BOOK, "Logging",
                 configManager.isLoggingEnabled(), "logging",
-                "Toggles activity logging to YAML file."));
-
-        player.openInventory(gui);
+                "Toggles activity logging to the log file.");
     }
 
     /**
-     * Creates a toggle item for the GUI.
+     * Shows a toggle item on the settings page.
+     * @param slot The slot of the item.
      * @param material The material of the item.
      * @param name The display name of the item.
      * @param enabled Whether the feature is enabled.
      * @param feature The feature identifier.
      * @param description The lore description of the feature.
-     * @return The created ItemStack.
+     * @param details Additional status lines shown below the description.
+     */
+    private void renderToggle(int slot, Material material, String name, boolean enabled, String feature,
+                              String description, String... details) {
+        List<String> lore = new ArrayList<>();
+        lore.add(ChatColor.GRAY + description);
+        for (String detail : details) {
+            lore.add(ChatColor.WHITE + detail);
+        }
+        lore.add(ChatColor.GRAY + "Feature: " + feature);
+        lore.add(ChatColor.BLUE + "Click to toggle");
+        settings.render(slot, material,
+                ChatColor.YELLOW + name + ": " + (enabled ? ChatColor.GREEN + "Enabled" : ChatColor.RED + "Disabled"),
+                lore, featureKey, feature);
+    }
+
+    /**
+     * Starts refreshing the dashboard, taking the first snapshot as the baseline for rates.
+     */
+    private void startRefresh() {
+        refreshTicks = configManager.getSnapshot().getGuiDashboardRefreshTicks();
+        update(false);
+        refreshTask = plugin.getServer().getScheduler().runTaskTimer(plugin, this::refresh, refreshTicks, refreshTicks);
+    }
+
+    /**
+     * Stops refreshing the dashboard.
+     */
+    private void stopRefresh() {
+        if (refreshTask != null) {
+            refreshTask.cancel();
+            refreshTask = null;
+        }
+    }
+
+    /**
+     * Refreshes the dashboard, or stops refreshing once nobody is watching it.
+     */
+    private void refresh() {
+        if (!dashboard.hasViewers()) {
+            stopRefresh();
+            return;
+        }
+        update(true);
+    }
+
+    /**
+     * Takes a snapshot, renders the dashboard from it and keeps it for the next refresh.
+     * @param rates Whether the previous snapshot is a valid baseline for rates.
      */
-    private ItemStack createToggleItem(Material material, String name, boolean enabled, String feature, String description) {
-        ItemStack item = new ItemStack(material);
-        ItemMeta meta = item.getItemMeta();
-        if (meta != null) {
-            meta.setDisplayName(ChatColor.YELLOW + name + ": " + (enabled ? ChatColor.GREEN + "Enabled" : ChatColor.RED + "Disabled"));
-            meta.setLore(Arrays.asList(
-                    ChatColor.GRAY + description,
-                    ChatColor.GRAY + "Feature: " + feature,
-                    ChatColor.BLUE + "Click to toggle"
-            ));
-            meta.getPersistentDataContainer().set(featureKey, PersistentDataType.STRING, feature);
-            item.setItemMeta(meta);
+    private void update(boolean rates) {
+        capture(current);
+        renderDashboard(rates && previous.cancellations.length == current.cancellations.length);
+        Snapshot swap = previous;
+        previous = current;
+        current = swap;
+    }
+
+    /**
+     * Captures the counters the dashboard computes rates from.
+     * @param snapshot The snapshot to fill.
+     */
+    private void capture(Snapshot snapshot) {
+        snapshot.nanos = System.nanoTime();
+        LatencyHistogram pipeline = metrics.getLatency(spawnPipeline.getStage());
+        snapshot.evaluations = pipeline.getCount();
+        snapshot.pipelineNanos = pipeline.getSumNanos();
+        snapshot.workNanos = metrics.getLatency(workScheduler.getTickStage()).getSumNanos();
+        snapshot.indexNanos = metrics.getLatency(lowHealthDelay.getIndexStage()).getSumNanos();
+        int rules = spawnPipeline.getRules().length;
+        if (snapshot.cancellations.length != rules) {
+            snapshot.cancellations = new long[rules];
+        }
+        for (int i = 0; i < rules; i++) {
+            snapshot.cancellations[i] = metrics.getCancellations(spawnPipeline.getRuleStage(i));
+        }
+    }
+
+    /**
+     * Updates the items of the dashboard from the current snapshot and live counts.
+     * @param rates Whether rates can be computed against the previous snapshot.
+     */
+    private void renderDashboard(boolean rates) {
+        ConfigSnapshot config = configManager.getSnapshot();
+
+        // Hostile mobs against the global limit, in total and per world
+        int configuredLimit = config.getGlobalHostileLimit();
+        int limit = adaptiveLimits.scale(configuredLimit);
+        int total = mobCounter.getTotalHostileCount();
+        List<String> totalLore = new ArrayList<>();
+        totalLore.add(ChatColor.GRAY + "Loaded hostile mobs in all worlds.");
+        totalLore.add(ChatColor.WHITE + "Configured limit: " + configuredLimit +
+                (config.isGlobalLimitEnabled() ? "" : " (disabled)"));
+        if (config.getLimitProfileCount() > 1) {
+            totalLore.add(ChatColor.WHITE + "World and group limit profiles: " + (config.getLimitProfileCount() - 1));
+        }
+        if (config.isAdaptiveLimitsEnabled()) {
+            totalLore.add(ChatColor.WHITE + "Adaptive limits: " + adaptiveLimits.getState() +
+                    String.format(Locale.ROOT, ", scale %.2f", adaptiveLimits.getScale()));
         }
-        return item;
+        dashboard.render(0, Material.ZOMBIE_HEAD, ChatColor.YELLOW + "Hostile Mobs: " + count(total, limit),
+                totalLore, null, null);
+        List<World> worlds = Bukkit.getWorlds();
+        for (int i = 0; i < WORLD_SLOTS; i++) {
+            if (i >= worlds.size()) {
+                dashboard.clear(1 + i);
+                continue;
+            }
+            World world = worlds.get(i);
+            int index = mobCounter.indexOf(world);
+            int worldLimit = adaptiveLimits.scale(mobCounter.getHostileLimit(index));
+            int count = mobCounter.getWorldHostileCount(world);
+            String profile = mobCounter.getProfileName(index);
+            List<String> worldLore = new ArrayList<>();
+            worldLore.add(ChatColor.GRAY + "Hostile mobs in this world against the " + profile + " limits.");
+            if (!profile.equals(world.getName())) {
+                worldLore.add(ChatColor.WHITE + "All worlds with these limits: " +
+                        count(mobCounter.getPoolHostileCount(index), worldLimit));
+            }
+            worldLore.add(ChatColor.WHITE + "Share of all hostile mobs: " + percent(count, total));
+            dashboard.render(1 + i, worldMaterial(world), ChatColor.YELLOW + world.getName() + ": " +
+                    count(count, worldLimit), worldLore, null, null);
+        }
+
+        // Cancellations by each spawn rule since the previous refresh
+        SpawnRule[] rules = spawnPipeline.getRules();
+        long evaluated = current.evaluations - previous.evaluations;
+        double minutes = (current.nanos - previous.nanos) / 60e9;
+        for (int i = 0; i < RULE_SLOTS; i++) {
+            if (i >= rules.length) {
+                dashboard.clear(9 + i);
+                continue;
+            }
+            String rate;
+            if (!config.isMetricsEnabled()) {
+                rate = "metrics disabled";
+            } else if (!rates) {
+                rate = "measuring...";
+            } else {
+                long cancelled = current.cancellations[i] - previous.cancellations[i];
+                rate = String.format(Locale.ROOT, "%.1f/min (%s of spawns)", cancelled / minutes,
+                        percent(cancelled, evaluated));
+            }
+            dashboard.render(9 + i, Material.BARRIER, ChatColor.YELLOW + rules[i].getName(),
+                    List.of(ChatColor.WHITE + "Cancelling: " + rate,
+                            ChatColor.GRAY + "Cancelled since start: " + current.cancellations[i]), null, null);
+        }
+
+        // Navigation
+        dashboard.render(18, Material.ARROW, ChatColor.YELLOW + "Back to Settings",
+                List.of(ChatColor.GRAY + "Refreshes every " + refreshTicks + " ticks while open.",
+                        ChatColor.BLUE + "Click to return"), pageKey, "settings");
+
+        // EHML's own time on the main thread per tick
+        if (!config.isMetricsEnabled() || !rates) {
+            dashboard.render(22, Material.CLOCK, ChatColor.YELLOW + "EHML Tick Time: " + ChatColor.GRAY +
+                            (config.isMetricsEnabled() ? "measuring..." : "metrics disabled"),
+                    List.of(ChatColor.GRAY + "Main-thread time of the spawn pipeline, background work",
+                            ChatColor.GRAY + "and the low-health player index."), null, null);
+        } else {
+            double pipelineMs = millisPerTick(current.pipelineNanos - previous.pipelineNanos);
+            double workMs = millisPerTick(current.workNanos - previous.workNanos);
+            double indexMs = millisPerTick(current.indexNanos - previous.indexNanos);
+            double totalMs = pipelineMs + workMs + indexMs;
+            dashboard.render(22, Material.CLOCK,
+                    ChatColor.YELLOW + "EHML Tick Time: " + ChatColor.WHITE + String.format(Locale.ROOT, "%.2f ms", totalMs),
+                    List.of(ChatColor.WHITE + String.format(Locale.ROOT, "Spawn pipeline: %.2f ms", pipelineMs),
+                            ChatColor.WHITE + String.format(Locale.ROOT, "Background work: %.2f ms", workMs),
+                            ChatColor.WHITE + String.format(Locale.ROOT, "Player index: %.2f ms", indexMs),
+                            ChatColor.GRAY + String.format(Locale.ROOT, "%.1f%% of a 50 ms tick", totalMs * 100 / TICK_MILLIS)),
+                    null, null);
+        }
+
+        // Cleanup backlog
+        dashboard.render(24, Material.HOPPER,
+                ChatColor.YELLOW + "Cleanup Backlog: " + ChatColor.WHITE + deathCleanup.getPendingVictims() + " mobs",
+                List.of(ChatColor.WHITE + "Death cleanups queued: " + deathCleanup.getQueuedCleanups(),
+                        ChatColor.WHITE + "Work units queued: " + workScheduler.getBacklog() +
+                                " (oldest waiting " + workScheduler.getOldestWaitTicks() + " ticks)",
+                        ChatColor.GRAY + "Removed since start: " + metrics.getRemovals()), null, null);
+    }
+
+    /**
+     * Formats a count against a limit, colored by how close it is to the limit.
+     * @param count The count.
+     * @param limit The limit.
+     * @return The formatted count.
+     */
+    private static String count(int count, int limit) {
+        ChatColor color = count >= limit ? ChatColor.RED : count * 10 >= limit * 9 ? ChatColor.GOLD : ChatColor.GREEN;
+        return color + String.valueOf(count) + ChatColor.GRAY + " / " + limit;
     }
 
     /**
-     * Toggles a feature and updates the GUI.
+     * Formats a part of a whole as a percentage.
+     * @param part The part.
+     * @param whole The whole.
+     * @return The formatted percentage.
+     */
+    private static String percent(long part, long whole) {
+        return String.format(Locale.ROOT, "%.1f%%", whole == 0 ? 0.0 : part * 100.0 / whole);
+    }
+
+    /**
+     * Converts time measured between two snapshots to milliseconds per tick.
+     * @param nanos The time measured between the snapshots.
+     * @return The average milliseconds per tick.
+     */
+    private double millisPerTick(long nanos) {
+        return nanos / 1_000_000.0 / refreshTicks;
+    }
+
+    /**
+     * Chooses the item shown for a world.
+     * @param world The world.
+     * @return The material matching the world's environment.
+     */
+    private static Material worldMaterial(World world) {
+        return switch (world.getEnvironment()) {
+            case NETHER -> Material.NETHERRACK;
+            case THE_END -> Material.END_STONE;
+            default -> Material.GRASS_BLOCK;
+        };
+    }
+
+    /**
+     * Toggles a feature and updates the settings page.
      * @param player The player toggling the feature.
      * @param feature The feature to toggle.
      */
@@ -136,6 +451,10 @@ public class GUIManager implements CommandExecutor {
                 newState = !configManager.isGlobalLimitEnabled();
                 configManager.toggleFeature("global-limit", newState);
                 break;
+            case "adaptive-limits":
+                newState = !configManager.isAdaptiveLimitsEnabled();
+                configManager.toggleFeature("adaptive-limits", newState);
+                break;
             case "mob-limits":
                 newState = !configManager.isMobLimitsEnabled();
                 configManager.toggleFeature("mob-limits", newState);
@@ -156,18 +475,32 @@ public class GUIManager implements CommandExecutor {
                 player.sendMessage("§cInvalid feature: " + feature);
                 return;
         }
-        plugin.reload();
+        plugin.reloadModules();
         player.sendMessage("§a" + feature.replace("-", " ") + " is now " + (newState ? "enabled" : "disabled"));
         loggerModule.log("GUI", "Player " + player.getName() + " toggled " + feature + " to " + (newState ? "enabled" : "disabled"));
-        openGUI(player); // Refresh GUI
+        renderSettings(); // Refresh the page for all viewers
     }
 
     /**
-     * Gets the GUI title for validation.
-     * @return The GUI title.
+     * Closes the GUI for all viewers and stops refreshing the dashboard.
      */
-    public String getGUITitle() {
-        return GUI_TITLE;
+    public void stop() {
+        stopRefresh();
+        for (GUIHolder page : new GUIHolder[] {settings, dashboard}) {
+            for (HumanEntity viewer : new ArrayList<>(page.getInventory().getViewers())) {
+                viewer.closeInventory();
+            }
+        }
+    }
+
+    /**
+     * Reloads the GUI, restarting the dashboard refreshes at the configured interval if they are running.
+     */
+    public void reload() {
+        if (refreshTask != null) {
+            stopRefresh();
+            startRefresh();
+        }
     }
 
     /**
@@ -177,4 +510,12 @@ public class GUIManager implements CommandExecutor {
     public NamespacedKey getFeatureKey() {
         return featureKey;
     }
+
+    /**
+     * Gets the page key for tagging navigation items.
+     * @return The NamespacedKey for page tags.
+     */
+    public NamespacedKey getPageKey() {
+        return pageKey;
+    }
 }
\ No newline at end of file
@@ -1,69 +1,94 @@
 package com.excrele.ehml;
 
-import org.bukkit.plugin.java.JavaPlugin;
-import org.bukkit.event.EventHandler;
-import org.bukkit.event.Listener;
-import org.bukkit.event.entity.CreatureSpawnEvent;
-import java.util.logging.Logger;
+import java.util.List;
 
 /**
  * Module for enforcing a global limit on hostile mobs in loaded chunks.
+ * Worlds with an override or group in the configuration are limited by their own profile's
+ * hostile limit against the count of the worlds sharing it, as resolved by the {@link MobCounterModule}.
+ * When the host budget is active, the combined count of all instances on the host is also
+ * checked against the host limit. The limit is scaled down by the {@link AdaptiveLimitModule} while the server is overloaded.
+ * Runs as a {@link SpawnRule} of the {@link SpawnDecisionPipeline}.
  */
-public class GlobalLimitModule implements Listener {
+public class GlobalLimitModule implements SpawnRule {
 
-    private final JavaPlugin plugin;
-    private final ConfigManager configManager;
-    private final LoggerModule loggerModule;
-    private final Logger logger;
+    /** Rejection code of spawns over the effective global limit. */
+    public static final int GLOBAL_LIMIT = 0;
+
+    /** Rejection code of spawns over the host-wide limit. */
+    public static final int HOST_LIMIT = 1;
+
+    private static final List<String> REJECTION_REASONS = List.of("global limit reached", "host limit reached");
+
+    private final MobCounterModule mobCounter;
+    private final AdaptiveLimitModule adaptiveLimits;
+    private final HostBudgetModule hostBudget;
 
     /**
      * Initializes the global limit module.
-     * @param plugin The main plugin instance for server access.
-     * @param configManager The configuration manager providing settings.
-     * @param loggerModule The logger module for recording activities.
+     * @param mobCounter The live hostile mob counter.
+     * @param adaptiveLimits The controller scaling the configured limit with tick time.
+     * @param hostBudget The hostile budget shared with other instances on the host.
      */
-    public GlobalLimitModule(JavaPlugin plugin, ConfigManager configManager, LoggerModule loggerModule) {
-        this.plugin = plugin;
-        this.configManager = configManager;
-        this.loggerModule = loggerModule;
-        this.logger = Logger.getLogger("EHML");
+    public GlobalLimitModule(MobCounterModule mobCounter, AdaptiveLimitModule adaptiveLimits, HostBudgetModule hostBudget) {
+        this.mobCounter = mobCounter;
+        this.adaptiveLimits = adaptiveLimits;
+        this.hostBudget = hostBudget;
     }
 
     /**
-     * Handles mob spawn events to enforce the global hostile mob limit.
-     * @param event The creature spawn event.
+     * Gets the name of the rule.
+     * @return The rule name.
      */
-    @EventHandler
-    public void onCreatureSpawn(CreatureSpawnEvent event) {
-        if (!configManager.isGlobalLimitEnabled()) {
-            return; // Skip if global limit is disabled
-        }
+    @Override
+    public String getName() {
+        return "GlobalLimit";
+    }
 
-        if (event.getSpawnReason() != CreatureSpawnEvent.SpawnReason.NATURAL &&
-                event.getSpawnReason() != CreatureSpawnEvent.SpawnReason.SPAWNER) {
-            return; // Only handle natural spawns or spawners
-        }
+    /**
+     * Checks if the global limit is enabled.
+     * @param config The configuration snapshot.
+     * @return True if the global limit is enabled.
+     */
+    @Override
+    public boolean isEnabled(ConfigSnapshot config) {
+        return config.isGlobalLimitEnabled();
+    }
 
-        if (!configManager.isHostileMob(event.getEntityType())) {
-            return; // Ignore non-hostile mobs
+    /**
+     * Checks the live hostile mob count of the spawn's world pool against its effective limit,
+     * and the host-wide count against the host limit.
+     * @param context The classified spawn.
+     * @return True if neither limit has been reached.
+     */
+    @Override
+    public boolean allows(SpawnContext context) {
+        int world = mobCounter.indexOf(context.getWorld());
+        if (mobCounter.getPoolHostileCount(world) >= adaptiveLimits.scale(mobCounter.getHostileLimit(world))) {
+            return false;
         }
+        return !hostBudget.isActive() || hostBudget.getHostTotal() < context.getConfig().getHostHostileLimit();
+    }
 
-        // Count current hostile mobs in loaded chunks
-        int currentHostileCount = plugin.getServer().getWorlds().stream()
-                .flatMap(world -> world.getEntities().stream())
-                .filter(entity -> configManager.isHostileMob(entity.getType()))
-                .mapToInt(entity -> 1)
-                .sum();
+    /**
+     * Tells whether the global or the host limit rejected a spawn.
+     * @param context The classified spawn.
+     * @return {@link #GLOBAL_LIMIT} or {@link #HOST_LIMIT}.
+     */
+    @Override
+    public int getRejectionCode(SpawnContext context) {
+        int world = mobCounter.indexOf(context.getWorld());
+        int limit = adaptiveLimits.scale(mobCounter.getHostileLimit(world));
+        return mobCounter.getPoolHostileCount(world) < limit ? HOST_LIMIT : GLOBAL_LIMIT;
+    }
 
-        // Check global hostile mob limit
-        if (currentHostileCount >= configManager.getGlobalHostileLimit()) {
-            event.setCancelled(true);
-            logger.fine("Cancelled spawn of " + event.getEntityType() + ": Global limit (" +
-                    configManager.getGlobalHostileLimit() + ") reached.");
-            loggerModule.log("GlobalLimit", "Cancelled spawn of " + event.getEntityType() +
-                    " at " + event.getLocation() + ": Global limit (" +
-                    configManager.getGlobalHostileLimit() + ") reached.");
-        }
+    /**
+     * Gets the descriptions of the rejection codes.
+     * @return The rejection reasons.
+     */
+    @Override
+    public List<String> getRejectionReasons() {
+        return REJECTION_REASONS;
     }
 
     /**
@@ -0,0 +1,211 @@
+package com.excrele.ehml;
+
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Logger;
+
+/**
+ * Module for sharing one hostile mob budget between several servers on the same host.
+ * Each instance claims a slot in a small memory-mapped file and publishes its live hostile count
+ * and a heartbeat there once a second; the same pass sums the slots of the other instances whose
+ * heartbeat is recent, so slots of crashed instances expire on their own. All access to the file
+ * uses volatile and compare-and-set operations on the mapped memory, so no locks or network
+ * service are involved. The {@link GlobalLimitModule} checks the combined count against the host limit.
+ * File layout: a header of magic and version, followed by fixed 64-byte slots of owner id,
+ * heartbeat time in milliseconds and hostile count.
+ */
+public class HostBudgetModule {
+
+    private static final long MAGIC = 0x45484D4C42554447L; // "EHMLBUDG"
+    private static final long VERSION = 1;
+    private static final int SLOTS = 64;
+    private static final int SLOT_SIZE = 64;
+    private static final int HEADER_SIZE = 64;
+    private static final int OWNER = 0;
+    private static final int HEARTBEAT = 8;
+    private static final int COUNT = 16;
+    private static final long PUBLISH_INTERVAL_TICKS = 20L;
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final JavaPlugin plugin;
+    private final ConfigManager configManager;
+    private final MobCounterModule mobCounter;
+    private final Logger logger;
+    private final long instanceId;
+    private MappedByteBuffer buffer;
+    private BukkitTask task;
+    private int slot;
+    private int otherCount;
+    private int activeInstances;
+
+    /**
+     * Initializes the host budget module.
+     * @param plugin The main plugin instance for scheduling.
+     * @param configManager The configuration manager providing settings.
+     * @param mobCounter The live hostile mob counter of this instance.
+     */
+    public HostBudgetModule(JavaPlugin plugin, ConfigManager configManager, MobCounterModule mobCounter) {
+        this.plugin = plugin;
+        this.configManager = configManager;
+        this.mobCounter = mobCounter;
+        this.logger = Logger.getLogger("EHML");
+        this.instanceId = ThreadLocalRandom.current().nextLong() | 1L;
+        this.slot = -1;
+    }
+
+    /**
+     * Maps the shared file, claims a slot and starts publishing if the host budget is enabled.
+     */
+    public void start() {
+        ConfigSnapshot config = configManager.getSnapshot();
+        if (!config.isHostBudgetEnabled()) {
+            return;
+        }
+        File file = resolveFile(config.getHostBudgetFile());
+        long size = HEADER_SIZE + (long) SLOTS * SLOT_SIZE;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw"); FileChannel channel = raf.getChannel()) {
+            if (raf.length() < size) {
+                raf.setLength(size);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } catch (IOException e) {
+            logger.warning("Failed to map host budget file " + file + ": " + e.getMessage());
+            return;
+        }
+        LONGS.compareAndSet(buffer, 0, 0L, MAGIC);
+        LONGS.compareAndSet(buffer, 8, 0L, VERSION);
+        if ((long) LONGS.getVolatile(buffer, 0) != MAGIC || (long) LONGS.getVolatile(buffer, 8) != VERSION) {
+            logger.warning("Host budget file " + file + " has an unknown format; host budget disabled.");
+            buffer = null;
+            return;
+        }
+        publish();
+        task = plugin.getServer().getScheduler().runTaskTimer(plugin, this::publish,
+                PUBLISH_INTERVAL_TICKS, PUBLISH_INTERVAL_TICKS);
+        logger.info("Sharing hostile mob budget through " + file + " (slot " + slot + ")");
+    }
+
+    /**
+     * Stops publishing and releases the slot.
+     */
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        if (buffer != null && slot >= 0) {
+            int base = offset(slot);
+            LONGS.setVolatile(buffer, base + COUNT, 0L);
+            LONGS.compareAndSet(buffer, base + OWNER, instanceId, 0L);
+        }
+        buffer = null;
+        slot = -1;
+        otherCount = 0;
+        activeInstances = 0;
+    }
+
+    /**
+     * Publishes this instance's count and heartbeat, then sums the counts of the other live instances.
+     */
+    private void publish() {
+        long now = System.currentTimeMillis();
+        long expiry = configManager.getSnapshot().getHostBudgetExpiryMillis();
+        if (slot < 0 || (long) LONGS.getVolatile(buffer, offset(slot) + OWNER) != instanceId) {
+            slot = claimSlot(now, expiry);
+            if (slot < 0) {
+                logger.warning("No free host budget slot; this instance is not counted by other instances.");
+            }
+        }
+        if (slot >= 0) {
+            int base = offset(slot);
+            LONGS.setVolatile(buffer, base + COUNT, (long) mobCounter.getTotalHostileCount());
+            LONGS.setVolatile(buffer, base + HEARTBEAT, now);
+        }
+        int others = 0;
+        int active = slot >= 0 ? 1 : 0;
+        for (int i = 0; i < SLOTS; i++) {
+            int base = offset(i);
+            long owner = (long) LONGS.getVolatile(buffer, base + OWNER);
+            if (i == slot || owner == 0 || now - (long) LONGS.getVolatile(buffer, base + HEARTBEAT) > expiry) {
+                continue;
+            }
+            others += (int) (long) LONGS.getVolatile(buffer, base + COUNT);
+            active++;
+        }
+        otherCount = others;
+        activeInstances = active;
+    }
+
+    /**
+     * Claims a free slot, or the slot of an instance whose heartbeat has expired.
+     * @param now The current time in milliseconds.
+     * @param expiry The heartbeat age after which a slot is considered abandoned.
+     * @return The claimed slot, or -1 if every slot is in use.
+     */
+    private int claimSlot(long now, long expiry) {
+        for (int i = 0; i < SLOTS; i++) {
+            int base = offset(i);
+            long owner = (long) LONGS.getVolatile(buffer, base + OWNER);
+            boolean free = owner == 0 || now - (long) LONGS.getVolatile(buffer, base + HEARTBEAT) > expiry;
+            if (free && LONGS.compareAndSet(buffer, base + OWNER, owner, instanceId)) {
+                LONGS.setVolatile(buffer, base + HEARTBEAT, now);
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the byte offset of a slot.
+     * @param slot The slot index.
+     * @return The slot's offset in the file.
+     */
+    private static int offset(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    /**
+     * Resolves the configured file path, defaulting to the system temporary directory.
+     * @param path The configured path, or an empty string.
+     * @return The shared file.
+     */
+    private static File resolveFile(String path) {
+        return path.isEmpty() ? new File(System.getProperty("java.io.tmpdir"), "ehml-host-budget.dat") : new File(path);
+    }
+
+    /**
+     * Gets the hostile count of every live instance on the host, using this instance's live count.
+     * @return The host-wide hostile count.
+     */
+    public int getHostTotal() {
+        return otherCount + mobCounter.getTotalHostileCount();
+    }
+
+    /**
+     * Checks whether the host budget is active.
+     * @return True if the shared file is mapped.
+     */
+    public boolean isActive() {
+        return buffer != null;
+    }
+
+    /**
+     * Reloads the module, remapping the file with the current settings.
+     */
+    public void reload() {
+        stop();
+        start();
+    }
+
+    // Getters for host budget state
+    public int getActiveInstances() { return activeInstances; }
+}
\ No newline at end of file
@@ -0,0 +1,102 @@
+package com.excrele.ehml;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram with power-of-two nanosecond buckets from 256 ns to about 16.8 ms, plus an
+ * overflow bucket. Recording is a leading-zero count and two striped counter increments, so it
+ * is cheap enough for per-event use and safe to read from another thread while being written.
+ */
+public class LatencyHistogram {
+
+    /** Exponent of the upper bound of the first bucket (2^8 ns). */
+    private static final int FIRST_EXPONENT = 8;
+
+    /** Number of bounded buckets; the bucket after them counts everything slower. */
+    public static final int BUCKETS = 17;
+
+    private final LongAdder[] buckets;
+    private final LongAdder sumNanos;
+
+    /**
+     * Initializes an empty histogram.
+     */
+    public LatencyHistogram() {
+        this.buckets = new LongAdder[BUCKETS + 1];
+        for (int i = 0; i <= BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+        this.sumNanos = new LongAdder();
+    }
+
+    /**
+     * Records one measurement.
+     * @param nanos The measured duration in nanoseconds.
+     */
+    public void record(long nanos) {
+        int exponent = nanos <= 1 ? 0 : 64 - Long.numberOfLeadingZeros(nanos - 1);
+        int bucket = Math.min(BUCKETS, Math.max(0, exponent - FIRST_EXPONENT));
+        buckets[bucket].increment();
+        sumNanos.add(nanos);
+    }
+
+    /**
+     * Gets the inclusive upper bound of a bucket.
+     * @param bucket The bucket index, below {@link #BUCKETS}.
+     * @return The upper bound in nanoseconds.
+     */
+    public static long getUpperBoundNanos(int bucket) {
+        return 1L << (FIRST_EXPONENT + bucket);
+    }
+
+    /**
+     * Gets the number of measurements in a bucket.
+     * @param bucket The bucket index, where {@link #BUCKETS} is the overflow bucket.
+     * @return The bucket count.
+     */
+    public long getBucketCount(int bucket) {
+        return buckets[bucket].sum();
+    }
+
+    /**
+     * Gets the total number of measurements.
+     * @return The measurement count.
+     */
+    public long getCount() {
+        long count = 0;
+        for (LongAdder bucket : buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    /**
+     * Gets the sum of all measurements.
+     * @return The total duration in nanoseconds.
+     */
+    public long getSumNanos() {
+        return sumNanos.sum();
+    }
+
+    /**
+     * Estimates a quantile as the upper bound of the bucket containing it.
+     * @param quantile The quantile, between 0 and 1.
+     * @return The estimated quantile in nanoseconds, or 0 if nothing was recorded;
+     *         {@link Long#MAX_VALUE} if it falls in the overflow bucket.
+     */
+    public long getQuantileNanos(double quantile) {
+        long count = getCount();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(quantile * count);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets[i].sum();
+            if (seen >= rank) {
+                return getUpperBoundNanos(i);
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,187 @@
+package com.excrele.ehml;
+
+import java.util.Locale;
+
+/**
+ * Shared definition of the EHML activity log format, used by both {@link LoggerModule} and
+ * the offline {@link LogQueryTool}. Depends only on the JDK so it can run outside the server.
+ * <p>
+ * Log files hold one JSON object per line with the fields {@code t} (epoch milliseconds),
+ * {@code c} (category), optional {@code e} (entity type), {@code w} (world), {@code x}/{@code y}/{@code z}
+ * (block coordinates), {@code n} (number of activities a summary record stands for; absent for single
+ * activities), and {@code m} (message), always written in that order.
+ * Each log file has a side index of fixed-size records, one per time bucket, holding the bucket
+ * start time, the byte offset of the bucket's first line and a bit mask of the categories it contains.
+ */
+public final class LogFormat {
+
+    /** File name suffix of log files. */
+    public static final String LOG_SUFFIX = "_EHML-Log.ndjson";
+    /** File name suffix appended to a log file name to form its index file name. */
+    public static final String INDEX_SUFFIX = ".idx";
+    /** File name suffix appended to compressed log files. */
+    public static final String COMPRESSED_SUFFIX = ".gz";
+    /** Magic number at the start of index files ("EHLI"). */
+    public static final int INDEX_MAGIC = 0x45484C49;
+    /** Current index file version. */
+    public static final int INDEX_VERSION = 1;
+    /** Size of the index file header in bytes: magic, version and bucket length. */
+    public static final int INDEX_HEADER_SIZE = 16;
+    /** Size of an index record in bytes: bucket start, byte offset and category mask. */
+    public static final int INDEX_RECORD_SIZE = 24;
+    /** Length of an index time bucket in milliseconds. */
+    public static final long BUCKET_MILLIS = 60_000L;
+
+    private LogFormat() {
+    }
+
+    /**
+     * Gets the index mask bit of a category. Categories are matched case-insensitively.
+     * @param category The category name.
+     * @return The category's mask bit.
+     */
+    public static long categoryBit(String category) {
+        return 1L << (category.toLowerCase(Locale.ROOT).hashCode() & 63);
+    }
+
+    /**
+     * Gets the start of the time bucket containing a time.
+     * @param time The time in epoch milliseconds.
+     * @return The bucket start in epoch milliseconds.
+     */
+    public static long bucketStart(long time) {
+        return time - Math.floorMod(time, BUCKET_MILLIS);
+    }
+
+    /**
+     * Formats a log record as a JSON line, including the trailing newline.
+     * @param builder The builder to append to.
+     * @param time The time in epoch milliseconds.
+     * @param category The category of the activity.
+     * @param entityType The entity type name, or null.
+     * @param world The world name, or null.
+     * @param hasPosition Whether block coordinates are included.
+     * @param x The block X coordinate.
+     * @param y The block Y coordinate.
+     * @param z The block Z coordinate.
+     * @param count The number of activities the record summarizes, or 0 for a single activity.
+     * @param message The message.
+     */
+    public static void appendRecord(StringBuilder builder, long time, String category, String entityType, String world,
+                                    boolean hasPosition, int x, int y, int z, int count, String message) {
+        builder.append("{\"t\":").append(time).append(",\"c\":");
+        appendString(builder, category);
+        if (entityType != null) {
+            builder.append(",\"e\":");
+            appendString(builder, entityType);
+        }
+        if (world != null) {
+            builder.append(",\"w\":");
+            appendString(builder, world);
+        }
+        if (hasPosition) {
+            builder.append(",\"x\":").append(x).append(",\"y\":").append(y).append(",\"z\":").append(z);
+        }
+        if (count > 0) {
+            builder.append(",\"n\":").append(count);
+        }
+        builder.append(",\"m\":");
+        appendString(builder, message);
+        builder.append("}\n");
+    }
+
+    /**
+     * Reads a numeric field from a JSON line.
+     * @param line The JSON line.
+     * @param field The field name.
+     * @param defaultValue The value to return if the field is absent.
+     * @return The field value, or the default value.
+     */
+    public static long readLong(String line, String field, long defaultValue) {
+        int start = valueStart(line, field);
+        if (start < 0) {
+            return defaultValue;
+        }
+        int end = start;
+        while (end < line.length() && (line.charAt(end) == '-' || Character.isDigit(line.charAt(end)))) {
+            end++;
+        }
+        return end == start ? defaultValue : Long.parseLong(line.substring(start, end));
+    }
+
+    /**
+     * Reads a string field from a JSON line.
+     * @param line The JSON line.
+     * @param field The field name.
+     * @return The unescaped field value, or null if absent.
+     */
+    public static String readString(String line, String field) {
+        int start = valueStart(line, field);
+        if (start < 0 || start >= line.length() || line.charAt(start) != '"') {
+            return null;
+        }
+        StringBuilder value = new StringBuilder();
+        for (int i = start + 1; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                return value.toString();
+            }
+            if (c == '\\' && i + 1 < line.length()) {
+                char escaped = line.charAt(++i);
+                switch (escaped) {
+                    case 'n' -> value.append('\n');
+                    case 'r' -> value.append('\r');
+                    case 't' -> value.append('\t');
+                    case 'u' -> {
+                        value.append((char) Integer.parseInt(line.substring(i + 1, i + 5), 16));
+                        i += 4;
+                    }
+                    default -> value.append(escaped);
+                }
+            } else {
+                value.append(c);
+            }
+        }
+        return value.toString();
+    }
+
+    /**
+     * Finds the start of a field's value. Quotes inside string values are always escaped,
+     * so the unescaped field pattern cannot match inside another value.
+     * @param line The JSON line.
+     * @param field The field name.
+     * @return The index of the value's first character, or -1 if absent.
+     */
+    private static int valueStart(String line, String field) {
+        String pattern = "\"" + field + "\":";
+        int index = line.indexOf(pattern);
+        return index < 0 ? -1 : index + pattern.length();
+    }
+
+    /**
+     * Appends a JSON string literal with escaping.
+     * @param builder The builder to append to.
+     * @param value The string value.
+     */
+    private static void appendString(StringBuilder builder, String value) {
+        builder.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> builder.append("\\\"");
+                case '\\' -> builder.append("\\\\");
+                case '\n' -> builder.append("\\n");
+                case '\r' -> builder.append("\\r");
+                case '\t' -> builder.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        builder.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        builder.append(c);
+                    }
+                }
+            }
+        }
+        builder.append('"');
+    }
+}
\ No newline at end of file
@@ -0,0 +1,341 @@
+package com.excrele.ehml;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Command-line reader for EHML activity logs, runnable with {@code java -jar EHML.jar}.
+ * Filters records by category, time range, entity type and world. The side index of each log
+ * file is used to skip time buckets that cannot match, and uncompressed files are read through
+ * memory-mapped buffers. Runs outside the server and depends only on the JDK.
+ */
+public final class LogQueryTool {
+
+    private static final DateTimeFormatter OUTPUT_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")
+            .withZone(ZoneId.systemDefault());
+
+    private File directory = new File("plugins/EHML/logs");
+    private String category;
+    private String entityType;
+    private String world;
+    private long from = Long.MIN_VALUE;
+    private long to = Long.MAX_VALUE;
+    private boolean countOnly;
+    private boolean json;
+    private long matches;
+
+    private LogQueryTool() {
+    }
+
+    /**
+     * Runs a log query from command-line arguments.
+     * @param args The command-line arguments.
+     */
+    public static void main(String[] args) {
+        LogQueryTool tool = new LogQueryTool();
+        try {
+            if (!tool.parseArguments(args)) {
+                printUsage();
+                System.exit(1);
+                return;
+            }
+            tool.run();
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            printUsage();
+            System.exit(1);
+        } catch (IOException e) {
+            System.err.println("Failed to read logs: " + e.getMessage());
+            System.exit(2);
+        }
+    }
+
+    /**
+     * Prints the command-line usage.
+     */
+    private static void printUsage() {
+        System.err.println("Usage: java -jar EHML.jar [--dir <logs folder>] [--category <name>] [--entity <type>]");
+        System.err.println("           [--world <name>] [--from <time>] [--to <time>] [--count] [--json]");
+        System.err.println("Times are 'yyyy-MM-dd HH:mm[:ss]', 'HH:mm[:ss]' (today) or epoch milliseconds.");
+    }
+
+    /**
+     * Parses command-line arguments into query filters.
+     * @param args The command-line arguments.
+     * @return True if the arguments were valid.
+     */
+    private boolean parseArguments(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if (option.equals("--count")) {
+                countOnly = true;
+                continue;
+            }
+            if (option.equals("--json")) {
+                json = true;
+                continue;
+            }
+            if (i + 1 >= args.length) {
+                return false;
+            }
+            String value = args[++i];
+            switch (option) {
+                case "--dir" -> directory = new File(value);
+                case "--category" -> category = value;
+                case "--entity" -> entityType = value.toUpperCase();
+                case "--world" -> world = value;
+                case "--from" -> from = parseTime(value);
+                case "--to" -> to = parseTime(value);
+                default -> {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parses a time argument.
+     * @param value The time argument.
+     * @return The time in epoch milliseconds.
+     */
+    private static long parseTime(String value) {
+        if (value.chars().allMatch(Character::isDigit)) {
+            return Long.parseLong(value);
+        }
+        String normalized = value.trim().replace('T', ' ');
+        if (normalized.length() == 5 || normalized.length() == 8) {
+            normalized = LocalDate.now() + " " + normalized;
+        }
+        if (normalized.length() == 16) {
+            normalized += ":00";
+        }
+        try {
+            LocalDateTime time = LocalDateTime.of(LocalDate.parse(normalized.substring(0, 10)),
+                    LocalTime.parse(normalized.substring(11)));
+            return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch (DateTimeParseException | StringIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid time: " + value);
+        }
+    }
+
+    /**
+     * Runs the query over all log files in the directory, in name (creation time) order.
+     * @throws IOException If a log file cannot be read.
+     */
+    private void run() throws IOException {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(LogFormat.LOG_SUFFIX) ||
+                name.endsWith(LogFormat.LOG_SUFFIX + LogFormat.COMPRESSED_SUFFIX));
+        if (files == null) {
+            throw new IOException("Not a directory: " + directory);
+        }
+        Arrays.sort(files);
+        for (File file : files) {
+            queryFile(file);
+        }
+        if (countOnly) {
+            System.out.println(matches);
+        }
+    }
+
+    /**
+     * Queries one log file, using its index to skip buckets that cannot match.
+     * @param file The log file, compressed or not.
+     * @throws IOException If the file cannot be read.
+     */
+    private void queryFile(File file) throws IOException {
+        boolean compressed = file.getName().endsWith(LogFormat.COMPRESSED_SUFFIX);
+        String baseName = compressed
+                ? file.getName().substring(0, file.getName().length() - LogFormat.COMPRESSED_SUFFIX.length())
+                : file.getName();
+        File indexFile = new File(file.getParentFile(), baseName + LogFormat.INDEX_SUFFIX);
+        long length = compressed ? Long.MAX_VALUE : file.length();
+        List<long[]> ranges = indexFile.isFile() ? readRanges(indexFile, length) : null;
+
+        if (compressed) {
+            if (ranges != null && ranges.isEmpty()) {
+                return; // No bucket in this file can match
+            }
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(Files.newInputStream(file.toPath())), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    match(line);
+                }
+            }
+            return;
+        }
+
+        if (ranges == null) {
+            ranges = List.of(new long[]{0, length});
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            for (long[] range : ranges) {
+                scanRange(channel, range[0], Math.min(range[1], length));
+            }
+        }
+    }
+
+    /**
+     * Reads a log file's index and computes the byte ranges of buckets that may match the query.
+     * Records after the last indexed bucket (e.g. of a file still being written) are always scanned.
+     * @param indexFile The index file.
+     * @param fileLength The length of the log file.
+     * @return The merged byte ranges to scan, as {start, end} pairs.
+     * @throws IOException If the index cannot be read.
+     */
+    private List<long[]> readRanges(File indexFile, long fileLength) throws IOException {
+        List<long[]> ranges = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(indexFile.toPath())))) {
+            if (indexFile.length() < LogFormat.INDEX_HEADER_SIZE || in.readInt() != LogFormat.INDEX_MAGIC ||
+                    in.readInt() != LogFormat.INDEX_VERSION) {
+                return null; // Unknown index; scan the whole file
+            }
+            long bucketMillis = in.readLong();
+            long categoryBit = category == null ? -1L : LogFormat.categoryBit(category);
+            int records = (int) ((indexFile.length() - LogFormat.INDEX_HEADER_SIZE) / LogFormat.INDEX_RECORD_SIZE);
+            long[] starts = new long[records];
+            long[] offsets = new long[records];
+            long[] masks = new long[records];
+            for (int i = 0; i < records; i++) {
+                starts[i] = in.readLong();
+                offsets[i] = in.readLong();
+                masks[i] = in.readLong();
+            }
+            for (int i = 0; i < records; i++) {
+                boolean timeMatches = starts[i] <= to && starts[i] + bucketMillis > from;
+                if (!timeMatches || (masks[i] & categoryBit) == 0) {
+                    continue;
+                }
+                addRange(ranges, offsets[i], i + 1 < records ? offsets[i + 1] : fileLength);
+            }
+            if (fileLength != Long.MAX_VALUE) {
+                // A file still being written has records after its last indexed bucket
+                addRange(ranges, records == 0 ? 0 : offsets[records - 1], fileLength);
+            }
+        }
+        return ranges;
+    }
+
+    /**
+     * Adds a byte range, merging it with the previous range if they touch.
+     * @param ranges The ranges so far.
+     * @param start The range start.
+     * @param end The range end.
+     */
+    private static void addRange(List<long[]> ranges, long start, long end) {
+        if (start >= end) {
+            return;
+        }
+        if (!ranges.isEmpty()) {
+            long[] last = ranges.get(ranges.size() - 1);
+            if (last[1] >= start) {
+                last[1] = Math.max(last[1], end);
+                return;
+            }
+        }
+        ranges.add(new long[]{start, end});
+    }
+
+    /**
+     * Scans a byte range of an uncompressed log file through memory-mapped buffers.
+     * @param channel The open file channel.
+     * @param start The range start.
+     * @param end The range end.
+     * @throws IOException If mapping fails.
+     */
+    private void scanRange(FileChannel channel, long start, long end) throws IOException {
+        long position = start;
+        byte[] lineBuffer = new byte[1024];
+        int lineLength = 0;
+        while (position < end) {
+            long size = Math.min(end - position, Integer.MAX_VALUE);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+            while (buffer.hasRemaining()) {
+                byte b = buffer.get();
+                if (b == '\n') {
+                    match(new String(lineBuffer, 0, lineLength, StandardCharsets.UTF_8));
+                    lineLength = 0;
+                    continue;
+                }
+                if (lineLength == lineBuffer.length) {
+                    lineBuffer = Arrays.copyOf(lineBuffer, lineLength * 2);
+                }
+                lineBuffer[lineLength++] = b;
+            }
+            position += size;
+        }
+        if (lineLength > 0) {
+            match(new String(lineBuffer, 0, lineLength, StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Checks a record against the query filters and prints or counts it if it matches.
+     * A summary record counts as the number of activities it stands for.
+     * @param line The JSON line.
+     */
+    private void match(String line) {
+        if (line.isEmpty()) {
+            return;
+        }
+        long time = LogFormat.readLong(line, "t", Long.MIN_VALUE);
+        if (time < from || time > to) {
+            return;
+        }
+        String lineCategory = LogFormat.readString(line, "c");
+        if (category != null && !category.equalsIgnoreCase(lineCategory)) {
+            return;
+        }
+        String lineEntity = LogFormat.readString(line, "e");
+        if (entityType != null && !entityType.equals(lineEntity)) {
+            return;
+        }
+        String lineWorld = LogFormat.readString(line, "w");
+        if (world != null && !world.equals(lineWorld)) {
+            return;
+        }
+        matches += LogFormat.readLong(line, "n", 1);
+        if (countOnly) {
+            return;
+        }
+        if (json) {
+            System.out.println(line);
+            return;
+        }
+        StringBuilder output = new StringBuilder();
+        output.append(OUTPUT_FORMAT.format(Instant.ofEpochMilli(time))).append(" [").append(lineCategory).append("] ");
+        if (lineWorld != null) {
+            output.append(lineWorld).append(' ');
+            long x = LogFormat.readLong(line, "x", Long.MIN_VALUE);
+            if (x != Long.MIN_VALUE) { // Summary records have no position
+                output.append(x).append(',')
+                        .append(LogFormat.readLong(line, "y", 0)).append(',')
+                        .append(LogFormat.readLong(line, "z", 0)).append(' ');
+            }
+        }
+        output.append(LogFormat.readString(line, "m"));
+        System.out.println(output);
+    }
+}
\ No newline at end of file
@@ -1,86 +1,408 @@
 package com.excrele.ehml;
 
-import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.EntityType;
 import org.bukkit.plugin.java.JavaPlugin;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
 import java.util.Date;
-import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Logger;
+import java.util.zip.GZIPOutputStream;
 
 /**
- * Module for logging EHML plugin activities to a YAML file.
- * Creates a new log file on server start with a timestamped name.
+ * Module for logging EHML plugin activities to an append-only log file.
+ * Entries are handed to a background writer thread through a bounded queue, so the main
+ * thread never waits on disk I/O. When the queue is full, entries are dropped and counted.
+ * Records are written in the compact {@link LogFormat} with a side index per file, and files
+ * are rotated by size and age, with rotated files optionally gzip-compressed. If a log file cannot
+ * be opened, entries are dropped and counted while the writer retries with a growing delay.
  */
 public class LoggerModule {
 
-    private final JavaPlugin plugin;
+    /** Delay before the first retry after a log file failed to open, in milliseconds. */
+    private static final long MIN_REOPEN_DELAY_MILLIS = TimeUnit.SECONDS.toMillis(1);
+
+    /** Longest delay between retries to open a log file, in milliseconds. */
+    private static final long MAX_REOPEN_DELAY_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
     private final ConfigManager configManager;
     private final Logger logger;
-    private final File logFile;
-    private final YamlConfiguration logConfig;
-    private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+    private final File logsDir;
+    private volatile BlockingQueue<LogEntry> queue;
+    private final AtomicLong droppedEntries;
+    private final Thread writerThread;
+    private volatile boolean running;
+    private File logFile;
+    private OutputStream output;
+    private DataOutputStream indexOutput;
+    private final StringBuilder lineBuilder;
+    private long fileSize;
+    private long bucketStart;
+    private long bucketOffset;
+    private long bucketMask;
+    private long fileOpenedAt;
+    private long reportedDrops;
+    private long reopenAt;
+    private long reopenDelay = MIN_REOPEN_DELAY_MILLIS;
+
+    /**
+     * A queued log entry.
+     * @param time The time the entry was logged, in epoch milliseconds.
+     * @param category The category of the activity.
+     * @param entityType The entity type name, or null.
+     * @param world The world name, or null.
+     * @param hasPosition Whether block coordinates are set.
+     * @param x The block X coordinate.
+     * @param y The block Y coordinate.
+     * @param z The block Z coordinate.
+     * @param count The number of activities the entry summarizes, or 0 for a single activity.
+     * @param message The message to log.
+     */
+    private record LogEntry(long time, String category, String entityType, String world,
+                            boolean hasPosition, int x, int y, int z, int count, String message) {
+    }
 
     /**
-     * Initializes the logger module and creates a new log file.
+     * Initializes the logger module, opens a new log file and starts the writer thread.
      * @param plugin The main plugin instance.
      * @param configManager The configuration manager.
      */
     public LoggerModule(JavaPlugin plugin, ConfigManager configManager) {
-        this.plugin = plugin;
         this.configManager = configManager;
         this.logger = plugin.getLogger();
+        this.queue = new ArrayBlockingQueue<>(configManager.getLogQueueCapacity());
+        this.droppedEntries = new AtomicLong();
+        this.lineBuilder = new StringBuilder(256);
 
         // Create logs directory
-        File logsDir = new File(plugin.getDataFolder(), "logs");
+        logsDir = new File(plugin.getDataFolder(), "logs");
         if (!logsDir.exists()) {
             logsDir.mkdirs();
         }
+        openLogFile();
 
-        // Create new log file with timestamp
-        String timestamp = new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss").format(new Date());
-        logFile = new File(logsDir, timestamp + "_EHML-Log.yml");
-        logConfig = new YamlConfiguration();
+        running = true;
+        writerThread = new Thread(this::runWriter, "EHML-LogWriter");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Queues an activity for logging if logging is enabled. Never blocks; the entry is
+     * dropped and counted if the queue is full.
+     * @param category The category of the activity (e.g., "GlobalLimit", "GUI").
+     * @param message The message to log.
+     */
+    public void log(String category, String message) {
+        if (!configManager.isLoggingEnabled() || !running) {
+            return;
+        }
+
+        enqueue(new LogEntry(System.currentTimeMillis(), category, null, null, false, 0, 0, 0, 0, message));
+    }
+
+    /**
+     * Queues an activity about an entity at a location for logging if logging is enabled.
+     * The entity type, world and block coordinates are stored as separate fields for querying.
+     * @param category The category of the activity (e.g., "GlobalLimit", "DeathCleanup").
+     * @param entityType The entity type involved, or null.
+     * @param location The location of the activity.
+     * @param message The message to log.
+     */
+    public void log(String category, EntityType entityType, Location location, String message) {
+        log(System.currentTimeMillis(), category, entityType, location.getWorld(),
+                location.getBlockX(), location.getBlockY(), location.getBlockZ(), message);
+    }
+
+    /**
+     * Queues a summary of several activities about an entity type in a world, without a position,
+     * for logging if logging is enabled. The number of activities is stored as a separate field,
+     * so log queries can count the activities rather than the summary lines.
+     * @param category The category of the activities (e.g., "GlobalLimit").
+     * @param entityType The entity type involved, or null.
+     * @param world The world of the activities, or null.
+     * @param count The number of activities summarized.
+     * @param message The message to log.
+     */
+    public void log(String category, EntityType entityType, World world, int count, String message) {
+        if (!configManager.isLoggingEnabled() || !running) {
+            return;
+        }
+
+        enqueue(new LogEntry(System.currentTimeMillis(), category,
+                entityType == null ? null : entityType.name(),
+                world == null ? null : world.getName(),
+                false, 0, 0, 0, count, message));
+    }
+
+    /**
+     * Queues an activity that happened at an earlier time at a block position for logging if logging is enabled.
+     * @param time The time of the activity, in epoch milliseconds.
+     * @param category The category of the activity (e.g., "GlobalLimit").
+     * @param entityType The entity type involved, or null.
+     * @param world The world of the activity, or null.
+     * @param x The block X coordinate.
+     * @param y The block Y coordinate.
+     * @param z The block Z coordinate.
+     * @param message The message to log.
+     */
+    public void log(long time, String category, EntityType entityType, World world, int x, int y, int z,
+                    String message) {
+        if (!configManager.isLoggingEnabled() || !running) {
+            return;
+        }
+
+        enqueue(new LogEntry(time, category,
+                entityType == null ? null : entityType.name(),
+                world == null ? null : world.getName(),
+                true, x, y, z, 0, message));
+    }
+
+    /**
+     * Offers an entry to the writer queue, counting it as dropped if the queue is full.
+     * @param entry The entry to queue.
+     */
+    private void enqueue(LogEntry entry) {
+        if (!queue.offer(entry)) {
+            droppedEntries.incrementAndGet();
+        }
+    }
+
+    /**
+     * Gets the number of entries dropped because the queue was full or no log file was open.
+     * @return The dropped entry count.
+     */
+    public long getDroppedEntries() {
+        return droppedEntries.get();
+    }
+
+    /**
+     * Reloads the module, replacing the writer queue if the configured capacity changed. Queued
+     * entries move to the new queue; entries beyond its capacity are dropped and counted.
+     */
+    public void reload() {
+        int capacity = configManager.getLogQueueCapacity();
+        BlockingQueue<LogEntry> current = queue;
+        if (current.size() + current.remainingCapacity() == capacity) {
+            return;
+        }
+        BlockingQueue<LogEntry> resized = new ArrayBlockingQueue<>(capacity);
+        queue = resized;
+        current.drainTo(resized, capacity);
+        while (current.poll() != null) {
+            droppedEntries.incrementAndGet();
+        }
+    }
 
-        // Initialize log file
+    /**
+     * Stops the writer thread after it has written all queued entries, then closes the log file.
+     */
+    public void close() {
+        running = false;
         try {
-            if (!logFile.exists()) {
-                logFile.createNewFile();
+            writerThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writerThread.isAlive()) {
+            logger.warning("Log writer did not finish in time; " + queue.size() + " entries were not written.");
+        }
+    }
+
+    /**
+     * Writer thread loop: writes queued entries, flushes when idle and rotates files as needed.
+     */
+    private void runWriter() {
+        while (running || !queue.isEmpty()) {
+            try {
+                LogEntry entry = queue.poll(1, TimeUnit.SECONDS);
+                if (output == null && System.currentTimeMillis() >= reopenAt) {
+                    openLogFile();
+                }
+                if (entry != null) {
+                    write(entry);
+                    while ((entry = queue.poll()) != null) {
+                        write(entry);
+                    }
+                }
+                reportDrops();
+                if (output != null) {
+                    output.flush();
+                    indexOutput.flush();
+                }
+                if (shouldRotate()) {
+                    rotate();
+                }
+            } catch (InterruptedException e) {
+                running = false;
+            } catch (IOException e) {
+                logger.severe("Failed to write log entries: " + e.getMessage());
             }
-            logConfig.save(logFile);
-        } catch (IOException e) {
-            logger.severe("Failed to create log file: " + e.getMessage());
         }
+        closeLogFile();
     }
 
     /**
-     * Logs an activity to the YAML file if logging is enabled.
-     * @param category The category of the activity (e.g., "GlobalLimit", "GUI").
-     * @param message The message to log.
+     * Writes one entry as a line to the current log file and updates the time bucket index.
+     * The entry is dropped and counted if no log file is open.
+     * @param entry The entry to write.
+     * @throws IOException If the write fails.
      */
-    public void log(String category, String message) {
-        if (!configManager.isLoggingEnabled()) {
+    private void write(LogEntry entry) throws IOException {
+        if (output == null) {
+            droppedEntries.incrementAndGet();
             return;
         }
+        long bucket = LogFormat.bucketStart(entry.time());
+        if (bucket != bucketStart) {
+            writeIndexRecord();
+            bucketStart = bucket;
+            bucketOffset = fileSize;
+        }
+        bucketMask |= LogFormat.categoryBit(entry.category());
+
+        lineBuilder.setLength(0);
+        LogFormat.appendRecord(lineBuilder, entry.time(), entry.category(), entry.entityType(), entry.world(),
+                entry.hasPosition(), entry.x(), entry.y(), entry.z(), entry.count(), entry.message());
+        byte[] bytes = lineBuilder.toString().getBytes(StandardCharsets.UTF_8);
+        output.write(bytes);
+        fileSize += bytes.length;
+    }
+
+    /**
+     * Writes the index record of the current time bucket, if it holds any entries.
+     * @throws IOException If the write fails.
+     */
+    private void writeIndexRecord() throws IOException {
+        if (bucketMask == 0) {
+            return;
+        }
+        indexOutput.writeLong(bucketStart);
+        indexOutput.writeLong(bucketOffset);
+        indexOutput.writeLong(bucketMask);
+        bucketMask = 0;
+    }
 
-        String timestamp = dateFormat.format(new Date());
-        String logPath = "logs." + category + "." + System.currentTimeMillis();
-        logConfig.set(logPath + ".timestamp", timestamp);
-        logConfig.set(logPath + ".message", message);
+    /**
+     * Records a summary line when entries have been dropped since the last report. Drops are
+     * reported once a log file is open again.
+     * @throws IOException If the write fails.
+     */
+    private void reportDrops() throws IOException {
+        long dropped = droppedEntries.get();
+        if (dropped > reportedDrops && output != null) {
+            write(new LogEntry(System.currentTimeMillis(), "Logger", null, null, false, 0, 0, 0, 0,
+                    "Dropped " + (dropped - reportedDrops)
+                            + " log entries because the queue was full or no log file was open."));
+            reportedDrops = dropped;
+        }
+    }
 
+    /**
+     * Checks whether the current file has exceeded the configured size or age.
+     * @return True if the file should be rotated.
+     */
+    private boolean shouldRotate() {
+        long maxBytes = configManager.getLogMaxFileSizeMb() * 1024L * 1024L;
+        long maxAge = TimeUnit.MINUTES.toMillis(configManager.getLogRotateIntervalMinutes());
+        return fileSize > 0 && (fileSize >= maxBytes || System.currentTimeMillis() - fileOpenedAt >= maxAge);
+    }
+
+    /**
+     * Closes the current log file, compresses it if configured, and opens a new one.
+     */
+    private void rotate() {
+        File rotated = logFile;
+        closeLogFile();
+        if (configManager.isLogCompressRotated()) {
+            compress(rotated);
+        }
+        openLogFile();
+    }
+
+    /**
+     * Opens a new timestamped log file and its index for writing. On failure, the file state is
+     * reset and the next attempt is scheduled after a delay that doubles with each failure.
+     */
+    private void openLogFile() {
+        String timestamp = new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss").format(new Date());
+        logFile = new File(logsDir, timestamp + LogFormat.LOG_SUFFIX);
+        for (int i = 1; logFile.exists() || new File(logsDir, logFile.getName() + LogFormat.COMPRESSED_SUFFIX).exists(); i++) {
+            logFile = new File(logsDir, timestamp + "-" + i + LogFormat.LOG_SUFFIX);
+        }
+        File indexFile = new File(logsDir, logFile.getName() + LogFormat.INDEX_SUFFIX);
         try {
-            logConfig.save(logFile);
+            output = new BufferedOutputStream(Files.newOutputStream(logFile.toPath(),
+                    StandardOpenOption.CREATE_NEW), 64 * 1024);
+            indexOutput = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexFile.toPath())));
+            indexOutput.writeInt(LogFormat.INDEX_MAGIC);
+            indexOutput.writeInt(LogFormat.INDEX_VERSION);
+            indexOutput.writeLong(LogFormat.BUCKET_MILLIS);
+            fileSize = 0;
+            fileOpenedAt = System.currentTimeMillis();
+            bucketStart = Long.MIN_VALUE;
+            bucketMask = 0;
+            reopenDelay = MIN_REOPEN_DELAY_MILLIS;
         } catch (IOException e) {
-            logger.severe("Failed to save log entry: " + e.getMessage());
+            closeLogFile();
+            fileSize = 0;
+            bucketMask = 0;
+            reopenAt = System.currentTimeMillis() + reopenDelay;
+            logger.severe("Failed to create log file: " + e.getMessage() + "; retrying in "
+                    + TimeUnit.MILLISECONDS.toSeconds(reopenDelay) + " seconds.");
+            reopenDelay = Math.min(reopenDelay * 2, MAX_REOPEN_DELAY_MILLIS);
         }
     }
 
     /**
-     * Closes the logger module (no-op as file is saved after each log).
+     * Writes the pending index record, then flushes and closes the current log file and index.
      */
-    public void close() {
-        // No additional cleanup needed; logs are saved incrementally
+    private void closeLogFile() {
+        try {
+            if (output != null && indexOutput != null) {
+                writeIndexRecord();
+            }
+            if (output != null) {
+                output.close();
+            }
+            if (indexOutput != null) {
+                indexOutput.close();
+            }
+        } catch (IOException e) {
+            logger.severe("Failed to close log file: " + e.getMessage());
+        }
+        output = null;
+        indexOutput = null;
+    }
+
+    /**
+     * Gzip-compresses a rotated log file and deletes the original.
+     * @param file The file to compress.
+     */
+    private void compress(File file) {
+        File target = new File(file.getParentFile(), file.getName() + LogFormat.COMPRESSED_SUFFIX);
+        try (InputStream in = Files.newInputStream(file.toPath());
+             OutputStream out = new GZIPOutputStream(Files.newOutputStream(target.toPath()))) {
+            in.transferTo(out);
+        } catch (IOException e) {
+            logger.severe("Failed to compress rotated log file " + file.getName() + ": " + e.getMessage());
+            return;
+        }
+        if (!file.delete()) {
+            logger.warning("Failed to delete rotated log file " + file.getName() + " after compression.");
+        }
     }
 }
\ No newline at end of file
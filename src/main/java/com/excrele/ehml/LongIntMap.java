@@ -0,0 +1,192 @@
+package com.excrele.ehml;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from primitive long keys to int values.
+ * Uses linear probing with backward-shift deletion so lookups and updates never allocate.
+ * The key {@link Long#MIN_VALUE} is reserved as the empty-slot marker and cannot be stored.
+ */
+public class LongIntMap {
+
+    private static final long EMPTY = OpenAddressing.EMPTY;
+
+    /**
+     * Receives the entries of the map without boxing.
+     */
+    public interface EntryConsumer {
+        /**
+         * Accepts one entry.
+         * @param key The key.
+         * @param value The value.
+         */
+        void accept(long key, int value);
+    }
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    /**
+     * Initializes an empty map.
+     * @param expectedSize The number of entries to size the table for.
+     */
+    public LongIntMap(int expectedSize) {
+        int capacity = OpenAddressing.capacityFor(expectedSize);
+        allocate(capacity);
+    }
+
+    /**
+     * Gets the value stored for a key.
+     * @param key The key to look up.
+     * @param defaultValue The value to return if the key is absent.
+     * @return The stored value, or the default value.
+     */
+    public int get(long key, int defaultValue) {
+        int slot = OpenAddressing.hash(key, mask);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Stores a value for a key, replacing any previous value.
+     * @param key The key to store.
+     * @param value The value to store.
+     * @throws IllegalArgumentException If the key is the reserved empty-slot marker.
+     */
+    public void put(long key, int value) {
+        OpenAddressing.checkKey(key);
+        int slot = OpenAddressing.findSlot(keys, mask, key);
+        if (keys[slot] == EMPTY) {
+            keys[slot] = key;
+            values[slot] = value;
+            if (++size * 2 > keys.length) {
+                rehash(keys.length << 1);
+            }
+        } else {
+            values[slot] = value;
+        }
+    }
+
+    /**
+     * Adds a delta to the value of a key, treating absent keys as zero.
+     * Entries whose value reaches zero are removed to keep the table small.
+     * @param key The key to update.
+     * @param delta The amount to add.
+     * @return The new value.
+     */
+    public int increment(long key, int delta) {
+        int slot = OpenAddressing.findSlot(keys, mask, key);
+        if (keys[slot] == EMPTY) {
+            if (delta != 0) {
+                put(key, delta);
+            }
+            return delta;
+        }
+        int value = values[slot] + delta;
+        if (value == 0) {
+            removeSlot(slot);
+        } else {
+            values[slot] = value;
+        }
+        return value;
+    }
+
+    /**
+     * Removes a key from the map.
+     * @param key The key to remove.
+     * @param defaultValue The value to return if the key is absent.
+     * @return The removed value, or the default value.
+     */
+    public int remove(long key, int defaultValue) {
+        int slot = OpenAddressing.findSlot(keys, mask, key);
+        if (keys[slot] == EMPTY) {
+            return defaultValue;
+        }
+        int value = values[slot];
+        removeSlot(slot);
+        return value;
+    }
+
+    /**
+     * Gets the number of entries in the map.
+     * @return The entry count.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Passes every entry to a consumer, in table order.
+     * @param consumer The consumer.
+     */
+    public void forEach(EntryConsumer consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    /**
+     * Removes all entries from the map.
+     */
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+
+    /**
+     * Empties a slot and shifts following entries of the probe run back into place.
+     * @param slot The slot to empty.
+     */
+    private void removeSlot(int slot) {
+        size--;
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (keys[next] != EMPTY) {
+            if (OpenAddressing.canShift(keys, mask, gap, next)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = EMPTY;
+    }
+
+    /**
+     * Grows the table and reinserts all entries.
+     * @param capacity The new power-of-two capacity.
+     */
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = OpenAddressing.findSlot(keys, mask, oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+                size++;
+            }
+        }
+    }
+
+    /**
+     * Allocates empty key and value arrays.
+     * @param capacity The power-of-two capacity.
+     */
+    private void allocate(int capacity) {
+        keys = OpenAddressing.newKeys(capacity);
+        values = new int[capacity];
+        mask = capacity - 1;
+        size = 0;
+    }
+}
\ No newline at end of file
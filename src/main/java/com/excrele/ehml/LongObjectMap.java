@@ -0,0 +1,161 @@
+package com.excrele.ehml;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Open-addressing hash map from primitive long keys to object values.
+ * Uses linear probing with backward-shift deletion so lookups never allocate.
+ * The key {@link Long#MIN_VALUE} is reserved as the empty-slot marker and cannot be stored.
+ * @param <V> The value type.
+ */
+public class LongObjectMap<V> {
+
+    private static final long EMPTY = OpenAddressing.EMPTY;
+
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+
+    /**
+     * Initializes an empty map.
+     * @param expectedSize The number of entries to size the table for.
+     */
+    public LongObjectMap(int expectedSize) {
+        int capacity = OpenAddressing.capacityFor(expectedSize);
+        allocate(capacity);
+    }
+
+    /**
+     * Gets the value stored for a key.
+     * @param key The key to look up.
+     * @return The stored value, or null if the key is absent.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int slot = OpenAddressing.hash(key, mask);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return (V) values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Stores a value for a key, replacing any previous value.
+     * @param key The key to store.
+     * @param value The value to store.
+     * @throws IllegalArgumentException If the key is the reserved empty-slot marker.
+     */
+    public void put(long key, V value) {
+        OpenAddressing.checkKey(key);
+        int slot = OpenAddressing.findSlot(keys, mask, key);
+        if (keys[slot] == EMPTY) {
+            keys[slot] = key;
+            values[slot] = value;
+            if (++size * 2 > keys.length) {
+                rehash(keys.length << 1);
+            }
+        } else {
+            values[slot] = value;
+        }
+    }
+
+    /**
+     * Removes a key from the map.
+     * @param key The key to remove.
+     * @return The removed value, or null if the key was absent.
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int slot = OpenAddressing.findSlot(keys, mask, key);
+        if (keys[slot] == EMPTY) {
+            return null;
+        }
+        V value = (V) values[slot];
+        removeSlot(slot);
+        return value;
+    }
+
+    /**
+     * Calls an action for every value in the map. The map must not be modified during iteration.
+     * @param action The action to call.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEachValue(Consumer<? super V> action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                action.accept((V) values[i]);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of entries in the map.
+     * @return The entry count.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes all entries from the map.
+     */
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * Empties a slot and shifts following entries of the probe run back into place.
+     * @param slot The slot to empty.
+     */
+    private void removeSlot(int slot) {
+        size--;
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (keys[next] != EMPTY) {
+            if (OpenAddressing.canShift(keys, mask, gap, next)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = EMPTY;
+        values[gap] = null;
+    }
+
+    /**
+     * Grows the table and reinserts all entries.
+     * @param capacity The new power-of-two capacity.
+     */
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = OpenAddressing.findSlot(keys, mask, oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+                size++;
+            }
+        }
+    }
+
+    /**
+     * Allocates empty key and value arrays.
+     * @param capacity The power-of-two capacity.
+     */
+    private void allocate(int capacity) {
+        keys = OpenAddressing.newKeys(capacity);
+        values = new Object[capacity];
+        mask = capacity - 1;
+        size = 0;
+    }
+}
\ No newline at end of file
@@ -1,93 +1,388 @@
 package com.excrele.ehml;
 
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
-import org.bukkit.event.entity.CreatureSpawnEvent;
+import org.bukkit.event.entity.EntityDamageEvent;
+import org.bukkit.event.entity.EntityRegainHealthEvent;
+import org.bukkit.event.entity.PlayerDeathEvent;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
 import org.bukkit.Location;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.UUID;
-import java.util.logging.Logger;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Module for slowing down hostile mob spawns near low-health players.
+ * Only players currently below the health threshold are kept in a {@link PlayerGrid}, updated
+ * from health, respawn, quit, world-change and movement events, so spawns check nearby cells
+ * only and skip the search entirely when no player is low on health.
+ * Near a low-health player, each chunk allows one hostile spawn per cooldown period; the last
+ * allowed spawn time is kept in a bounded {@link ChunkCooldownMap} keyed by packed world and chunk.
+ * Spawns are checked as the last {@link SpawnRule} of the {@link SpawnDecisionPipeline}, so a
+ * cooldown is only consumed by spawns that every other rule allowed.
+ * Index updates from movement are timed in the {@link MetricsModule}.
  */
-public class LowHealthDelayModule implements Listener {
+public class LowHealthDelayModule implements Listener, SpawnRule {
 
+    private static final List<String> REJECTION_REASONS = List.of("delayed near low-health player");
+
+    private final JavaPlugin plugin;
     private final ConfigManager configManager;
-    private final LoggerModule loggerModule;
-    private final Logger logger;
-    private final Map<UUID, Long> lastSpawnTimes;
+    private final MetricsModule metrics;
+    private final int indexStage;
+    private final PlayerGrid lowHealthPlayers;
+    private final WorldIndex worldIndex;
+    private ChunkCooldownMap lastSpawnTimes;
+    private int maxChunks;
+    private BukkitTask resyncTask;
+
+    /**
+     * Receives the chunk cooldowns of the module.
+     */
+    public interface CooldownConsumer {
+        /**
+         * Accepts one chunk cooldown.
+         * @param world The world of the chunk.
+         * @param chunkX The chunk X coordinate.
+         * @param chunkZ The chunk Z coordinate.
+         * @param time The time of the last allowed spawn in milliseconds.
+         */
+        void accept(World world, int chunkX, int chunkZ, long time);
+    }
 
     /**
      * Initializes the low-health delay module.
+     * @param plugin The main plugin instance for server access.
      * @param configManager The configuration manager providing settings.
-     * @param loggerModule The logger module for recording activities.
+     * @param metrics The metrics module for index update timings.
      */
-    public LowHealthDelayModule(ConfigManager configManager, LoggerModule loggerModule) {
+    public LowHealthDelayModule(JavaPlugin plugin, ConfigManager configManager, MetricsModule metrics) {
+        this.plugin = plugin;
         this.configManager = configManager;
-        this.loggerModule = loggerModule;
-        this.logger = Logger.getLogger("EHML");
-        this.lastSpawnTimes = new HashMap<>();
+        this.metrics = metrics;
+        this.indexStage = metrics.registerStage("LowHealthIndex");
+        this.lowHealthPlayers = new PlayerGrid();
+        this.worldIndex = new WorldIndex();
+        this.maxChunks = configManager.getSnapshot().getSpawnDelayMaxChunks();
+        this.lastSpawnTimes = new ChunkCooldownMap(maxChunks);
+    }
+
+    /**
+     * Indexes the online players that are low on health and starts the periodic resync, which
+     * catches health changes made without events (e.g., by other plugins) and evicts expired cooldowns.
+     */
+    public void start() {
+        resync();
+        resyncTask = plugin.getServer().getScheduler().runTaskTimer(plugin, () -> {
+            resync();
+            evictExpiredCooldowns();
+        }, 20L, 20L);
     }
 
     /**
-     * Handles mob spawn events to apply spawn delay near low-health players.
-     * @param event The creature spawn event.
+     * Cancels the periodic resync task.
      */
-    @EventHandler
-    public void onCreatureSpawn(CreatureSpawnEvent event) {
-        if (!configManager.isLowHealthDelayEnabled()) {
-            return; // Skip if low-health delay is disabled
+    public void stop() {
+        if (resyncTask != null) {
+            resyncTask.cancel();
+            resyncTask = null;
         }
+    }
+
+    /**
+     * Gets the name of the rule.
+     * @return The rule name.
+     */
+    @Override
+    public String getName() {
+        return "LowHealthDelay";
+    }
 
-        if (event.getSpawnReason() != CreatureSpawnEvent.SpawnReason.NATURAL &&
-                event.getSpawnReason() != CreatureSpawnEvent.SpawnReason.SPAWNER) {
-            return; // Only handle natural spawns or spawners
+    /**
+     * Checks if the low-health delay is enabled.
+     * @param config The configuration snapshot.
+     * @return True if the low-health delay is enabled.
+     */
+    @Override
+    public boolean isEnabled(ConfigSnapshot config) {
+        return config.isLowHealthDelayEnabled();
+    }
+
+    /**
+     * Applies the spawn delay if a low-health player is nearby.
+     * @param context The classified spawn.
+     * @return True if no low-health player is nearby or the spawn's chunk is not cooling down.
+     */
+    @Override
+    public boolean allows(SpawnContext context) {
+        if (lowHealthPlayers.isEmpty()) {
+            return true; // No player is low on health
         }
+        Location location = context.getLocation();
+        ConfigSnapshot config = context.getConfig();
+        return !hasLowHealthPlayerNearby(location, config) || !isDelayed(context, config);
+    }
 
-        if (!configManager.isHostileMob(event.getEntityType())) {
-            return; // Ignore non-hostile mobs
+    /**
+     * Tells why a spawn was rejected, which is always a low-health player nearby.
+     * @param context The classified spawn.
+     * @return The rejection code, always 0.
+     */
+    @Override
+    public int getRejectionCode(SpawnContext context) {
+        return 0;
+    }
+
+    /**
+     * Gets the description of the low-health delay rejection.
+     * @return The rejection reason.
+     */
+    @Override
+    public List<String> getRejectionReasons() {
+        return REJECTION_REASONS;
+    }
+
+    /**
+     * Checks if a spawn must wait for its chunk's cooldown, recording the spawn time if it may proceed.
+     * With no cooldown configured, falls back to cancelling by the configured chance.
+     * @param context The classified spawn.
+     * @param config The configuration snapshot to read settings from.
+     * @return True if the spawn should be cancelled.
+     */
+    private boolean isDelayed(SpawnContext context, ConfigSnapshot config) {
+        long cooldown = config.getSpawnDelayCooldownMillis();
+        if (cooldown == 0) {
+            return ThreadLocalRandom.current().nextDouble() < config.getSpawnDelayChance();
+        }
+        long key = CoordinateKeys.packWorldChunk(worldIndex.indexOf(context.getWorld()),
+                context.getChunkX(), context.getChunkZ());
+        long now = System.currentTimeMillis();
+        long lastSpawn = lastSpawnTimes.get(key);
+        if (lastSpawn >= 0 && now - lastSpawn < cooldown) {
+            return true; // Chunk is still cooling down
         }
+        lastSpawnTimes.put(key, now);
+        return false;
+    }
 
-        Location spawnLocation = event.getLocation();
-        String chunkKey = spawnLocation.getChunk().toString();
-        long currentTime = System.currentTimeMillis();
-
-        // Check for low-health players and apply spawn delay
-        if (hasLowHealthPlayerNearby(spawnLocation)) {
-            Long lastSpawnTime = lastSpawnTimes.getOrDefault(UUID.nameUUIDFromBytes(chunkKey.getBytes()), 0L);
-            // Randomly cancel spawn based on configured chance
-            if (Math.random() < configManager.getSpawnDelayChance()) {
-                event.setCancelled(true);
-                logger.fine("Cancelled spawn of " + event.getEntityType() + " near low-health player at " + spawnLocation);
-                loggerModule.log("LowHealthDelay", "Cancelled spawn of " + event.getEntityType() +
-                        " near low-health player at " + spawnLocation);
-                lastSpawnTimes.put(UUID.nameUUIDFromBytes(chunkKey.getBytes()), currentTime);
-            }
+    /**
+     * Updates the index after a player takes damage.
+     * @param event The entity damage event.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityDamage(EntityDamageEvent event) {
+        Entity entity = event.getEntity();
+        if (entity instanceof Player player) {
+            refresh(player, player.getHealth() - event.getFinalDamage());
+        }
+    }
+
+    /**
+     * Updates the index after a player regains health.
+     * @param event The entity regain health event.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityRegainHealth(EntityRegainHealthEvent event) {
+        Entity entity = event.getEntity();
+        if (entity instanceof Player player) {
+            refresh(player, player.getHealth() + event.getAmount());
+        }
+    }
+
+    /**
+     * Removes a player from the index when they die.
+     * @param event The player death event.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerDeath(PlayerDeathEvent event) {
+        lowHealthPlayers.remove(event.getEntity());
+    }
+
+    /**
+     * Removes a respawning player from the index, as they respawn with full health.
+     * @param event The player respawn event.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerRespawn(PlayerRespawnEvent event) {
+        lowHealthPlayers.remove(event.getPlayer());
+    }
+
+    /**
+     * Indexes a joining player if they are low on health.
+     * @param event The player join event.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        refresh(event.getPlayer(), event.getPlayer().getHealth());
+    }
+
+    /**
+     * Removes a quitting player from the index.
+     * @param event The player quit event.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        lowHealthPlayers.remove(event.getPlayer());
+    }
+
+    /**
+     * Moves an indexed player to their new world.
+     * @param event The player changed world event.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerChangedWorld(PlayerChangedWorldEvent event) {
+        refresh(event.getPlayer(), event.getPlayer().getHealth());
+    }
+
+    /**
+     * Re-buckets an indexed player when they cross a chunk border.
+     * @param event The player move event.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerMove(PlayerMoveEvent event) {
+        if (!configManager.getSnapshot().isMetricsEnabled()) {
+            moveIfIndexed(event);
+            return;
         }
+        long start = System.nanoTime();
+        moveIfIndexed(event);
+        metrics.recordLatency(indexStage, System.nanoTime() - start);
+    }
+
+    /**
+     * Re-buckets an indexed player when they teleport.
+     * @param event The player teleport event.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerTeleport(PlayerTeleportEvent event) {
+        moveIfIndexed(event);
     }
 
     /**
      * Checks if any player within the configured radius has low health.
      * @param location The spawn location.
+     * @param config The configuration snapshot to read settings from.
      * @return True if a player with health below threshold is nearby.
      */
-    private boolean hasLowHealthPlayerNearby(Location location) {
-        for (Player player : location.getWorld().getPlayers()) {
-            if (player.getHealth() < configManager.getLowHealthThreshold() &&
-                    player.getLocation().distanceSquared(location) <= configManager.getSpawnDelayRadius() * configManager.getSpawnDelayRadius()) {
-                return true;
+    public boolean hasLowHealthPlayerNearby(Location location, ConfigSnapshot config) {
+        return lowHealthPlayers.anyWithin(location.getWorld(), location.getX(), location.getY(), location.getZ(),
+                config.getSpawnDelayRadius());
+    }
+
+    /**
+     * Finds the nearest player indexed as low on health within a radius of a location.
+     * @param location The location to search around.
+     * @param radius The search radius in blocks.
+     * @return The nearest low-health player, or null if none is within the radius.
+     */
+    public Player getNearestLowHealthPlayer(Location location, double radius) {
+        if (lowHealthPlayers.isEmpty()) {
+            return null;
+        }
+        return lowHealthPlayers.nearest(location.getWorld(), location.getX(), location.getY(), location.getZ(), radius);
+    }
+
+    /**
+     * Adds or removes a player from the index depending on their health.
+     * @param player The player.
+     * @param health The player's current or expected health.
+     */
+    private void refresh(Player player, double health) {
+        if (!player.isDead() && health > 0 && health < configManager.getSnapshot().getLowHealthThreshold()) {
+            lowHealthPlayers.update(player);
+        } else {
+            lowHealthPlayers.remove(player);
+        }
+    }
+
+    /**
+     * Re-buckets a player in the index if they are indexed and moved to another chunk.
+     * @param event The move event.
+     */
+    private void moveIfIndexed(PlayerMoveEvent event) {
+        Location to = event.getTo();
+        if (to == null || !lowHealthPlayers.contains(event.getPlayer())) {
+            return;
+        }
+        Location from = event.getFrom();
+        if (from.getWorld() == to.getWorld() && (from.getBlockX() >> 4) == (to.getBlockX() >> 4) &&
+                (from.getBlockZ() >> 4) == (to.getBlockZ() >> 4)) {
+            return; // Still in the same chunk
+        }
+        lowHealthPlayers.update(event.getPlayer(), to);
+    }
+
+    /**
+     * Re-checks the health of all online players against the current threshold.
+     */
+    private void resync() {
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            refresh(player, player.getHealth());
+        }
+    }
+
+    /**
+     * Removes cooldown entries older than the configured cooldown.
+     */
+    private void evictExpiredCooldowns() {
+        lastSpawnTimes.evictBefore(System.currentTimeMillis() - configManager.getSnapshot().getSpawnDelayCooldownMillis());
+    }
+
+    /**
+     * Passes every chunk cooldown of a loaded world to a consumer.
+     * @param consumer The consumer.
+     */
+    public void forEachCooldown(CooldownConsumer consumer) {
+        lastSpawnTimes.forEach((key, time) -> {
+            World world = worldIndex.get(CoordinateKeys.unpackWorldIndex(key));
+            if (world != null) {
+                consumer.accept(world, CoordinateKeys.unpackWorldChunkX(key), CoordinateKeys.unpackWorldChunkZ(key), time);
             }
+        });
+    }
+
+    /**
+     * Restores a chunk cooldown saved by a previous run, unless the chunk has a more recent one.
+     * @param world The world of the chunk.
+     * @param chunkX The chunk X coordinate.
+     * @param chunkZ The chunk Z coordinate.
+     * @param time The time of the last allowed spawn in milliseconds.
+     */
+    public void restoreCooldown(World world, int chunkX, int chunkZ, long time) {
+        long key = CoordinateKeys.packWorldChunk(worldIndex.indexOf(world), chunkX, chunkZ);
+        if (lastSpawnTimes.get(key) < time) {
+            lastSpawnTimes.put(key, time);
         }
-        return false;
     }
 
     /**
-     * Reloads the module by clearing spawn time cache.
+     * Reloads the module by resizing the cooldown map if its size changed and re-checking players
+     * against the threshold.
      */
     public void reload() {
-        lastSpawnTimes.clear();
+        int maxChunks = configManager.getSnapshot().getSpawnDelayMaxChunks();
+        if (maxChunks != this.maxChunks) {
+            this.maxChunks = maxChunks;
+            lastSpawnTimes = new ChunkCooldownMap(maxChunks);
+        }
+        resync();
+    }
+
+    /**
+     * Gets the metrics stage timing updates of the low-health player index.
+     * @return The index stage id.
+     */
+    public int getIndexStage() {
+        return indexStage;
     }
 }
\ No newline at end of file
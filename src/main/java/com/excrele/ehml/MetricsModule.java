@@ -0,0 +1,194 @@
+package com.excrele.ehml;
+
+import org.bukkit.entity.EntityType;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Module collecting EHML's own overhead and decisions: a {@link LatencyHistogram} per stage
+ * (the spawn pipeline, each spawn rule, death cleanup and player index updates), spawn
+ * cancellations by stage, rejection reason and entity type, and cleanup removals by entity type.
+ * Stages are registered once at startup; recording only touches striped counters, so metrics
+ * can be read and exported from other threads at any time.
+ */
+public class MetricsModule {
+
+    private static final EntityType[] TYPES = EntityType.values();
+
+    private volatile String[] stageNames;
+    private volatile String[][] stageReasons;
+    private volatile LatencyHistogram[] latencies;
+    private volatile LongAdder[][][] cancellations;
+    private final LongAdder[] removals;
+    private final long startTime;
+
+    /**
+     * Initializes the metrics module with no stages.
+     */
+    public MetricsModule() {
+        this.stageNames = new String[0];
+        this.stageReasons = new String[0][];
+        this.latencies = new LatencyHistogram[0];
+        this.cancellations = new LongAdder[0][][];
+        this.removals = newCounters();
+        this.startTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Registers a measured stage that does not cancel spawns. Must be called during startup,
+     * before metrics are exported.
+     * @param name The stage name, also used as the label in exported metrics.
+     * @return The stage id to record measurements with.
+     */
+    public int registerStage(String name) {
+        return registerStage(name, List.of());
+    }
+
+    /**
+     * Registers a measured stage with the reasons it can cancel spawns for. Must be called during
+     * startup, before metrics are exported.
+     * @param name The stage name, also used as the label in exported metrics.
+     * @param reasons The rejection reasons, indexed by rejection code.
+     * @return The stage id to record measurements with.
+     */
+    public int registerStage(String name, List<String> reasons) {
+        int existing = Arrays.asList(stageNames).indexOf(name);
+        if (existing >= 0) {
+            return existing;
+        }
+        int id = stageNames.length;
+        String[] names = Arrays.copyOf(stageNames, id + 1);
+        String[][] reasonNames = Arrays.copyOf(stageReasons, id + 1);
+        LatencyHistogram[] histograms = Arrays.copyOf(latencies, id + 1);
+        LongAdder[][][] cancelled = Arrays.copyOf(cancellations, id + 1);
+        names[id] = name;
+        reasonNames[id] = reasons.toArray(new String[0]);
+        histograms[id] = new LatencyHistogram();
+        cancelled[id] = new LongAdder[reasons.size()][];
+        for (int code = 0; code < reasons.size(); code++) {
+            cancelled[id][code] = newCounters();
+        }
+        latencies = histograms;
+        cancellations = cancelled;
+        stageReasons = reasonNames;
+        stageNames = names;
+        return id;
+    }
+
+    /**
+     * Records the duration of one evaluation of a stage.
+     * @param stage The stage id.
+     * @param nanos The duration in nanoseconds.
+     */
+    public void recordLatency(int stage, long nanos) {
+        latencies[stage].record(nanos);
+    }
+
+    /**
+     * Records a spawn cancelled by a stage.
+     * @param stage The stage id of the rejecting rule.
+     * @param code The rejection code, an index into the reasons the stage was registered with.
+     * @param type The entity type of the cancelled spawn.
+     */
+    public void recordCancellation(int stage, int code, EntityType type) {
+        cancellations[stage][code][type.ordinal()].increment();
+    }
+
+    /**
+     * Records a mob removed by death cleanup.
+     * @param type The entity type of the removed mob.
+     */
+    public void recordRemoval(EntityType type) {
+        removals[type.ordinal()].increment();
+    }
+
+    /**
+     * Gets the latency histogram of a stage.
+     * @param stage The stage id.
+     * @return The stage's histogram.
+     */
+    public LatencyHistogram getLatency(int stage) {
+        return latencies[stage];
+    }
+
+    /**
+     * Gets the number of spawns of an entity type cancelled by a stage for one reason.
+     * @param stage The stage id.
+     * @param code The rejection code.
+     * @param type The entity type.
+     * @return The cancellation count.
+     */
+    public long getCancellations(int stage, int code, EntityType type) {
+        return cancellations[stage][code][type.ordinal()].sum();
+    }
+
+    /**
+     * Gets the number of spawns of an entity type cancelled by a stage across all reasons.
+     * @param stage The stage id.
+     * @param type The entity type.
+     * @return The cancellation count.
+     */
+    public long getCancellations(int stage, EntityType type) {
+        long total = 0;
+        for (LongAdder[] counters : cancellations[stage]) {
+            total += counters[type.ordinal()].sum();
+        }
+        return total;
+    }
+
+    /**
+     * Gets the number of spawns cancelled by a stage across all reasons and entity types.
+     * @param stage The stage id.
+     * @return The cancellation count.
+     */
+    public long getCancellations(int stage) {
+        long total = 0;
+        for (LongAdder[] counters : cancellations[stage]) {
+            for (LongAdder counter : counters) {
+                total += counter.sum();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Gets the number of mobs of an entity type removed by death cleanup.
+     * @param type The entity type.
+     * @return The removal count.
+     */
+    public long getRemovals(EntityType type) {
+        return removals[type.ordinal()].sum();
+    }
+
+    /**
+     * Gets the number of mobs removed by death cleanup across all entity types.
+     * @return The removal count.
+     */
+    public long getRemovals() {
+        long total = 0;
+        for (LongAdder counter : removals) {
+            total += counter.sum();
+        }
+        return total;
+    }
+
+    /**
+     * Creates one counter per entity type.
+     * @return The counters, indexed by entity type ordinal.
+     */
+    private static LongAdder[] newCounters() {
+        LongAdder[] counters = new LongAdder[TYPES.length];
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new LongAdder();
+        }
+        return counters;
+    }
+
+    // Getters for registered stages
+    public int getStageCount() { return stageNames.length; }
+    public String getStageName(int stage) { return stageNames[stage]; }
+    public int getReasonCount(int stage) { return stageReasons[stage].length; }
+    public String getReason(int stage, int code) { return stageReasons[stage][code]; }
+    public long getStartTime() { return startTime; }
+}
\ No newline at end of file
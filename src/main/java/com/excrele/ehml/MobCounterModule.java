@@ -0,0 +1,506 @@
+package com.excrele.ehml;
+
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityRemoveEvent;
+import org.bukkit.event.entity.EntitySpawnEvent;
+import org.bukkit.event.world.EntitiesLoadEvent;
+import org.bukkit.event.world.EntitiesUnloadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Module keeping live hostile mob counts per world and per entity type.
+ * Counts are updated incrementally from spawn, removal and chunk entity load/unload events,
+ * and a periodic reconciliation recounts one world at a time to correct any drift. Recounts
+ * after startup run as resumable units of the {@link WorkScheduler}; changes made while a
+ * world is being recounted are collected and applied on top of the recount when it finishes.
+ * Counts are stored in arrays indexed by {@link EntityType} ordinal, with the hostile total
+ * kept in the slot after the last ordinal, so reads and updates never allocate.
+ * Worlds seeded from the saved state of the previous run are not counted on the startup tick;
+ * they are recounted in the background instead, and the seeded counts apply until then.
+ * Worlds sharing a limit profile of the {@link ConfigSnapshot} also share a pool of counts, and
+ * each world's pool and limit rows are resolved once per profile reload into tables indexed by
+ * {@link WorldIndex}, so limit checks read a world's count and limit with array reads only.
+ */
+public class MobCounterModule implements Listener {
+
+    private static final int TYPE_COUNT = EntityType.values().length;
+
+    private final JavaPlugin plugin;
+    private final ConfigManager configManager;
+    private final WorkScheduler workScheduler;
+    private final Logger logger;
+    private final Map<UUID, int[]> worldCounts;
+    private final Map<UUID, int[]> recountDeltas;
+    private final int[] totalCounts;
+    private final WorldIndex worldIndex;
+    private int[][] poolCounts;
+    private int[][] worldPools;
+    private int[][] worldLimits;
+    private int[] worldProfiles;
+    private ConfigSnapshot profileConfig;
+    private int reconcileCursor;
+    private final Set<UUID> seededWorlds;
+    private BukkitTask reconcileTask;
+
+    /**
+     * Initializes the mob counter module.
+     * @param plugin The main plugin instance for server access.
+     * @param configManager The configuration manager providing settings.
+     * @param workScheduler The shared scheduler that runs recounts.
+     */
+    public MobCounterModule(JavaPlugin plugin, ConfigManager configManager, WorkScheduler workScheduler) {
+        this.plugin = plugin;
+        this.configManager = configManager;
+        this.workScheduler = workScheduler;
+        this.logger = Logger.getLogger("EHML");
+        this.worldCounts = new HashMap<>();
+        this.recountDeltas = new HashMap<>();
+        this.totalCounts = new int[TYPE_COUNT + 1];
+        this.seededWorlds = new HashSet<>();
+        this.worldIndex = new WorldIndex();
+        this.worldPools = new int[8][];
+        this.worldLimits = new int[8][];
+        this.worldProfiles = new int[8];
+        reloadProfiles();
+    }
+
+    /**
+     * Performs the initial count of all loaded worlds and schedules periodic reconciliation.
+     * Worlds seeded from saved state are recounted in the background instead.
+     */
+    public void start() {
+        for (World world : plugin.getServer().getWorlds()) {
+            if (seededWorlds.contains(world.getUID())) {
+                submitRecount(world, WorkPriority.NORMAL);
+            } else {
+                reconcile(world);
+            }
+        }
+        scheduleReconciliation();
+        logger.info("Hostile mob counter started with " + totalCounts[TYPE_COUNT] + " hostile mobs loaded" +
+                (seededWorlds.isEmpty() ? "." : ", " + seededWorlds.size() + " worlds from saved state."));
+        seededWorlds.clear();
+    }
+
+    /**
+     * Replaces the counters of a world with counts restored from saved state, before {@link #start()}.
+     * @param world The world.
+     * @param counts The counts indexed by entity type ordinal; the hostile total is recomputed.
+     */
+    public void seed(World world, int[] counts) {
+        EntityType[] types = EntityType.values();
+        int[] seededCounts = new int[TYPE_COUNT + 1];
+        for (int i = 0; i < TYPE_COUNT && i < counts.length; i++) {
+            if (configManager.isHostileMob(types[i])) {
+                seededCounts[i] = Math.max(0, counts[i]);
+                seededCounts[TYPE_COUNT] += seededCounts[i];
+            }
+        }
+        apply(world, seededCounts);
+        seededWorlds.add(world.getUID());
+    }
+
+    /**
+     * Schedules the periodic reconciliation task using the configured interval.
+     */
+    private void scheduleReconciliation() {
+        long interval = configManager.getCounterReconcileInterval() * 20L;
+        reconcileTask = plugin.getServer().getScheduler().runTaskTimer(plugin, this::reconcileNext, interval, interval);
+    }
+
+    /**
+     * Cancels the periodic reconciliation task.
+     */
+    public void stop() {
+        if (reconcileTask != null) {
+            reconcileTask.cancel();
+            reconcileTask = null;
+        }
+    }
+
+    /**
+     * Counts hostile mobs added to a world, including those spawned by non-creature spawn reasons.
+     * @param event The entity spawn event.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntitySpawn(EntitySpawnEvent event) {
+        Entity entity = event.getEntity();
+        if (configManager.isHostileMob(entity.getType())) {
+            adjust(entity.getWorld(), entity.getType(), 1);
+        }
+    }
+
+    /**
+     * Discounts hostile mobs that die, despawn or are otherwise removed from a world.
+     * Chunk unloads are handled by {@link #onEntitiesUnload(EntitiesUnloadEvent)}.
+     * @param event The entity remove event.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntityRemove(EntityRemoveEvent event) {
+        if (event.getCause() == EntityRemoveEvent.Cause.UNLOAD) {
+            return; // Counted by the chunk entity unload event
+        }
+        Entity entity = event.getEntity();
+        if (configManager.isHostileMob(entity.getType())) {
+            adjust(entity.getWorld(), entity.getType(), -1);
+        }
+    }
+
+    /**
+     * Counts hostile mobs brought in when a chunk's entities are loaded.
+     * @param event The entities load event.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntitiesLoad(EntitiesLoadEvent event) {
+        adjustAll(event.getWorld(), event.getEntities(), 1);
+    }
+
+    /**
+     * Discounts hostile mobs removed when a chunk's entities are unloaded.
+     * @param event The entities unload event.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntitiesUnload(EntitiesUnloadEvent event) {
+        adjustAll(event.getWorld(), event.getEntities(), -1);
+    }
+
+    /**
+     * Drops the counts of a world when it is unloaded.
+     * @param event The world unload event.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        recountDeltas.remove(event.getWorld().getUID());
+        int[] counts = worldCounts.remove(event.getWorld().getUID());
+        if (counts != null) {
+            int[] pool = worldPools[indexOf(event.getWorld())];
+            for (int i = 0; i <= TYPE_COUNT; i++) {
+                totalCounts[i] -= counts[i];
+                pool[i] -= counts[i];
+            }
+        }
+    }
+
+    /**
+     * Gets the number of hostile mobs loaded across all worlds.
+     * @return The total hostile mob count.
+     */
+    public int getTotalHostileCount() {
+        return totalCounts[TYPE_COUNT];
+    }
+
+    /**
+     * Gets the number of hostile mobs loaded in a world.
+     * @param world The world to query.
+     * @return The hostile mob count of the world.
+     */
+    public int getWorldHostileCount(World world) {
+        int[] counts = worldCounts.get(world.getUID());
+        return counts == null ? 0 : counts[TYPE_COUNT];
+    }
+
+    /**
+     * Gets the index of a world in the per-world count and limit tables, resolving its limit
+     * profile the first time the world is seen.
+     * @param world The world.
+     * @return The world's table index.
+     */
+    public int indexOf(World world) {
+        int index = worldIndex.indexOf(world);
+        if (index >= worldPools.length) {
+            worldPools = Arrays.copyOf(worldPools, Math.max(index + 1, worldPools.length * 2));
+            worldLimits = Arrays.copyOf(worldLimits, worldPools.length);
+            worldProfiles = Arrays.copyOf(worldProfiles, worldPools.length);
+        }
+        if (worldPools[index] == null) {
+            assignProfile(index, world.getName());
+        }
+        return index;
+    }
+
+    /**
+     * Gets the number of hostile mobs loaded in the worlds sharing a world's limit profile.
+     * @param world The world's table index.
+     * @return The hostile mob count of the world's pool.
+     */
+    public int getPoolHostileCount(int world) {
+        return worldPools[world][TYPE_COUNT];
+    }
+
+    /**
+     * Gets the number of loaded mobs of a hostile type in the worlds sharing a world's limit profile.
+     * @param world The world's table index.
+     * @param type The entity type to query.
+     * @return The mob count of the type in the world's pool.
+     */
+    public int getPoolCount(int world, EntityType type) {
+        return worldPools[world][type.ordinal()];
+    }
+
+    /**
+     * Gets the configured hostile limit of a world's limit profile.
+     * @param world The world's table index.
+     * @return The hostile limit, before adaptive scaling.
+     */
+    public int getHostileLimit(int world) {
+        return worldLimits[world][TYPE_COUNT];
+    }
+
+    /**
+     * Gets the configured limit of a mob type in a world's limit profile.
+     * @param world The world's table index.
+     * @param type The entity type.
+     * @return The limit before adaptive scaling, or {@link ConfigSnapshot#NO_LIMIT} if the type has none.
+     */
+    public int getMobLimit(int world, EntityType type) {
+        return worldLimits[world][type.ordinal()];
+    }
+
+    /**
+     * Checks whether two worlds count against the same limit profile.
+     * @param world The first world's table index.
+     * @param other The second world's table index.
+     * @return True if both worlds share one pool of counts.
+     */
+    public boolean sharesPool(int world, int other) {
+        return worldPools[world] == worldPools[other];
+    }
+
+    /**
+     * Gets the index of the limit profile a world uses.
+     * @param world The world's table index.
+     * @return The profile index, {@link ConfigSnapshot#DEFAULT_PROFILE} for worlds without their own limits.
+     */
+    public int getProfile(int world) {
+        return worldProfiles[world];
+    }
+
+    /**
+     * Gets the name of the limit profile a world uses.
+     * @param world The world's table index.
+     * @return The world, group or "default" profile name.
+     */
+    public String getProfileName(int world) {
+        return profileConfig.getLimitProfileName(worldProfiles[world]);
+    }
+
+    /**
+     * Recompiles the per-world tables from the current limit profiles and rebuilds the pool
+     * counts from the per-world counts.
+     */
+    public void reloadProfiles() {
+        profileConfig = configManager.getSnapshot();
+        poolCounts = new int[profileConfig.getLimitProfileCount()][TYPE_COUNT + 1];
+        for (int i = 0; i < worldIndex.size(); i++) {
+            World world = worldIndex.get(i);
+            assignProfile(i, world.getName());
+            int[] counts = worldCounts.get(world.getUID());
+            if (counts != null) {
+                for (int j = 0; j <= TYPE_COUNT; j++) {
+                    worldPools[i][j] += counts[j];
+                }
+            }
+        }
+    }
+
+    /**
+     * Points a world's table entries at the pool and limits of its profile.
+     * @param index The world's table index.
+     * @param worldName The world name.
+     */
+    private void assignProfile(int index, String worldName) {
+        int profile = profileConfig.getLimitProfile(worldName);
+        worldProfiles[index] = profile;
+        worldPools[index] = poolCounts[profile];
+        worldLimits[index] = profileConfig.getLimitProfileRow(profile);
+    }
+
+    /**
+     * Recounts the hostile mobs of one world on the calling tick and replaces its counters.
+     * @param world The world to recount.
+     */
+    public void reconcile(World world) {
+        int[] counts = new int[TYPE_COUNT + 1];
+        for (Entity entity : world.getEntities()) {
+            count(entity, counts);
+        }
+        apply(world, counts);
+    }
+
+    /**
+     * Queues a resumable recount of one world, unless one is already queued or running.
+     * @param world The world to recount.
+     * @param priority The priority of the recount.
+     */
+    private void submitRecount(World world, WorkPriority priority) {
+        UUID uid = world.getUID();
+        if (recountDeltas.containsKey(uid)) {
+            return; // Already being recounted
+        }
+        recountDeltas.put(uid, new int[TYPE_COUNT + 1]);
+        workScheduler.submit("Recount " + world.getName(), priority, new RecountWork(world));
+    }
+
+    /**
+     * Recounts one world over as many slices as needed. Every entity in the snapshot taken on the
+     * first slice is counted, and changes made after the snapshot are added from the recount deltas.
+     */
+    private final class RecountWork implements WorkUnit {
+
+        private final World world;
+        private final int[] counts;
+        private List<Entity> entities;
+        private int index;
+
+        /**
+         * Initializes a recount of a world.
+         * @param world The world to recount.
+         */
+        private RecountWork(World world) {
+            this.world = world;
+            this.counts = new int[TYPE_COUNT + 1];
+        }
+
+        /**
+         * Counts entities until the deadline or the end of the snapshot, then applies the result.
+         * @param deadline The {@link System#nanoTime()} deadline of the slice.
+         * @return True if the recount is finished.
+         */
+        @Override
+        public boolean run(long deadline) {
+            UUID uid = world.getUID();
+            int[] delta = recountDeltas.get(uid);
+            if (delta == null) {
+                return true; // World unloaded
+            }
+            if (entities == null) {
+                entities = world.getEntities();
+                Arrays.fill(delta, 0); // Changes before the snapshot are part of it
+            }
+            int size = entities.size();
+            while (index < size) {
+                count(entities.get(index++), counts);
+                if ((index & 255) == 0 && System.nanoTime() >= deadline) {
+                    return false;
+                }
+            }
+            recountDeltas.remove(uid);
+            for (int i = 0; i <= TYPE_COUNT; i++) {
+                counts[i] = Math.max(0, counts[i] + delta[i]);
+            }
+            apply(world, counts);
+            return true;
+        }
+    }
+
+    /**
+     * Adds an entity to a count array if it is a hostile mob.
+     * @param entity The entity.
+     * @param counts The counts indexed by entity type ordinal, with the hostile total last.
+     */
+    private void count(Entity entity, int[] counts) {
+        EntityType type = entity.getType();
+        if (configManager.isHostileMob(type)) {
+            counts[type.ordinal()]++;
+            counts[TYPE_COUNT]++;
+        }
+    }
+
+    /**
+     * Replaces the counters of a world with recounted values.
+     * @param world The recounted world.
+     * @param counts The recounted values.
+     */
+    private void apply(World world, int[] counts) {
+        int[] previous = worldCounts.put(world.getUID(), counts);
+        int[] pool = worldPools[indexOf(world)];
+        for (int i = 0; i <= TYPE_COUNT; i++) {
+            int change = counts[i] - (previous == null ? 0 : previous[i]);
+            totalCounts[i] += change;
+            pool[i] += change;
+        }
+        int previousTotal = previous == null ? 0 : previous[TYPE_COUNT];
+        if (previous != null && previousTotal != counts[TYPE_COUNT] && logger.isLoggable(Level.FINE)) {
+            logger.fine("Reconciled hostile count of " + world.getName() + ": " + previousTotal +
+                    " -> " + counts[TYPE_COUNT]);
+        }
+    }
+
+    /**
+     * Queues a low-priority recount of the next world in round-robin order.
+     */
+    private void reconcileNext() {
+        List<World> worlds = plugin.getServer().getWorlds();
+        if (worlds.isEmpty()) {
+            return;
+        }
+        reconcileCursor = (reconcileCursor + 1) % worlds.size();
+        submitRecount(worlds.get(reconcileCursor), WorkPriority.LOW);
+    }
+
+    /**
+     * Applies a count change for each hostile mob in a list of entities.
+     * @param world The world the entities belong to.
+     * @param entities The entities to count.
+     * @param delta The change to apply per hostile mob.
+     */
+    private void adjustAll(World world, List<Entity> entities, int delta) {
+        for (Entity entity : entities) {
+            if (configManager.isHostileMob(entity.getType())) {
+                adjust(world, entity.getType(), delta);
+            }
+        }
+    }
+
+    /**
+     * Applies a count change for one hostile mob, never letting counts drop below zero.
+     * @param world The world of the mob.
+     * @param type The entity type of the mob.
+     * @param delta The change to apply.
+     */
+    private void adjust(World world, EntityType type, int delta) {
+        int[] counts = worldCounts.computeIfAbsent(world.getUID(), uid -> new int[TYPE_COUNT + 1]);
+        int ordinal = type.ordinal();
+        if (counts[ordinal] + delta < 0) {
+            return; // Already discounted; left to reconciliation
+        }
+        counts[ordinal] += delta;
+        counts[TYPE_COUNT] += delta;
+        totalCounts[ordinal] += delta;
+        totalCounts[TYPE_COUNT] += delta;
+        int[] pool = worldPools[indexOf(world)];
+        pool[ordinal] += delta;
+        pool[TYPE_COUNT] += delta;
+        if (!recountDeltas.isEmpty()) {
+            int[] pending = recountDeltas.get(world.getUID());
+            if (pending != null) {
+                pending[ordinal] += delta;
+                pending[TYPE_COUNT] += delta;
+            }
+        }
+    }
+
+    /**
+     * Reloads the module by rescheduling reconciliation with the current interval.
+     */
+    public void reload() {
+        stop();
+        scheduleReconciliation();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,88 @@
+package com.excrele.ehml;
+
+import java.util.Arrays;
+
+/**
+ * Linear probing helpers shared by the open-addressing maps with primitive long keys.
+ * Tables have a power-of-two capacity and mark empty slots with {@link #EMPTY}, so that key
+ * cannot be stored.
+ */
+final class OpenAddressing {
+
+    /** The reserved key that marks an empty slot. */
+    static final long EMPTY = Long.MIN_VALUE;
+
+    private OpenAddressing() {
+    }
+
+    /**
+     * Computes the table capacity for a number of entries, keeping the load factor at or below one half.
+     * @param expectedSize The number of entries to size the table for.
+     * @return The power-of-two capacity.
+     */
+    static int capacityFor(int expectedSize) {
+        return Integer.highestOneBit(Math.max(4, expectedSize) * 2 - 1) << 1;
+    }
+
+    /**
+     * Allocates a key table with every slot empty.
+     * @param capacity The power-of-two capacity.
+     * @return The key table.
+     */
+    static long[] newKeys(int capacity) {
+        long[] keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        return keys;
+    }
+
+    /**
+     * Rejects the reserved empty-slot key before it is stored.
+     * @param key The key to store.
+     */
+    static void checkKey(long key) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Key " + key + " is reserved as the empty-slot marker");
+        }
+    }
+
+    /**
+     * Computes the home slot of a key.
+     * @param key The key to hash.
+     * @param mask The table capacity minus one.
+     * @return The home slot index.
+     */
+    static int hash(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    /**
+     * Finds the slot holding a key, or the empty slot where it would be inserted.
+     * @param keys The key table.
+     * @param mask The table capacity minus one.
+     * @param key The key to locate.
+     * @return The slot index.
+     */
+    static int findSlot(long[] keys, int mask, long key) {
+        int slot = hash(key, mask);
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Checks whether the entry in a slot of a probe run may move back into an earlier gap during
+     * backward-shift deletion, which holds unless its home slot lies between the gap and its position.
+     * Distances are taken modulo the capacity, so runs that wrap past the end of the table are handled.
+     * @param keys The key table.
+     * @param mask The table capacity minus one.
+     * @param gap The emptied slot.
+     * @param next The slot of the entry to check.
+     * @return True if the entry should move into the gap.
+     */
+    static boolean canShift(long[] keys, int mask, int gap, int next) {
+        int home = hash(keys[next], mask);
+        return ((next - home) & mask) >= ((next - gap) & mask);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,354 @@
+package com.excrele.ehml;
+
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Module for trimming hostile mobs once the live count is above the global limit, which spawn
+ * limits alone cannot undo for mobs brought in by chunk loads, spawn eggs or other plugins.
+ * Worlds sharing a limit profile are checked and swept together against the profile's limit.
+ * A periodic check starts a sweep as a low-priority unit of the {@link WorkScheduler}. The sweep
+ * walks the loaded chunks a few at a time, keeping the mobs furthest from any player of their world
+ * in a bounded heap, then removes them furthest first until the count is back under the low watermark.
+ * Named, leashed, persistent, riding and ridden mobs are never removed.
+ */
+public class OverLimitSweeperModule {
+
+    private final JavaPlugin plugin;
+    private final ConfigManager configManager;
+    private final WorkScheduler workScheduler;
+    private final MobCounterModule mobCounter;
+    private final AdaptiveLimitModule adaptiveLimits;
+    private final LoggerModule loggerModule;
+    private final Logger logger;
+    private BukkitTask checkTask;
+    private boolean sweeping;
+
+    /**
+     * Initializes the over-limit sweeper.
+     * @param plugin The main plugin instance for server access.
+     * @param configManager The configuration manager providing settings.
+     * @param workScheduler The shared scheduler that runs the sweeps.
+     * @param mobCounter The live hostile mob counter.
+     * @param adaptiveLimits The controller scaling the global limit with tick time.
+     * @param loggerModule The logger module for recording activities.
+     */
+    public OverLimitSweeperModule(JavaPlugin plugin, ConfigManager configManager, WorkScheduler workScheduler,
+                                  MobCounterModule mobCounter, AdaptiveLimitModule adaptiveLimits,
+                                  LoggerModule loggerModule) {
+        this.plugin = plugin;
+        this.configManager = configManager;
+        this.workScheduler = workScheduler;
+        this.mobCounter = mobCounter;
+        this.adaptiveLimits = adaptiveLimits;
+        this.loggerModule = loggerModule;
+        this.logger = Logger.getLogger("EHML");
+    }
+
+    /**
+     * Starts the periodic over-limit check using the configured interval.
+     */
+    public void start() {
+        long interval = configManager.getSnapshot().getSweepInterval() * 20L;
+        checkTask = plugin.getServer().getScheduler().runTaskTimer(plugin, this::check, interval, interval);
+    }
+
+    /**
+     * Cancels the periodic over-limit check.
+     */
+    public void stop() {
+        if (checkTask != null) {
+            checkTask.cancel();
+            checkTask = null;
+        }
+    }
+
+    /**
+     * Starts a sweep of the first limit profile whose live hostile count is above its effective limit.
+     */
+    private void check() {
+        ConfigSnapshot config = configManager.getSnapshot();
+        if (!config.isSweepEnabled() || sweeping) {
+            return;
+        }
+        List<World> loaded = plugin.getServer().getWorlds();
+        for (World world : loaded) {
+            int index = mobCounter.indexOf(world);
+            int limit = adaptiveLimits.scale(mobCounter.getHostileLimit(index));
+            int count = mobCounter.getPoolHostileCount(index);
+            if (count > limit) {
+                List<World> pool = new ArrayList<>();
+                for (World other : loaded) {
+                    if (mobCounter.sharesPool(index, mobCounter.indexOf(other))) {
+                        pool.add(other);
+                    }
+                }
+                int target = (int) (limit * config.getSweepLowWatermark());
+                sweeping = true;
+                workScheduler.submit("OverLimitSweep", WorkPriority.LOW, new Sweep(pool, index, count, target));
+                return;
+            }
+        }
+    }
+
+    /**
+     * One sweep: collects the furthest eligible mobs chunk by chunk, then removes them.
+     */
+    private final class Sweep implements WorkUnit {
+
+        private final List<World> worlds;
+        private final int pool;
+        private final int startCount;
+        private final int target;
+        private final int capacity;
+        private final Entity[] heapEntities;
+        private final double[] heapDistances;
+        private int heapSize;
+        private int worldIndex;
+        private Chunk[] chunks;
+        private double[] players;
+        private int chunkIndex;
+        private boolean collected;
+        private int next;
+        private int removed;
+
+        /**
+         * Initializes a sweep.
+         * @param worlds The worlds to walk, all sharing one limit profile.
+         * @param pool The table index of a world of the profile, whose pool count is checked.
+         * @param startCount The live hostile count of the pool when the sweep started.
+         * @param target The hostile count to get back under.
+         */
+        private Sweep(List<World> worlds, int pool, int startCount, int target) {
+            this.worlds = worlds;
+            this.pool = pool;
+            this.startCount = startCount;
+            this.target = target;
+            this.capacity = Math.max(1, startCount - target);
+            this.heapEntities = new Entity[capacity];
+            this.heapDistances = new double[capacity];
+        }
+
+        /**
+         * Walks chunks until the deadline or the per-tick chunk budget, then removes the chosen mobs.
+         * @param deadline The {@link System#nanoTime()} deadline of the slice.
+         * @return True if the sweep is finished.
+         */
+        @Override
+        public boolean run(long deadline) {
+            ConfigSnapshot config = configManager.getSnapshot();
+            if (!config.isSweepEnabled()) {
+                return finish();
+            }
+            if (!collected) {
+                int budget = config.getSweepChunksPerTick();
+                while (budget-- > 0 && System.nanoTime() < deadline) {
+                    if (!collectNextChunk(config)) {
+                        collected = true;
+                        sortFurthestFirst();
+                        break;
+                    }
+                }
+                return false;
+            }
+            while (next < heapSize && mobCounter.getPoolHostileCount(pool) > target) {
+                Entity entity = heapEntities[next];
+                heapEntities[next++] = null;
+                if (entity.isValid() && isEligible(entity)) {
+                    entity.remove();
+                    removed++;
+                }
+                if ((next & 7) == 0 && System.nanoTime() >= deadline) {
+                    return false;
+                }
+            }
+            return finish();
+        }
+
+        /**
+         * Collects the eligible hostile mobs of the next loaded chunk.
+         * @param config The configuration snapshot to read settings from.
+         * @return False once every world has been walked.
+         */
+        private boolean collectNextChunk(ConfigSnapshot config) {
+            while (chunks == null || chunkIndex >= chunks.length) {
+                if (worldIndex >= worlds.size()) {
+                    return false;
+                }
+                World world = worlds.get(worldIndex++);
+                chunks = world.getLoadedChunks();
+                chunkIndex = 0;
+                players = playerPositions(world);
+            }
+            Chunk chunk = chunks[chunkIndex++];
+            if (!chunk.isLoaded()) {
+                return true;
+            }
+            for (Entity entity : chunk.getEntities()) {
+                if (config.isHostileMob(entity.getType()) && isEligible(entity)) {
+                    offer(entity, distanceToNearestPlayer(entity.getLocation()));
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Gets the positions of the players in a world.
+         * @param world The world.
+         * @return The player positions as consecutive x, y, z values.
+         */
+        private double[] playerPositions(World world) {
+            List<Player> worldPlayers = world.getPlayers();
+            double[] positions = new double[worldPlayers.size() * 3];
+            for (int i = 0; i < worldPlayers.size(); i++) {
+                Location location = worldPlayers.get(i).getLocation();
+                positions[i * 3] = location.getX();
+                positions[i * 3 + 1] = location.getY();
+                positions[i * 3 + 2] = location.getZ();
+            }
+            return positions;
+        }
+
+        /**
+         * Gets the squared distance from a location to the nearest player of the current world.
+         * @param location The location.
+         * @return The squared distance, or {@link Double#MAX_VALUE} if the world has no players.
+         */
+        private double distanceToNearestPlayer(Location location) {
+            double nearest = Double.MAX_VALUE;
+            for (int i = 0; i < players.length; i += 3) {
+                double dx = players[i] - location.getX();
+                double dy = players[i + 1] - location.getY();
+                double dz = players[i + 2] - location.getZ();
+                nearest = Math.min(nearest, dx * dx + dy * dy + dz * dz);
+            }
+            return nearest;
+        }
+
+        /**
+         * Offers a mob to the bounded min-heap that keeps the furthest mobs seen so far.
+         * @param entity The mob.
+         * @param distance The squared distance to the nearest player.
+         */
+        private void offer(Entity entity, double distance) {
+            if (heapSize < capacity) {
+                int i = heapSize++;
+                heapEntities[i] = entity;
+                heapDistances[i] = distance;
+                siftUp(i);
+            } else if (distance > heapDistances[0]) {
+                heapEntities[0] = entity;
+                heapDistances[0] = distance;
+                siftDown(0, heapSize);
+            }
+        }
+
+        /**
+         * Sorts the heap in place so the furthest mob comes first, by repeatedly moving the
+         * nearest remaining mob to the end.
+         */
+        private void sortFurthestFirst() {
+            for (int end = heapSize - 1; end > 0; end--) {
+                swap(0, end);
+                siftDown(0, end);
+            }
+        }
+
+        /**
+         * Moves a heap entry up until its parent is nearer.
+         * @param i The entry index.
+         */
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >> 1;
+                if (heapDistances[parent] <= heapDistances[i]) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        /**
+         * Moves a heap entry down until both children are further.
+         * @param i The entry index.
+         * @param size The heap size.
+         */
+        private void siftDown(int i, int size) {
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    return;
+                }
+                if (child + 1 < size && heapDistances[child + 1] < heapDistances[child]) {
+                    child++;
+                }
+                if (heapDistances[i] <= heapDistances[child]) {
+                    return;
+                }
+                swap(i, child);
+                i = child;
+            }
+        }
+
+        /**
+         * Swaps two heap entries.
+         * @param a The first index.
+         * @param b The second index.
+         */
+        private void swap(int a, int b) {
+            Entity entity = heapEntities[a];
+            heapEntities[a] = heapEntities[b];
+            heapEntities[b] = entity;
+            double distance = heapDistances[a];
+            heapDistances[a] = heapDistances[b];
+            heapDistances[b] = distance;
+        }
+
+        /**
+         * Ends the sweep and logs a summary if any mobs were removed.
+         * @return Always true.
+         */
+        private boolean finish() {
+            sweeping = false;
+            int count = mobCounter.getPoolHostileCount(pool);
+            if (removed > 0) {
+                String message = "Over-limit sweep of " + mobCounter.getProfileName(pool) + " limits removed " +
+                        removed + " hostile mobs: " + startCount + " -> " +
+                        count + " (target " + target + ")";
+                logger.info(message);
+                loggerModule.log("OverLimitSweep", message);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Checks whether a mob may be removed by a sweep.
+     * @param entity The mob.
+     * @return True if the mob is not named, leashed, persistent, riding or ridden.
+     */
+    private static boolean isEligible(Entity entity) {
+        if (entity.getCustomName() != null || entity.isInsideVehicle() || !entity.getPassengers().isEmpty()) {
+            return false;
+        }
+        return !(entity instanceof LivingEntity living) || (!living.isLeashed() && living.getRemoveWhenFarAway());
+    }
+
+    /**
+     * Reloads the module by rescheduling the check with the current interval.
+     */
+    public void reload() {
+        stop();
+        start();
+    }
+}
\ No newline at end of file
@@ -1,95 +1,87 @@
 package com.excrele.ehml;
 
-import org.bukkit.entity.EntityType;
-import org.bukkit.event.EventHandler;
-import org.bukkit.event.Listener;
-import org.bukkit.event.entity.CreatureSpawnEvent;
-import org.bukkit.plugin.java.JavaPlugin;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.logging.Logger;
+import java.util.List;
 
 /**
  * Module for enforcing per-mob-type spawn limits.
+ * Current counts come from the live {@link MobCounterModule}, which decrements on death,
+ * removal and chunk unload, so limits stay accurate under sustained load. Each world is checked
+ * against the mob limits of its limit profile, counting the worlds that share the profile.
+ * Limits are scaled down by the {@link AdaptiveLimitModule} while the server is overloaded.
+ * Runs as a {@link SpawnRule} of the {@link SpawnDecisionPipeline}.
  */
-public class PerMobLimitModule implements Listener {
+public class PerMobLimitModule implements SpawnRule {
 
-    private final JavaPlugin plugin;
-    private final ConfigManager configManager;
-    private final LoggerModule loggerModule;
-    private final Logger logger;
-    private final Map<EntityType, Integer> currentMobCounts;
+    private static final List<String> REJECTION_REASONS = List.of("mob-specific limit reached");
+
+    private final MobCounterModule mobCounter;
+    private final AdaptiveLimitModule adaptiveLimits;
 
     /**
      * Initializes the per-mob limit module.
-     * @param plugin The main plugin instance for server access.
-     * @param configManager The configuration manager providing settings.
-     * @param loggerModule The logger module for recording activities.
+     * @param mobCounter The live hostile mob counter.
+     * @param adaptiveLimits The controller scaling the configured limit with tick time.
      */
-    public PerMobLimitModule(JavaPlugin plugin, ConfigManager configManager, LoggerModule loggerModule) {
-        this.plugin = plugin;
-        this.configManager = configManager;
-        this.loggerModule = loggerModule;
-        this.logger = Logger.getLogger("EHML");
-        this.currentMobCounts = new HashMap<>();
-        updateMobCounts();
+    public PerMobLimitModule(MobCounterModule mobCounter, AdaptiveLimitModule adaptiveLimits) {
+        this.mobCounter = mobCounter;
+        this.adaptiveLimits = adaptiveLimits;
     }
 
     /**
-     * Handles mob spawn events to enforce per-mob-type limits.
-     * @param event The creature spawn event.
+     * Gets the name of the rule.
+     * @return The rule name.
      */
-    @EventHandler
-    public void onCreatureSpawn(CreatureSpawnEvent event) {
-        if (!configManager.isMobLimitsEnabled()) {
-            return; // Skip if per-mob limits are disabled
-        }
+    @Override
+    public String getName() {
+        return "PerMobLimit";
+    }
 
-        if (event.getSpawnReason() != CreatureSpawnEvent.SpawnReason.NATURAL &&
-                event.getSpawnReason() != CreatureSpawnEvent.SpawnReason.SPAWNER) {
-            return; // Only handle natural spawns or spawners
-        }
+    /**
+     * Checks if per-mob limits are enabled.
+     * @param config The configuration snapshot.
+     * @return True if per-mob limits are enabled.
+     */
+    @Override
+    public boolean isEnabled(ConfigSnapshot config) {
+        return config.isMobLimitsEnabled();
+    }
 
-        EntityType entityType = event.getEntityType();
-        if (!configManager.isHostileMob(entityType)) {
-            return; // Ignore non-hostile mobs
-        }
+    /**
+     * Checks the live count of the spawning mob's type in its world pool against its effective limit.
+     * @param context The classified spawn.
+     * @return True if the type has no limit or is below it.
+     */
+    @Override
+    public boolean allows(SpawnContext context) {
+        int world = mobCounter.indexOf(context.getWorld());
+        int limit = mobCounter.getMobLimit(world, context.getEntityType());
+        return limit == ConfigSnapshot.NO_LIMIT ||
+                mobCounter.getPoolCount(world, context.getEntityType()) < adaptiveLimits.scale(limit);
+    }
 
-        // Check per-mob-type limit
-        if (configManager.getMobLimits().containsKey(entityType)) {
-            int currentCount = currentMobCounts.getOrDefault(entityType, 0);
-            int limit = configManager.getMobLimits().get(entityType);
-            if (currentCount >= limit) {
-                event.setCancelled(true);
-                logger.fine("Cancelled spawn of " + entityType + ": Mob-specific limit (" + limit + ") reached.");
-                loggerModule.log("PerMobLimit", "Cancelled spawn of " + entityType +
-                        " at " + event.getLocation() + ": Mob-specific limit (" + limit + ") reached.");
-                return;
-            }
-            // Increment count for this mob type
-            currentMobCounts.put(entityType, currentCount + 1);
-        }
+    /**
+     * Tells why a spawn was rejected, which is always the limit of its mob type.
+     * @param context The classified spawn.
+     * @return The rejection code, always 0.
+     */
+    @Override
+    public int getRejectionCode(SpawnContext context) {
+        return 0;
     }
 
     /**
-     * Updates mob counts for all hostile mobs in loaded chunks.
+     * Gets the description of the per-mob limit rejection.
+     * @return The rejection reason.
      */
-    public void updateMobCounts() {
-        currentMobCounts.clear();
-        configManager.getMobLimits().keySet().forEach(type -> {
-            int count = plugin.getServer().getWorlds().stream()
-                    .flatMap(world -> world.getEntities().stream())
-                    .filter(entity -> entity.getType() == type)
-                    .mapToInt(entity -> 1)
-                    .sum();
-            currentMobCounts.put(type, count);
-        });
+    @Override
+    public List<String> getRejectionReasons() {
+        return REJECTION_REASONS;
     }
 
     /**
-     * Reloads the module by updating mob counts.
+     * Reloads the module (no-op as live counts are maintained by the mob counter).
      */
     public void reload() {
-        updateMobCounts();
+        // No rescan needed; MobCounterModule counts every hostile type
     }
 }
\ No newline at end of file
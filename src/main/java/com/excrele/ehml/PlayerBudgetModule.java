@@ -0,0 +1,266 @@
+package com.excrele.ehml;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.CreatureSpawnEvent;
+import org.bukkit.event.entity.EntityRemoveEvent;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+import org.bukkit.plugin.java.JavaPlugin;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Module for giving each player their own hostile mob budget, so one player's farm cannot use up
+ * the whole server's hostile limit. Each allowed hostile spawn is charged to the nearest player
+ * within the configured radius, and further spawns charged to that player are refused once their
+ * budget is used. The charge is returned when the mob is removed or unloaded.
+ * Online players are kept in a {@link PlayerGrid} that is only updated when a player crosses a
+ * chunk border, so finding the nearest player visits the nearby cells only.
+ * Spawns are checked as a {@link SpawnRule} of the {@link SpawnDecisionPipeline}.
+ */
+public class PlayerBudgetModule implements Listener, SpawnRule {
+
+    private static final List<String> REJECTION_REASONS = List.of("player budget reached");
+
+    private final JavaPlugin plugin;
+    private final ConfigManager configManager;
+    private final PlayerGrid players;
+    private final Map<UUID, Budget> budgets;
+    private final Map<UUID, Budget> charges;
+    private CreatureSpawnEvent checkedEvent;
+    private Budget checkedBudget;
+
+    /**
+     * The hostile mobs currently charged to one player.
+     */
+    private static final class Budget {
+        private int charged;
+    }
+
+    /**
+     * Initializes the player budget module.
+     * @param plugin The main plugin instance for server access.
+     * @param configManager The configuration manager providing settings.
+     */
+    public PlayerBudgetModule(JavaPlugin plugin, ConfigManager configManager) {
+        this.plugin = plugin;
+        this.configManager = configManager;
+        this.players = new PlayerGrid();
+        this.budgets = new HashMap<>();
+        this.charges = new HashMap<>();
+    }
+
+    /**
+     * Indexes the players already online.
+     */
+    public void start() {
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            players.update(player);
+        }
+    }
+
+    /**
+     * Gets the name of the rule.
+     * @return The rule name.
+     */
+    @Override
+    public String getName() {
+        return "PlayerBudget";
+    }
+
+    /**
+     * Checks if per-player budgets are enabled.
+     * @param config The configuration snapshot.
+     * @return True if per-player budgets are enabled.
+     */
+    @Override
+    public boolean isEnabled(ConfigSnapshot config) {
+        return config.isPlayerBudgetEnabled();
+    }
+
+    /**
+     * Checks the budget of the nearest player within the budget radius, remembering it so the
+     * spawn can be charged if no later rule cancels it.
+     * @param context The classified spawn.
+     * @return True if no player is in range or the nearest player's budget is not used up.
+     */
+    @Override
+    public boolean allows(SpawnContext context) {
+        checkedEvent = null;
+        checkedBudget = null;
+        if (players.isEmpty()) {
+            return true;
+        }
+        Location location = context.getLocation();
+        Player nearest = players.nearest(context.getWorld(), location.getX(), location.getY(), location.getZ(),
+                context.getConfig().getPlayerBudgetRadius());
+        if (nearest == null) {
+            return true; // Not near any player; left to the other limits
+        }
+        Budget budget = budgets.computeIfAbsent(nearest.getUniqueId(), uid -> new Budget());
+        if (budget.charged >= context.getConfig().getPlayerHostileBudget()) {
+            return false;
+        }
+        checkedEvent = context.getEvent();
+        checkedBudget = budget;
+        return true;
+    }
+
+    /**
+     * Tells why a spawn was rejected, which is always the nearest player's spent budget.
+     * @param context The classified spawn.
+     * @return The rejection code, always 0.
+     */
+    @Override
+    public int getRejectionCode(SpawnContext context) {
+        return 0;
+    }
+
+    /**
+     * Gets the description of the budget rejection.
+     * @return The rejection reason.
+     */
+    @Override
+    public List<String> getRejectionReasons() {
+        return REJECTION_REASONS;
+    }
+
+    /**
+     * Charges a spawn that passed every rule to the player found when it was checked.
+     * @param event The creature spawn event.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onCreatureSpawn(CreatureSpawnEvent event) {
+        if (event != checkedEvent) {
+            return;
+        }
+        checkedBudget.charged++;
+        charges.put(event.getEntity().getUniqueId(), checkedBudget);
+        checkedEvent = null;
+        checkedBudget = null;
+    }
+
+    /**
+     * Returns the charge of a hostile mob that was removed or unloaded.
+     * @param event The entity remove event.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntityRemove(EntityRemoveEvent event) {
+        if (charges.isEmpty()) {
+            return;
+        }
+        Budget budget = charges.remove(event.getEntity().getUniqueId());
+        if (budget != null && budget.charged > 0) {
+            budget.charged--;
+        }
+    }
+
+    /**
+     * Indexes a joining player.
+     * @param event The player join event.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        players.update(event.getPlayer());
+    }
+
+    /**
+     * Removes a quitting player from the index and drops their budget; mobs charged to them
+     * no longer count against anyone.
+     * @param event The player quit event.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        players.remove(event.getPlayer());
+        budgets.remove(event.getPlayer().getUniqueId());
+    }
+
+    /**
+     * Moves a player to their new world.
+     * @param event The player changed world event.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerChangedWorld(PlayerChangedWorldEvent event) {
+        players.update(event.getPlayer());
+    }
+
+    /**
+     * Moves a respawning player to their respawn location.
+     * @param event The player respawn event.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerRespawn(PlayerRespawnEvent event) {
+        players.update(event.getPlayer(), event.getRespawnLocation());
+    }
+
+    /**
+     * Re-buckets a player when they cross a chunk border.
+     * @param event The player move event.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerMove(PlayerMoveEvent event) {
+        Location to = event.getTo();
+        if (to == null) {
+            return;
+        }
+        Location from = event.getFrom();
+        if (from.getWorld() == to.getWorld() && (from.getBlockX() >> 4) == (to.getBlockX() >> 4) &&
+                (from.getBlockZ() >> 4) == (to.getBlockZ() >> 4)) {
+            return; // Still in the same chunk
+        }
+        players.update(event.getPlayer(), to);
+    }
+
+    /**
+     * Re-buckets a player when they teleport.
+     * @param event The player teleport event.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerTeleport(PlayerTeleportEvent event) {
+        onPlayerMove(event);
+    }
+
+    /**
+     * Finds the nearest online player within a radius of a position.
+     * @param world The world of the position.
+     * @param x The X coordinate.
+     * @param y The Y coordinate.
+     * @param z The Z coordinate.
+     * @param radius The search radius in blocks.
+     * @return The nearest player, or null if none is in range.
+     */
+    public Player getNearestPlayer(World world, double x, double y, double z, double radius) {
+        return players.isEmpty() ? null : players.nearest(world, x, y, z, radius);
+    }
+
+    /**
+     * Gets the number of hostile mobs currently charged to a player.
+     * @param player The player.
+     * @return The charged mob count.
+     */
+    public int getCharged(Player player) {
+        Budget budget = budgets.get(player.getUniqueId());
+        return budget == null ? 0 : budget.charged;
+    }
+
+    /**
+     * Reloads the module, dropping all charges if budgets were disabled.
+     */
+    public void reload() {
+        if (!configManager.getSnapshot().isPlayerBudgetEnabled()) {
+            budgets.clear();
+            charges.clear();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,248 @@
+package com.excrele.ehml;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Coarse spatial index of players, bucketed by the chunk they occupy in each world.
+ * Players are only re-bucketed when they cross a chunk border, and proximity queries visit only
+ * the chunk cells overlapping the search radius instead of every player in the world. When the
+ * radius covers more cells than the world has indexed players, the players are scanned instead.
+ */
+public class PlayerGrid {
+
+    private final Map<UUID, LongObjectMap<List<Player>>> worldCells;
+    private final Map<UUID, PlayerCell> playerCells;
+    private final Map<UUID, List<Player>> worldPlayers;
+    private final Location scratch;
+    private Player nearest;
+    private double nearestDistance;
+
+    /**
+     * The cell a player is currently bucketed in.
+     * @param world The world UID.
+     * @param cell The packed chunk key.
+     */
+    private record PlayerCell(UUID world, long cell) {
+    }
+
+    /**
+     * Initializes an empty player grid.
+     */
+    public PlayerGrid() {
+        this.worldCells = new HashMap<>();
+        this.playerCells = new HashMap<>();
+        this.worldPlayers = new HashMap<>();
+        this.scratch = new Location(null, 0, 0, 0);
+    }
+
+    /**
+     * Adds a player at their current location, or moves them if they changed chunk or world.
+     * @param player The player to add or move.
+     */
+    public void update(Player player) {
+        update(player, player.getLocation(scratch));
+    }
+
+    /**
+     * Adds a player at a location, or moves them if the location is in a different chunk or world.
+     * @param player The player to add or move.
+     * @param location The player's new location.
+     */
+    public void update(Player player, Location location) {
+        UUID world = location.getWorld().getUID();
+        long cell = CoordinateKeys.pack(CoordinateKeys.toChunk(location.getBlockX()),
+                CoordinateKeys.toChunk(location.getBlockZ()));
+        PlayerCell current = playerCells.get(player.getUniqueId());
+        if (current != null) {
+            if (current.cell() == cell && current.world().equals(world)) {
+                return; // Same cell; nothing to move
+            }
+            removeFromCell(player, current);
+            if (!current.world().equals(world)) {
+                removeFromWorld(player, current.world());
+            }
+        }
+        LongObjectMap<List<Player>> cells = worldCells.computeIfAbsent(world, uid -> new LongObjectMap<>(64));
+        List<Player> players = cells.get(cell);
+        if (players == null) {
+            players = new ArrayList<>(2);
+            cells.put(cell, players);
+        }
+        players.add(player);
+        if (current == null || !current.world().equals(world)) {
+            worldPlayers.computeIfAbsent(world, uid -> new ArrayList<>()).add(player);
+        }
+        playerCells.put(player.getUniqueId(), new PlayerCell(world, cell));
+    }
+
+    /**
+     * Removes a player from the grid.
+     * @param player The player to remove.
+     */
+    public void remove(Player player) {
+        PlayerCell current = playerCells.remove(player.getUniqueId());
+        if (current != null) {
+            removeFromCell(player, current);
+            removeFromWorld(player, current.world());
+        }
+    }
+
+    /**
+     * Checks whether a player is in the grid.
+     * @param player The player to check.
+     * @return True if the player is indexed.
+     */
+    public boolean contains(Player player) {
+        return playerCells.containsKey(player.getUniqueId());
+    }
+
+    /**
+     * Checks whether the grid is empty.
+     * @return True if no players are indexed.
+     */
+    public boolean isEmpty() {
+        return playerCells.isEmpty();
+    }
+
+    /**
+     * Gets the number of indexed players.
+     * @return The player count.
+     */
+    public int size() {
+        return playerCells.size();
+    }
+
+    /**
+     * Checks whether any indexed player is within a radius of a position.
+     * @param world The world to search.
+     * @param x The X coordinate.
+     * @param y The Y coordinate.
+     * @param z The Z coordinate.
+     * @param radius The search radius in blocks.
+     * @return True if a player is within the radius.
+     */
+    public boolean anyWithin(World world, double x, double y, double z, double radius) {
+        return search(world, x, y, z, radius, true) != null;
+    }
+
+    /**
+     * Finds the nearest indexed player within a radius of a position.
+     * @param world The world to search.
+     * @param x The X coordinate.
+     * @param y The Y coordinate.
+     * @param z The Z coordinate.
+     * @param radius The search radius in blocks.
+     * @return The nearest player, or null if none is within the radius.
+     */
+    public Player nearest(World world, double x, double y, double z, double radius) {
+        return search(world, x, y, z, radius, false);
+    }
+
+    /**
+     * Searches the chunk cells overlapping a radius for indexed players, or all players of the
+     * world if there are fewer of them than cells to visit.
+     * @param world The world to search.
+     * @param x The X coordinate.
+     * @param y The Y coordinate.
+     * @param z The Z coordinate.
+     * @param radius The search radius in blocks.
+     * @param firstMatch Whether to return the first player found instead of the nearest.
+     * @return The matching player, or null if none is within the radius.
+     */
+    private Player search(World world, double x, double y, double z, double radius, boolean firstMatch) {
+        LongObjectMap<List<Player>> cells = worldCells.get(world.getUID());
+        if (cells == null) {
+            return null;
+        }
+        int minX = CoordinateKeys.toChunk((int) Math.floor(x - radius));
+        int maxX = CoordinateKeys.toChunk((int) Math.floor(x + radius));
+        int minZ = CoordinateKeys.toChunk((int) Math.floor(z - radius));
+        int maxZ = CoordinateKeys.toChunk((int) Math.floor(z + radius));
+        nearest = null;
+        nearestDistance = radius * radius;
+        List<Player> players = worldPlayers.get(world.getUID());
+        long cellCount = ((long) maxX - minX + 1) * ((long) maxZ - minZ + 1);
+        if (players != null && cellCount > players.size()) {
+            scan(players, x, y, z, firstMatch);
+        } else {
+            search:
+            for (int chunkX = minX; chunkX <= maxX; chunkX++) {
+                for (int chunkZ = minZ; chunkZ <= maxZ; chunkZ++) {
+                    List<Player> cellPlayers = cells.get(CoordinateKeys.pack(chunkX, chunkZ));
+                    if (cellPlayers != null && scan(cellPlayers, x, y, z, firstMatch)) {
+                        break search;
+                    }
+                }
+            }
+        }
+        Player result = nearest;
+        nearest = null;
+        return result;
+    }
+
+    /**
+     * Checks a list of players against the nearest match found so far.
+     * @param players The players to check.
+     * @param x The X coordinate.
+     * @param y The Y coordinate.
+     * @param z The Z coordinate.
+     * @param firstMatch Whether to stop at the first player within the radius.
+     * @return True if a first match was found and the search can stop.
+     */
+    private boolean scan(List<Player> players, double x, double y, double z, boolean firstMatch) {
+        for (int i = 0; i < players.size(); i++) {
+            Player player = players.get(i);
+            player.getLocation(scratch);
+            double dx = scratch.getX() - x;
+            double dy = scratch.getY() - y;
+            double dz = scratch.getZ() - z;
+            double distance = dx * dx + dy * dy + dz * dz;
+            if (distance <= nearestDistance) {
+                nearest = player;
+                nearestDistance = distance;
+                if (firstMatch) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes a player from the player list of a world.
+     * @param player The player to remove.
+     * @param world The world UID.
+     */
+    private void removeFromWorld(Player player, UUID world) {
+        List<Player> players = worldPlayers.get(world);
+        if (players != null) {
+            players.remove(player);
+        }
+    }
+
+    /**
+     * Removes a player from the cell list they are bucketed in.
+     * @param player The player to remove.
+     * @param current The player's current cell.
+     */
+    private void removeFromCell(Player player, PlayerCell current) {
+        LongObjectMap<List<Player>> cells = worldCells.get(current.world());
+        if (cells == null) {
+            return;
+        }
+        List<Player> players = cells.get(current.cell());
+        if (players != null) {
+            players.remove(player);
+            if (players.isEmpty()) {
+                cells.remove(current.cell());
+            }
+        }
+    }
+}
\ No newline at end of file
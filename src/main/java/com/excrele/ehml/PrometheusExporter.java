@@ -0,0 +1,242 @@
+package com.excrele.ehml;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.bukkit.entity.EntityType;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Logger;
+
+/**
+ * Exports the metrics of the {@link MetricsModule} in the Prometheus text exposition format.
+ * The metrics are rewritten to plugins/EHML/metrics.prom on an async timer, and can optionally
+ * be served from a loopback-only HTTP endpoint built on the JDK's HTTP server.
+ */
+public class PrometheusExporter {
+
+    private static final EntityType[] TYPES = EntityType.values();
+
+    private final JavaPlugin plugin;
+    private final ConfigManager configManager;
+    private final MetricsModule metrics;
+    private final LoggerModule loggerModule;
+    private final WorkScheduler workScheduler;
+    private final Logger logger;
+    private final File metricsFile;
+    private BukkitTask fileTask;
+    private HttpServer httpServer;
+    private ExecutorService httpExecutor;
+
+    /**
+     * Initializes the exporter.
+     * @param plugin The main plugin instance for scheduling and the data folder.
+     * @param configManager The configuration manager providing settings.
+     * @param metrics The metrics to export.
+     * @param loggerModule The logger module whose dropped entries are exported.
+     * @param workScheduler The work scheduler whose backlog is exported.
+     */
+    public PrometheusExporter(JavaPlugin plugin, ConfigManager configManager, MetricsModule metrics,
+                              LoggerModule loggerModule, WorkScheduler workScheduler) {
+        this.plugin = plugin;
+        this.configManager = configManager;
+        this.metrics = metrics;
+        this.loggerModule = loggerModule;
+        this.workScheduler = workScheduler;
+        this.logger = Logger.getLogger("EHML");
+        this.metricsFile = new File(plugin.getDataFolder(), "metrics.prom");
+    }
+
+    /**
+     * Starts the file writer and HTTP endpoint as configured.
+     */
+    public void start() {
+        ConfigSnapshot config = configManager.getSnapshot();
+        if (!config.isMetricsEnabled()) {
+            return;
+        }
+        if (config.getMetricsFileInterval() > 0) {
+            long interval = config.getMetricsFileInterval() * 20L;
+            fileTask = plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin, this::writeFile, interval, interval);
+        }
+        if (config.isMetricsHttpEnabled()) {
+            startHttpServer(config.getMetricsHttpPort());
+        }
+    }
+
+    /**
+     * Stops the file writer and HTTP endpoint.
+     */
+    public void stop() {
+        if (fileTask != null) {
+            fileTask.cancel();
+            fileTask = null;
+        }
+        if (httpServer != null) {
+            httpServer.stop(0);
+            httpServer = null;
+            httpExecutor.shutdownNow();
+            httpExecutor = null;
+        }
+    }
+
+    /**
+     * Starts the HTTP endpoint on the loopback interface.
+     * @param port The port to listen on.
+     */
+    private void startHttpServer(int port) {
+        try {
+            httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        } catch (IOException e) {
+            logger.warning("Failed to start metrics endpoint on port " + port + ": " + e.getMessage());
+            return;
+        }
+        httpExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "EHML-Metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        httpServer.setExecutor(httpExecutor);
+        httpServer.createContext("/metrics", this::handleRequest);
+        httpServer.start();
+        logger.info("Serving metrics at http://127.0.0.1:" + port + "/metrics");
+    }
+
+    /**
+     * Serves the current metrics.
+     * @param exchange The HTTP exchange.
+     * @throws IOException If the response cannot be written.
+     */
+    private void handleRequest(HttpExchange exchange) throws IOException {
+        byte[] body = render().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Rewrites the metrics file, replacing it atomically so readers never see a partial file.
+     */
+    private void writeFile() {
+        Path target = metricsFile.toPath();
+        Path temp = target.resolveSibling("metrics.prom.tmp");
+        try {
+            Files.writeString(temp, render(), StandardCharsets.UTF_8);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warning("Failed to write metrics file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Renders all metrics in the Prometheus text format.
+     * @return The metrics text.
+     */
+    public String render() {
+        StringBuilder out = new StringBuilder(4096);
+        int stages = metrics.getStageCount();
+
+        out.append("# HELP ehml_stage_latency_seconds Time spent in each EHML stage per event.\n");
+        out.append("# TYPE ehml_stage_latency_seconds histogram\n");
+        for (int stage = 0; stage < stages; stage++) {
+            String name = metrics.getStageName(stage);
+            LatencyHistogram histogram = metrics.getLatency(stage);
+            long cumulative = 0;
+            for (int bucket = 0; bucket < LatencyHistogram.BUCKETS; bucket++) {
+                cumulative += histogram.getBucketCount(bucket);
+                out.append("ehml_stage_latency_seconds_bucket{stage=\"").append(name).append("\",le=\"")
+                        .append(seconds(LatencyHistogram.getUpperBoundNanos(bucket))).append("\"} ")
+                        .append(cumulative).append('\n');
+            }
+            cumulative += histogram.getBucketCount(LatencyHistogram.BUCKETS);
+            out.append("ehml_stage_latency_seconds_bucket{stage=\"").append(name).append("\",le=\"+Inf\"} ")
+                    .append(cumulative).append('\n');
+            out.append("ehml_stage_latency_seconds_sum{stage=\"").append(name).append("\"} ")
+                    .append(seconds(histogram.getSumNanos())).append('\n');
+            out.append("ehml_stage_latency_seconds_count{stage=\"").append(name).append("\"} ")
+                    .append(cumulative).append('\n');
+        }
+
+        out.append("# HELP ehml_spawn_cancellations_total Hostile spawns cancelled, by rule, reason and entity type.\n");
+        out.append("# TYPE ehml_spawn_cancellations_total counter\n");
+        for (int stage = 0; stage < stages; stage++) {
+            for (int code = 0; code < metrics.getReasonCount(stage); code++) {
+                String reason = reasonLabel(metrics.getReason(stage, code));
+                for (EntityType type : TYPES) {
+                    long count = metrics.getCancellations(stage, code, type);
+                    if (count > 0) {
+                        out.append("ehml_spawn_cancellations_total{rule=\"").append(metrics.getStageName(stage))
+                                .append("\",reason=\"").append(reason)
+                                .append("\",entity_type=\"").append(type.name()).append("\"} ").append(count).append('\n');
+                    }
+                }
+            }
+        }
+
+        out.append("# HELP ehml_cleanup_removals_total Hostile mobs removed by death cleanup, by entity type.\n");
+        out.append("# TYPE ehml_cleanup_removals_total counter\n");
+        for (EntityType type : TYPES) {
+            long count = metrics.getRemovals(type);
+            if (count > 0) {
+                out.append("ehml_cleanup_removals_total{entity_type=\"").append(type.name()).append("\"} ")
+                        .append(count).append('\n');
+            }
+        }
+
+        out.append("# HELP ehml_log_dropped_entries_total Activity log entries dropped because the queue was full or no log file was open.\n");
+        out.append("# TYPE ehml_log_dropped_entries_total counter\n");
+        out.append("ehml_log_dropped_entries_total ").append(loggerModule.getDroppedEntries()).append('\n');
+
+        out.append("# HELP ehml_work_backlog Work units queued or in progress on the work scheduler.\n");
+        out.append("# TYPE ehml_work_backlog gauge\n");
+        out.append("ehml_work_backlog ").append(workScheduler.getBacklog()).append('\n');
+
+        out.append("# HELP ehml_work_oldest_wait_ticks Ticks the longest-waiting work unit has been queued.\n");
+        out.append("# TYPE ehml_work_oldest_wait_ticks gauge\n");
+        out.append("ehml_work_oldest_wait_ticks ").append(workScheduler.getOldestWaitTicks()).append('\n');
+
+        out.append("# HELP ehml_start_time_seconds Time the metrics were started, in seconds since the epoch.\n");
+        out.append("# TYPE ehml_start_time_seconds gauge\n");
+        out.append("ehml_start_time_seconds ").append(metrics.getStartTime() / 1000).append('\n');
+        return out.toString();
+    }
+
+    /**
+     * Turns a rejection reason into a label value, e.g. "host limit reached" into "host_limit_reached".
+     * @param reason The rejection reason.
+     * @return The label value.
+     */
+    private static String reasonLabel(String reason) {
+        return reason.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]+", "_");
+    }
+
+    /**
+     * Formats a nanosecond duration as seconds.
+     * @param nanos The duration in nanoseconds.
+     * @return The duration in seconds.
+     */
+    private static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / 1e9);
+    }
+
+    /**
+     * Reloads the exporter by restarting it with the current settings.
+     */
+    public void reload() {
+        stop();
+        start();
+    }
+}
\ No newline at end of file
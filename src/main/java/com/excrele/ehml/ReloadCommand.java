@@ -3,16 +3,28 @@ package com.excrele.ehml;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
+import org.bukkit.entity.EntityType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 import java.util.logging.Logger;
 
 /**
- * Command executor for the /ehml reload command.
+ * Command executor for the /ehml reload, /ehml stats and /ehml spawners commands.
  */
 public class ReloadCommand implements CommandExecutor {
 
+    private static final int TOP_CANCELLATIONS = 5;
+    private static final int TOP_SPAWNERS = 10;
+
     private final EHML plugin;
     private final ConfigManager configManager;
     private final LoggerModule loggerModule;
+    private final MetricsModule metrics;
+    private final WorkScheduler workScheduler;
+    private final AdaptiveLimitModule adaptiveLimits;
+    private final SpawnerLimitModule spawnerLimits;
+    private final HostBudgetModule hostBudget;
     private final Logger logger;
 
     /**
@@ -20,16 +32,30 @@ public class ReloadCommand implements CommandExecutor {
      * @param plugin The main plugin instance.
      * @param configManager The configuration manager.
      * @param loggerModule The logger module for recording activities.
+     * @param metrics The metrics module summarized by /ehml stats.
+     * @param workScheduler The work scheduler whose backlog is shown by /ehml stats.
+     * @param adaptiveLimits The adaptive limit controller whose state is shown by /ehml stats.
+     * @param spawnerLimits The spawner limit module listed by /ehml spawners.
+     * @param hostBudget The host-wide budget whose state is shown by /ehml stats.
      */
-    public ReloadCommand(EHML plugin, ConfigManager configManager, LoggerModule loggerModule) {
+    public ReloadCommand(EHML plugin, ConfigManager configManager, LoggerModule loggerModule, MetricsModule metrics,
+                         WorkScheduler workScheduler, AdaptiveLimitModule adaptiveLimits,
+                         SpawnerLimitModule spawnerLimits, HostBudgetModule hostBudget) {
         this.plugin = plugin;
         this.configManager = configManager;
         this.loggerModule = loggerModule;
+        this.metrics = metrics;
+        this.workScheduler = workScheduler;
+        this.adaptiveLimits = adaptiveLimits;
+        this.spawnerLimits = spawnerLimits;
+        this.hostBudget = hostBudget;
         this.logger = Logger.getLogger("EHML");
     }
 
     /**
-     * Handles the /ehml reload command to reload the plugin configuration.
+     * Handles the /ehml reload command to reload the plugin configuration, the /ehml stats
+     * command to show a summary of the plugin's metrics, and the /ehml spawners command to list
+     * the busiest spawners.
      * @param sender The command sender.
      * @param command The command.
      * @param label The command label.
@@ -43,13 +69,125 @@ public class ReloadCommand implements CommandExecutor {
                 sender.sendMessage("§cYou do not have permission to use this command.");
                 return true;
             }
-            plugin.reload();
-            sender.sendMessage("§aEHML configuration reloaded successfully.");
-            logger.info("Configuration reloaded by " + sender.getName());
-            loggerModule.log("ReloadCommand", "Configuration reloaded by " + sender.getName());
+            plugin.reload(applied -> {
+                if (!applied) {
+                    sender.sendMessage("§cFailed to reload EHML configuration; see console for details.");
+                    return;
+                }
+                sender.sendMessage("§aEHML configuration reloaded successfully.");
+                logger.info("Configuration reloaded by " + sender.getName());
+                loggerModule.log("ReloadCommand", "Configuration reloaded by " + sender.getName());
+            });
+            return true;
+        }
+        if (args.length == 1 && args[0].equalsIgnoreCase("stats")) {
+            if (!sender.hasPermission("ehml.stats")) {
+                sender.sendMessage("§cYou do not have permission to use this command.");
+                return true;
+            }
+            sendStats(sender);
+            return true;
+        }
+        if (args.length == 1 && args[0].equalsIgnoreCase("spawners")) {
+            if (!sender.hasPermission("ehml.stats")) {
+                sender.sendMessage("§cYou do not have permission to use this command.");
+                return true;
+            }
+            sendSpawners(sender);
             return true;
         }
-        sender.sendMessage("§cUsage: /ehml reload");
+        sender.sendMessage("§cUsage: /ehml <reload|stats|spawners>");
         return false;
     }
+
+    /**
+     * Sends a summary of stage timings, spawn cancellations and cleanup removals.
+     * @param sender The command sender.
+     */
+    private void sendStats(CommandSender sender) {
+        if (!configManager.getSnapshot().isMetricsEnabled()) {
+            sender.sendMessage("§eMetrics are disabled; showing values collected while they were enabled.");
+        }
+        long minutes = (System.currentTimeMillis() - metrics.getStartTime()) / 60000;
+        sender.sendMessage("§6EHML stats (last " + minutes + " min):");
+        ConfigSnapshot config = configManager.getSnapshot();
+        sender.sendMessage("§eAdaptive limits§7: " + adaptiveLimits.describe() + "; effective / configured limits:");
+        for (String limits : adaptiveLimits.describeLimits(config)) {
+            sender.sendMessage("§7  " + limits);
+        }
+        if (hostBudget.isActive()) {
+            sender.sendMessage("§eHost budget§7: " + hostBudget.getHostTotal() + " / " + config.getHostHostileLimit() +
+                    " hostile mobs across " + hostBudget.getActiveInstances() + " instances");
+        }
+        for (int stage = 0; stage < metrics.getStageCount(); stage++) {
+            LatencyHistogram latency = metrics.getLatency(stage);
+            long count = latency.getCount();
+            String timing = count == 0 ? "no samples" :
+                    "mean " + micros(latency.getSumNanos() / count) + ", p99 <= " + micros(latency.getQuantileNanos(0.99));
+            long cancelled = metrics.getCancellations(stage);
+            sender.sendMessage("§e" + metrics.getStageName(stage) + "§7: " + count + " evals, " + timing +
+                    (cancelled > 0 ? ", " + cancelled + " cancelled" : ""));
+        }
+
+        // Collect the most frequent cancellation reasons by entity type
+        List<String> top = new ArrayList<>();
+        List<Long> topCounts = new ArrayList<>();
+        for (int stage = 0; stage < metrics.getStageCount(); stage++) {
+            for (int code = 0; code < metrics.getReasonCount(stage); code++) {
+                for (EntityType type : EntityType.values()) {
+                    long count = metrics.getCancellations(stage, code, type);
+                    if (count == 0) {
+                        continue;
+                    }
+                    int position = 0;
+                    while (position < topCounts.size() && topCounts.get(position) >= count) {
+                        position++;
+                    }
+                    if (position < TOP_CANCELLATIONS) {
+                        top.add(position, type + " by " + metrics.getStageName(stage) + ", " +
+                                metrics.getReason(stage, code) + " (" + count + ")");
+                        topCounts.add(position, count);
+                    }
+                }
+            }
+        }
+        if (!top.isEmpty()) {
+            sender.sendMessage("§7Top cancellations: " + String.join(", ", top.subList(0, Math.min(TOP_CANCELLATIONS, top.size()))));
+        }
+        sender.sendMessage("§7Death cleanup removed " + metrics.getRemovals() + " mobs; " +
+                loggerModule.getDroppedEntries() + " log entries dropped.");
+        sender.sendMessage("§7Work queue: " + workScheduler.getBacklog() + " units, oldest waiting " +
+                workScheduler.getOldestWaitTicks() + " ticks.");
+    }
+
+    /**
+     * Sends the tracked spawners with the highest spawn rates.
+     * @param sender The command sender.
+     */
+    private void sendSpawners(CommandSender sender) {
+        List<SpawnerLimitModule.Spawner> spawners = spawnerLimits.getBusiestSpawners(TOP_SPAWNERS);
+        if (spawners.isEmpty()) {
+            sender.sendMessage("§eNo spawners tracked in loaded chunks.");
+            return;
+        }
+        long now = System.currentTimeMillis();
+        sender.sendMessage("§6Busiest spawners:");
+        for (SpawnerLimitModule.Spawner spawner : spawners) {
+            sender.sendMessage(String.format(Locale.ROOT, "§e%s %d,%d,%d§7: %.1f spawns/min, %.0f%% cancelled, %d living",
+                    spawner.getWorld().getName(), spawner.getX(), spawner.getY(), spawner.getZ(),
+                    spawner.getSpawnsPerMinute(now), spawner.getCancelRate() * 100, spawner.getLiving()));
+        }
+    }
+
+    /**
+     * Formats a nanosecond duration in microseconds.
+     * @param nanos The duration in nanoseconds.
+     * @return The formatted duration.
+     */
+    private static String micros(long nanos) {
+        if (nanos == Long.MAX_VALUE) {
+            return "overflow";
+        }
+        return String.format(Locale.ROOT, "%.1f µs", nanos / 1000.0);
+    }
 }
\ No newline at end of file
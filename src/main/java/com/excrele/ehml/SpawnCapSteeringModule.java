@@ -0,0 +1,172 @@
+package com.excrele.ehml;
+
+import org.bukkit.World;
+import org.bukkit.entity.SpawnCategory;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.WorldUnloadEvent;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Module for steering the vanilla monster spawner with each world's spawn limit and spawn interval,
+ * so attempts that the global limit would cancel are never made. Once a second the live hostile
+ * count of each world's limit profile is compared with the profile's effective limit: at the limit, the monster spawn limit is set
+ * to 0; within the headroom band below it, the ticks between monster spawn attempts are multiplied
+ * by the slow factor; otherwise the world's original settings apply. The original settings are
+ * captured the first time a world is steered and restored when steering stops. Worlds whose
+ * monster spawn interval is 0, which disables monster spawning, are left alone.
+ * Cancelling in the {@link SpawnDecisionPipeline} remains as the fallback for spawns that still
+ * happen, such as spawners and per-type limits, which have no native setting.
+ */
+public class SpawnCapSteeringModule implements Listener {
+
+    private static final long STEERING_INTERVAL_TICKS = 20L;
+
+    private final JavaPlugin plugin;
+    private final ConfigManager configManager;
+    private final MobCounterModule mobCounter;
+    private final AdaptiveLimitModule adaptiveLimits;
+    private final Logger logger;
+    private final Map<UUID, Steering> steered;
+    private BukkitTask task;
+
+    /**
+     * A world's original monster spawn settings and the mode currently applied.
+     */
+    private static final class Steering {
+        private final World world;
+        private final int originalLimit;
+        private final int originalTicks;
+        private Mode mode;
+
+        /**
+         * Captures a world's original monster spawn settings.
+         * @param world The world.
+         */
+        private Steering(World world) {
+            this.world = world;
+            this.originalLimit = world.getSpawnLimit(SpawnCategory.MONSTER);
+            this.originalTicks = (int) world.getTicksPerSpawns(SpawnCategory.MONSTER);
+            this.mode = Mode.ORIGINAL;
+        }
+    }
+
+    /**
+     * The monster spawn settings applied to a world.
+     */
+    private enum Mode {
+        ORIGINAL, SLOWED, STOPPED
+    }
+
+    /**
+     * Initializes the spawn cap steering module.
+     * @param plugin The main plugin instance for server access.
+     * @param configManager The configuration manager providing settings.
+     * @param mobCounter The live hostile mob counter.
+     * @param adaptiveLimits The controller scaling the global limit with tick time.
+     */
+    public SpawnCapSteeringModule(JavaPlugin plugin, ConfigManager configManager, MobCounterModule mobCounter,
+                                  AdaptiveLimitModule adaptiveLimits) {
+        this.plugin = plugin;
+        this.configManager = configManager;
+        this.mobCounter = mobCounter;
+        this.adaptiveLimits = adaptiveLimits;
+        this.logger = Logger.getLogger("EHML");
+        this.steered = new HashMap<>();
+    }
+
+    /**
+     * Starts steering if it is enabled.
+     */
+    public void start() {
+        if (!configManager.getSnapshot().isSpawnSteeringEnabled()) {
+            return;
+        }
+        steer();
+        task = plugin.getServer().getScheduler().runTaskTimer(plugin, this::steer,
+                STEERING_INTERVAL_TICKS, STEERING_INTERVAL_TICKS);
+    }
+
+    /**
+     * Stops steering and restores every steered world's original settings.
+     */
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        for (Steering steering : steered.values()) {
+            apply(steering, Mode.ORIGINAL, 1);
+        }
+        steered.clear();
+    }
+
+    /**
+     * Applies the mode matching the live hostile count of its limit profile to every world.
+     */
+    private void steer() {
+        ConfigSnapshot config = configManager.getSnapshot();
+        for (World world : plugin.getServer().getWorlds()) {
+            Mode mode = Mode.ORIGINAL;
+            if (config.isGlobalLimitEnabled()) {
+                int index = mobCounter.indexOf(world);
+                int limit = adaptiveLimits.scale(mobCounter.getHostileLimit(index));
+                int count = mobCounter.getPoolHostileCount(index);
+                if (count >= limit) {
+                    mode = Mode.STOPPED;
+                } else if (count >= limit * (1 - config.getSpawnSteeringHeadroom())) {
+                    mode = Mode.SLOWED;
+                }
+            }
+            Steering steering = steered.computeIfAbsent(world.getUID(), uid -> new Steering(world));
+            if (steering.originalTicks == 0) {
+                continue; // Monster spawning is disabled in this world
+            }
+            apply(steering, mode, config.getSpawnSteeringSlowFactor());
+        }
+    }
+
+    /**
+     * Applies a mode to a world if it differs from the mode already applied.
+     * @param steering The world's steering state.
+     * @param mode The mode to apply.
+     * @param slowFactor The multiplier for the ticks between spawn attempts when slowed.
+     */
+    private void apply(Steering steering, Mode mode, int slowFactor) {
+        if (steering.mode == mode) {
+            return;
+        }
+        World world = steering.world;
+        world.setSpawnLimit(SpawnCategory.MONSTER, mode == Mode.STOPPED ? 0 : steering.originalLimit);
+        world.setTicksPerSpawns(SpawnCategory.MONSTER,
+                mode == Mode.SLOWED ? Math.max(1, steering.originalTicks) * slowFactor : steering.originalTicks);
+        if (logger.isLoggable(Level.FINE)) {
+            logger.fine("Monster spawning in " + world.getName() + " set to " + mode);
+        }
+        steering.mode = mode;
+    }
+
+    /**
+     * Forgets a world when it is unloaded; its settings are not saved, so nothing needs restoring.
+     * @param event The world unload event.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        steered.remove(event.getWorld().getUID());
+    }
+
+    /**
+     * Reloads the module, restoring the original settings before steering again if it is enabled.
+     */
+    public void reload() {
+        stop();
+        start();
+    }
+}
\ No newline at end of file
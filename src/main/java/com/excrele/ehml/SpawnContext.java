@@ -0,0 +1,63 @@
+package com.excrele.ehml;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.EntityType;
+import org.bukkit.event.entity.CreatureSpawnEvent;
+
+/**
+ * A hostile mob spawn classified once by the {@link SpawnDecisionPipeline} and shared by all rules.
+ * A single instance is reused for every spawn on the main thread, so rules must not keep it.
+ */
+public class SpawnContext {
+
+    private CreatureSpawnEvent event;
+    private ConfigSnapshot config;
+    private EntityType entityType;
+    private Location location;
+    private World world;
+    private int blockX;
+    private int blockY;
+    private int blockZ;
+    private int chunkX;
+    private int chunkZ;
+
+    /**
+     * Fills the context from a spawn event.
+     * @param event The creature spawn event.
+     * @param config The configuration snapshot the decision is made with.
+     */
+    void reset(CreatureSpawnEvent event, ConfigSnapshot config) {
+        this.event = event;
+        this.config = config;
+        this.entityType = event.getEntityType();
+        this.location = event.getLocation();
+        this.world = location.getWorld();
+        this.blockX = location.getBlockX();
+        this.blockY = location.getBlockY();
+        this.blockZ = location.getBlockZ();
+        this.chunkX = CoordinateKeys.toChunk(blockX);
+        this.chunkZ = CoordinateKeys.toChunk(blockZ);
+    }
+
+    /**
+     * Drops the references to the last spawn so it is not kept alive between events.
+     */
+    void clear() {
+        this.event = null;
+        this.location = null;
+        this.world = null;
+    }
+
+    // Getters for the classified spawn
+    public CreatureSpawnEvent getEvent() { return event; }
+    public ConfigSnapshot getConfig() { return config; }
+    public EntityType getEntityType() { return entityType; }
+    public Location getLocation() { return location; }
+    public World getWorld() { return world; }
+    public int getBlockX() { return blockX; }
+    public int getBlockY() { return blockY; }
+    public int getBlockZ() { return blockZ; }
+    public int getChunkX() { return chunkX; }
+    public int getChunkZ() { return chunkZ; }
+}
\ No newline at end of file
@@ -0,0 +1,174 @@
+package com.excrele.ehml;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.CreatureSpawnEvent;
+import java.util.Arrays;
+
+/**
+ * The single spawn listener of the plugin. Each spawn is classified once (spawn reason, hostility,
+ * position) into a reused {@link SpawnContext}, then passed through the registered {@link SpawnRule}
+ * stages in order until one rejects it. Rules should be added cheapest first.
+ * When metrics are enabled, the whole pipeline and each rule are timed, and cancellations are
+ * counted by rule, rejection reason and entity type in the {@link MetricsModule}. Cancellations are passed to the
+ * {@link DecisionLogModule} as primitive records and only formatted in its periodic summaries.
+ * While a trace is being recorded, every decision is passed to the {@link SpawnTraceRecorder}.
+ */
+public class SpawnDecisionPipeline implements Listener {
+
+    private final ConfigManager configManager;
+    private final DecisionLogModule decisionLog;
+    private final MetricsModule metrics;
+    private final SpawnTraceRecorder traceRecorder;
+    private final SpawnContext context;
+    private final int pipelineStage;
+    private SpawnRule[] rules;
+    private int[] ruleStages;
+
+    /**
+     * Initializes an empty spawn decision pipeline.
+     * @param configManager The configuration manager providing settings.
+     * @param decisionLog The decision log summarizing cancelled spawns.
+     * @param metrics The metrics module for timings and cancellation counts.
+     * @param traceRecorder The recorder that traces decisions while enabled.
+     */
+    public SpawnDecisionPipeline(ConfigManager configManager, DecisionLogModule decisionLog, MetricsModule metrics,
+                                 SpawnTraceRecorder traceRecorder) {
+        this.configManager = configManager;
+        this.decisionLog = decisionLog;
+        this.metrics = metrics;
+        this.traceRecorder = traceRecorder;
+        this.context = new SpawnContext();
+        this.pipelineStage = metrics.registerStage("SpawnPipeline");
+        this.rules = new SpawnRule[0];
+        this.ruleStages = new int[0];
+    }
+
+    /**
+     * Appends a rule to the end of the pipeline.
+     * @param rule The rule to add.
+     */
+    public void addRule(SpawnRule rule) {
+        rules = Arrays.copyOf(rules, rules.length + 1);
+        rules[rules.length - 1] = rule;
+        ruleStages = Arrays.copyOf(ruleStages, ruleStages.length + 1);
+        ruleStages[ruleStages.length - 1] = metrics.registerStage(rule.getName(), rule.getRejectionReasons());
+        traceRecorder.registerRule(rule.getName());
+        decisionLog.registerRule(rule);
+    }
+
+    /**
+     * Handles mob spawn events by running the limited hostile spawns through the rules.
+     * Spawns already cancelled by another plugin are skipped.
+     * @param event The creature spawn event.
+     */
+    @EventHandler(ignoreCancelled = true)
+    public void onCreatureSpawn(CreatureSpawnEvent event) {
+        ConfigSnapshot config = configManager.getSnapshot();
+        if (!config.isLimitedSpawnReason(event.getSpawnReason())) {
+            return; // Only handle natural spawns or spawners
+        }
+
+        if (!config.isHostileMob(event.getEntityType())) {
+            return; // Ignore non-hostile mobs
+        }
+
+        context.reset(event, config);
+        try {
+            int decision = config.isMetricsEnabled() ? evaluateTimed() : evaluate();
+            if (traceRecorder.isRecording()) {
+                traceRecorder.recordSpawn(context, decision);
+            }
+        } finally {
+            context.clear();
+        }
+    }
+
+    /**
+     * Runs the enabled rules until one rejects the current spawn.
+     * @return 0 if the spawn was allowed, otherwise the index of the rejecting rule plus one.
+     */
+    private int evaluate() {
+        ConfigSnapshot config = context.getConfig();
+        for (int i = 0; i < rules.length; i++) {
+            SpawnRule rule = rules[i];
+            if (rule.isEnabled(config) && !rule.allows(context)) {
+                reject(i, false);
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Runs the enabled rules until one rejects the current spawn, timing each rule and the whole pipeline.
+     * @return 0 if the spawn was allowed, otherwise the index of the rejecting rule plus one.
+     */
+    private int evaluateTimed() {
+        ConfigSnapshot config = context.getConfig();
+        long pipelineStart = System.nanoTime();
+        for (int i = 0; i < rules.length; i++) {
+            SpawnRule rule = rules[i];
+            if (!rule.isEnabled(config)) {
+                continue;
+            }
+            long ruleStart = System.nanoTime();
+            boolean allowed = rule.allows(context);
+            long ruleEnd = System.nanoTime();
+            metrics.recordLatency(ruleStages[i], ruleEnd - ruleStart);
+            if (!allowed) {
+                metrics.recordLatency(pipelineStage, ruleEnd - pipelineStart);
+                reject(i, true);
+                return i + 1;
+            }
+        }
+        metrics.recordLatency(pipelineStage, System.nanoTime() - pipelineStart);
+        return 0;
+    }
+
+    /**
+     * Cancels the current spawn and records the rule that rejected it. The rejection code is
+     * only computed if the cancellation is counted or logged.
+     * @param index The position of the rejecting rule.
+     * @param counted Whether to count the cancellation in the metrics.
+     */
+    private void reject(int index, boolean counted) {
+        context.getEvent().setCancelled(true);
+        boolean logged = decisionLog.isEnabled(context.getConfig());
+        if (!counted && !logged) {
+            return;
+        }
+        int code = rules[index].getRejectionCode(context);
+        if (counted) {
+            metrics.recordCancellation(ruleStages[index], code, context.getEntityType());
+        }
+        if (logged) {
+            decisionLog.record(index, code, context);
+        }
+    }
+
+    /**
+     * Gets the registered rules in evaluation order.
+     * @return A copy of the rules.
+     */
+    public SpawnRule[] getRules() {
+        return rules.clone();
+    }
+
+    /**
+     * Gets the metrics stage timing the whole pipeline.
+     * @return The pipeline stage id.
+     */
+    public int getStage() {
+        return pipelineStage;
+    }
+
+    /**
+     * Gets the metrics stage of a rule, which counts the spawns the rule cancelled.
+     * @param index The rule's position in the pipeline.
+     * @return The rule's stage id.
+     */
+    public int getRuleStage(int index) {
+        return ruleStages[index];
+    }
+}
\ No newline at end of file
@@ -0,0 +1,45 @@
+package com.excrele.ehml;
+
+import java.util.List;
+
+/**
+ * A stage of the {@link SpawnDecisionPipeline} that can reject a hostile mob spawn.
+ * Rules are only consulted for spawns the pipeline has already classified as limited, so they
+ * do not need to re-check the spawn reason or whether the mob is hostile.
+ */
+public interface SpawnRule {
+
+    /**
+     * Gets the name of the rule, used as the activity log category of its rejections.
+     * @return The rule name.
+     */
+    String getName();
+
+    /**
+     * Checks if the rule is enabled in a configuration.
+     * @param config The configuration snapshot.
+     * @return True if the rule should be consulted.
+     */
+    boolean isEnabled(ConfigSnapshot config);
+
+    /**
+     * Decides whether a spawn may proceed. Only called if no earlier rule rejected the spawn.
+     * @param context The classified spawn.
+     * @return True if the spawn is allowed, false to cancel it.
+     */
+    boolean allows(SpawnContext context);
+
+    /**
+     * Tells why the rule rejected a spawn. Only called after {@link #allows(SpawnContext)} returned false.
+     * @param context The classified spawn.
+     * @return The rejection code, an index into {@link #getRejectionReasons()}.
+     */
+    int getRejectionCode(SpawnContext context);
+
+    /**
+     * Gets the descriptions of the rule's rejection codes, formatted into the activity log when
+     * rejections are summarized.
+     * @return The rejection reasons, indexed by rejection code.
+     */
+    List<String> getRejectionReasons();
+}
\ No newline at end of file
@@ -0,0 +1,344 @@
+package com.excrele.ehml;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shared definition of the EHML spawn trace format, used by both {@link SpawnTraceRecorder} and
+ * the offline {@link TraceReplayTool}. Depends only on the JDK so it can run outside the server.
+ * <p>
+ * A trace starts with a header of magic, version and start time in epoch milliseconds, followed by
+ * three name tables (entity types, spawn reasons and spawn rules), each a count and length-prefixed
+ * UTF-8 names, so traces stay readable across server versions. Records follow, each starting with
+ * a kind byte:
+ * <ul>
+ * <li>{@link #WORLD}: world index and name, written before the first record in that world.</li>
+ * <li>{@link #SPAWN}: time offset, world, block position, entity type, spawn reason, decision
+ * (0 = allowed, otherwise the index of the rejecting rule plus one), the live hostile count and
+ * count of the type in the worlds sharing the spawn's limit profile, the index of that profile, the
+ * hostile counts of the chunk and region (-1 if not tracked), the adaptive limit scale, the
+ * distance, health and budget charge of the nearest player within {@link #PLAYER_RADIUS} blocks
+ * (distance -1 if there is none), and the distance and health of the nearest player indexed as low
+ * on health within {@link #LOW_HEALTH_RADIUS} blocks (distance -1 if there is none).</li>
+ * <li>{@link #DEATH}: time offset, world, block position, merged deaths, hostile mobs found around
+ * them and mobs chosen for removal.</li>
+ * </ul>
+ * All values are big-endian; time offsets are milliseconds since the start time.
+ */
+public final class SpawnTrace {
+
+    /** File name suffix of trace files. */
+    public static final String SUFFIX = ".ehmltrace";
+    /** Magic number at the start of trace files ("EHMLTRCE"). */
+    public static final long MAGIC = 0x45484D4C54524345L;
+    /** Current trace file version. */
+    public static final int VERSION = 1;
+    /** Kind of a world name record. */
+    public static final byte WORLD = 0;
+    /** Kind of a spawn decision record. */
+    public static final byte SPAWN = 1;
+    /** Kind of a death cleanup record. */
+    public static final byte DEATH = 2;
+    /** Size of a spawn record in bytes, kind included. */
+    public static final int SPAWN_SIZE = 57;
+    /** Size of a death record in bytes, kind included. */
+    public static final int DEATH_SIZE = 27;
+    /** Radius searched for the nearest player of a spawn, in blocks. */
+    public static final double PLAYER_RADIUS = 128.0;
+    /** Radius searched for the nearest low-health player of a spawn, in blocks; the largest spawn-delay-radius. */
+    public static final double LOW_HEALTH_RADIUS = 256.0;
+
+    private SpawnTrace() {
+    }
+
+    /**
+     * Writes the file header.
+     * @param buffer The buffer to write to.
+     * @param startTime The start time of the trace in epoch milliseconds.
+     * @param types The entity type names by ordinal.
+     * @param reasons The spawn reason names by ordinal.
+     * @param rules The spawn rule names in pipeline order.
+     */
+    public static void writeHeader(ByteBuffer buffer, long startTime, String[] types, String[] reasons, String[] rules) {
+        buffer.putLong(MAGIC).putInt(VERSION).putLong(startTime);
+        writeNames(buffer, types);
+        writeNames(buffer, reasons);
+        writeNames(buffer, rules);
+    }
+
+    /**
+     * Writes a world name record.
+     * @param buffer The buffer to write to.
+     * @param index The world index used by later records.
+     * @param name The world name.
+     */
+    public static void writeWorld(ByteBuffer buffer, int index, String name) {
+        buffer.put(WORLD).putShort((short) index);
+        writeName(buffer, name);
+    }
+
+    /**
+     * Gets the size of a world name record.
+     * @param name The world name.
+     * @return The record size in bytes.
+     */
+    public static int worldSize(String name) {
+        return 5 + name.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    /**
+     * Gets the size of the file header.
+     * @param types The entity type names.
+     * @param reasons The spawn reason names.
+     * @param rules The spawn rule names.
+     * @return The header size in bytes.
+     */
+    public static int headerSize(String[] types, String[] reasons, String[] rules) {
+        return 20 + namesSize(types) + namesSize(reasons) + namesSize(rules);
+    }
+
+    /**
+     * Writes a name table.
+     * @param buffer The buffer to write to.
+     * @param names The names.
+     */
+    private static void writeNames(ByteBuffer buffer, String[] names) {
+        buffer.putShort((short) names.length);
+        for (String name : names) {
+            writeName(buffer, name);
+        }
+    }
+
+    /**
+     * Writes a length-prefixed UTF-8 name.
+     * @param buffer The buffer to write to.
+     * @param name The name.
+     */
+    private static void writeName(ByteBuffer buffer, String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) bytes.length).put(bytes);
+    }
+
+    /**
+     * Gets the size of a name table.
+     * @param names The names.
+     * @return The table size in bytes.
+     */
+    private static int namesSize(String[] names) {
+        int size = 2;
+        for (String name : names) {
+            size += 2 + name.getBytes(StandardCharsets.UTF_8).length;
+        }
+        return size;
+    }
+
+    /**
+     * A record read from a trace. One instance is reused for every record of a reader.
+     */
+    public static final class Record {
+        private byte kind;
+        private long time;
+        private int world;
+        private int x;
+        private int y;
+        private int z;
+        private int type;
+        private int reason;
+        private int decision;
+        private int hostileCount;
+        private int typeCount;
+        private int profile;
+        private int chunkCount;
+        private int regionCount;
+        private float scale;
+        private float playerDistance;
+        private float playerHealth;
+        private int playerCharged;
+        private float lowHealthDistance;
+        private float lowHealthPlayerHealth;
+        private int deaths;
+        private int nearby;
+        private int removed;
+
+        // Getters for the record
+        public byte getKind() { return kind; }
+        public long getTime() { return time; }
+        public int getWorld() { return world; }
+        public int getX() { return x; }
+        public int getY() { return y; }
+        public int getZ() { return z; }
+        public int getType() { return type; }
+        public int getReason() { return reason; }
+        public int getDecision() { return decision; }
+        public int getHostileCount() { return hostileCount; }
+        public int getTypeCount() { return typeCount; }
+        public int getProfile() { return profile; }
+        public int getChunkCount() { return chunkCount; }
+        public int getRegionCount() { return regionCount; }
+        public float getScale() { return scale; }
+        public float getPlayerDistance() { return playerDistance; }
+        public float getPlayerHealth() { return playerHealth; }
+        public int getPlayerCharged() { return playerCharged; }
+        public float getLowHealthDistance() { return lowHealthDistance; }
+        public float getLowHealthPlayerHealth() { return lowHealthPlayerHealth; }
+        public int getDeaths() { return deaths; }
+        public int getNearby() { return nearby; }
+        public int getRemoved() { return removed; }
+    }
+
+    /**
+     * Sequential reader of a trace file. World name records are consumed by the reader and
+     * exposed through {@link #getWorldName(int)}; a record cut off at the end of the file ends the trace.
+     */
+    public static final class Reader implements Closeable {
+
+        private final DataInputStream input;
+        private final long startTime;
+        private final String[] types;
+        private final String[] reasons;
+        private final String[] rules;
+        private final List<String> worlds;
+
+        /**
+         * Opens a trace file and reads its header.
+         * @param file The trace file.
+         * @throws IOException If the file cannot be read or is not a trace.
+         */
+        public Reader(File file) throws IOException {
+            this.input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath()), 1 << 16));
+            try {
+                if (input.readLong() != MAGIC) {
+                    throw new IOException("Not an EHML trace: " + file);
+                }
+                int version = input.readInt();
+                if (version != VERSION) {
+                    throw new IOException("Unsupported trace version " + version + ": " + file);
+                }
+                this.startTime = input.readLong();
+                this.types = readNames();
+                this.reasons = readNames();
+                this.rules = readNames();
+                this.worlds = new ArrayList<>();
+            } catch (IOException e) {
+                input.close();
+                throw e;
+            }
+        }
+
+        /**
+         * Reads the next spawn or death record.
+         * @param record The record to fill.
+         * @return False at the end of the trace.
+         * @throws IOException If the file cannot be read or holds an unknown record kind.
+         */
+        public boolean next(Record record) throws IOException {
+            try {
+                while (true) {
+                    int kind = input.read();
+                    if (kind < 0) {
+                        return false;
+                    }
+                    if (kind == WORLD) {
+                        int index = input.readShort();
+                        String name = readName();
+                        while (worlds.size() <= index) {
+                            worlds.add(null);
+                        }
+                        worlds.set(index, name);
+                        continue;
+                    }
+                    if (kind != SPAWN && kind != DEATH) {
+                        throw new IOException("Unknown trace record kind " + kind);
+                    }
+                    record.kind = (byte) kind;
+                    record.time = startTime + (input.readInt() & 0xFFFFFFFFL);
+                    record.world = input.readShort();
+                    record.x = input.readInt();
+                    record.y = input.readShort();
+                    record.z = input.readInt();
+                    if (kind == DEATH) {
+                        record.deaths = input.readShort();
+                        record.nearby = input.readInt();
+                        record.removed = input.readInt();
+                        return true;
+                    }
+                    record.type = input.readShort();
+                    record.reason = input.readByte();
+                    record.decision = input.readByte();
+                    record.hostileCount = input.readInt();
+                    record.typeCount = input.readInt();
+                    record.profile = input.readShort();
+                    record.chunkCount = input.readShort();
+                    record.regionCount = input.readShort();
+                    record.scale = input.readFloat();
+                    record.playerDistance = input.readFloat();
+                    record.playerHealth = input.readFloat();
+                    record.playerCharged = input.readShort();
+                    record.lowHealthDistance = input.readFloat();
+                    record.lowHealthPlayerHealth = input.readFloat();
+                    return true;
+                }
+            } catch (EOFException e) {
+                return false; // Last record cut off when the recorder stopped
+            }
+        }
+
+        /**
+         * Reads a name table.
+         * @return The names.
+         * @throws IOException If the file cannot be read.
+         */
+        private String[] readNames() throws IOException {
+            String[] names = new String[input.readShort()];
+            for (int i = 0; i < names.length; i++) {
+                names[i] = readName();
+            }
+            return names;
+        }
+
+        /**
+         * Reads a length-prefixed UTF-8 name.
+         * @return The name.
+         * @throws IOException If the file cannot be read.
+         */
+        private String readName() throws IOException {
+            byte[] bytes = new byte[input.readShort()];
+            input.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Gets the name of a world index.
+         * @param index The world index.
+         * @return The world name, or a placeholder if the index was never named.
+         */
+        public String getWorldName(int index) {
+            String name = index >= 0 && index < worlds.size() ? worlds.get(index) : null;
+            return name == null ? "world#" + index : name;
+        }
+
+        /**
+         * Closes the trace file.
+         * @throws IOException If the file cannot be closed.
+         */
+        @Override
+        public void close() throws IOException {
+            input.close();
+        }
+
+        // Getters for the trace header
+        public long getStartTime() { return startTime; }
+        public String[] getTypes() { return types; }
+        public String[] getReasons() { return reasons; }
+        public String[] getRules() { return rules; }
+    }
+}
\ No newline at end of file
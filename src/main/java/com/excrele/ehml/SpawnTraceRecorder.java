@@ -0,0 +1,374 @@
+package com.excrele.ehml;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.Player;
+import org.bukkit.event.entity.CreatureSpawnEvent;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Module recording a compact binary trace of the spawn decisions and death cleanups made by EHML,
+ * for replaying production traffic against other settings with the {@link TraceReplayTool}.
+ * Records are written in the {@link SpawnTrace} format into a small pool of buffers on the main
+ * thread; full buffers are handed to a background writer thread and returned to the pool once
+ * written, so the main thread never waits on disk I/O. When no buffer is free, records are dropped
+ * and counted. Recording stops once the trace reaches the configured maximum size.
+ */
+public class SpawnTraceRecorder {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int BUFFER_COUNT = 8;
+
+    private final JavaPlugin plugin;
+    private final ConfigManager configManager;
+    private final MobCounterModule mobCounter;
+    private final AdaptiveLimitModule adaptiveLimits;
+    private final DensityLimitModule densityLimits;
+    private final PlayerBudgetModule playerBudget;
+    private final LowHealthDelayModule lowHealthDelay;
+    private final Logger logger;
+    private final List<String> ruleNames;
+    private final BlockingQueue<ByteBuffer> spare;
+    private final BlockingQueue<ByteBuffer> filled;
+    private final Location scratch;
+    private WorldIndex worldIndex;
+    private int worldsWritten;
+    private ByteBuffer current;
+    private FileChannel channel;
+    private File file;
+    private Thread writerThread;
+    private BukkitTask flushTask;
+    private volatile boolean running;
+    private volatile boolean full;
+    private long maxBytes;
+    private long startTime;
+    private long recorded;
+    private long dropped;
+
+    /**
+     * Initializes the trace recorder.
+     * @param plugin The main plugin instance for the data folder and scheduling.
+     * @param configManager The configuration manager providing settings.
+     * @param mobCounter The live hostile mob counter.
+     * @param adaptiveLimits The adaptive limit controller.
+     * @param densityLimits The density limit module for chunk and region counts.
+     * @param playerBudget The player budget module for the nearest player and their charge.
+     * @param lowHealthDelay The low-health delay module for the nearest low-health player.
+     */
+    public SpawnTraceRecorder(JavaPlugin plugin, ConfigManager configManager, MobCounterModule mobCounter,
+                              AdaptiveLimitModule adaptiveLimits, DensityLimitModule densityLimits,
+                              PlayerBudgetModule playerBudget, LowHealthDelayModule lowHealthDelay) {
+        this.plugin = plugin;
+        this.configManager = configManager;
+        this.mobCounter = mobCounter;
+        this.adaptiveLimits = adaptiveLimits;
+        this.densityLimits = densityLimits;
+        this.playerBudget = playerBudget;
+        this.lowHealthDelay = lowHealthDelay;
+        this.logger = Logger.getLogger("EHML");
+        this.ruleNames = new ArrayList<>();
+        this.spare = new ArrayBlockingQueue<>(BUFFER_COUNT);
+        this.filled = new ArrayBlockingQueue<>(BUFFER_COUNT);
+        this.scratch = new Location(null, 0, 0, 0);
+    }
+
+    /**
+     * Registers a spawn rule so its index can be recorded as a decision.
+     * @param name The rule name.
+     * @return The rule's index.
+     */
+    public int registerRule(String name) {
+        ruleNames.add(name);
+        return ruleNames.size() - 1;
+    }
+
+    /**
+     * Opens a new trace file and starts the writer thread if tracing is enabled.
+     */
+    public void start() {
+        ConfigSnapshot config = configManager.getSnapshot();
+        if (!config.isTraceEnabled()) {
+            return;
+        }
+        File directory = new File(plugin.getDataFolder(), "traces");
+        directory.mkdirs();
+        file = new File(directory, "trace-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) +
+                SpawnTrace.SUFFIX);
+        try {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            logger.warning("Failed to create trace file " + file + ": " + e.getMessage());
+            return;
+        }
+        spare.clear();
+        filled.clear();
+        for (int i = 0; i < BUFFER_COUNT; i++) {
+            spare.add(ByteBuffer.allocate(BUFFER_SIZE));
+        }
+        current = spare.poll();
+        maxBytes = config.getTraceMaxFileSizeMb() * 1024L * 1024L;
+        startTime = System.currentTimeMillis();
+        worldIndex = new WorldIndex();
+        worldsWritten = 0;
+        recorded = 0;
+        dropped = 0;
+        full = false;
+        SpawnTrace.writeHeader(current, startTime, names(EntityType.values()),
+                names(CreatureSpawnEvent.SpawnReason.values()), ruleNames.toArray(new String[0]));
+
+        running = true;
+        writerThread = new Thread(this::runWriter, "EHML-TraceWriter");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        flushTask = plugin.getServer().getScheduler().runTaskTimer(plugin, this::flush, 20L, 20L);
+        logger.info("Recording spawn trace to " + file);
+    }
+
+    /**
+     * Writes the buffered records, stops the writer thread and closes the trace file.
+     */
+    public void stop() {
+        if (channel == null) {
+            return;
+        }
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+        flush();
+        running = false;
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writerThread.isAlive()) {
+            logger.warning("Trace writer did not finish in time; the end of " + file + " may be missing.");
+        }
+        logger.info("Stopped spawn trace " + file + ": " + recorded + " records, " + dropped + " dropped.");
+        channel = null;
+        current = null;
+    }
+
+    /**
+     * Checks whether records are being written.
+     * @return True if a trace is open and below its maximum size.
+     */
+    public boolean isRecording() {
+        return channel != null && !full;
+    }
+
+    /**
+     * Records a spawn decision with the state it was made in.
+     * @param context The classified spawn.
+     * @param decision 0 if the spawn was allowed, otherwise the index of the rejecting rule plus one.
+     */
+    public void recordSpawn(SpawnContext context, int decision) {
+        int world = world(context.getWorld());
+        if (world < 0 || !reserve(SpawnTrace.SPAWN_SIZE)) {
+            return;
+        }
+        Location location = context.getLocation();
+        EntityType type = context.getEntityType();
+        int pool = mobCounter.indexOf(context.getWorld());
+        float distance = -1;
+        float health = 0;
+        int charged = 0;
+        Player nearest = playerBudget.getNearestPlayer(context.getWorld(), location.getX(), location.getY(),
+                location.getZ(), SpawnTrace.PLAYER_RADIUS);
+        if (nearest != null) {
+            distance = (float) Math.sqrt(nearest.getLocation(scratch).distanceSquared(location));
+            health = (float) nearest.getHealth();
+            charged = playerBudget.getCharged(nearest);
+        }
+        float lowHealthDistance = -1;
+        float lowHealthPlayerHealth = 0;
+        Player lowHealthPlayer = lowHealthDelay.getNearestLowHealthPlayer(location, SpawnTrace.LOW_HEALTH_RADIUS);
+        if (lowHealthPlayer != null) {
+            lowHealthDistance = (float) Math.sqrt(lowHealthPlayer.getLocation(scratch).distanceSquared(location));
+            lowHealthPlayerHealth = (float) lowHealthPlayer.getHealth();
+        }
+        current.put(SpawnTrace.SPAWN)
+                .putInt((int) (System.currentTimeMillis() - startTime))
+                .putShort((short) world)
+                .putInt(context.getBlockX())
+                .putShort((short) context.getBlockY())
+                .putInt(context.getBlockZ())
+                .putShort((short) type.ordinal())
+                .put((byte) context.getEvent().getSpawnReason().ordinal())
+                .put((byte) decision)
+                .putInt(mobCounter.getPoolHostileCount(pool))
+                .putInt(mobCounter.getPoolCount(pool, type))
+                .putShort((short) mobCounter.getProfile(pool))
+                .putShort(clamp(densityLimits.getChunkCount(context.getWorld(), context.getChunkX(), context.getChunkZ())))
+                .putShort(clamp(densityLimits.getRegionCount(context.getWorld(), context.getChunkX(), context.getChunkZ())))
+                .putFloat((float) adaptiveLimits.getScale())
+                .putFloat(distance)
+                .putFloat(health)
+                .putShort(clamp(charged))
+                .putFloat(lowHealthDistance)
+                .putFloat(lowHealthPlayerHealth);
+        recorded++;
+    }
+
+    /**
+     * Records a death cleanup decision.
+     * @param location The first death location of the cleanup.
+     * @param deaths The number of merged deaths.
+     * @param nearby The hostile mobs found around the deaths.
+     * @param removed The mobs chosen for removal.
+     */
+    public void recordDeath(Location location, int deaths, int nearby, int removed) {
+        int world = world(location.getWorld());
+        if (world < 0 || !reserve(SpawnTrace.DEATH_SIZE)) {
+            return;
+        }
+        current.put(SpawnTrace.DEATH)
+                .putInt((int) (System.currentTimeMillis() - startTime))
+                .putShort((short) world)
+                .putInt(location.getBlockX())
+                .putShort((short) location.getBlockY())
+                .putInt(location.getBlockZ())
+                .putShort(clamp(deaths))
+                .putInt(nearby)
+                .putInt(removed);
+        recorded++;
+    }
+
+    /**
+     * Gets the trace index of a world, writing its name record the first time it is seen.
+     * @param world The world.
+     * @return The world index, or -1 if the name record could not be written.
+     */
+    private int world(World world) {
+        int index = worldIndex.indexOf(world);
+        if (index < worldsWritten) {
+            return index;
+        }
+        if (!reserve(SpawnTrace.worldSize(world.getName()))) {
+            return -1;
+        }
+        SpawnTrace.writeWorld(current, index, world.getName());
+        worldsWritten = index + 1;
+        return index;
+    }
+
+    /**
+     * Makes room for a record in the current buffer, handing a full buffer to the writer.
+     * @param size The record size in bytes.
+     * @return False if the record must be dropped.
+     */
+    private boolean reserve(int size) {
+        if (full) {
+            return false;
+        }
+        if (current != null && current.remaining() < size) {
+            flush();
+        }
+        if (current == null) {
+            current = spare.poll();
+            if (current == null) {
+                dropped++;
+                return false; // Writer is behind
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Hands the current buffer to the writer if it holds any records.
+     */
+    private void flush() {
+        if (current == null || current.position() == 0) {
+            return;
+        }
+        current.flip();
+        filled.add(current); // Never full: there are only as many buffers as queue slots
+        current = spare.poll();
+    }
+
+    /**
+     * Writer thread loop: writes filled buffers and returns them to the pool, then closes the file.
+     */
+    private void runWriter() {
+        long written = 0;
+        while (running || !filled.isEmpty()) {
+            try {
+                ByteBuffer buffer = filled.poll(1, TimeUnit.SECONDS);
+                if (buffer == null) {
+                    continue;
+                }
+                if (!full) {
+                    while (buffer.hasRemaining()) {
+                        written += channel.write(buffer);
+                    }
+                    if (written >= maxBytes) {
+                        full = true;
+                        logger.warning("Spawn trace " + file + " reached trace-max-file-size-mb; recording stopped.");
+                    }
+                }
+                buffer.clear();
+                spare.add(buffer);
+            } catch (InterruptedException e) {
+                running = false;
+            } catch (IOException e) {
+                full = true;
+                logger.severe("Failed to write spawn trace " + file + ": " + e.getMessage());
+            }
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.warning("Failed to close spawn trace " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Clamps a count to the range of a short.
+     * @param value The count.
+     * @return The clamped count.
+     */
+    private static short clamp(int value) {
+        return (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, value));
+    }
+
+    /**
+     * Gets the names of enum constants by ordinal.
+     * @param values The enum constants.
+     * @return The names.
+     */
+    private static String[] names(Enum<?>[] values) {
+        String[] names = new String[values.length];
+        for (int i = 0; i < values.length; i++) {
+            names[i] = values[i].name();
+        }
+        return names;
+    }
+
+    /**
+     * Reloads the module, closing the current trace and opening a new one if tracing is enabled.
+     */
+    public void reload() {
+        stop();
+        start();
+    }
+
+    // Getters for recorder state
+    public long getRecorded() { return recorded; }
+    public long getDropped() { return dropped; }
+}
\ No newline at end of file
@@ -0,0 +1,378 @@
+package com.excrele.ehml;
+
+import org.bukkit.World;
+import org.bukkit.block.CreatureSpawner;
+import org.bukkit.entity.Entity;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.CreatureSpawnEvent;
+import org.bukkit.event.entity.EntityRemoveEvent;
+import org.bukkit.event.entity.SpawnerSpawnEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Module for throttling individual spawner blocks, so a grinder of stacked spawners is limited
+ * at its source instead of using up the limits shared with natural spawns.
+ * Each spawner has a token bucket refilled at the configured rate and a cap on living mobs
+ * spawned by it. Spawners are tracked per world in lists bucketed by chunk, identified by their
+ * packed block position, and dropped when their chunk unloads.
+ * The spawner of a spawn is taken from the {@link SpawnerSpawnEvent} that precedes its creature
+ * spawn event, and spawns are checked as a {@link SpawnRule} of the {@link SpawnDecisionPipeline}.
+ */
+public class SpawnerLimitModule implements Listener, SpawnRule {
+
+    /** Rejection code of spawns from a spawner with too many living mobs. */
+    public static final int LIVING_LIMIT = 0;
+
+    /** Rejection code of spawns from a spawner over its spawn rate. */
+    public static final int RATE_LIMIT = 1;
+
+    private static final List<String> REJECTION_REASONS = List.of("spawner living cap reached",
+            "spawner spawn rate exceeded");
+
+    private final ConfigManager configManager;
+    private final Map<UUID, LongObjectMap<List<Spawner>>> worldChunks;
+    private final Map<UUID, Spawner> charges;
+    private Entity sourceEntity;
+    private Spawner sourceSpawner;
+    private CreatureSpawnEvent checkedEvent;
+
+    /**
+     * A tracked spawner block with its token bucket, living mobs and spawn counts.
+     */
+    public static final class Spawner {
+        private final World world;
+        private final long key;
+        private final int x;
+        private final int y;
+        private final int z;
+        private final long firstSeen;
+        private double tokens;
+        private long lastRefill;
+        private int living;
+        private long spawns;
+        private long cancels;
+
+        /**
+         * Initializes a spawner with a full token bucket.
+         * @param world The world of the spawner.
+         * @param x The block X coordinate.
+         * @param y The block Y coordinate.
+         * @param z The block Z coordinate.
+         * @param burst The bucket size.
+         * @param now The current time in milliseconds.
+         */
+        private Spawner(World world, int x, int y, int z, int burst, long now) {
+            this.world = world;
+            this.key = CoordinateKeys.packBlock(x, y, z);
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.firstSeen = now;
+            this.tokens = burst;
+            this.lastRefill = now;
+        }
+
+        /**
+         * Gets the spawn rate since the spawner was first seen.
+         * @param now The current time in milliseconds.
+         * @return The allowed spawns per minute.
+         */
+        public double getSpawnsPerMinute(long now) {
+            return spawns * 60000.0 / Math.max(60000, now - firstSeen);
+        }
+
+        /**
+         * Gets the fraction of spawn attempts that were cancelled.
+         * @return The cancel rate from 0.0 to 1.0.
+         */
+        public double getCancelRate() {
+            long attempts = spawns + cancels;
+            return attempts == 0 ? 0 : (double) cancels / attempts;
+        }
+
+        // Getters for spawner state
+        public World getWorld() { return world; }
+        public int getX() { return x; }
+        public int getY() { return y; }
+        public int getZ() { return z; }
+        public long getFirstSeen() { return firstSeen; }
+        public double getTokens() { return tokens; }
+        public long getLastRefill() { return lastRefill; }
+        public int getLiving() { return living; }
+        public long getSpawns() { return spawns; }
+        public long getCancels() { return cancels; }
+    }
+
+    /**
+     * Initializes the spawner limit module.
+     * @param configManager The configuration manager providing settings.
+     */
+    public SpawnerLimitModule(ConfigManager configManager) {
+        this.configManager = configManager;
+        this.worldChunks = new HashMap<>();
+        this.charges = new HashMap<>();
+    }
+
+    /**
+     * Gets the name of the rule.
+     * @return The rule name.
+     */
+    @Override
+    public String getName() {
+        return "SpawnerLimit";
+    }
+
+    /**
+     * Checks if spawner limits are enabled.
+     * @param config The configuration snapshot.
+     * @return True if spawner limits are enabled.
+     */
+    @Override
+    public boolean isEnabled(ConfigSnapshot config) {
+        return config.isSpawnerLimitsEnabled();
+    }
+
+    /**
+     * Checks a spawner spawn against its spawner's token bucket and living cap.
+     * @param context The classified spawn.
+     * @return True if the spawn is not from a known spawner or the spawner is within its limits.
+     */
+    @Override
+    public boolean allows(SpawnContext context) {
+        checkedEvent = null;
+        CreatureSpawnEvent event = context.getEvent();
+        if (event.getSpawnReason() != CreatureSpawnEvent.SpawnReason.SPAWNER || event.getEntity() != sourceEntity) {
+            return true;
+        }
+        Spawner spawner = sourceSpawner;
+        ConfigSnapshot config = context.getConfig();
+        long now = System.currentTimeMillis();
+        spawner.tokens = Math.min(config.getSpawnerBurst(),
+                spawner.tokens + (now - spawner.lastRefill) * config.getSpawnerRatePerMinute() / 60000.0);
+        spawner.lastRefill = now;
+        if (spawner.tokens < 1 || spawner.living >= config.getSpawnerMaxLiving()) {
+            spawner.cancels++;
+            return false;
+        }
+        checkedEvent = event;
+        return true;
+    }
+
+    /**
+     * Tells which spawner limit rejected a spawn.
+     * @param context The classified spawn.
+     * @return {@link #LIVING_LIMIT} or {@link #RATE_LIMIT}.
+     */
+    @Override
+    public int getRejectionCode(SpawnContext context) {
+        return sourceSpawner.living >= context.getConfig().getSpawnerMaxLiving() ? LIVING_LIMIT : RATE_LIMIT;
+    }
+
+    /**
+     * Gets the descriptions of the rejection codes.
+     * @return The rejection reasons.
+     */
+    @Override
+    public List<String> getRejectionReasons() {
+        return REJECTION_REASONS;
+    }
+
+    /**
+     * Records the spawner block of an upcoming spawner spawn.
+     * @param event The spawner spawn event.
+     */
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onSpawnerSpawn(SpawnerSpawnEvent event) {
+        sourceEntity = null;
+        sourceSpawner = null;
+        CreatureSpawner block = event.getSpawner();
+        if (block == null || !configManager.getSnapshot().isSpawnerLimitsEnabled()) {
+            return; // Spawner minecarts have no block
+        }
+        sourceEntity = event.getEntity();
+        sourceSpawner = getSpawner(block.getWorld(), block.getX(), block.getY(), block.getZ());
+    }
+
+    /**
+     * Charges a spawn that passed every rule to its spawner.
+     * @param event The creature spawn event.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onCreatureSpawn(CreatureSpawnEvent event) {
+        if (event != checkedEvent) {
+            return;
+        }
+        Spawner spawner = sourceSpawner;
+        spawner.tokens -= 1;
+        spawner.living++;
+        spawner.spawns++;
+        charges.put(event.getEntity().getUniqueId(), spawner);
+        checkedEvent = null;
+        sourceEntity = null;
+    }
+
+    /**
+     * Returns the living slot of a spawned mob that was removed or unloaded.
+     * @param event The entity remove event.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntityRemove(EntityRemoveEvent event) {
+        if (charges.isEmpty()) {
+            return;
+        }
+        Spawner spawner = charges.remove(event.getEntity().getUniqueId());
+        if (spawner != null && spawner.living > 0) {
+            spawner.living--;
+        }
+    }
+
+    /**
+     * Drops the spawners of an unloading chunk.
+     * @param event The chunk unload event.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        LongObjectMap<List<Spawner>> chunks = worldChunks.get(event.getWorld().getUID());
+        if (chunks != null) {
+            chunks.remove(CoordinateKeys.pack(event.getChunk().getX(), event.getChunk().getZ()));
+        }
+    }
+
+    /**
+     * Drops the spawners of an unloading world.
+     * @param event The world unload event.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        worldChunks.remove(event.getWorld().getUID());
+    }
+
+    /**
+     * Gets the tracked spawner at a block, creating it if needed.
+     * @param world The world of the spawner.
+     * @param x The block X coordinate.
+     * @param y The block Y coordinate.
+     * @param z The block Z coordinate.
+     * @return The tracked spawner.
+     */
+    private Spawner getSpawner(World world, int x, int y, int z) {
+        List<Spawner> spawners = getChunkSpawners(world, x, z);
+        long key = CoordinateKeys.packBlock(x, y, z);
+        for (int i = 0; i < spawners.size(); i++) {
+            if (spawners.get(i).key == key) {
+                return spawners.get(i);
+            }
+        }
+        Spawner spawner = new Spawner(world, x, y, z, configManager.getSnapshot().getSpawnerBurst(),
+                System.currentTimeMillis());
+        spawners.add(spawner);
+        return spawner;
+    }
+
+    /**
+     * Gets the list of tracked spawners in the chunk of a block, creating it if needed.
+     * @param world The world of the chunk.
+     * @param x The block X coordinate.
+     * @param z The block Z coordinate.
+     * @return The spawners of the chunk.
+     */
+    private List<Spawner> getChunkSpawners(World world, int x, int z) {
+        LongObjectMap<List<Spawner>> chunks = worldChunks.computeIfAbsent(world.getUID(), uid -> new LongObjectMap<>(64));
+        long chunkKey = CoordinateKeys.pack(CoordinateKeys.toChunk(x), CoordinateKeys.toChunk(z));
+        List<Spawner> spawners = chunks.get(chunkKey);
+        if (spawners == null) {
+            spawners = new ArrayList<>(2);
+            chunks.put(chunkKey, spawners);
+        }
+        return spawners;
+    }
+
+    /**
+     * Restores a spawner saved by a previous run, replacing any spawner tracked at its block.
+     * The living count starts at zero and is rebuilt by {@link #restoreCharge(UUID, Spawner)}.
+     * @param world The world of the spawner.
+     * @param x The block X coordinate.
+     * @param y The block Y coordinate.
+     * @param z The block Z coordinate.
+     * @param firstSeen The time the spawner was first seen in milliseconds.
+     * @param tokens The tokens left in the bucket.
+     * @param lastRefill The time of the last refill in milliseconds.
+     * @param spawns The allowed spawns.
+     * @param cancels The cancelled spawns.
+     * @return The restored spawner.
+     */
+    public Spawner restoreSpawner(World world, int x, int y, int z, long firstSeen, double tokens, long lastRefill,
+                                  long spawns, long cancels) {
+        List<Spawner> spawners = getChunkSpawners(world, x, z);
+        long key = CoordinateKeys.packBlock(x, y, z);
+        spawners.removeIf(spawner -> spawner.key == key);
+        Spawner spawner = new Spawner(world, x, y, z, 0, firstSeen);
+        spawner.tokens = Math.min(tokens, configManager.getSnapshot().getSpawnerBurst());
+        spawner.lastRefill = lastRefill;
+        spawner.spawns = spawns;
+        spawner.cancels = cancels;
+        spawners.add(spawner);
+        return spawner;
+    }
+
+    /**
+     * Charges a loaded mob to a restored spawner, counting it as living.
+     * @param entity The UUID of the mob.
+     * @param spawner The spawner that spawned it.
+     */
+    public void restoreCharge(UUID entity, Spawner spawner) {
+        if (charges.putIfAbsent(entity, spawner) == null) {
+            spawner.living++;
+        }
+    }
+
+    /**
+     * Gets all tracked spawners.
+     * @return The spawners, in no particular order.
+     */
+    public List<Spawner> getSpawners() {
+        List<Spawner> all = new ArrayList<>();
+        for (LongObjectMap<List<Spawner>> chunks : worldChunks.values()) {
+            chunks.forEachValue(all::addAll);
+        }
+        return all;
+    }
+
+    /**
+     * Gets the spawner each living spawned mob is charged to.
+     * @return The charges keyed by mob UUID; not to be modified.
+     */
+    public Map<UUID, Spawner> getCharges() {
+        return charges;
+    }
+
+    /**
+     * Gets the tracked spawners with the highest spawn rates.
+     * @param limit The maximum number of spawners to return.
+     * @return The busiest spawners, busiest first.
+     */
+    public List<Spawner> getBusiestSpawners(int limit) {
+        List<Spawner> all = getSpawners();
+        long now = System.currentTimeMillis();
+        all.sort((a, b) -> Double.compare(b.getSpawnsPerMinute(now), a.getSpawnsPerMinute(now)));
+        return all.size() > limit ? new ArrayList<>(all.subList(0, limit)) : all;
+    }
+
+    /**
+     * Reloads the module, dropping all tracked spawners if spawner limits were disabled.
+     */
+    public void reload() {
+        if (!configManager.getSnapshot().isSpawnerLimitsEnabled()) {
+            worldChunks.clear();
+            charges.clear();
+        }
+    }
+}
\ No newline at end of file
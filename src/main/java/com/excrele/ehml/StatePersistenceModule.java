@@ -0,0 +1,519 @@
+package com.excrele.ehml;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Module saving live spawn state to a compact binary file so a restart starts warm.
+ * The file holds the hostile mob counts of every loaded chunk by entity type, the low-health chunk
+ * cooldowns and the token buckets of tracked spawners with the mobs charged to them. It is written
+ * periodically by a low-priority unit of the {@link WorkScheduler}, which walks the entities over as
+ * many ticks as needed, and once more when the plugin is disabled; files are replaced atomically.
+ * On startup the file is memory-mapped and checked against its magic, version, entity type count,
+ * age and CRC32 checksum. Saved records are only applied to chunks whose entities are loaded at that
+ * moment; chunks loaded later are counted by the {@link MobCounterModule} as they load, and seeded
+ * worlds are recounted in the background to correct anything that changed while the server was down.
+ * File layout: a header of magic, version, entity type count, save time, body length and body CRC32,
+ * followed by the chunk counts of each world, the cooldowns, the spawners and the spawner charges.
+ */
+public class StatePersistenceModule {
+
+    private static final long MAGIC = 0x45484D4C53544154L; // "EHMLSTAT"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int TYPE_COUNT = EntityType.values().length;
+    private static final String FILE_NAME = "state.bin";
+
+    private final JavaPlugin plugin;
+    private final ConfigManager configManager;
+    private final WorkScheduler workScheduler;
+    private final MobCounterModule mobCounter;
+    private final SpawnerLimitModule spawnerLimit;
+    private final LowHealthDelayModule lowHealthDelay;
+    private final Logger logger;
+    private final Object writeLock;
+    private BukkitTask saveTask;
+    private boolean saving;
+
+    /**
+     * Initializes the state persistence module.
+     * @param plugin The main plugin instance for the data folder and scheduling.
+     * @param configManager The configuration manager providing settings.
+     * @param workScheduler The shared scheduler that runs periodic saves.
+     * @param mobCounter The hostile mob counter to seed.
+     * @param spawnerLimit The spawner limit module whose buckets are saved.
+     * @param lowHealthDelay The low-health delay module whose cooldowns are saved.
+     */
+    public StatePersistenceModule(JavaPlugin plugin, ConfigManager configManager, WorkScheduler workScheduler,
+                                  MobCounterModule mobCounter, SpawnerLimitModule spawnerLimit,
+                                  LowHealthDelayModule lowHealthDelay) {
+        this.plugin = plugin;
+        this.configManager = configManager;
+        this.workScheduler = workScheduler;
+        this.mobCounter = mobCounter;
+        this.spawnerLimit = spawnerLimit;
+        this.lowHealthDelay = lowHealthDelay;
+        this.logger = Logger.getLogger("EHML");
+        this.writeLock = new Object();
+    }
+
+    /**
+     * Restores the saved state if the file is present, intact and recent enough.
+     * Must run before the modules it restores are started.
+     */
+    public void load() {
+        ConfigSnapshot config = configManager.getSnapshot();
+        File file = getFile();
+        if (!config.isStatePersistenceEnabled() || !file.isFile()) {
+            return;
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            String problem = verify(buffer, config.getStateMaxAgeMillis());
+            if (problem != null) {
+                logger.warning("Ignoring saved state " + file + ": " + problem);
+                return;
+            }
+            buffer.position(HEADER_SIZE);
+            int chunks = readCounts(buffer);
+            int cooldowns = readCooldowns(buffer);
+            int spawners = readSpawners(buffer);
+            logger.info("Restored saved state: " + chunks + " chunks, " + cooldowns + " cooldowns, " +
+                    spawners + " spawners.");
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException e) {
+            logger.warning("Failed to read saved state " + file + ": " + e);
+        }
+    }
+
+    /**
+     * Checks the header and checksum of a mapped state file.
+     * @param buffer The mapped file.
+     * @param maxAge The maximum age of the saved state in milliseconds.
+     * @return A description of the problem, or null if the file can be used.
+     */
+    private static String verify(ByteBuffer buffer, long maxAge) {
+        if (buffer.limit() < HEADER_SIZE || buffer.getLong(0) != MAGIC) {
+            return "not a state file";
+        }
+        if (buffer.getInt(8) != VERSION) {
+            return "unsupported version " + buffer.getInt(8);
+        }
+        if (buffer.getInt(12) != TYPE_COUNT) {
+            return "saved by a server with different entity types";
+        }
+        long age = System.currentTimeMillis() - buffer.getLong(16);
+        if (age < 0 || age > maxAge) {
+            return "saved " + age / 1000 + "s ago, older than state-max-age";
+        }
+        int length = buffer.getInt(24);
+        if (length < 0 || length != buffer.limit() - HEADER_SIZE) {
+            return "truncated";
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().position(HEADER_SIZE));
+        if ((int) crc.getValue() != buffer.getInt(28)) {
+            return "checksum mismatch";
+        }
+        return null;
+    }
+
+    /**
+     * Seeds the hostile mob counter from the saved chunk counts of chunks whose entities are loaded.
+     * @param buffer The mapped file, positioned at the counts.
+     * @return The number of chunks applied.
+     */
+    private int readCounts(ByteBuffer buffer) {
+        int applied = 0;
+        int worlds = buffer.getInt();
+        for (int w = 0; w < worlds; w++) {
+            World world = plugin.getServer().getWorld(new UUID(buffer.getLong(), buffer.getLong()));
+            int records = buffer.getInt();
+            int[] counts = new int[TYPE_COUNT];
+            long lastChunk = Long.MIN_VALUE;
+            boolean loaded = false;
+            int worldApplied = 0;
+            for (int r = 0; r < records; r++) {
+                long key = buffer.getLong();
+                int count = buffer.getInt();
+                if (world == null) {
+                    continue; // World not loaded; skip its records
+                }
+                long chunk = key >>> 8;
+                if (chunk != lastChunk) {
+                    lastChunk = chunk;
+                    int chunkX = chunkX(key);
+                    int chunkZ = chunkZ(key);
+                    loaded = world.isChunkLoaded(chunkX, chunkZ) && world.getChunkAt(chunkX, chunkZ).isEntitiesLoaded();
+                    if (loaded) {
+                        worldApplied++;
+                    }
+                }
+                if (loaded) {
+                    counts[(int) (key & 0xFF)] += count;
+                }
+            }
+            if (worldApplied > 0) {
+                mobCounter.seed(world, counts);
+                applied += worldApplied;
+            }
+        }
+        return applied;
+    }
+
+    /**
+     * Restores the saved low-health chunk cooldowns of loaded worlds.
+     * @param buffer The mapped file, positioned at the cooldowns.
+     * @return The number of cooldowns restored.
+     */
+    private int readCooldowns(ByteBuffer buffer) {
+        int restored = 0;
+        int entries = buffer.getInt();
+        for (int i = 0; i < entries; i++) {
+            World world = plugin.getServer().getWorld(new UUID(buffer.getLong(), buffer.getLong()));
+            int chunkX = buffer.getInt();
+            int chunkZ = buffer.getInt();
+            long time = buffer.getLong();
+            if (world != null) {
+                lowHealthDelay.restoreCooldown(world, chunkX, chunkZ, time);
+                restored++;
+            }
+        }
+        return restored;
+    }
+
+    /**
+     * Restores the saved spawners of loaded chunks and the loaded mobs charged to them.
+     * @param buffer The mapped file, positioned at the spawners.
+     * @return The number of spawners restored.
+     */
+    private int readSpawners(ByteBuffer buffer) {
+        int entries = buffer.getInt();
+        SpawnerLimitModule.Spawner[] restored = new SpawnerLimitModule.Spawner[entries];
+        int count = 0;
+        for (int i = 0; i < entries; i++) {
+            World world = plugin.getServer().getWorld(new UUID(buffer.getLong(), buffer.getLong()));
+            int x = buffer.getInt();
+            int y = buffer.getInt();
+            int z = buffer.getInt();
+            long firstSeen = buffer.getLong();
+            double tokens = buffer.getDouble();
+            long lastRefill = buffer.getLong();
+            long spawns = buffer.getLong();
+            long cancels = buffer.getLong();
+            if (world != null && world.isChunkLoaded(x >> 4, z >> 4)) {
+                restored[i] = spawnerLimit.restoreSpawner(world, x, y, z, firstSeen, tokens, lastRefill, spawns, cancels);
+                count++;
+            }
+        }
+        int charges = buffer.getInt();
+        for (int i = 0; i < charges; i++) {
+            UUID entity = new UUID(buffer.getLong(), buffer.getLong());
+            int index = buffer.getInt();
+            if (index >= 0 && index < entries && restored[index] != null && plugin.getServer().getEntity(entity) != null) {
+                spawnerLimit.restoreCharge(entity, restored[index]);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Starts the periodic save task if persistence is enabled and a save interval is configured.
+     */
+    public void start() {
+        ConfigSnapshot config = configManager.getSnapshot();
+        if (!config.isStatePersistenceEnabled() || config.getStateSaveInterval() == 0) {
+            return;
+        }
+        long interval = config.getStateSaveInterval() * 20L;
+        saveTask = plugin.getServer().getScheduler().runTaskTimer(plugin, this::requestSave, interval, interval);
+    }
+
+    /**
+     * Cancels the periodic save task.
+     */
+    public void stop() {
+        if (saveTask != null) {
+            saveTask.cancel();
+            saveTask = null;
+        }
+    }
+
+    /**
+     * Saves the state on the calling tick and writes it before returning. Used when the plugin is disabled.
+     */
+    public void saveNow() {
+        if (!configManager.getSnapshot().isStatePersistenceEnabled()) {
+            return;
+        }
+        SaveWork work = new SaveWork();
+        work.run(Long.MAX_VALUE);
+        write(work.bytes);
+    }
+
+    /**
+     * Queues a low-priority save unless one is already queued or running.
+     */
+    private void requestSave() {
+        if (saving) {
+            return;
+        }
+        saving = true;
+        workScheduler.submit("Save state", WorkPriority.LOW, new SaveWork());
+    }
+
+    /**
+     * Counts the hostile mobs of every loaded world by chunk and type over as many slices as needed,
+     * then encodes them with the cooldowns and spawners and writes the file off the main thread.
+     */
+    private final class SaveWork implements WorkUnit {
+
+        private final List<World> worlds;
+        private final List<LongIntMap> chunkCounts;
+        private final Location scratch;
+        private List<Entity> entities;
+        private LongIntMap counts;
+        private int worldIndex;
+        private int index;
+        private byte[] bytes;
+
+        /**
+         * Initializes a save of the currently loaded worlds.
+         */
+        private SaveWork() {
+            this.worlds = new ArrayList<>(plugin.getServer().getWorlds());
+            this.chunkCounts = new ArrayList<>(worlds.size());
+            this.scratch = new Location(null, 0, 0, 0);
+        }
+
+        /**
+         * Counts entities until the deadline or the last world, then encodes and writes the state.
+         * @param deadline The {@link System#nanoTime()} deadline of the slice.
+         * @return True if the save is finished.
+         */
+        @Override
+        public boolean run(long deadline) {
+            while (worldIndex < worlds.size()) {
+                if (entities == null) {
+                    entities = worlds.get(worldIndex).getEntities();
+                    counts = new LongIntMap(256);
+                    index = 0;
+                }
+                int size = entities.size();
+                while (index < size) {
+                    Entity entity = entities.get(index++);
+                    EntityType type = entity.getType();
+                    if (configManager.isHostileMob(type) && entity.isValid()) {
+                        entity.getLocation(scratch);
+                        counts.increment(chunkTypeKey(scratch.getBlockX() >> 4, scratch.getBlockZ() >> 4,
+                                type.ordinal()), 1);
+                    }
+                    if ((index & 255) == 0 && System.nanoTime() >= deadline) {
+                        return false;
+                    }
+                }
+                chunkCounts.add(counts);
+                entities = null;
+                worldIndex++;
+            }
+            try {
+                bytes = encode(worlds, chunkCounts);
+            } catch (IOException e) {
+                logger.warning("Failed to encode state: " + e.getMessage());
+                saving = false;
+                return true;
+            }
+            if (deadline != Long.MAX_VALUE) {
+                byte[] encoded = bytes;
+                plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> write(encoded));
+            }
+            saving = false;
+            return true;
+        }
+    }
+
+    /**
+     * Encodes the state file, header included.
+     * @param worlds The counted worlds.
+     * @param chunkCounts The hostile counts of each world keyed by chunk and type.
+     * @return The file contents.
+     * @throws IOException Never thrown by the in-memory stream.
+     */
+    private byte[] encode(List<World> worlds, List<LongIntMap> chunkCounts) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(4096);
+        DataOutputStream out = new DataOutputStream(body);
+        out.writeInt(worlds.size());
+        for (int w = 0; w < worlds.size(); w++) {
+            LongIntMap counts = chunkCounts.get(w);
+            writeUuid(out, worlds.get(w).getUID());
+            out.writeInt(counts.size());
+            long[] keys = new long[counts.size()];
+            int[] next = new int[1];
+            counts.forEach((key, value) -> keys[next[0]++] = key);
+            Arrays.sort(keys); // Records of one chunk are adjacent
+            for (long key : keys) {
+                out.writeLong(key);
+                out.writeInt(counts.get(key, 0));
+            }
+        }
+
+        ByteArrayOutputStream cooldownBody = new ByteArrayOutputStream(1024);
+        DataOutputStream cooldownOut = new DataOutputStream(cooldownBody);
+        int[] cooldowns = new int[1];
+        lowHealthDelay.forEachCooldown((world, chunkX, chunkZ, time) -> {
+            try {
+                writeUuid(cooldownOut, world.getUID());
+                cooldownOut.writeInt(chunkX);
+                cooldownOut.writeInt(chunkZ);
+                cooldownOut.writeLong(time);
+                cooldowns[0]++;
+            } catch (IOException e) {
+                throw new IllegalStateException(e); // In-memory stream does not fail
+            }
+        });
+        out.writeInt(cooldowns[0]);
+        cooldownBody.writeTo(out);
+
+        List<SpawnerLimitModule.Spawner> spawners = spawnerLimit.getSpawners();
+        Map<SpawnerLimitModule.Spawner, Integer> indexes = new IdentityHashMap<>();
+        out.writeInt(spawners.size());
+        for (SpawnerLimitModule.Spawner spawner : spawners) {
+            indexes.put(spawner, indexes.size());
+            writeUuid(out, spawner.getWorld().getUID());
+            out.writeInt(spawner.getX());
+            out.writeInt(spawner.getY());
+            out.writeInt(spawner.getZ());
+            out.writeLong(spawner.getFirstSeen());
+            out.writeDouble(spawner.getTokens());
+            out.writeLong(spawner.getLastRefill());
+            out.writeLong(spawner.getSpawns());
+            out.writeLong(spawner.getCancels());
+        }
+        List<Map.Entry<UUID, SpawnerLimitModule.Spawner>> charges = new ArrayList<>();
+        for (Map.Entry<UUID, SpawnerLimitModule.Spawner> charge : spawnerLimit.getCharges().entrySet()) {
+            if (indexes.containsKey(charge.getValue())) {
+                charges.add(charge); // Spawners of unloaded chunks are no longer tracked
+            }
+        }
+        out.writeInt(charges.size());
+        for (Map.Entry<UUID, SpawnerLimitModule.Spawner> charge : charges) {
+            writeUuid(out, charge.getKey());
+            out.writeInt(indexes.get(charge.getValue()));
+        }
+        out.flush();
+
+        byte[] bodyBytes = body.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(bodyBytes);
+        ByteBuffer file = ByteBuffer.allocate(HEADER_SIZE + bodyBytes.length);
+        file.putLong(MAGIC).putInt(VERSION).putInt(TYPE_COUNT).putLong(System.currentTimeMillis())
+                .putInt(bodyBytes.length).putInt((int) crc.getValue()).put(bodyBytes);
+        return file.array();
+    }
+
+    /**
+     * Writes the state file through a temporary file that replaces it atomically where supported.
+     * Safe to call off the main thread.
+     * @param bytes The file contents.
+     */
+    private void write(byte[] bytes) {
+        if (bytes == null) {
+            return;
+        }
+        synchronized (writeLock) {
+            Path target = getFile().toPath();
+            Path temp = target.resolveSibling(FILE_NAME + ".tmp");
+            try {
+                Files.createDirectories(target.getParent());
+                Files.write(temp, bytes);
+                try {
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } catch (IOException e) {
+                logger.warning("Failed to save state to " + target + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Writes a UUID as two longs.
+     * @param out The output stream.
+     * @param uuid The UUID.
+     * @throws IOException If the stream fails.
+     */
+    private static void writeUuid(DataOutputStream out, UUID uuid) throws IOException {
+        out.writeLong(uuid.getMostSignificantBits());
+        out.writeLong(uuid.getLeastSignificantBits());
+    }
+
+    /**
+     * Packs chunk coordinates and an entity type ordinal into a key sorted by chunk first.
+     * @param chunkX The chunk X coordinate.
+     * @param chunkZ The chunk Z coordinate.
+     * @param ordinal The entity type ordinal, below 256.
+     * @return The packed key.
+     */
+    static long chunkTypeKey(int chunkX, int chunkZ, int ordinal) {
+        return ((chunkX & 0x7FFFFFFL) << 35) | ((chunkZ & 0x7FFFFFFL) << 8) | ordinal;
+    }
+
+    /**
+     * Extracts the chunk X coordinate from a key packed by {@link #chunkTypeKey(int, int, int)}.
+     * @param key The packed key.
+     * @return The chunk X coordinate.
+     */
+    static int chunkX(long key) {
+        return (int) (key << 2 >> 37);
+    }
+
+    /**
+     * Extracts the chunk Z coordinate from a key packed by {@link #chunkTypeKey(int, int, int)}.
+     * @param key The packed key.
+     * @return The chunk Z coordinate.
+     */
+    static int chunkZ(long key) {
+        return (int) (key << 29 >> 37);
+    }
+
+    /**
+     * Gets the state file in the plugin's data folder.
+     * @return The state file.
+     */
+    private File getFile() {
+        return new File(plugin.getDataFolder(), FILE_NAME);
+    }
+
+    /**
+     * Reloads the module, rescheduling periodic saves with the current settings.
+     */
+    public void reload() {
+        stop();
+        start();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,531 @@
+package com.excrele.ehml;
+
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.EntityType;
+import java.io.File;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.logging.Logger;
+
+/**
+ * Command-line replay of a spawn trace recorded by the {@link SpawnTraceRecorder} against another
+ * configuration. Every recorded spawn is decided again by the rules of the trace, in pipeline order,
+ * using the recorded counts and player state with the new settings, and compared with the recorded
+ * decision; death cleanups are re-evaluated against the new threshold and percentage. Reports the
+ * changed decisions, the hostile count over time and the cost of the replayed decisions.
+ * <p>
+ * Spawns the new settings allow but were cancelled (and the reverse) are added to (or removed from)
+ * the recorded counts of later decisions for the configured mob lifetime. Hostile and type counts are
+ * those of the spawn's recorded limit pool, and each world is checked against the limits of its
+ * profile in the new settings, resolved by world name. Spawner limits and the
+ * host budget are replayed as recorded (spawner limits are dropped if disabled), and region counts are those of the recorded region size.
+ * The low-health cancel chance is drawn again, so decisions it changes are reported separately as random.
+ * Runs outside the server; the Bukkit API must be on the class path, as in the benchmarks jar.
+ */
+public final class TraceReplayTool {
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")
+            .withZone(ZoneId.systemDefault());
+
+    private File configFile;
+    private File traceFile;
+    private long bucketMillis = 60_000L;
+    private long lifetimeMillis = 300_000L;
+    private int show = 20;
+
+    private ConfigSnapshot config;
+    private String[] rules;
+    private EntityType[] types;
+    private int[][] worldLimits;
+    private int[] recordedCancels;
+    private int[] replayedCancels;
+    private final Map<String, int[]> typeChanges = new LinkedHashMap<>();
+    private final List<String> examples = new ArrayList<>();
+    private final ArrayDeque<long[]> adjustments = new ArrayDeque<>();
+    private final LongIntMap chunkOffsets = new LongIntMap(1024);
+    private int[][] poolOffsets;
+    private ChunkCooldownMap cooldowns;
+    private long lastEviction;
+    private final Random random = new Random(42);
+    private int lowHealthRule;
+    private boolean chanceDrawn;
+
+    private long spawns;
+    private long recordedAllowed;
+    private long replayedAllowed;
+    private long toCancelled;
+    private long toAllowed;
+    private long otherRule;
+    private long randomToAllowed;
+    private long randomToCancelled;
+    private long evaluationNanos;
+    private long deaths;
+    private long recordedCleanups;
+    private long recordedRemoved;
+    private long replayedCleanups;
+    private long replayedRemoved;
+
+    private long bucketStart = Long.MIN_VALUE;
+    private long bucketSpawns;
+    private long bucketRecordedAllowed;
+    private long bucketReplayedAllowed;
+    private int bucketRecordedMax;
+    private int bucketReplayedMax;
+
+    private TraceReplayTool() {
+    }
+
+    /**
+     * Runs a trace replay from command-line arguments.
+     * @param args The command-line arguments.
+     */
+    public static void main(String[] args) {
+        TraceReplayTool tool = new TraceReplayTool();
+        try {
+            if (!tool.parseArguments(args)) {
+                printUsage();
+                System.exit(1);
+                return;
+            }
+            tool.run();
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            printUsage();
+            System.exit(1);
+        } catch (IOException e) {
+            System.err.println("Failed to replay trace: " + e.getMessage());
+            System.exit(2);
+        }
+    }
+
+    /**
+     * Prints the command-line usage.
+     */
+    private static void printUsage() {
+        System.err.println("Usage: java -cp benchmarks.jar com.excrele.ehml.TraceReplayTool --config <config.yml>");
+        System.err.println("           [--bucket <seconds>] [--lifetime <seconds>] [--show <count>] <trace file>");
+    }
+
+    /**
+     * Parses command-line arguments.
+     * @param args The command-line arguments.
+     * @return True if the arguments were valid.
+     */
+    private boolean parseArguments(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if (!option.startsWith("--")) {
+                traceFile = new File(option);
+                continue;
+            }
+            if (i + 1 >= args.length) {
+                return false;
+            }
+            String value = args[++i];
+            switch (option) {
+                case "--config" -> configFile = new File(value);
+                case "--bucket" -> bucketMillis = parsePositive(option, value) * 1000L;
+                case "--lifetime" -> lifetimeMillis = parsePositive(option, value) * 1000L;
+                case "--show" -> show = parsePositive(option, value);
+                default -> {
+                    return false;
+                }
+            }
+        }
+        return configFile != null && traceFile != null;
+    }
+
+    /**
+     * Parses a positive integer argument.
+     * @param option The option name.
+     * @param value The argument.
+     * @return The parsed value.
+     */
+    private static int parsePositive(String option, String value) {
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed > 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("Invalid " + option + ": " + value);
+    }
+
+    /**
+     * Replays the trace and prints the report.
+     * @throws IOException If a file cannot be read.
+     */
+    private void run() throws IOException {
+        if (!configFile.isFile()) {
+            throw new IOException("No such config file: " + configFile);
+        }
+        config = new ConfigSnapshot(YamlConfiguration.loadConfiguration(configFile), Logger.getLogger("EHML"));
+        cooldowns = new ChunkCooldownMap(config.getSpawnDelayMaxChunks());
+        try (SpawnTrace.Reader reader = new SpawnTrace.Reader(traceFile)) {
+            prepare(reader);
+            System.out.println("Replaying " + traceFile + " against " + configFile);
+            System.out.println("Hostile count over time (recorded / replayed estimate):");
+            System.out.printf("  %-19s %8s %17s %17s%n", "Bucket start", "Spawns", "Allowed", "Max hostiles");
+            SpawnTrace.Record record = new SpawnTrace.Record();
+            while (reader.next(record)) {
+                if (record.getKind() == SpawnTrace.DEATH) {
+                    replayDeath(record);
+                } else {
+                    replaySpawn(reader, record);
+                }
+            }
+            printBucket();
+        }
+        printSummary();
+    }
+
+    /**
+     * Resolves the trace's name tables against this server version and the new settings.
+     * @param reader The trace reader.
+     */
+    private void prepare(SpawnTrace.Reader reader) {
+        rules = reader.getRules();
+        lowHealthRule = Arrays.asList(rules).indexOf("LowHealthDelay") + 1;
+        recordedCancels = new int[rules.length];
+        replayedCancels = new int[rules.length];
+        String[] typeNames = reader.getTypes();
+        types = new EntityType[typeNames.length];
+        for (int i = 0; i < typeNames.length; i++) {
+            try {
+                types[i] = EntityType.valueOf(typeNames[i]);
+            } catch (IllegalArgumentException e) {
+                types[i] = null; // Type removed in this version; never limited
+            }
+        }
+        worldLimits = new int[0][];
+        poolOffsets = new int[1][types.length + 1];
+    }
+
+    /**
+     * Decides a recorded spawn again and records the outcome.
+     * @param reader The trace reader, for names.
+     * @param record The spawn record.
+     */
+    private void replaySpawn(SpawnTrace.Reader reader, SpawnTrace.Record record) {
+        long time = record.getTime();
+        expireAdjustments(time);
+        long start = System.nanoTime();
+        chanceDrawn = false;
+        int decision = decide(reader, record);
+        evaluationNanos += System.nanoTime() - start;
+
+        int recorded = record.getDecision();
+        spawns++;
+        if (recorded == 0) {
+            recordedAllowed++;
+        } else if (recorded <= rules.length) {
+            recordedCancels[recorded - 1]++;
+        }
+        if (decision == 0) {
+            replayedAllowed++;
+        } else {
+            replayedCancels[decision - 1]++;
+        }
+        if ((recorded == 0) != (decision == 0)) {
+            int delta = decision == 0 ? 1 : -1;
+            adjust(record, delta, time + lifetimeMillis);
+            if (chanceDrawn && lowHealthRule > 0 && (recorded == lowHealthRule || decision == lowHealthRule)) {
+                // Only the recorded draw is known, not the recorded chance; report the difference as random
+                if (delta > 0) {
+                    randomToAllowed++;
+                } else {
+                    randomToCancelled++;
+                }
+            } else {
+                if (delta > 0) {
+                    toAllowed++;
+                } else {
+                    toCancelled++;
+                }
+                String type = reader.getTypes()[record.getType()];
+                typeChanges.computeIfAbsent(type, key -> new int[2])[delta > 0 ? 0 : 1]++;
+                if (examples.size() < show) {
+                    examples.add(TIME_FORMAT.format(Instant.ofEpochMilli(time)) + " " + reader.getWorldName(record.getWorld()) +
+                            " " + record.getX() + "," + record.getY() + "," + record.getZ() + " " + type + ": " +
+                            describe(recorded) + " -> " + describe(decision));
+                }
+            }
+        } else if (recorded != decision) {
+            otherRule++;
+        }
+
+        if (bucketStart == Long.MIN_VALUE || time - bucketStart >= bucketMillis) {
+            printBucket();
+            bucketStart = time - Math.floorMod(time, bucketMillis);
+        }
+        bucketSpawns++;
+        bucketRecordedAllowed += recorded == 0 ? 1 : 0;
+        bucketReplayedAllowed += decision == 0 ? 1 : 0;
+        bucketRecordedMax = Math.max(bucketRecordedMax, record.getHostileCount());
+        bucketReplayedMax = Math.max(bucketReplayedMax, record.getHostileCount() + offsetsOf(record.getProfile())[types.length]);
+    }
+
+    /**
+     * Runs the rules of the trace over a spawn record with the new settings, in pipeline order.
+     * @param reader The trace reader, for world names.
+     * @param record The spawn record.
+     * @return 0 if the spawn is allowed, otherwise the index of the rejecting rule plus one.
+     */
+    private int decide(SpawnTrace.Reader reader, SpawnTrace.Record record) {
+        int type = record.getType();
+        int[] limits = limitsOf(reader, record.getWorld());
+        int[] offsets = offsetsOf(record.getProfile());
+        for (int i = 0; i < rules.length; i++) {
+            boolean allowed = switch (rules[i]) {
+                case "SpawnerLimit" -> !config.isSpawnerLimitsEnabled() || record.getDecision() != i + 1;
+                case "GlobalLimit" -> !config.isGlobalLimitEnabled() || record.getHostileCount() + offsets[types.length] <
+                        AdaptiveLimitModule.scale(limits[types.length], record.getScale());
+                case "PerMobLimit" -> !config.isMobLimitsEnabled() || limits[type] == ConfigSnapshot.NO_LIMIT ||
+                        record.getTypeCount() + offsets[type] < AdaptiveLimitModule.scale(limits[type], record.getScale());
+                case "PlayerBudget" -> !config.isPlayerBudgetEnabled() || record.getPlayerDistance() < 0 ||
+                        record.getPlayerDistance() > config.getPlayerBudgetRadius() ||
+                        record.getPlayerCharged() < config.getPlayerHostileBudget();
+                case "DensityLimit" -> !config.isDensityLimitsEnabled() || allowsDensity(record);
+                case "LowHealthDelay" -> !config.isLowHealthDelayEnabled() || allowsLowHealth(record);
+                default -> record.getDecision() != i + 1; // Not replayable; keep the recorded decision
+            };
+            if (!allowed) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Checks a spawn against the chunk and region limits, adding replayed changes to the chunk count.
+     * @param record The spawn record.
+     * @return True if neither limit has been reached.
+     */
+    private boolean allowsDensity(SpawnTrace.Record record) {
+        if (record.getChunkCount() < 0) {
+            return true; // Not tracked when recorded
+        }
+        int chunkLimit = config.getChunkHostileLimit();
+        int chunkCount = record.getChunkCount() + chunkOffsets.get(chunkKey(record), 0);
+        if (chunkLimit > 0 && chunkCount >= chunkLimit) {
+            return false;
+        }
+        int regionLimit = config.getRegionHostileLimit();
+        return regionLimit <= 0 || record.getRegionCount() < regionLimit;
+    }
+
+    /**
+     * Applies the low-health delay to a spawn near a low-health player, using the replay's own cooldowns.
+     * The nearest recorded low-health player decides whether one is near; the nearest player is also
+     * checked, as it may count as low on health under a higher threshold.
+     * @param record The spawn record.
+     * @return True if no low-health player is near or the chunk is not cooling down.
+     */
+    private boolean allowsLowHealth(SpawnTrace.Record record) {
+        if (!isLowHealthNear(record.getLowHealthDistance(), record.getLowHealthPlayerHealth()) &&
+                !isLowHealthNear(record.getPlayerDistance(), record.getPlayerHealth())) {
+            return true;
+        }
+        long cooldown = config.getSpawnDelayCooldownMillis();
+        if (cooldown == 0) {
+            chanceDrawn = true;
+            return random.nextDouble() >= config.getSpawnDelayChance();
+        }
+        long time = record.getTime();
+        if (time - lastEviction >= 1000) {
+            cooldowns.evictBefore(time - cooldown);
+            lastEviction = time;
+        }
+        long key = chunkKey(record);
+        long lastSpawn = cooldowns.get(key);
+        if (lastSpawn >= 0 && time - lastSpawn < cooldown) {
+            return false;
+        }
+        cooldowns.put(key, time);
+        return true;
+    }
+
+    /**
+     * Checks whether a recorded player is within the new delay radius and below the new health threshold.
+     * @param distance The recorded distance of the player, or -1 if there was none.
+     * @param health The recorded health of the player.
+     * @return True if the player counts as a low-health player near the spawn.
+     */
+    private boolean isLowHealthNear(float distance, float health) {
+        return distance >= 0 && distance <= config.getSpawnDelayRadius() && health > 0 &&
+                health < config.getLowHealthThreshold();
+    }
+
+    /**
+     * Re-evaluates a recorded death cleanup with the new threshold and percentage.
+     * @param record The death record.
+     */
+    private void replayDeath(SpawnTrace.Record record) {
+        deaths += record.getDeaths();
+        if (record.getRemoved() > 0) {
+            recordedCleanups++;
+            recordedRemoved += record.getRemoved();
+        }
+        int nearby = record.getNearby();
+        if (config.isDeathCleanupEnabled() && nearby > config.getDeathMobThreshold()) {
+            int removed = Math.min(nearby, (int) Math.ceil(nearby * config.getDeathMobKillPercentage()));
+            if (removed > 0) {
+                replayedCleanups++;
+                replayedRemoved += removed;
+            }
+        }
+    }
+
+    /**
+     * Adds a replayed change in the mob population to the counts of later decisions.
+     * @param record The spawn whose outcome changed.
+     * @param delta +1 for a mob the new settings add, -1 for a mob they prevent.
+     * @param expiresAt The trace time at which the change is dropped again.
+     */
+    private void adjust(SpawnTrace.Record record, int delta, long expiresAt) {
+        long key = chunkKey(record);
+        int[] offsets = offsetsOf(record.getProfile());
+        offsets[types.length] += delta;
+        offsets[record.getType()] += delta;
+        chunkOffsets.increment(key, delta);
+        adjustments.addLast(new long[] {expiresAt, record.getType(), key, delta, record.getProfile()});
+    }
+
+    /**
+     * Drops the replayed changes whose mob lifetime has ended.
+     * @param time The current trace time.
+     */
+    private void expireAdjustments(long time) {
+        while (!adjustments.isEmpty() && adjustments.peekFirst()[0] <= time) {
+            long[] adjustment = adjustments.pollFirst();
+            int delta = (int) adjustment[3];
+            int[] offsets = offsetsOf((int) adjustment[4]);
+            offsets[types.length] -= delta;
+            offsets[(int) adjustment[1]] -= delta;
+            if (chunkOffsets.increment(adjustment[2], -delta) == 0) {
+                chunkOffsets.remove(adjustment[2], 0);
+            }
+        }
+    }
+
+    /**
+     * Gets the limits a world has in the new settings, resolving its profile by name on first use.
+     * @param reader The trace reader, for world names.
+     * @param world The trace world index.
+     * @return The mob limits indexed by trace type, or {@link ConfigSnapshot#NO_LIMIT}, with the hostile limit last.
+     */
+    private int[] limitsOf(SpawnTrace.Reader reader, int world) {
+        if (world >= worldLimits.length) {
+            worldLimits = Arrays.copyOf(worldLimits, world + 1);
+        }
+        int[] limits = worldLimits[world];
+        if (limits == null) {
+            int[] row = config.getLimitProfileRow(config.getLimitProfile(reader.getWorldName(world)));
+            limits = new int[types.length + 1];
+            for (int i = 0; i < types.length; i++) {
+                limits[i] = types[i] == null ? ConfigSnapshot.NO_LIMIT : row[types[i].ordinal()];
+            }
+            limits[types.length] = row[row.length - 1];
+            worldLimits[world] = limits;
+        }
+        return limits;
+    }
+
+    /**
+     * Gets the replayed count changes of a recorded limit pool.
+     * @param profile The recorded profile index of the pool.
+     * @return The changes indexed by trace type, with the hostile change last.
+     */
+    private int[] offsetsOf(int profile) {
+        if (profile >= poolOffsets.length) {
+            int length = poolOffsets.length;
+            poolOffsets = Arrays.copyOf(poolOffsets, profile + 1);
+            for (int i = length; i < poolOffsets.length; i++) {
+                poolOffsets[i] = new int[types.length + 1];
+            }
+        }
+        return poolOffsets[profile];
+    }
+
+    /**
+     * Packs the world and chunk of a record into a key.
+     * @param record The record.
+     * @return The packed world/chunk key.
+     */
+    private static long chunkKey(SpawnTrace.Record record) {
+        return CoordinateKeys.packWorldChunk(record.getWorld(), CoordinateKeys.toChunk(record.getX()),
+                CoordinateKeys.toChunk(record.getZ()));
+    }
+
+    /**
+     * Describes a decision.
+     * @param decision 0 for allowed, otherwise the index of the rejecting rule plus one.
+     * @return The decision as text.
+     */
+    private String describe(int decision) {
+        return decision == 0 ? "allowed" : decision <= rules.length ? rules[decision - 1] : "rule#" + decision;
+    }
+
+    /**
+     * Prints the current time bucket and starts a new one.
+     */
+    private void printBucket() {
+        if (bucketSpawns > 0) {
+            System.out.printf("  %-19s %8d %8d / %-6d %8d / %-6d%n", TIME_FORMAT.format(Instant.ofEpochMilli(bucketStart)),
+                    bucketSpawns, bucketRecordedAllowed, bucketReplayedAllowed, bucketRecordedMax, bucketReplayedMax);
+        }
+        bucketSpawns = 0;
+        bucketRecordedAllowed = 0;
+        bucketReplayedAllowed = 0;
+        bucketRecordedMax = 0;
+        bucketReplayedMax = 0;
+    }
+
+    /**
+     * Prints the totals, changed decisions, death cleanups and evaluation cost.
+     */
+    private void printSummary() {
+        System.out.println();
+        System.out.println("Spawn decisions: " + spawns + ", allowed: recorded " + recordedAllowed + ", replayed " +
+                replayedAllowed);
+        for (int i = 0; i < rules.length; i++) {
+            System.out.println("  Cancelled by " + rules[i] + ": recorded " + recordedCancels[i] + ", replayed " +
+                    replayedCancels[i]);
+        }
+        System.out.println("Changed decisions: " + (toAllowed + toCancelled) + " (now allowed: " + toAllowed +
+                ", now cancelled: " + toCancelled + "), cancelled by a different rule: " + otherRule);
+        for (Map.Entry<String, int[]> change : typeChanges.entrySet()) {
+            System.out.println("  " + change.getKey() + ": now allowed " + change.getValue()[0] + ", now cancelled " +
+                    change.getValue()[1]);
+        }
+        if (randomToAllowed + randomToCancelled > 0) {
+            System.out.println("Changed by a new random draw of the low-health cancel chance: " +
+                    (randomToAllowed + randomToCancelled) + " (now allowed: " + randomToAllowed + ", now cancelled: " +
+                    randomToCancelled + ")");
+        }
+        System.out.println("Death cleanups over " + deaths + " deaths: recorded " + recordedCleanups + " removing " +
+                recordedRemoved + " mobs, replayed " + replayedCleanups + " removing " + replayedRemoved + " mobs");
+        if (spawns > 0) {
+            double nanosPerDecision = (double) evaluationNanos / spawns;
+            System.out.printf("Evaluation cost: %.1f ns per decision (%.0f decisions/s)%n", nanosPerDecision,
+                    nanosPerDecision > 0 ? 1e9 / nanosPerDecision : 0);
+        }
+        if (!examples.isEmpty()) {
+            System.out.println("First changed decisions (recorded -> replayed):");
+            for (String example : examples) {
+                System.out.println("  " + example);
+            }
+        }
+    }
+}
\ No newline at end of file
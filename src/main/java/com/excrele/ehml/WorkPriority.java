@@ -0,0 +1,14 @@
+package com.excrele.ehml;
+
+/**
+ * Priority of a {@link WorkUnit}. Higher priorities run first each tick; units that wait long
+ * enough are promoted so low-priority work still makes progress under constant load.
+ */
+public enum WorkPriority {
+    /** Work with a visible effect for players, e.g. death cleanups. */
+    HIGH,
+    /** Requested maintenance, e.g. a full recount. */
+    NORMAL,
+    /** Background maintenance, e.g. periodic reconciliation. */
+    LOW
+}
\ No newline at end of file
@@ -0,0 +1,231 @@
+package com.excrele.ehml;
+
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs resumable {@link WorkUnit}s from all modules on the main thread under a shared per-tick
+ * time budget, driven by a single repeating task. Each tick, ready units are ordered by priority
+ * (promoted one level for every {@value #AGING_TICKS} ticks without running) and then by how
+ * long ago they last ran, and each gets a fair share of the remaining budget. Backlog length,
+ * time spent per tick and queue wait times are recorded in the {@link MetricsModule}.
+ */
+public class WorkScheduler {
+
+    /** Ticks a unit must wait without running to be promoted by one priority level. */
+    private static final int AGING_TICKS = 100;
+
+    /** Minimum slice given to a unit, so small budgets split across many units still make progress. */
+    private static final long MIN_SLICE_NANOS = 50_000;
+
+    /** Maximum passes over the ready units per tick. */
+    private static final int MAX_PASSES = 8;
+
+    private final JavaPlugin plugin;
+    private final ConfigManager configManager;
+    private final MetricsModule metrics;
+    private final Logger logger;
+    private final int tickStage;
+    private final int waitStage;
+    private final List<Entry> entries;
+    private final List<Entry> ready;
+    private final Comparator<Entry> order;
+    private long currentTick;
+    private long sequence;
+    private volatile int backlog;
+    private volatile long oldestWaitTicks;
+    private BukkitTask task;
+
+    /**
+     * A submitted unit and its scheduling state.
+     */
+    private static final class Entry {
+
+        private final String name;
+        private final WorkPriority priority;
+        private final WorkUnit unit;
+        private final long readyTick;
+        private final long sequence;
+        private long readyNanos;
+        private long lastRunTick;
+        private boolean started;
+        private boolean finished;
+
+        /**
+         * Initializes an entry.
+         * @param name The unit name.
+         * @param priority The unit priority.
+         * @param unit The unit.
+         * @param readyTick The first tick the unit may run.
+         * @param sequence The submission order.
+         */
+        private Entry(String name, WorkPriority priority, WorkUnit unit, long readyTick, long sequence) {
+            this.name = name;
+            this.priority = priority;
+            this.unit = unit;
+            this.readyTick = readyTick;
+            this.sequence = sequence;
+            this.lastRunTick = readyTick;
+        }
+    }
+
+    /**
+     * Initializes the work scheduler.
+     * @param plugin The main plugin instance for scheduling.
+     * @param configManager The configuration manager providing settings.
+     * @param metrics The metrics module for tick time and queue wait times.
+     */
+    public WorkScheduler(JavaPlugin plugin, ConfigManager configManager, MetricsModule metrics) {
+        this.plugin = plugin;
+        this.configManager = configManager;
+        this.metrics = metrics;
+        this.logger = Logger.getLogger("EHML");
+        this.tickStage = metrics.registerStage("WorkScheduler");
+        this.waitStage = metrics.registerStage("WorkQueueWait");
+        this.entries = new ArrayList<>();
+        this.ready = new ArrayList<>();
+        this.order = Comparator.comparingInt(this::effectivePriority)
+                .thenComparingLong(entry -> entry.lastRunTick)
+                .thenComparingLong(entry -> entry.sequence);
+    }
+
+    /**
+     * Starts the repeating task that runs queued work.
+     */
+    public void start() {
+        task = plugin.getServer().getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+    }
+
+    /**
+     * Cancels the repeating task and drops all queued work.
+     */
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        entries.clear();
+        backlog = 0;
+        oldestWaitTicks = 0;
+    }
+
+    /**
+     * Queues a unit to run from the next tick.
+     * @param name The unit name, used in warnings.
+     * @param priority The unit priority.
+     * @param unit The unit to run.
+     */
+    public void submit(String name, WorkPriority priority, WorkUnit unit) {
+        submit(name, priority, 0, unit);
+    }
+
+    /**
+     * Queues a unit to run after a delay.
+     * @param name The unit name, used in warnings.
+     * @param priority The unit priority.
+     * @param delayTicks The number of ticks to wait before the unit may run.
+     * @param unit The unit to run.
+     */
+    public void submit(String name, WorkPriority priority, long delayTicks, WorkUnit unit) {
+        entries.add(new Entry(name, priority, unit, currentTick + 1 + Math.max(0, delayTicks), sequence++));
+        backlog = entries.size();
+    }
+
+    /**
+     * Runs ready units until the tick budget is used.
+     */
+    private void tick() {
+        currentTick++;
+        if (entries.isEmpty()) {
+            return;
+        }
+        ConfigSnapshot config = configManager.getSnapshot();
+        long start = System.nanoTime();
+        long deadline = start + (long) (config.getWorkTickBudgetMs() * 1_000_000);
+
+        ready.clear();
+        long oldest = 0;
+        for (Entry entry : entries) {
+            if (entry.readyTick <= currentTick) {
+                if (entry.readyNanos == 0) {
+                    entry.readyNanos = start;
+                }
+                ready.add(entry);
+                oldest = Math.max(oldest, currentTick - entry.lastRunTick);
+            }
+        }
+        oldestWaitTicks = oldest;
+        ready.sort(order);
+
+        int remaining = ready.size();
+        for (int pass = 0; pass < MAX_PASSES && remaining > 0; pass++) {
+            int left = remaining;
+            for (Entry entry : ready) {
+                long now = System.nanoTime();
+                if (now >= deadline) {
+                    break;
+                }
+                if (entry.finished) {
+                    continue;
+                }
+                long slice = Math.max(MIN_SLICE_NANOS, (deadline - now) / left--);
+                runSlice(entry, Math.min(deadline, now + slice), config);
+                if (entry.finished) {
+                    remaining--;
+                }
+            }
+            if (System.nanoTime() >= deadline) {
+                break;
+            }
+        }
+
+        entries.removeIf(entry -> entry.finished);
+        ready.clear();
+        backlog = entries.size();
+        if (config.isMetricsEnabled()) {
+            metrics.recordLatency(tickStage, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Runs one slice of a unit, treating a failing unit as finished.
+     * @param entry The entry to run.
+     * @param sliceDeadline The deadline of the slice.
+     * @param config The configuration snapshot to read settings from.
+     */
+    private void runSlice(Entry entry, long sliceDeadline, ConfigSnapshot config) {
+        if (!entry.started) {
+            entry.started = true;
+            if (config.isMetricsEnabled()) {
+                metrics.recordLatency(waitStage, System.nanoTime() - entry.readyNanos);
+            }
+        }
+        entry.lastRunTick = currentTick;
+        try {
+            entry.finished = entry.unit.run(sliceDeadline);
+        } catch (RuntimeException e) {
+            logger.log(Level.SEVERE, "Work unit " + entry.name + " failed", e);
+            entry.finished = true;
+        }
+    }
+
+    /**
+     * Gets the priority of an entry after promotion for waiting.
+     * @param entry The entry.
+     * @return The effective priority ordinal; lower runs first.
+     */
+    private int effectivePriority(Entry entry) {
+        long waited = currentTick - entry.lastRunTick;
+        return Math.max(0, entry.priority.ordinal() - (int) (waited / AGING_TICKS));
+    }
+
+    // Getters for scheduler state, safe to read from any thread
+    public int getBacklog() { return backlog; }
+    public long getOldestWaitTicks() { return oldestWaitTicks; }
+    public int getTickStage() { return tickStage; }
+}
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.excrele.ehml;
+
+/**
+ * A resumable piece of main-thread work run by the {@link WorkScheduler}.
+ * Each call should do as much work as fits before the deadline and keep its position so the
+ * next call continues where it stopped.
+ */
+@FunctionalInterface
+public interface WorkUnit {
+
+    /**
+     * Runs the unit until it is finished or the deadline passes.
+     * @param deadline The {@link System#nanoTime()} value by which the call should return.
+     * @return True if the unit is finished, false to be run again on a later slice.
+     */
+    boolean run(long deadline);
+}
\ No newline at end of file
@@ -0,0 +1,73 @@
+package com.excrele.ehml;
+
+import org.bukkit.World;
+import java.util.Arrays;
+
+/**
+ * Assigns small, stable integer indexes to worlds so they can be packed into primitive keys
+ * and used to index arrays. Lookups compare world references in a short array, which is cheaper
+ * than hashing for the handful of worlds a server runs.
+ */
+public class WorldIndex {
+
+    /**
+     * Maximum number of worlds that can be indexed, bounded by the bits reserved in packed keys
+     * below the sign bit.
+     */
+    public static final int MAX_WORLDS = 512;
+
+    private World[] worlds;
+    private int count;
+
+    /**
+     * Initializes an empty world index.
+     */
+    public WorldIndex() {
+        this.worlds = new World[8];
+    }
+
+    /**
+     * Gets the index of a world, assigning the next free index to worlds seen for the first time.
+     * A world that is unloaded and loaded again is matched by UID and keeps its index.
+     * @param world The world.
+     * @return The world's index.
+     */
+    public int indexOf(World world) {
+        for (int i = 0; i < count; i++) {
+            if (worlds[i] == world) {
+                return i;
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            if (worlds[i].getUID().equals(world.getUID())) {
+                worlds[i] = world; // Reloaded world instance
+                return i;
+            }
+        }
+        if (count == MAX_WORLDS) {
+            throw new IllegalStateException("Too many worlds to index: " + MAX_WORLDS);
+        }
+        if (count == worlds.length) {
+            worlds = Arrays.copyOf(worlds, count * 2);
+        }
+        worlds[count] = world;
+        return count++;
+    }
+
+    /**
+     * Gets the world assigned to an index.
+     * @param index The world index.
+     * @return The world, or null if the index is unassigned.
+     */
+    public World get(int index) {
+        return index >= 0 && index < count ? worlds[index] : null;
+    }
+
+    /**
+     * Gets the number of indexed worlds.
+     * @return The world count.
+     */
+    public int size() {
+        return count;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,117 @@
+package com.excrele.ehml;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for {@link ChunkCooldownMap}.
+ */
+class ChunkCooldownMapTest {
+
+    /** Slot mask of a map tracking 4 chunks. */
+    private static final int MASK = OpenAddressing.capacityFor(4) - 1;
+
+    @Test
+    void putAndGet() {
+        ChunkCooldownMap map = new ChunkCooldownMap(4);
+        map.put(1, 100);
+        map.put(1, 150);
+        assertEquals(150, map.get(1));
+        assertEquals(-1, map.get(2));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void putAtCapacityEvictsOlderHalf() {
+        ChunkCooldownMap map = new ChunkCooldownMap(4);
+        for (int i = 1; i <= 4; i++) {
+            map.put(i, i * 100L);
+        }
+        map.put(5, 500);
+        assertEquals(-1, map.get(1));
+        assertEquals(-1, map.get(2));
+        assertEquals(300, map.get(3));
+        assertEquals(400, map.get(4));
+        assertEquals(500, map.get(5));
+        assertEquals(3, map.size());
+    }
+
+    @Test
+    void putAtCapacityWithEqualTimesEvictsAll() {
+        ChunkCooldownMap map = new ChunkCooldownMap(4);
+        for (int i = 1; i <= 4; i++) {
+            map.put(i, 100);
+        }
+        map.put(5, 100);
+        assertEquals(1, map.size());
+        assertEquals(100, map.get(5));
+        assertEquals(-1, map.get(1));
+    }
+
+    @Test
+    void putAtCapacityEvictsTimesAheadOfClock() {
+        ChunkCooldownMap map = new ChunkCooldownMap(4);
+        for (int i = 1; i <= 4; i++) {
+            map.put(i, Long.MAX_VALUE - i);
+        }
+        map.put(5, 0);
+        assertEquals(0, map.get(5));
+        assertEquals(3, map.size());
+    }
+
+    @Test
+    void updateAtCapacityKeepsEntries() {
+        ChunkCooldownMap map = new ChunkCooldownMap(4);
+        for (int i = 1; i <= 4; i++) {
+            map.put(i, i * 100L);
+        }
+        map.put(1, 1000);
+        assertEquals(4, map.size());
+        assertEquals(1000, map.get(1));
+        assertEquals(200, map.get(2));
+    }
+
+    @Test
+    void evictBeforeRebuildsWrappedRuns() {
+        long[] keys = ProbeKeys.withHome(MASK, MASK, 3);
+        ChunkCooldownMap map = new ChunkCooldownMap(4);
+        map.put(keys[0], 100);
+        map.put(keys[1], 200);
+        map.put(keys[2], 300);
+
+        map.evictBefore(150);
+        assertEquals(-1, map.get(keys[0]));
+        assertEquals(200, map.get(keys[1]));
+        assertEquals(300, map.get(keys[2]));
+        assertEquals(2, map.size());
+
+        map.evictBefore(1000);
+        assertEquals(0, map.size());
+        assertEquals(-1, map.get(keys[2]));
+    }
+
+    @Test
+    void sentinelKeys() {
+        ChunkCooldownMap map = new ChunkCooldownMap(4);
+        long[] keys = {0, -1, Long.MAX_VALUE, Long.MIN_VALUE + 1};
+        for (int i = 0; i < keys.length; i++) {
+            map.put(keys[i], i);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(i, map.get(keys[i]));
+        }
+        assertThrows(IllegalArgumentException.class, () -> map.put(Long.MIN_VALUE, 1));
+        assertEquals(-1, map.get(Long.MIN_VALUE));
+        assertEquals(keys.length, map.size());
+    }
+
+    @Test
+    void worldChunkKeysAreStorable() {
+        ChunkCooldownMap map = new ChunkCooldownMap(4);
+        long key = CoordinateKeys.packWorldChunk(WorldIndex.MAX_WORLDS - 1, 0, 0);
+        map.put(key, 100);
+        assertEquals(100, map.get(key));
+    }
+}
\ No newline at end of file
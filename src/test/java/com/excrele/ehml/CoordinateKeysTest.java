@@ -0,0 +1,82 @@
+package com.excrele.ehml;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link CoordinateKeys}.
+ */
+class CoordinateKeysTest {
+
+    /** Largest chunk coordinate inside the vanilla world border. */
+    private static final int BORDER_CHUNK = 30_000_000 >> 4;
+
+    /** Chunk coordinates at the edges of the 27-bit packed range and the world border. */
+    private static final int[] CHUNKS = {0, 1, -1, BORDER_CHUNK, -BORDER_CHUNK, (1 << 26) - 1, -(1 << 26)};
+
+    @Test
+    void packRoundTrips() {
+        int[] values = {0, 1, -1, Integer.MAX_VALUE, Integer.MIN_VALUE};
+        for (int x : values) {
+            for (int z : values) {
+                long key = CoordinateKeys.pack(x, z);
+                assertEquals(x, CoordinateKeys.unpackX(key));
+                assertEquals(z, CoordinateKeys.unpackZ(key));
+            }
+        }
+    }
+
+    @Test
+    void packWorldChunkRoundTrips() {
+        int[] worlds = {0, 1, WorldIndex.MAX_WORLDS - 1};
+        for (int world : worlds) {
+            for (int x : CHUNKS) {
+                for (int z : CHUNKS) {
+                    long key = CoordinateKeys.packWorldChunk(world, x, z);
+                    assertEquals(world, CoordinateKeys.unpackWorldIndex(key));
+                    assertEquals(x, CoordinateKeys.unpackWorldChunkX(key));
+                    assertEquals(z, CoordinateKeys.unpackWorldChunkZ(key));
+                }
+            }
+        }
+    }
+
+    @Test
+    void packWorldChunkKeepsSignBitClear() {
+        for (int x : CHUNKS) {
+            for (int z : CHUNKS) {
+                long key = CoordinateKeys.packWorldChunk(WorldIndex.MAX_WORLDS - 1, x, z);
+                assertTrue(key >= 0);
+                assertNotEquals(Long.MIN_VALUE, key);
+            }
+        }
+    }
+
+    @Test
+    void packWorldChunkSeparatesWorlds() {
+        assertNotEquals(CoordinateKeys.packWorldChunk(0, -1, -1), CoordinateKeys.packWorldChunk(1, -1, -1));
+        assertNotEquals(CoordinateKeys.packWorldChunk(0, 0, -1), CoordinateKeys.packWorldChunk(0, -1, 0));
+    }
+
+    @Test
+    void packBlockSeparatesNeighbours() {
+        long key = CoordinateKeys.packBlock(-1, -64, -1);
+        assertNotEquals(key, CoordinateKeys.packBlock(0, -64, -1));
+        assertNotEquals(key, CoordinateKeys.packBlock(-1, -63, -1));
+        assertNotEquals(key, CoordinateKeys.packBlock(-1, -64, 0));
+        assertNotEquals(CoordinateKeys.packBlock(0, 319, 0), CoordinateKeys.packBlock(0, -64, 0));
+    }
+
+    @Test
+    void toChunkRoundsDown() {
+        assertEquals(0, CoordinateKeys.toChunk(0));
+        assertEquals(0, CoordinateKeys.toChunk(15));
+        assertEquals(1, CoordinateKeys.toChunk(16));
+        assertEquals(-1, CoordinateKeys.toChunk(-1));
+        assertEquals(-1, CoordinateKeys.toChunk(-16));
+        assertEquals(-2, CoordinateKeys.toChunk(-17));
+    }
+}
\ No newline at end of file
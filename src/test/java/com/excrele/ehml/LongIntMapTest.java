@@ -0,0 +1,127 @@
+package com.excrele.ehml;
+
+import org.junit.jupiter.api.Test;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for {@link LongIntMap}.
+ */
+class LongIntMapTest {
+
+    /** Slot mask of a map sized for 4 entries. */
+    private static final int MASK = OpenAddressing.capacityFor(4) - 1;
+
+    @Test
+    void putGetAndReplace() {
+        LongIntMap map = new LongIntMap(4);
+        map.put(1, 10);
+        map.put(2, 20);
+        map.put(1, 11);
+        assertEquals(2, map.size());
+        assertEquals(11, map.get(1, -1));
+        assertEquals(20, map.get(2, -1));
+        assertEquals(-1, map.get(3, -1));
+    }
+
+    @Test
+    void growsPastInitialCapacity() {
+        LongIntMap map = new LongIntMap(4);
+        for (int i = 0; i < 1000; i++) {
+            map.put(i * 31L, i);
+        }
+        assertEquals(1000, map.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, map.get(i * 31L, -1));
+        }
+    }
+
+    @Test
+    void removeWrapsAroundTableEnd() {
+        long[] keys = ProbeKeys.withHome(MASK, MASK, 3);
+        long zeroHome = ProbeKeys.withHome(0, MASK, 1)[0];
+        LongIntMap map = new LongIntMap(4);
+        for (int i = 0; i < keys.length; i++) {
+            map.put(keys[i], i);
+        }
+        map.put(zeroHome, 9); // Lands after the run that wrapped to slots 0 and 1
+
+        assertEquals(0, map.remove(keys[0], -1));
+        assertEquals(1, map.get(keys[1], -1));
+        assertEquals(2, map.get(keys[2], -1));
+        assertEquals(9, map.get(zeroHome, -1));
+
+        assertEquals(2, map.remove(keys[2], -1));
+        assertEquals(1, map.get(keys[1], -1));
+        assertEquals(9, map.get(zeroHome, -1));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    void removeKeepsEntriesAtTheirHome() {
+        long[] run = ProbeKeys.withHome(MASK, MASK, 2);
+        long zeroHome = ProbeKeys.withHome(0, MASK, 1)[0];
+        LongIntMap map = new LongIntMap(4);
+        map.put(run[0], 1);
+        map.put(zeroHome, 2); // At its home slot 0
+        map.put(run[1], 3); // Wraps past slot 0 to slot 1
+
+        map.remove(run[0], -1);
+        assertEquals(2, map.get(zeroHome, -1));
+        assertEquals(3, map.get(run[1], -1));
+        assertEquals(-1, map.get(run[0], -1));
+    }
+
+    @Test
+    void incrementRemovesEntriesReachingZero() {
+        LongIntMap map = new LongIntMap(4);
+        assertEquals(2, map.increment(5, 2));
+        assertEquals(0, map.increment(5, -2));
+        assertEquals(0, map.size());
+        assertEquals(0, map.increment(6, 0));
+        assertEquals(0, map.size());
+    }
+
+    @Test
+    void sentinelKeys() {
+        LongIntMap map = new LongIntMap(4);
+        long[] keys = {0, -1, Long.MAX_VALUE, Long.MIN_VALUE + 1};
+        for (int i = 0; i < keys.length; i++) {
+            map.put(keys[i], i);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(i, map.get(keys[i], -1));
+        }
+        assertThrows(IllegalArgumentException.class, () -> map.put(Long.MIN_VALUE, 1));
+        assertThrows(IllegalArgumentException.class, () -> map.increment(Long.MIN_VALUE, 1));
+        assertEquals(-1, map.get(Long.MIN_VALUE, -1));
+        assertEquals(-1, map.remove(Long.MIN_VALUE, -1));
+        assertEquals(keys.length, map.size());
+    }
+
+    @Test
+    void matchesHashMapUnderRandomOperations() {
+        Random random = new Random(42);
+        LongIntMap map = new LongIntMap(4);
+        Map<Long, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 100_000; i++) {
+            long key = random.nextInt(256) - 128;
+            int op = random.nextInt(3);
+            if (op == 0) {
+                map.put(key, i);
+                expected.put(key, i);
+            } else if (op == 1) {
+                Integer removed = expected.remove(key);
+                assertEquals(removed == null ? -1 : removed, map.remove(key, -1));
+            } else {
+                assertEquals((int) expected.getOrDefault(key, -1), map.get(key, -1));
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        map.forEach((key, value) -> assertEquals((int) expected.get(key), value));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,118 @@
+package com.excrele.ehml;
+
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link LongObjectMap}.
+ */
+class LongObjectMapTest {
+
+    /** Slot mask of a map sized for 4 entries. */
+    private static final int MASK = OpenAddressing.capacityFor(4) - 1;
+
+    @Test
+    void putGetAndReplace() {
+        LongObjectMap<String> map = new LongObjectMap<>(4);
+        map.put(1, "a");
+        map.put(2, "b");
+        map.put(1, "c");
+        assertEquals(2, map.size());
+        assertEquals("c", map.get(1));
+        assertEquals("b", map.get(2));
+        assertNull(map.get(3));
+    }
+
+    @Test
+    void growsPastInitialCapacity() {
+        LongObjectMap<Integer> map = new LongObjectMap<>(4);
+        for (int i = 0; i < 1000; i++) {
+            map.put(i * 31L, i);
+        }
+        assertEquals(1000, map.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(Integer.valueOf(i), map.get(i * 31L));
+        }
+    }
+
+    @Test
+    void removeWrapsAroundTableEnd() {
+        long[] keys = ProbeKeys.withHome(MASK, MASK, 3);
+        long zeroHome = ProbeKeys.withHome(0, MASK, 1)[0];
+        LongObjectMap<String> map = new LongObjectMap<>(4);
+        map.put(keys[0], "a");
+        map.put(keys[1], "b");
+        map.put(keys[2], "c");
+        map.put(zeroHome, "z"); // Lands after the run that wrapped to slots 0 and 1
+
+        assertEquals("a", map.remove(keys[0]));
+        assertEquals("b", map.get(keys[1]));
+        assertEquals("c", map.get(keys[2]));
+        assertEquals("z", map.get(zeroHome));
+
+        assertEquals("b", map.remove(keys[1]));
+        assertEquals("c", map.get(keys[2]));
+        assertEquals("z", map.get(zeroHome));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    void removeReleasesValues() {
+        LongObjectMap<String> map = new LongObjectMap<>(4);
+        map.put(1, "a");
+        map.remove(1);
+        List<String> values = new ArrayList<>();
+        map.forEachValue(values::add);
+        assertEquals(List.of(), values);
+        assertNull(map.remove(1));
+    }
+
+    @Test
+    void sentinelKeys() {
+        LongObjectMap<Long> map = new LongObjectMap<>(4);
+        long[] keys = {0, -1, Long.MAX_VALUE, Long.MIN_VALUE + 1};
+        for (long key : keys) {
+            map.put(key, key);
+        }
+        for (long key : keys) {
+            assertEquals(Long.valueOf(key), map.get(key));
+        }
+        assertThrows(IllegalArgumentException.class, () -> map.put(Long.MIN_VALUE, 0L));
+        assertNull(map.get(Long.MIN_VALUE));
+        assertNull(map.remove(Long.MIN_VALUE));
+        assertEquals(keys.length, map.size());
+    }
+
+    @Test
+    void matchesHashMapUnderRandomOperations() {
+        Random random = new Random(42);
+        LongObjectMap<Integer> map = new LongObjectMap<>(4);
+        Map<Long, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 100_000; i++) {
+            long key = random.nextInt(256) - 128;
+            int op = random.nextInt(3);
+            if (op == 0) {
+                map.put(key, i);
+                expected.put(key, i);
+            } else if (op == 1) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.get(key), map.get(key));
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        List<Integer> values = new ArrayList<>();
+        map.forEachValue(values::add);
+        assertEquals(expected.size(), values.size());
+        assertTrue(expected.values().containsAll(values));
+    }
+}
\ No newline at end of file
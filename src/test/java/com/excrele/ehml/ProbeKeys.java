@@ -0,0 +1,29 @@
+package com.excrele.ehml;
+
+/**
+ * Finds keys with a chosen home slot, so map tests can build probe runs that collide or wrap
+ * around the end of the table.
+ */
+final class ProbeKeys {
+
+    private ProbeKeys() {
+    }
+
+    /**
+     * Finds keys whose home slot is the given slot.
+     * @param slot The home slot.
+     * @param mask The table capacity minus one.
+     * @param count The number of keys to find.
+     * @return The keys, in ascending order.
+     */
+    static long[] withHome(int slot, int mask, int count) {
+        long[] keys = new long[count];
+        int found = 0;
+        for (long key = 0; found < count; key++) {
+            if (OpenAddressing.hash(key, mask) == slot) {
+                keys[found++] = key;
+            }
+        }
+        return keys;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,39 @@
+package com.excrele.ehml;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the key packing of {@link StatePersistenceModule}.
+ */
+class StatePersistenceModuleTest {
+
+    /** Chunk coordinates at the edges of the 27-bit packed range and the world border. */
+    private static final int[] CHUNKS = {0, 1, -1, 30_000_000 >> 4, -(30_000_000 >> 4), (1 << 26) - 1, -(1 << 26)};
+
+    @Test
+    void chunkTypeKeyRoundTrips() {
+        for (int x : CHUNKS) {
+            for (int z : CHUNKS) {
+                for (int ordinal : new int[] {0, 1, 255}) {
+                    long key = StatePersistenceModule.chunkTypeKey(x, z, ordinal);
+                    assertEquals(x, StatePersistenceModule.chunkX(key));
+                    assertEquals(z, StatePersistenceModule.chunkZ(key));
+                    assertEquals(ordinal, (int) (key & 0xFF));
+                    assertTrue(key >= 0);
+                }
+            }
+        }
+    }
+
+    @Test
+    void chunkTypeKeySortsByChunkFirst() {
+        long first = StatePersistenceModule.chunkTypeKey(3, 7, 0);
+        long last = StatePersistenceModule.chunkTypeKey(3, 7, 255);
+        long next = StatePersistenceModule.chunkTypeKey(3, 8, 0);
+        assertTrue(first < last);
+        assertTrue(last < next);
+    }
+}
\ No newline at end of file